@@ -3,83 +3,315 @@ package com.nwidart.fulltable;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nwidart.loganalyzer.model.Item;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
+/**
+ * Item names and prices from {@code full_table.json}.
+ * <p>
+ * The table is read from the classpath, or from {@code tlitracker.prices.file} when set. That file is then watched: a
+ * change is parsed on a background thread and swapped in as a new {@link PriceSnapshot} in a single volatile write, so
+ * readers never wait, and {@link PricesReloaded} is published once per swap. A file that fails to parse (e.g. caught
+ * half-written) leaves the current snapshot in place. Every version loaded is also added to the {@link PriceHistory},
+ * swapped in the same way, to price drops at the time they happened.
+ */
 @Service
 public class FullTableService implements ApplicationRunner {
 
   private static final Logger log = LoggerFactory.getLogger(FullTableService.class);
+  private static final String CLASSPATH_TABLE = "full_table.json";
+  /** Wait for the file to stay quiet this long before reading it. */
+  private static final long SETTLE_MS = 200;
+  /** Check the file's modification time this often, in case the watch service misses a change. */
+  private static final long RECHECK_MS = 2000;
 
   private final ObjectMapper objectMapper;
+  private final ApplicationEventPublisher eventPublisher;
+  private final @Nullable Path pricesFile;
 
-  private volatile Map<String, FullTableItem> itemsById = Collections.emptyMap();
+  /** Replaced as a whole on every swap, like the snapshot. */
+  private volatile PriceHistory history = PriceHistory.EMPTY;
 
-  public FullTableService(ObjectMapper objectMapper) {
+  private volatile PriceSnapshot snapshot = PriceSnapshot.EMPTY;
+  private volatile @Nullable FileTime loadedModifiedTime;
+  private volatile @Nullable Thread watcher;
+  private volatile @Nullable WatchService watchService;
+
+  public FullTableService(ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher,
+      @Value("${tlitracker.prices.file:}") String pricesFile) {
     this.objectMapper = objectMapper;
+    this.eventPublisher = eventPublisher;
+    this.pricesFile = pricesFile.isBlank() ? null : Path.of(pricesFile).toAbsolutePath();
   }
 
   @Override
   public void run(ApplicationArguments args) {
     load();
+    startWatching();
   }
 
   /**
-   * Loads the JSON from classpath into memory. Throws a runtime exception if loading fails, preventing the app from starting silently with empty data.
+   * Loads the JSON from the prices file, or the classpath, into memory. Throws a runtime exception if loading fails,
+   * preventing the app from starting silently with empty data.
    */
   public synchronized void load() {
-    ClassPathResource resource = new ClassPathResource("full_table.json");
+    Path file = pricesFile;
+    if (file != null && Files.isRegularFile(file)) {
+      try {
+        swap(readFile(file));
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to load/parse " + file, e);
+      }
+      return;
+    }
+    if (file != null) {
+      log.warn("Prices file {} not found, using the bundled {} until it appears", file, CLASSPATH_TABLE);
+    }
+    ClassPathResource resource = new ClassPathResource(CLASSPATH_TABLE);
     if (!resource.exists()) {
       throw new IllegalStateException("Resource 'full_table.json' not found on classpath");
     }
     try (InputStream is = resource.getInputStream()) {
-      Map<String, FullTableItem> parsed = objectMapper.readValue(is, new TypeReference<Map<String, FullTableItem>>() {
-      });
-      this.itemsById = Collections.unmodifiableMap(parsed);
-      log.info("Loaded full_table.json with {} entries", parsed.size());
+      swap(newSnapshot(parse(is), "classpath:" + CLASSPATH_TABLE));
     } catch (IOException e) {
       throw new IllegalStateException("Failed to load/parse full_table.json", e);
     }
   }
 
+  /**
+   * Read the prices file again and, if it parses, swap it in and publish {@link PricesReloaded}.
+   *
+   * @return whether a new snapshot was swapped in
+   */
+  public boolean reload() {
+    Path file = pricesFile;
+    if (file == null || !Files.isRegularFile(file)) {
+      return false;
+    }
+    PriceSnapshot loaded;
+    synchronized (this) {
+      try {
+        loaded = readFile(file);
+      } catch (IOException | RuntimeException e) {
+        log.warn("Failed to reload {}, keeping version {}", file, snapshot.version(), e);
+        return false;
+      }
+      swap(loaded);
+    }
+    eventPublisher.publishEvent(new PricesReloaded(this, loaded));
+    return true;
+  }
+
+  private PriceSnapshot readFile(Path file) throws IOException {
+    // Remembered even if parsing fails, so a broken file is retried only once it changes again
+    this.loadedModifiedTime = Files.getLastModifiedTime(file);
+    try (InputStream is = Files.newInputStream(file)) {
+      return newSnapshot(parse(is), file.toString());
+    }
+  }
+
+  private Map<String, FullTableItem> parse(InputStream is) throws IOException {
+    return objectMapper.readValue(is, new TypeReference<Map<String, FullTableItem>>() {
+    });
+  }
+
+  private PriceSnapshot newSnapshot(Map<String, FullTableItem> parsed, String source) {
+    return new PriceSnapshot(snapshot.version() + 1, Collections.unmodifiableMap(parsed), PriceTable.of(parsed),
+        source, Instant.now());
+  }
+
+  private void swap(PriceSnapshot loaded) {
+    this.history = history.with(loaded.itemsById());
+    this.snapshot = loaded;
+    log.info("Loaded {} with {} entries (version {})", loaded.source(), loaded.itemsById().size(), loaded.version());
+  }
+
+  private void startWatching() {
+    Path file = pricesFile;
+    if (file == null || watcher != null) {
+      return;
+    }
+    Path dir = file.getParent();
+    try {
+      WatchService ws = dir.getFileSystem().newWatchService();
+      dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+      this.watchService = ws;
+    } catch (IOException | UnsupportedOperationException e) {
+      log.info("Cannot watch {}, checking its modification time every {} ms instead", dir, RECHECK_MS, e);
+    }
+    Thread thread = new Thread(() -> watch(file), "price-file-watcher");
+    thread.setDaemon(true);
+    this.watcher = thread;
+    thread.start();
+    log.info("Watching {} for price changes", file);
+  }
+
+  private void watch(Path file) {
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        boolean changed = awaitChange(file, RECHECK_MS);
+        if (!changed && !isModifiedSinceLoad(file)) {
+          continue;
+        }
+        // Let the writer finish: wait until no event arrived for SETTLE_MS
+        while (awaitChange(file, SETTLE_MS)) {
+          // keep waiting
+        }
+        reload();
+      } catch (InterruptedException | ClosedWatchServiceException e) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Wait up to {@code millis} for an event on {@code file}.
+   */
+  private boolean awaitChange(Path file, long millis) throws InterruptedException {
+    WatchService ws = watchService;
+    if (ws == null) {
+      Thread.sleep(millis);
+      return false;
+    }
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+    boolean changed = false;
+    long remaining;
+    while (!changed && (remaining = deadline - System.nanoTime()) > 0) {
+      WatchKey key = ws.poll(remaining, TimeUnit.NANOSECONDS);
+      if (key == null) {
+        break;
+      }
+      changed = key.pollEvents().stream().anyMatch(event -> file.getFileName().equals(event.context()));
+      key.reset();
+    }
+    return changed;
+  }
+
+  private boolean isModifiedSinceLoad(Path file) {
+    try {
+      return Files.isRegularFile(file) && !Files.getLastModifiedTime(file).equals(loadedModifiedTime);
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  @PreDestroy
+  void stopWatching() {
+    Thread thread = watcher;
+    watcher = null;
+    if (thread != null) {
+      thread.interrupt();
+    }
+    WatchService ws = watchService;
+    watchService = null;
+    if (ws != null) {
+      try {
+        ws.close();
+      } catch (IOException e) {
+        log.debug("Failed to close the price file watch service", e);
+      }
+    }
+  }
+
+  /**
+   * The current version of the table; keep the returned snapshot to read several values from the same version.
+   */
+  public PriceSnapshot snapshot() {
+    return snapshot;
+  }
+
   public Optional<FullTableItem> findById(String id) {
-    return Optional.ofNullable(itemsById.get(id));
+    return Optional.ofNullable(snapshot.itemsById().get(id));
   }
 
   public Map<String, FullTableItem> all() {
-    return itemsById;
+    return snapshot.itemsById();
   }
 
   public int size() {
-    return itemsById.size();
+    return snapshot.itemsById().size();
+  }
+
+  /**
+   * Price of {@code configBaseId}, 0 when it is unknown. Does not allocate.
+   */
+  public double priceOf(int configBaseId) {
+    return snapshot.table().priceOf(configBaseId);
+  }
+
+  /**
+   * Name of {@code configBaseId}, "N/A" when it is unknown. Does not allocate.
+   */
+  public String nameOf(int configBaseId) {
+    String name = snapshot.table().nameOf(configBaseId);
+    return name == null ? "N/A" : name;
+  }
+
+  /**
+   * Price of {@code configBaseId}, 0 when it is unknown.
+   */
+  public double priceOf(String configBaseId) {
+    return snapshot.priceOf(configBaseId);
+  }
+
+  /**
+   * Price of {@code configBaseId} that applied at {@code at}, according to the {@code last_update} of every version of
+   * the table loaded so far; 0 when it is unknown. Takes no lock and does not allocate.
+   */
+  public double priceAt(int configBaseId, Instant at) {
+    return history.priceAt(configBaseId, at);
+  }
+
+  public PriceHistory priceHistory() {
+    return history;
+  }
+
+  public PriceTable priceTable() {
+    return snapshot.table();
   }
 
   public Float getPriceForItem(Item item) {
-    if (item.getConfigBaseId() == null) {
+    String configBaseId = item.getConfigBaseId();
+    if (configBaseId == null) {
       return 0f;
     }
-
-    return findById(item.getConfigBaseId())
-        .map(FullTableItem::price)
-        .map(Double::floatValue)
-        .orElse(0f);
+    return (float) priceOf(configBaseId);
   }
 
   public String getNameForItem(Item item) {
-    if (item.getConfigBaseId() == null) {
+    String configBaseId = item.getConfigBaseId();
+    if (configBaseId == null) {
       return "N/A";
     }
-
-    return findById(item.getConfigBaseId())
+    PriceSnapshot current = snapshot;
+    int id = PriceTable.parseId(configBaseId);
+    String name = id >= 0 ? current.table().nameOf(id) : null;
+    if (name != null) {
+      return name;
+    }
+    return Optional.ofNullable(current.itemsById().get(configBaseId))
         .map(FullTableItem::name)
         .orElse("N/A");
   }
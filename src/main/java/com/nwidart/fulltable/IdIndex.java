@@ -0,0 +1,60 @@
+package com.nwidart.fulltable;
+
+import java.util.Arrays;
+
+/**
+ * Maps non-negative int ids to their index in parallel value arrays, without boxing: an open-addressing hash table
+ * (linear probing, at most half full). Immutable once built.
+ */
+final class IdIndex {
+
+  private static final int FREE = -1;
+
+  private final int[] keys;
+  /** Index of the id at the same slot in {@link #keys}. */
+  private final int[] indexes;
+  private final int mask;
+
+  /**
+   * @param ids distinct non-negative ids; {@code ids[i]} gets index {@code i}
+   */
+  IdIndex(int[] ids) {
+    int capacity = Integer.highestOneBit(Math.max(2, ids.length) * 2 - 1) << 1;
+    this.keys = new int[capacity];
+    this.indexes = new int[capacity];
+    this.mask = capacity - 1;
+    Arrays.fill(keys, FREE);
+    for (int i = 0; i < ids.length; i++) {
+      int slot = slotOf(ids[i]);
+      keys[slot] = ids[i];
+      indexes[slot] = i;
+    }
+  }
+
+  /**
+   * Slot holding {@code id}, or the free slot where it would go.
+   */
+  private int slotOf(int id) {
+    int slot = mix(id) & mask;
+    while (keys[slot] != FREE && keys[slot] != id) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private static int mix(int id) {
+    int h = id * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Index of {@code id}, or -1 when it is unknown.
+   */
+  int indexOf(int id) {
+    if (id < 0) {
+      return -1;
+    }
+    int slot = slotOf(id);
+    return keys[slot] == FREE ? -1 : indexes[slot];
+  }
+}
@@ -0,0 +1,119 @@
+package com.nwidart.fulltable;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Every price seen for each item, keyed by its {@code last_update}, across all the versions of the full table loaded.
+ * <p>
+ * Immutable: {@link #with(Map)} returns a new history, which {@link FullTableService} swaps in on reload, so
+ * {@link #priceAt(int, Instant)} takes no lock. Items are keyed by numeric {@code configBaseId} in an {@link IdIndex},
+ * like {@link PriceTable}; each keeps two parallel sorted arrays (update time in epoch seconds, price), shared with the
+ * next history unless a new {@code last_update} comes in, and a lookup is a binary search. Entries whose key is not a
+ * non-negative int are left out.
+ */
+public final class PriceHistory {
+
+  public static final PriceHistory EMPTY = new PriceHistory(new int[0], new Series[0]);
+
+  private final int[] ids;
+  private final Series[] series;
+  private final IdIndex index;
+
+  private PriceHistory(int[] ids, Series[] series) {
+    this.ids = ids;
+    this.series = series;
+    this.index = new IdIndex(ids);
+  }
+
+  /**
+   * This history plus the prices of a table version; entries already known with the same {@code last_update} are
+   * replaced.
+   */
+  public PriceHistory with(Map<String, FullTableItem> itemsById) {
+    Map<Integer, Series> merged = new HashMap<>(Math.max(16, (ids.length + itemsById.size()) * 2));
+    for (int i = 0; i < ids.length; i++) {
+      merged.put(ids[i], series[i]);
+    }
+    itemsById.forEach((key, item) -> {
+      int id = PriceTable.parseId(key);
+      if (id >= 0) {
+        Series known = merged.get(id);
+        merged.put(id, known == null ? Series.of(item.lastUpdate(), item.price())
+            : known.with(item.lastUpdate(), item.price()));
+      }
+    });
+    int[] newIds = new int[merged.size()];
+    Series[] newSeries = new Series[newIds.length];
+    int i = 0;
+    for (Map.Entry<Integer, Series> entry : merged.entrySet()) {
+      newIds[i] = entry.getKey();
+      newSeries[i] = entry.getValue();
+      i++;
+    }
+    return new PriceHistory(newIds, newSeries);
+  }
+
+  /**
+   * Price of {@code configBaseId} that applied at {@code at}: the last one updated at or before it, or the oldest one
+   * known when every update is later. 0 when the item is unknown. Does not allocate.
+   */
+  public double priceAt(int configBaseId, Instant at) {
+    int i = index.indexOf(configBaseId);
+    return i < 0 ? 0 : series[i].at(at.getEpochSecond());
+  }
+
+  /**
+   * Number of prices known for {@code configBaseId}.
+   */
+  public int versions(int configBaseId) {
+    int i = index.indexOf(configBaseId);
+    return i < 0 ? 0 : series[i].updates.length;
+  }
+
+  public int size() {
+    return ids.length;
+  }
+
+  private record Series(long[] updates, double[] prices) {
+
+    static Series of(long update, double price) {
+      return new Series(new long[]{update}, new double[]{price});
+    }
+
+    /**
+     * This series with {@code price} at {@code update}; itself when nothing changes.
+     */
+    Series with(long update, double price) {
+      int index = Arrays.binarySearch(updates, update);
+      if (index >= 0) {
+        if (prices[index] == price) {
+          return this;
+        }
+        double[] replaced = prices.clone();
+        replaced[index] = price;
+        return new Series(updates, replaced);
+      }
+      int insertAt = -index - 1;
+      long[] newUpdates = new long[updates.length + 1];
+      double[] newPrices = new double[prices.length + 1];
+      System.arraycopy(updates, 0, newUpdates, 0, insertAt);
+      System.arraycopy(prices, 0, newPrices, 0, insertAt);
+      newUpdates[insertAt] = update;
+      newPrices[insertAt] = price;
+      System.arraycopy(updates, insertAt, newUpdates, insertAt + 1, updates.length - insertAt);
+      System.arraycopy(prices, insertAt, newPrices, insertAt + 1, prices.length - insertAt);
+      return new Series(newUpdates, newPrices);
+    }
+
+    double at(long epochSecond) {
+      int index = Arrays.binarySearch(updates, epochSecond);
+      if (index < 0) {
+        index = Math.max(0, -index - 2);
+      }
+      return prices[index];
+    }
+  }
+}
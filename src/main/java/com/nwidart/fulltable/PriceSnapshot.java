@@ -0,0 +1,34 @@
+package com.nwidart.fulltable;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * One immutable version of the full table, swapped as a whole on reload.
+ *
+ * @param version  increases with every successful load, starting at 1
+ * @param source   where the table was read from
+ * @param loadedAt when it was read
+ */
+public record PriceSnapshot(
+    long version,
+    Map<String, FullTableItem> itemsById,
+    PriceTable table,
+    String source,
+    Instant loadedAt
+) {
+
+  public static final PriceSnapshot EMPTY = new PriceSnapshot(0, Map.of(), PriceTable.EMPTY, "none", Instant.EPOCH);
+
+  /**
+   * Price of {@code configBaseId} in this version, 0 when it is unknown.
+   */
+  public double priceOf(String configBaseId) {
+    int id = PriceTable.parseId(configBaseId);
+    if (id >= 0) {
+      return table.priceOf(id);
+    }
+    FullTableItem item = itemsById.get(configBaseId);
+    return item == null ? 0 : item.price();
+  }
+}
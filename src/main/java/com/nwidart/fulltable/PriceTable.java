@@ -0,0 +1,90 @@
+package com.nwidart.fulltable;
+
+import java.util.Arrays;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Prices and names of the full table, keyed by numeric {@code configBaseId}, for lookups that neither box nor allocate.
+ * <p>
+ * Ids are stored in an open-addressing hash table ({@link IdIndex}) mapping each id to an index into parallel
+ * {@code prices} and {@code names} arrays. Entries whose key is not a non-negative int are left out; use
+ * {@link FullTableService#findById(String)} for those. Immutable once built.
+ */
+public final class PriceTable {
+
+  public static final PriceTable EMPTY = of(Map.of());
+
+  private final IdIndex index;
+  private final double[] prices;
+  private final String[] names;
+
+  private PriceTable(int[] ids, double[] prices, String[] names) {
+    this.index = new IdIndex(ids);
+    this.prices = prices;
+    this.names = names;
+  }
+
+  public static PriceTable of(Map<String, FullTableItem> itemsById) {
+    int[] ids = new int[itemsById.size()];
+    double[] prices = new double[ids.length];
+    String[] names = new String[ids.length];
+    int size = 0;
+    for (Map.Entry<String, FullTableItem> entry : itemsById.entrySet()) {
+      int id = parseId(entry.getKey());
+      if (id >= 0) {
+        ids[size] = id;
+        prices[size] = entry.getValue().price();
+        names[size] = entry.getValue().name();
+        size++;
+      }
+    }
+    return new PriceTable(Arrays.copyOf(ids, size), Arrays.copyOf(prices, size), Arrays.copyOf(names, size));
+  }
+
+  /**
+   * The id as a non-negative int, or -1 when it is not the canonical decimal form of one. Does not allocate.
+   */
+  public static int parseId(CharSequence id) {
+    int length = id.length();
+    if (length == 0 || length > 10 || length > 1 && id.charAt(0) == '0') {
+      return -1;
+    }
+    long value = 0;
+    for (int i = 0; i < length; i++) {
+      char c = id.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value > Integer.MAX_VALUE ? -1 : (int) value;
+  }
+
+  /**
+   * Index of {@code configBaseId} in the table, or -1 when it is unknown.
+   */
+  public int indexOf(int configBaseId) {
+    return index.indexOf(configBaseId);
+  }
+
+  /**
+   * Price of {@code configBaseId}, 0 when it is unknown.
+   */
+  public double priceOf(int configBaseId) {
+    int index = indexOf(configBaseId);
+    return index < 0 ? 0 : prices[index];
+  }
+
+  /**
+   * Name of {@code configBaseId}, or null when it is unknown.
+   */
+  public @Nullable String nameOf(int configBaseId) {
+    int index = indexOf(configBaseId);
+    return index < 0 ? null : names[index];
+  }
+
+  public int size() {
+    return prices.length;
+  }
+}
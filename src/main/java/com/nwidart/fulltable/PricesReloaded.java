@@ -0,0 +1,20 @@
+package com.nwidart.fulltable;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published once after a new version of the full table was swapped in at runtime.
+ */
+public class PricesReloaded extends ApplicationEvent {
+
+  private final PriceSnapshot snapshot;
+
+  public PricesReloaded(Object source, PriceSnapshot snapshot) {
+    super(source);
+    this.snapshot = snapshot;
+  }
+
+  public PriceSnapshot getSnapshot() {
+    return snapshot;
+  }
+}
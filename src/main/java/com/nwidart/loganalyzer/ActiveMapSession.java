@@ -0,0 +1,117 @@
+package com.nwidart.loganalyzer;
+
+import com.nwidart.loganalyzer.model.Map;
+import com.nwidart.loganalyzer.model.MapRepository;
+import jakarta.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jspecify.annotations.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * The map being played and a few running totals, kept in memory so that drops and stats never have to look the active
+ * map up in the database.
+ * <p>
+ * Rebuilt from the database on startup and when tailing starts, then kept up to date by the map processors. The
+ * {@link Map} held here is detached: only its id and start time should be used.
+ */
+@Component
+public class ActiveMapSession {
+
+  private final MapRepository mapRepository;
+
+  private volatile @Nullable Map activeMap;
+  private volatile @Nullable Instant sessionStartedAt;
+  private final AtomicInteger drops = new AtomicInteger();
+  private final AtomicLong itemsGained = new AtomicLong();
+
+  public ActiveMapSession(MapRepository mapRepository) {
+    this.mapRepository = mapRepository;
+  }
+
+  /**
+   * Read the active map and the session start from the database, e.g. after it was changed behind the processors'
+   * back. The running totals restart from zero.
+   */
+  @PostConstruct
+  public synchronized void reload() {
+    Map first = mapRepository.findFirstByOrderByStartedAtAsc();
+    this.sessionStartedAt = first == null ? null : first.getStartedAt();
+    this.activeMap = mapRepository.findActiveMap();
+    resetTotals();
+  }
+
+  /**
+   * A map was entered and saved.
+   */
+  public synchronized void entered(Map map) {
+    if (sessionStartedAt == null) {
+      sessionStartedAt = map.getStartedAt();
+    }
+    this.activeMap = map;
+    resetTotals();
+  }
+
+  /**
+   * The active map was left.
+   */
+  public synchronized void exited() {
+    this.activeMap = null;
+  }
+
+  /**
+   * Count a drop in the active map.
+   *
+   * @param delta items gained (negative when lost)
+   */
+  public void recordDrop(int delta) {
+    drops.incrementAndGet();
+    if (delta > 0) {
+      itemsGained.addAndGet(delta);
+    }
+  }
+
+  private void resetTotals() {
+    drops.set(0);
+    itemsGained.set(0);
+  }
+
+  public @Nullable Map getActiveMap() {
+    return activeMap;
+  }
+
+  public @Nullable Long getActiveMapId() {
+    Map map = activeMap;
+    return map == null ? null : map.getId();
+  }
+
+  /**
+   * When the active map was entered, in log time, or null when no map is active.
+   */
+  public @Nullable Instant getStartedAt() {
+    Map map = activeMap;
+    return map == null ? null : map.getStartedAt();
+  }
+
+  /**
+   * When the first map was entered, in log time, or null before any map.
+   */
+  public @Nullable Instant getSessionStartedAt() {
+    return sessionStartedAt;
+  }
+
+  /**
+   * Drops recorded since the active map was entered.
+   */
+  public int getDrops() {
+    return drops.get();
+  }
+
+  /**
+   * Items gained since the active map was entered, losses not deducted.
+   */
+  public long getItemsGained() {
+    return itemsGained.get();
+  }
+}
@@ -0,0 +1,170 @@
+package com.nwidart.loganalyzer;
+
+import com.nwidart.loganalyzer.checkpoint.CheckpointService;
+import com.nwidart.loganalyzer.inventory.InventoryService;
+import com.nwidart.loganalyzer.pipeline.BatchRolledBack;
+import com.nwidart.loganalyzer.pipeline.StageBatch;
+import java.time.Duration;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+/**
+ * Applies lines to the processors in micro-batches: up to {@code tlitracker.apply.batch-lines} lines, or as many as
+ * arrive in {@code tlitracker.apply.batch-ms} milliseconds, share one transaction instead of one each. The batch is also
+ * committed as soon as no line is waiting, so a quiet log is never held back.
+ * <p>
+ * While a batch is open the background bag writes are held, since they could not see the maps saved by the batch yet.
+ * Once it is committed, the pending bag changes are written and a checkpoint that came due is saved, so neither gets
+ * ahead of the committed maps.
+ * <p>
+ * A line that fails in the database leaves the transaction rollback-only (savepoints are not available through JPA),
+ * so its batch is rolled back right away rather than dragging the following lines down with it. A batch that is
+ * rolled back, or fails to commit, loses its maps but not the bag changes: the checkpoint that came due is dropped,
+ * and {@link ActiveMapSession}, which the lost lines already updated, is reloaded from the database. The events of the
+ * batch are replaced with a {@link BatchRolledBack}, on which {@link StatsService} rebuilds its totals once the events
+ * of the batches committed before are delivered.
+ */
+@Component
+public class ApplyTransactions {
+
+  private static final Logger log = LoggerFactory.getLogger(ApplyTransactions.class);
+
+  private final PlatformTransactionManager transactionManager;
+  private final InventoryService inventoryService;
+  private final CheckpointService checkpointService;
+  private final ActiveMapSession activeMapSession;
+  private final int batchLines;
+  private final Duration batchAge;
+
+  public ApplyTransactions(PlatformTransactionManager transactionManager, InventoryService inventoryService,
+      CheckpointService checkpointService, ActiveMapSession activeMapSession,
+      @Value("${tlitracker.apply.batch-lines:1}") int batchLines,
+      @Value("${tlitracker.apply.batch-ms:50}") long batchMillis) {
+    this.transactionManager = transactionManager;
+    this.inventoryService = inventoryService;
+    this.checkpointService = checkpointService;
+    this.activeMapSession = activeMapSession;
+    this.batchLines = Math.max(1, batchLines);
+    this.batchAge = Duration.ofMillis(Math.max(1, batchMillis));
+  }
+
+  /**
+   * A batch following the configured policy, or {@link StageBatch#NONE} when lines are applied one by one.
+   */
+  public StageBatch newBatch() {
+    return batchLines == 1 ? StageBatch.NONE : newBatch(batchLines, batchAge);
+  }
+
+  /**
+   * A batch of at most {@code lines} lines, committed once its first line is {@code maxAge} old. Only use it from one
+   * thread.
+   */
+  public StageBatch newBatch(int lines, Duration maxAge) {
+    return new Batch(Math.max(1, lines), maxAge.toNanos());
+  }
+
+  private final class Batch implements StageBatch {
+
+    private final int maxLines;
+    private final long maxAgeNanos;
+
+    private @Nullable TransactionStatus transaction;
+    private int lines;
+    private long openedNanos;
+
+    private Batch(int maxLines, long maxAgeNanos) {
+      this.maxLines = maxLines;
+      this.maxAgeNanos = maxAgeNanos;
+    }
+
+    @Override
+    public void beforeLine() {
+      if (transaction != null) {
+        return;
+      }
+      inventoryService.lockFlushes();
+      try {
+        transaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+      } catch (TransactionException e) {
+        inventoryService.unlockFlushes();
+        throw e;
+      }
+      lines = 0;
+      openedNanos = System.nanoTime();
+    }
+
+    @Override
+    public Outcome afterLine() {
+      if (transaction == null) {
+        return Outcome.COMMITTED;
+      }
+      if (++lines >= maxLines || System.nanoTime() - openedNanos >= maxAgeNanos) {
+        return close();
+      }
+      return Outcome.OPEN;
+    }
+
+    @Override
+    public Outcome lineFailed() {
+      TransactionStatus current = transaction;
+      if (current == null) {
+        return Outcome.COMMITTED;
+      }
+      if (!current.isRollbackOnly()) {
+        return Outcome.OPEN;
+      }
+      transaction = null;
+      try {
+        transactionManager.rollback(current);
+      } catch (TransactionException e) {
+        log.error("Failed to roll back a batch of {} lines", lines, e);
+      } finally {
+        inventoryService.unlockFlushes();
+      }
+      log.error("Rolled back a batch of {} lines after a line failed, its maps are lost", lines + 1);
+      recover();
+      return Outcome.ROLLED_BACK;
+    }
+
+    @Override
+    public Outcome close() {
+      TransactionStatus current = transaction;
+      if (current == null) {
+        return Outcome.COMMITTED;
+      }
+      transaction = null;
+      boolean committed = false;
+      try {
+        transactionManager.commit(current);
+        committed = true;
+      } catch (RuntimeException e) {
+        log.error("Failed to commit a batch of {} lines, its maps were rolled back", lines, e);
+      } finally {
+        inventoryService.unlockFlushes();
+      }
+      if (!committed) {
+        recover();
+        return Outcome.ROLLED_BACK;
+      }
+      inventoryService.flush();
+      checkpointService.saveIfDeferred();
+      return Outcome.COMMITTED;
+    }
+
+    /**
+     * After a rollback: write the bag changes, which are kept, and reread what the lost lines had updated in memory.
+     */
+    private void recover() {
+      inventoryService.flush();
+      checkpointService.discardDeferred();
+      activeMapSession.reload();
+    }
+  }
+}
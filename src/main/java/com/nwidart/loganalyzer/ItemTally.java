@@ -0,0 +1,115 @@
+package com.nwidart.loganalyzer;
+
+import com.nwidart.loganalyzer.model.ItemQuantity;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Quantity gained per {@code configBaseId}.
+ * <p>
+ * Kept in an open-addressing table (linear probing, at most half full) keyed by the id, with the quantities in a
+ * parallel array, like {@link com.nwidart.loganalyzer.model.Bag}, so that counting a drop of a known item neither boxes
+ * nor allocates. Ids that are negative are not counted. Not thread-safe.
+ */
+final class ItemTally {
+
+  private static final int FREE = -1;
+  private static final int INITIAL_CAPACITY = 64;
+
+  private int[] ids;
+  private long[] quantities;
+  private int size;
+
+  ItemTally() {
+    allocate(INITIAL_CAPACITY);
+  }
+
+  static ItemTally of(List<ItemQuantity> quantities) {
+    ItemTally tally = new ItemTally();
+    for (ItemQuantity quantity : quantities) {
+      tally.add(quantity.configBaseId(), quantity.quantity());
+    }
+    return tally;
+  }
+
+  void add(int configBaseId, long quantity) {
+    if (configBaseId < 0) {
+      return;
+    }
+    int index = indexOf(configBaseId);
+    if (ids[index] == FREE) {
+      if ((size + 1) * 2 > ids.length) {
+        grow();
+        index = indexOf(configBaseId);
+      }
+      ids[index] = configBaseId;
+      size++;
+    }
+    quantities[index] += quantity;
+  }
+
+  /**
+   * Quantity of {@code configBaseId} gained, 0 when it was never counted.
+   */
+  long quantity(int configBaseId) {
+    if (configBaseId < 0) {
+      return 0;
+    }
+    int index = indexOf(configBaseId);
+    return ids[index] == FREE ? 0 : quantities[index];
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Value of every quantity at {@code prices}.
+   */
+  double revenue(IntToDoubleFunction prices) {
+    double revenue = 0;
+    for (int i = 0; i < ids.length; i++) {
+      if (ids[i] != FREE) {
+        revenue += prices.applyAsDouble(ids[i]) * quantities[i];
+      }
+    }
+    return revenue;
+  }
+
+  /**
+   * Index holding {@code id}, or the free index where it would go.
+   */
+  private int indexOf(int id) {
+    int mask = ids.length - 1;
+    int index = mix(id) & mask;
+    while (ids[index] != FREE && ids[index] != id) {
+      index = (index + 1) & mask;
+    }
+    return index;
+  }
+
+  private static int mix(int id) {
+    int h = id * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private void grow() {
+    int[] oldIds = ids;
+    long[] oldQuantities = quantities;
+    allocate(oldIds.length * 2);
+    for (int i = 0; i < oldIds.length; i++) {
+      if (oldIds[i] != FREE) {
+        int index = indexOf(oldIds[i]);
+        ids[index] = oldIds[i];
+        quantities[index] = oldQuantities[i];
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    ids = new int[capacity];
+    quantities = new long[capacity];
+    Arrays.fill(ids, FREE);
+  }
+}
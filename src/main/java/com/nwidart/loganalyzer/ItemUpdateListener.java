@@ -2,9 +2,7 @@ package com.nwidart.loganalyzer;
 
 import com.nwidart.fulltable.FullTableService;
 import com.nwidart.loganalyzer.event.DropEventBroadcaster;
-import com.nwidart.loganalyzer.model.Item;
 import com.nwidart.loganalyzer.model.ItemWasDroppedEvent;
-import java.time.Instant;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.event.EventListener;
@@ -24,17 +22,17 @@ public class ItemUpdateListener {
 
   @EventListener
   public void onItemUpdate(ItemWasDroppedEvent event) {
-    Item item = event.getItem();
+    int configBaseId = event.getConfigBaseId();
 
-    log.info("Item updated: {} (delta: {}, total: {})", item.getConfigBaseId(), item.getNum(), item.getTotal());
+    log.info("Item updated: {} (delta: {}, total: {})", configBaseId, event.getDelta(), event.getTotal());
 
     var map = event.getMap();
     var dto = new DropEventBroadcaster.DropEvent(
-        Instant.now(),
-        this.fullTableService.getNameForItem(item) + " (" + item.getConfigBaseId() + ")",
-        item.getNum() == null ? 0 : item.getNum(),
-        item.getTotal() == null ? 0 : item.getTotal(),
-        this.fullTableService.getPriceForItem(item),
+        event.getOccurredAt(),
+        this.fullTableService.nameOf(configBaseId) + " (" + configBaseId + ")",
+        event.getDelta(),
+        event.getTotal(),
+        event.hasUnitPrice() ? event.getUnitPrice() : this.fullTableService.priceOf(configBaseId),
         map == null ? null : map.getStartedAt()
     );
 
@@ -0,0 +1,141 @@
+package com.nwidart.loganalyzer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Finds, in a single pass over a line, which of up to 64 literal groups occur in it.
+ * <p>
+ * The literals are compiled into an Aho-Corasick automaton turned into a DFA: one table lookup per character, no
+ * backtracking, whatever the number of literals. Only ASCII characters take part in transitions; any other character
+ * resets the automaton, which is correct because literals are restricted to ASCII.
+ */
+final class LiteralPrefilter {
+
+  static final int MAX_GROUPS = Long.SIZE;
+  private static final int ASCII = 128;
+
+  /** Character class of each ASCII character, 0 for characters that appear in no literal. */
+  private final int[] charClass = new int[ASCII];
+  private final int classCount;
+  /** {@code transitions[state * classCount + class]} is the next state. */
+  private final int[] transitions;
+  /** Groups whose literal ends in (or is a suffix of the text ending in) each state. */
+  private final long[] output;
+  private final long allGroups;
+
+  /**
+   * @param groups literals per group; a group is reported when any of its literals occurs. Groups must be non-empty
+   *               and literals non-empty ASCII strings.
+   */
+  LiteralPrefilter(List<List<String>> groups) {
+    if (groups.size() > MAX_GROUPS) {
+      throw new IllegalArgumentException("At most " + MAX_GROUPS + " literal groups are supported");
+    }
+    int classes = 1;
+    for (List<String> group : groups) {
+      if (group.isEmpty()) {
+        throw new IllegalArgumentException("Literal group must not be empty");
+      }
+      for (String literal : group) {
+        if (!isSupported(literal)) {
+          throw new IllegalArgumentException("Unsupported literal: " + literal);
+        }
+        for (int i = 0; i < literal.length(); i++) {
+          char c = literal.charAt(i);
+          if (charClass[c] == 0) {
+            charClass[c] = classes++;
+          }
+        }
+      }
+    }
+    this.classCount = classes;
+
+    // Build the trie
+    List<int[]> trie = new ArrayList<>();
+    List<Long> outputs = new ArrayList<>();
+    trie.add(newNode(classes));
+    outputs.add(0L);
+    for (int g = 0; g < groups.size(); g++) {
+      for (String literal : groups.get(g)) {
+        int state = 0;
+        for (int i = 0; i < literal.length(); i++) {
+          int cls = charClass[literal.charAt(i)];
+          if (trie.get(state)[cls] < 0) {
+            trie.get(state)[cls] = trie.size();
+            trie.add(newNode(classes));
+            outputs.add(0L);
+          }
+          state = trie.get(state)[cls];
+        }
+        outputs.set(state, outputs.get(state) | 1L << g);
+      }
+    }
+
+    // Breadth-first: fill in missing transitions through the failure links and inherit their outputs
+    int states = trie.size();
+    this.transitions = new int[states * classes];
+    this.output = new long[states];
+    int[] fail = new int[states];
+    Deque<Integer> queue = new ArrayDeque<>();
+    for (int cls = 0; cls < classes; cls++) {
+      int next = trie.get(0)[cls];
+      transitions[cls] = Math.max(next, 0);
+      if (next > 0) {
+        queue.add(next);
+      }
+    }
+    output[0] = outputs.get(0);
+    while (!queue.isEmpty()) {
+      int state = queue.poll();
+      output[state] = outputs.get(state) | output[fail[state]];
+      for (int cls = 0; cls < classes; cls++) {
+        int next = trie.get(state)[cls];
+        int fallback = transitions[fail[state] * classes + cls];
+        if (next < 0) {
+          transitions[state * classes + cls] = fallback;
+        } else {
+          transitions[state * classes + cls] = next;
+          fail[next] = fallback;
+          queue.add(next);
+        }
+      }
+    }
+    this.allGroups = groups.size() == MAX_GROUPS ? -1L : (1L << groups.size()) - 1;
+  }
+
+  static boolean isSupported(String literal) {
+    return !literal.isEmpty() && literal.chars().allMatch(c -> c < ASCII);
+  }
+
+  private static int[] newNode(int classes) {
+    int[] node = new int[classes];
+    Arrays.fill(node, -1);
+    return node;
+  }
+
+  /**
+   * @return a bit set of the groups with at least one literal occurring in {@code line}, bit {@code i} for group
+   * {@code i}
+   */
+  long scan(CharSequence line) {
+    long found = 0;
+    int state = 0;
+    for (int i = 0, length = line.length(); i < length; i++) {
+      char c = line.charAt(i);
+      int cls = c < ASCII ? charClass[c] : 0;
+      state = transitions[state * classCount + cls];
+      long out = output[state];
+      if (out != 0) {
+        found |= out;
+        if (found == allGroups) {
+          break;
+        }
+      }
+    }
+    return found;
+  }
+}
@@ -0,0 +1,51 @@
+package com.nwidart.loganalyzer;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.stereotype.Component;
+
+/**
+ * Current time as seen by the game log.
+ * <p>
+ * Advanced with the timestamp of every processed line. In between lines it keeps running with the wall clock, so a live
+ * session reads as real time, while a replayed or backlogged log reads as the time of the line being processed.
+ * Before any line was processed it is the wall clock.
+ */
+@Component
+public class LogClock {
+
+  private volatile Observation last;
+
+  /**
+   * Record the timestamp of a processed line. Timestamps going backwards (e.g. a new log file) are taken as is.
+   */
+  public void advance(Instant logTime) {
+    this.last = new Observation(logTime, System.nanoTime());
+  }
+
+  public Instant now() {
+    Observation observation = this.last;
+    if (observation == null) {
+      return Instant.now();
+    }
+    return observation.logTime().plusNanos(System.nanoTime() - observation.observedNanos());
+  }
+
+  /**
+   * Time elapsed since {@code since}, in log time, never negative.
+   */
+  public Duration since(Instant since) {
+    Duration elapsed = Duration.between(since, now());
+    return elapsed.isNegative() ? Duration.ZERO : elapsed;
+  }
+
+  /**
+   * Forget the last line, e.g. when starting on another file.
+   */
+  public void reset() {
+    this.last = null;
+  }
+
+  private record Observation(Instant logTime, long observedNanos) {
+  }
+}
@@ -0,0 +1,221 @@
+package com.nwidart.loganalyzer;
+
+import com.nwidart.loganalyzer.model.LogEntry;
+import com.nwidart.loganalyzer.processor.BagLineParser;
+import com.nwidart.loganalyzer.processor.BagLogProcessor;
+import com.nwidart.loganalyzer.processor.BagSlotRecord;
+import com.nwidart.loganalyzer.processor.LogProcessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.jspecify.annotations.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Matches log lines against the registered {@link LogProcessor}s and hands matches over to them.
+ * <p>
+ * Before any regex runs, a single {@link LiteralPrefilter} pass over the line tells which processors can possibly
+ * match, based on their {@link LogProcessor#getRequiredLiterals() required literals}; the patterns of the other
+ * processors are not evaluated. {@link BagLogProcessor}s are matched with their {@link BagLineParser} instead of a regex.
+ * <p>
+ * Matching ({@link #match(String, Matches)}) is side-effect free and safe to call from several threads, each with its
+ * own {@link Matches}; applying ({@link #apply(LogEntry, Matches)}) runs the processors and must happen in log order on
+ * a single thread.
+ */
+@Component
+public class LogLineDispatcher {
+
+  private final List<LogProcessor> processors;
+  private final @Nullable Pattern[] patterns;
+  private final @Nullable BagLineParser[] parsers;
+  private final LiteralPrefilter prefilter;
+  /** Prefilter group of each processor, -1 for processors whose pattern is evaluated on every line. */
+  private final int[] groups;
+  private final LongAdder regexEvaluations = new LongAdder();
+  private final LongAdder regexSkipped = new LongAdder();
+
+  public LogLineDispatcher(List<LogProcessor> processors) {
+    this.processors = processors.stream()
+        .sorted(Comparator.comparingInt(LogProcessor::getOrder))
+        .toList();
+
+    // Pre-compile all patterns
+    this.patterns = new Pattern[this.processors.size()];
+    this.parsers = new BagLineParser[this.processors.size()];
+    for (int i = 0; i < this.processors.size(); i++) {
+      if (this.processors.get(i) instanceof BagLogProcessor bagProcessor) {
+        parsers[i] = bagProcessor.getParser();
+      }
+      String pattern = this.processors.get(i).getPattern();
+      if (pattern != null) {
+        patterns[i] = Pattern.compile(pattern, Pattern.DOTALL);
+      }
+    }
+
+    this.groups = new int[this.processors.size()];
+    List<List<String>> literals = new ArrayList<>();
+    for (int i = 0; i < this.processors.size(); i++) {
+      List<String> required = this.processors.get(i).getRequiredLiterals();
+      boolean filterable = patterns[i] != null
+          && !required.isEmpty()
+          && required.stream().allMatch(LiteralPrefilter::isSupported)
+          && literals.size() < LiteralPrefilter.MAX_GROUPS;
+      groups[i] = filterable ? literals.size() : -1;
+      if (filterable) {
+        literals.add(required);
+      }
+    }
+    this.prefilter = new LiteralPrefilter(literals);
+  }
+
+  /**
+   * Find the processors matching a line without processing it, in processor order. {@code into} is cleared first and
+   * filled in place, so the same instance (and its matchers and bag records) can be reused for every line.
+   *
+   * @return whether any processor is interested in the line
+   */
+  public boolean match(String line, Matches into) {
+    into.reset(processors.size());
+    long candidates = prefilter.scan(line);
+    for (int i = 0; i < processors.size(); i++) {
+      Pattern pattern = patterns[i];
+      if (pattern != null) {
+        if (!isCandidate(i, candidates)) {
+          continue;
+        }
+        BagLineParser parser = parsers[i];
+        if (parser != null) {
+          if (!parser.parse(line, into.slot(i))) {
+            continue;
+          }
+        } else if (!into.matcher(i, pattern, line).find()) {
+          continue;
+        }
+      }
+      into.add(i);
+    }
+    return !into.isEmpty();
+  }
+
+  /**
+   * Process a log entry with the matches previously found by {@link #match(String, Matches)}.
+   */
+  public void apply(LogEntry logEntry, Matches matches) {
+    for (int k = 0; k < matches.size; k++) {
+      int i = matches.processors[k];
+      LogProcessor processor = processors.get(i);
+      if (parsers[i] != null && processor instanceof BagLogProcessor bagProcessor) {
+        bagProcessor.processSlot(logEntry, matches.slots[i]);
+      } else {
+        processor.process(logEntry, patterns[i] == null ? null : matches.matchers[i]);
+      }
+    }
+  }
+
+  /**
+   * The processors, in the order the bits of {@link #processorMask(List)} refer to.
+   */
+  public List<LogProcessor> getProcessors() {
+    return processors;
+  }
+
+  /**
+   * Bit {@code i} set for each match of the processor {@code i} of {@link #getProcessors()}; processors past the 64th
+   * are left out.
+   */
+  public long processorMask(Matches matches) {
+    long mask = 0;
+    for (int k = 0; k < matches.size; k++) {
+      int index = matches.processors[k];
+      if (index < Long.SIZE) {
+        mask |= 1L << index;
+      }
+    }
+    return mask;
+  }
+
+  private boolean isCandidate(int processor, long candidates) {
+    int group = groups[processor];
+    if (group >= 0 && (candidates & 1L << group) == 0) {
+      regexSkipped.increment();
+      return false;
+    }
+    regexEvaluations.increment();
+    return true;
+  }
+
+  /**
+   * Number of regex (or {@link BagLineParser}) evaluations run so far.
+   */
+  public long getRegexEvaluations() {
+    return regexEvaluations.sum();
+  }
+
+  /**
+   * Number of regex evaluations the literal prefilter avoided so far.
+   */
+  public long getRegexSkipped() {
+    return regexSkipped.sum();
+  }
+
+  /**
+   * The processors matching a line, by their index in {@link #getProcessors()}, with the matcher or the bag record of
+   * each. Reused from line to line: the matchers are {@link Matcher#reset(CharSequence) reset} and the records parsed
+   * in place, so matching a line allocates nothing. Not thread-safe; use one instance per thread, or per line kept.
+   */
+  public static final class Matches {
+
+    private int[] processors = new int[0];
+    private @Nullable Matcher[] matchers = new Matcher[0];
+    private @Nullable BagSlotRecord[] slots = new BagSlotRecord[0];
+    private int size;
+
+    public int size() {
+      return size;
+    }
+
+    public boolean isEmpty() {
+      return size == 0;
+    }
+
+    public void clear() {
+      size = 0;
+    }
+
+    private void reset(int processorCount) {
+      size = 0;
+      if (processors.length < processorCount) {
+        processors = new int[processorCount];
+        matchers = Arrays.copyOf(matchers, processorCount);
+        slots = Arrays.copyOf(slots, processorCount);
+      }
+    }
+
+    private void add(int processor) {
+      processors[size++] = processor;
+    }
+
+    private Matcher matcher(int processor, Pattern pattern, String line) {
+      Matcher matcher = matchers[processor];
+      if (matcher == null) {
+        matcher = pattern.matcher(line);
+        matchers[processor] = matcher;
+        return matcher;
+      }
+      return matcher.reset(line);
+    }
+
+    private BagSlotRecord slot(int processor) {
+      BagSlotRecord slot = slots[processor];
+      if (slot == null) {
+        slot = new BagSlotRecord();
+        slots[processor] = slot;
+      }
+      return slot;
+    }
+  }
+}
@@ -1,22 +1,31 @@
 package com.nwidart.loganalyzer;
 
+import com.nwidart.loganalyzer.bulk.BulkImportResult;
+import com.nwidart.loganalyzer.bulk.BulkImporter;
+import com.nwidart.loganalyzer.checkpoint.CheckpointService;
+import com.nwidart.loganalyzer.checkpoint.TailCheckpoint;
 import com.nwidart.loganalyzer.event.LogEntryEvent;
-import com.nwidart.loganalyzer.model.LogEntry;
-import com.nwidart.loganalyzer.processor.LogProcessor;
+import com.nwidart.loganalyzer.inventory.InventoryService;
+import com.nwidart.loganalyzer.journal.GameJournal;
+import com.nwidart.loganalyzer.pipeline.Backpressure;
+import com.nwidart.loganalyzer.pipeline.LineEvent;
+import com.nwidart.loganalyzer.pipeline.LinePipeline;
+import com.nwidart.loganalyzer.pipeline.PipelineSettings;
+import com.nwidart.loganalyzer.pipeline.StageMetrics;
+import com.nwidart.loganalyzer.pipeline.WaitStrategy;
+import com.nwidart.loganalyzer.recent.RecentLines;
+import com.nwidart.loganalyzer.tail.LogTailer;
+import com.nwidart.loganalyzer.tail.TailEngine;
+import com.nwidart.loganalyzer.tail.TailListener;
 import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.time.Instant;
-import java.util.Comparator;
+import java.time.Duration;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import org.apache.commons.io.input.Tailer;
-import org.apache.commons.io.input.TailerListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -27,69 +36,123 @@ import org.springframework.stereotype.Service;
 public class LogService {
 
   private static final Logger log = LoggerFactory.getLogger(LogService.class);
-  private static final long POLL_INTERVAL_MS = 100; // Poll every 100ms
-  private static final int BUFFER_SIZE = 8192; // 8KB buffer
 
   private final ApplicationEventPublisher eventPublisher;
-  private final Map<String, Pattern> compiledPatterns = new ConcurrentHashMap<>();
-  private final List<LogProcessor> processors;
+  private final LogLineDispatcher dispatcher;
+  private final BulkImporter bulkImporter;
+  private final CheckpointService checkpointService;
+  private final LogClock logClock;
+  private final InventoryService inventoryService;
+  private final ActiveMapSession activeMapSession;
+  private final StatsService statsService;
+  private final ApplyTransactions applyTransactions;
+  private final GameJournal journal;
+  private final RecentLines recentLines;
+  /** Only used on the classify thread of the pipeline. */
+  private final LogTimestampParser timestampParser = new LogTimestampParser();
   private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+  /** Last line applied to the processors. */
   private final AtomicLong currentLineNumber = new AtomicLong(0);
+  /** Last line read, only used on the tailing thread. */
+  private long readLineNumber;
 
-  private volatile Tailer tailer;
+  private volatile TailSession session;
+  private volatile LinePipeline pipeline;
   @Value("${tlitracker.tail-from-end:true}")
   private boolean tailFromEnd;
+  @Value("${tlitracker.tail-engine:channel}")
+  private TailEngine tailEngine = TailEngine.CHANNEL;
+  @Value("${tlitracker.bulk-import.enabled:false}")
+  private boolean bulkImport;
+  @Value("${tlitracker.pipeline.buffer-size:4096}")
+  private int pipelineBufferSize = 4096;
+  @Value("${tlitracker.pipeline.wait-strategy:backoff}")
+  private WaitStrategy pipelineWaitStrategy = WaitStrategy.BACKOFF;
+  @Value("${tlitracker.pipeline.publish-backpressure:block}")
+  private Backpressure pipelinePublishBackpressure = Backpressure.BLOCK;
+  @Value("${tlitracker.stats.consistency-check:false}")
+  private boolean statsConsistencyCheck;
+  private volatile long tailingStartedNanos;
 
-  public LogService(ApplicationEventPublisher eventPublisher, List<LogProcessor> processors) {
+  public LogService(ApplicationEventPublisher eventPublisher, LogLineDispatcher dispatcher, BulkImporter bulkImporter,
+      CheckpointService checkpointService, LogClock logClock, InventoryService inventoryService,
+      ActiveMapSession activeMapSession, StatsService statsService, ApplyTransactions applyTransactions,
+      GameJournal journal, RecentLines recentLines) {
     this.eventPublisher = eventPublisher;
-    this.processors = processors.stream()
-        .sorted(Comparator.comparingInt(LogProcessor::getOrder))
-        .toList();
-
-    // Pre-compile all patterns
-    for (LogProcessor processor : processors) {
-      if (processor.getPattern() != null) {
-        compiledPatterns.put(
-            processor.getPattern(),
-            Pattern.compile(processor.getPattern(), Pattern.DOTALL)
-        );
-      }
-    }
+    this.dispatcher = dispatcher;
+    this.bulkImporter = bulkImporter;
+    this.checkpointService = checkpointService;
+    this.logClock = logClock;
+    this.inventoryService = inventoryService;
+    this.activeMapSession = activeMapSession;
+    this.statsService = statsService;
+    this.applyTransactions = applyTransactions;
+    this.journal = journal;
+    this.recentLines = recentLines;
   }
 
   /**
    * Start tailing the specified log file.
+   * <p>
+   * If a checkpoint was saved for this file by a previous run, reading resumes at the checkpoint instead of the start
+   * or end of the file. When reading from the start or from a checkpoint with bulk import enabled, the existing content
+   * is first imported with {@link BulkImporter} and tailing continues right after the last imported line. If the import
+   * fails, tailing starts where it would have started the import, so no line is skipped.
+   * <p>
+   * Tailed lines go through a {@link LinePipeline}: the tailing thread only reads, while classifying, applying to the
+   * processors and publishing events each happen on their own thread. Lines are applied in micro-batched transactions
+   * when {@code tlitracker.apply.batch-lines} is above 1 (see {@link ApplyTransactions}). The game events parsed are
+   * appended to the {@link GameJournal}, which starts over when the file is read from its beginning. The lines tailed
+   * are kept in {@link RecentLines} for the live log view.
    *
    * @param logFilePath path to the log file to tail
    */
   public void startTailing(Path logFilePath) {
-    if (tailer != null) {
+    if (session != null) {
       log.warn("Already tailing a file. Stop current tailing first.");
       return;
     }
 
-    this.currentLineNumber.set(0);
+    TailCheckpoint checkpoint = checkpointService.resumePoint(logFilePath);
+    long readFrom = checkpoint == null ? 0 : checkpoint.offset();
+    this.currentLineNumber.set(checkpoint == null ? 0 : checkpoint.lineNumber());
+    this.logClock.reset();
+    this.inventoryService.reset();
+    this.activeMapSession.reload();
+    this.statsService.rebuild();
+    this.recentLines.clear();
 
-    TailerListener listener = new TailerListener() {
-      @Override
-      public void init(Tailer tailer) {
-        log.info("Tailer initialized for file: {}", logFilePath);
-      }
+    LinePipeline newPipeline = new LinePipeline("log-pipeline",
+        new PipelineSettings(pipelineBufferSize, pipelineWaitStrategy, pipelinePublishBackpressure),
+        this::classify,
+        event -> apply(logFilePath, event),
+        applyTransactions.newBatch(),
+        this::publish).start();
+
+    TailListener listener = new TailListener() {
+      /** Whether the file was reported missing since the last line read, so it is only logged once per spell. */
+      private boolean missing;
 
       @Override
       public void fileNotFound() {
-        log.error("Log file not found: {}", logFilePath);
+        if (!missing) {
+          missing = true;
+          log.error("Log file not found: {}, waiting for it to be created", logFilePath);
+        }
       }
 
       @Override
       public void fileRotated() {
         log.info("Log file rotated: {}", logFilePath);
-        currentLineNumber.set(0);
+        missing = false;
+        readLineNumber = 0;
+        newPipeline.offerRotation();
       }
 
       @Override
-      public void handle(String line) {
-        processLine(line);
+      public void handle(String line, long endOffset) {
+        missing = false;
+        newPipeline.offer(line, endOffset, ++readLineNumber);
       }
 
       @Override
@@ -98,76 +161,189 @@ public class LogService {
       }
     };
 
-    // Create and start tailer
-    // Parameters: file, listener, delay (ms), fromEnd (start at end), reOpen (handle rotation), bufferSize
-    tailer = Tailer.builder()
-        .setFile(logFilePath.toFile())
-        .setTailerListener(listener)
-        .setDelayDuration(java.time.Duration.ofMillis(POLL_INTERVAL_MS))
-        .setStartThread(false)
-        .setTailFromEnd(this.tailFromEnd)
-        .setReOpen(true) // Handle log rotation
-        .get();
-
-    executorService.submit(tailer);
-    log.info("Started tailing log file: {}", logFilePath);
+    boolean fromEnd = this.tailFromEnd && checkpoint == null;
+    journal.open(!fromEnd && readFrom == 0);
+    long importEnd = fromEnd || !this.bulkImport ? readFrom : Math.max(readFrom, bulkImportEnd(logFilePath));
+
+    TailSession newSession = new TailSession();
+    session = newSession;
+    pipeline = newPipeline;
+    tailingStartedNanos = System.nanoTime();
+    checkpointService.begin(logFilePath, fromEnd ? LogTailer.END_OF_FILE : readFrom, currentLineNumber.get());
+
+    executorService.submit(() -> {
+      try {
+        long startOffset = fromEnd ? LogTailer.END_OF_FILE : readFrom;
+        if (importEnd > readFrom) {
+          startOffset = runBulkImport(logFilePath, readFrom, importEnd, newSession);
+        }
+        readLineNumber = currentLineNumber.get();
+        LogTailer newTailer = tailEngine.create(logFilePath, startOffset, listener);
+        if (newSession.attach(newTailer)) {
+          newTailer.run();
+        }
+      } finally {
+        newPipeline.finishInput();
+      }
+    });
+    log.info("Started tailing log file: {} (engine: {})", logFilePath, tailEngine);
+  }
+
+  private long bulkImportEnd(Path logFilePath) {
+    if (!Files.isRegularFile(logFilePath)) {
+      return 0;
+    }
+    try {
+      return BulkImporter.lastLineEnd(logFilePath);
+    } catch (IOException e) {
+      log.warn("Cannot bulk import {}, replaying it line by line", logFilePath, e);
+      return 0;
+    }
+  }
+
+  /**
+   * @return the offset to tail from: right after the last imported line, or {@code importStart} if the import failed
+   */
+  private long runBulkImport(Path logFilePath, long importStart, long importEnd, TailSession owner) {
+    try {
+      BulkImportResult result = bulkImporter.importFile(logFilePath, importStart, importEnd, currentLineNumber.get(),
+          owner::isClosed);
+      checkpointService.onLine(result.endOffset(), currentLineNumber.addAndGet(result.lines()));
+      checkpointService.flush();
+      return result.endOffset();
+    } catch (IOException | RuntimeException e) {
+      log.error("Bulk import of {} failed, tailing it from offset {} instead", logFilePath, importStart, e);
+      return importStart;
+    }
   }
 
   /**
    * Stop tailing the current log file.
    */
   public void stopTailing() {
-    if (tailer != null) {
-      tailer.close();
-      tailer = null;
-      log.info("Stopped tailing log file");
+    if (session != null) {
+      session.close();
+      session = null;
+      awaitPipeline(pipeline);
+      checkpointService.flush();
+      inventoryService.reset();
+      journal.close();
+      double seconds = Math.max(1e-3, (System.nanoTime() - tailingStartedNanos) / 1e9);
+      long lines = currentLineNumber.get();
+      log.info("Stopped tailing log file ({} lines in {}s, {} lines/s, engine: {}, regex evaluations: {}, skipped by prefilter: {})",
+          lines, String.format("%.1f", seconds), String.format("%.0f", lines / seconds), tailEngine,
+          dispatcher.getRegexEvaluations(), dispatcher.getRegexSkipped());
+      for (StageMetrics stage : pipeline.metrics()) {
+        log.info("Pipeline stage {}: {} lines, max queue depth {}/{}, producer waits {}, dropped {}",
+            stage.stage(), stage.processed(), stage.maxDepth(), stage.capacity(), stage.producerWaits(), stage.dropped());
+      }
+      if (statsConsistencyCheck) {
+        statsService.checkConsistency();
+      }
+    }
+  }
+
+  private static void awaitPipeline(LinePipeline pipeline) {
+    try {
+      if (!pipeline.awaitTermination(Duration.ofSeconds(10))) {
+        log.warn("Log pipeline did not drain in time, pending lines were abandoned: {}", pipeline.metrics());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
     }
   }
 
   /**
-   * Process a single log line.
+   * Classify stage: timestamp the line and find the interested processors.
    */
-  private void processLine(String line) {
-    long lineNum = currentLineNumber.incrementAndGet();
-    LogEntry logEntry = new LogEntry(line, lineNum, Instant.now());
-
-    //log.info("Processing log line: {}", line);
-
-    // Publish event for UI update
-    eventPublisher.publishEvent(new LogEntryEvent(this, logEntry));
-
-    // Process with registered processors
-    for (LogProcessor processor : processors) {
-      String pattern = processor.getPattern();
+  private void classify(LineEvent event) {
+    if (!event.isRotated()) {
+      String line = event.line();
+      event.classified(timestampParser.entry(line, event.lineNumber(), logClock));
+      dispatcher.match(line, event.matches());
+    }
+  }
 
-      // Processor with null pattern processes all lines
-      if (pattern == null) {
-        processor.process(logEntry, null);
-        continue;
-      }
+  /**
+   * Apply stage: run the processors and record the position reached.
+   */
+  private void apply(Path logFilePath, LineEvent event) {
+    if (event.isRotated()) {
+      currentLineNumber.set(0);
+      checkpointService.begin(logFilePath, 0, 0);
+      return;
+    }
+    if (!event.matches().isEmpty()) {
+      dispatcher.apply(event.entry(), event.matches());
+    }
+    checkpointService.onLine(event.endOffset(), event.lineNumber());
+    currentLineNumber.set(event.lineNumber());
+  }
 
-      // Check if pattern matches
-      Pattern compiled = compiledPatterns.get(pattern);
-      if (compiled != null) {
-        Matcher matcher = compiled.matcher(line);
-        if (matcher.find()) {
-          processor.process(logEntry, matcher);
-        }
-      }
+  /**
+   * Publish stage: notify listeners of the line, if any, and of the events raised by the lines committed since.
+   */
+  private void publish(LineEvent event) {
+    if (event.hasLine()) {
+      recentLines.append(event.lineNumber(), event.line(), dispatcher.processorMask(event.matches()));
+      eventPublisher.publishEvent(new LogEntryEvent(this, event.entry()));
+    }
+    for (Object applied : event.events()) {
+      eventPublisher.publishEvent(applied);
     }
   }
 
   public boolean isRunning() {
-    return tailer != null;
+    return session != null;
   }
 
   public long getCurrentLineNumber() {
     return currentLineNumber.get();
   }
 
+  /**
+   * Queue depths of the pipeline stages of the current (or last) tailing session.
+   */
+  public List<StageMetrics> getPipelineMetrics() {
+    LinePipeline current = pipeline;
+    return current == null ? List.of() : current.metrics();
+  }
+
   @PreDestroy
   public void shutdown() {
     stopTailing();
     executorService.shutdown();
   }
+
+  /**
+   * One tailing session. The tailer is only created once the bulk import, if any, is done, so the session can be
+   * stopped before it exists.
+   */
+  private static final class TailSession {
+
+    private LogTailer tailer;
+    private boolean closed;
+
+    /**
+     * @return false if the session was stopped meanwhile, in which case the tailer must not be run
+     */
+    synchronized boolean attach(LogTailer newTailer) {
+      if (closed) {
+        return false;
+      }
+      tailer = newTailer;
+      return true;
+    }
+
+    synchronized boolean isClosed() {
+      return closed;
+    }
+
+    synchronized void close() {
+      closed = true;
+      if (tailer != null) {
+        tailer.close();
+      }
+    }
+  }
 }
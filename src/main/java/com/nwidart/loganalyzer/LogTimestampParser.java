@@ -0,0 +1,146 @@
+package com.nwidart.loganalyzer;
+
+import com.nwidart.loganalyzer.model.LogEntry;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Parses the fixed-width {@code [2025.11.09-22.28.28:457][780]} prefix of game log lines.
+ * <p>
+ * Unreal writes these timestamps in UTC. Consecutive lines almost always share the same date, so the epoch millis of
+ * the last seen day are cached and only the time of day is computed per line; {@code java.time} is only involved when
+ * the date changes.
+ * <p>
+ * Not thread-safe: each reading thread uses its own instance.
+ */
+public final class LogTimestampParser {
+
+  private static final int PREFIX_LENGTH = 26; // "[2025.11.09-22.28.28:457]["
+  private static final int DATE_LENGTH = 10;   // "2025.11.09"
+  private static final long MILLIS_PER_DAY = 86_400_000L;
+
+  private final char[] cachedDate = new char[DATE_LENGTH];
+  private long cachedDayMillis = Long.MIN_VALUE;
+
+  private long epochMillis;
+  private int frame;
+
+  /**
+   * Parse the prefix of {@code line}. On success the values are available from {@link #epochMillis()} and
+   * {@link #frame()}.
+   *
+   * @return false if the line does not start with a timestamp prefix
+   */
+  public boolean parse(CharSequence line) {
+    if (line.length() < PREFIX_LENGTH + 2
+        || line.charAt(0) != '['
+        || line.charAt(5) != '.' || line.charAt(8) != '.' || line.charAt(11) != '-'
+        || line.charAt(14) != '.' || line.charAt(17) != '.' || line.charAt(20) != ':'
+        || line.charAt(24) != ']' || line.charAt(25) != '[') {
+      return false;
+    }
+    int hour = digits(line, 12, 2);
+    int minute = digits(line, 15, 2);
+    int second = digits(line, 18, 2);
+    int millis = digits(line, 21, 3);
+    if ((hour | minute | second | millis) < 0 || hour > 23 || minute > 59 || second > 59) {
+      return false;
+    }
+    int parsedFrame = frame(line);
+    if (parsedFrame < 0) {
+      return false;
+    }
+    long dayMillis = dayMillis(line);
+    if (dayMillis == Long.MIN_VALUE) {
+      return false;
+    }
+    this.epochMillis = dayMillis + hour * 3_600_000L + minute * 60_000L + second * 1_000L + millis;
+    this.frame = parsedFrame;
+    return true;
+  }
+
+  /**
+   * Build the {@link LogEntry} of a line, stamped with its game time and advancing {@code clock}. Lines without a
+   * prefix (e.g. continuation lines) get the current log time.
+   */
+  public LogEntry entry(String line, long lineNumber, LogClock clock) {
+    if (!parse(line)) {
+      return new LogEntry(line, lineNumber, clock.now());
+    }
+    Instant timestamp = Instant.ofEpochMilli(epochMillis);
+    clock.advance(timestamp);
+    return new LogEntry(line, lineNumber, timestamp, frame);
+  }
+
+  public long epochMillis() {
+    return epochMillis;
+  }
+
+  public int frame() {
+    return frame;
+  }
+
+  private long dayMillis(CharSequence line) {
+    boolean same = cachedDayMillis != Long.MIN_VALUE;
+    for (int i = 0; same && i < DATE_LENGTH; i++) {
+      same = cachedDate[i] == line.charAt(1 + i);
+    }
+    if (same) {
+      return cachedDayMillis;
+    }
+    int year = digits(line, 1, 4);
+    int month = digits(line, 6, 2);
+    int day = digits(line, 9, 2);
+    if ((year | month | day) < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+      return Long.MIN_VALUE;
+    }
+    try {
+      long millis = LocalDate.of(year, month, day).toEpochDay() * MILLIS_PER_DAY;
+      for (int i = 0; i < DATE_LENGTH; i++) {
+        cachedDate[i] = line.charAt(1 + i);
+      }
+      cachedDayMillis = millis;
+      return millis;
+    } catch (DateTimeException e) {
+      return Long.MIN_VALUE;
+    }
+  }
+
+  /**
+   * Frame counter between the second pair of brackets, right-aligned with spaces (e.g. {@code [  5]}).
+   */
+  private static int frame(CharSequence line) {
+    int pos = PREFIX_LENGTH;
+    int length = line.length();
+    while (pos < length && line.charAt(pos) == ' ') {
+      pos++;
+    }
+    int start = pos;
+    int value = 0;
+    while (pos < length && pos - start < 9) {
+      char c = line.charAt(pos);
+      if (c < '0' || c > '9') {
+        break;
+      }
+      value = value * 10 + (c - '0');
+      pos++;
+    }
+    if (pos == start || pos >= length || line.charAt(pos) != ']') {
+      return -1;
+    }
+    return value;
+  }
+
+  private static int digits(CharSequence line, int from, int count) {
+    int value = 0;
+    for (int i = from; i < from + count; i++) {
+      char c = line.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+}
@@ -0,0 +1,21 @@
+package com.nwidart.loganalyzer;
+
+/**
+ * The revenue charts as SVG markup, rendered once per change by the {@link StatsPublisher} and shared by every view.
+ *
+ * @param overTime cumulative revenue over the session, at the prices of the time of each drop, in {@link #POINTS}
+ *                 points at most
+ * @param perMap   revenue of the last {@link #MAPS} maps, at the prices of the time of each drop
+ */
+public record RevenueCharts(
+    String overTime,
+    String perMap
+) {
+
+  /** Points of the revenue-over-time chart, whatever the length of the session. */
+  public static final int POINTS = 500;
+  /** Maps shown in the revenue-per-map chart. */
+  public static final int MAPS = 30;
+
+  public static final RevenueCharts NONE = new RevenueCharts("", "");
+}
@@ -0,0 +1,9 @@
+package com.nwidart.loganalyzer;
+
+/**
+ * A point of {@link StatsService#revenueOverTime}: the session revenue, at the prices of the time of each drop, at the
+ * end of a second of log time.
+ */
+public record RevenuePoint(long epochMillis, double revenue) {
+
+}
@@ -0,0 +1,249 @@
+package com.nwidart.loganalyzer;
+
+import com.nwidart.loganalyzer.model.SecondRevenue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Cumulative revenue per second of log time, for charts.
+ * <p>
+ * Only the seconds with drops are kept, in parallel sorted arrays (second, revenue up to the end of that second), so a
+ * ten-hour session holds at most 36,000 of them. Drops arrive in log order and are appended in O(1); an older one is
+ * inserted in O(seconds after it). {@link #series(long, long, int)} downsamples a range to a fixed number of points
+ * with Largest-Triangle-Three-Buckets, and remembers the last ranges asked.
+ * <p>
+ * A drop on the last second or after it only changes the end of the timeline: a cached range that ends before it stays
+ * valid, and one that reaches it (e.g. the whole session, asked on every tick) keeps its buckets and picks again only in
+ * the last two, the last one growing with the new seconds. Its buckets are laid out again once the last one is twice as
+ * wide as the others, i.e. once per bucket width of new seconds. Any other drop invalidates every cached range.
+ */
+final class RevenueTimeline {
+
+  /** Ranges whose downsampled points are kept. */
+  private static final int CACHED_RANGES = 8;
+  /** Cached range ending before the last second, which new drops at the end leave as it is. */
+  private static final long BEFORE_TAIL = -1;
+
+  private long[] seconds = new long[1024];
+  private double[] cumulative = new double[1024];
+  private int size;
+  /** Incremented on every change before the last second, to tell cached ranges that are stale. */
+  private long version;
+  /** Incremented on every change on the last second or after it. */
+  private long tailVersion;
+  private final Map<Range, Cached> cache = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Range, Cached> eldest) {
+      return size() > CACHED_RANGES;
+    }
+  };
+
+  synchronized void add(long epochMillis, double value) {
+    long second = Math.floorDiv(epochMillis, 1000);
+    tailVersion++;
+    if (size > 0 && seconds[size - 1] == second) {
+      cumulative[size - 1] += value;
+      return;
+    }
+    int index = Arrays.binarySearch(seconds, 0, size, second);
+    if (index < 0) {
+      index = -index - 1;
+      if (size == seconds.length) {
+        seconds = Arrays.copyOf(seconds, size * 2);
+        cumulative = Arrays.copyOf(cumulative, size * 2);
+      }
+      System.arraycopy(seconds, index, seconds, index + 1, size - index);
+      System.arraycopy(cumulative, index, cumulative, index + 1, size - index);
+      seconds[index] = second;
+      cumulative[index] = index == 0 ? 0 : cumulative[index - 1];
+      size++;
+    }
+    if (index < size - 1) {
+      version++;
+    }
+    for (int i = index; i < size; i++) {
+      cumulative[i] += value;
+    }
+  }
+
+  /**
+   * Start over from the revenue per second of the drop ledger, oldest first.
+   */
+  synchronized void load(List<SecondRevenue> perSecond) {
+    clear();
+    seconds = new long[Math.max(1024, perSecond.size() * 2)];
+    cumulative = new double[seconds.length];
+    double total = 0;
+    for (SecondRevenue second : perSecond) {
+      total += second.revenue();
+      seconds[size] = second.epochSecond();
+      cumulative[size] = total;
+      size++;
+    }
+  }
+
+  synchronized void clear() {
+    size = 0;
+    version++;
+    cache.clear();
+  }
+
+  synchronized int size() {
+    return size;
+  }
+
+  /**
+   * At most {@code points} points (at least 3) of the cumulative revenue between {@code fromMillis} and
+   * {@code toMillis} included, oldest first, keeping the first and last seconds of the range and the shape in between.
+   */
+  synchronized List<RevenuePoint> series(long fromMillis, long toMillis, int points) {
+    var range = new Range(Math.floorDiv(fromMillis, 1000), Math.floorDiv(toMillis, 1000), Math.max(3, points));
+    Cached cached = cache.get(range);
+    if (cached != null && cached.version() == version
+        && (cached.tailVersion() == BEFORE_TAIL || cached.tailVersion() == tailVersion)) {
+      return cached.points();
+    }
+    int from = lowerBound(range.fromSecond());
+    int to = lowerBound(range.toSecond() + 1);
+    Buckets buckets = cached != null && cached.version() == version ? cached.buckets().extend(from, to) : null;
+    if (buckets == null) {
+      buckets = layOut(from, to, range.points());
+    }
+    List<RevenuePoint> downsampled = buckets.points();
+    cache.put(range, new Cached(version, to < size ? BEFORE_TAIL : tailVersion, buckets, downsampled));
+    return downsampled;
+  }
+
+  /**
+   * Index of the first second at or after {@code second}.
+   */
+  private int lowerBound(long second) {
+    int index = Arrays.binarySearch(seconds, 0, size, second);
+    return index < 0 ? -index - 1 : index;
+  }
+
+  private Buckets layOut(int from, int to, int points) {
+    int n = to - from;
+    if (n <= points) {
+      return new Buckets(from, to, 0, new int[0]);
+    }
+    Buckets buckets = new Buckets(from, to, (double) (n - 2) / (points - 2), new int[points - 2]);
+    buckets.choose(0);
+    return buckets;
+  }
+
+  /**
+   * Largest-Triangle-Three-Buckets over the seconds {@code [from, to)}: the seconds in between the first and the last
+   * are split in {@code points - 2} buckets, and each keeps the second making the largest triangle with the second kept
+   * before it and the average of the next bucket.
+   */
+  private final class Buckets {
+
+    private final int from;
+    private final int to;
+    /** Width of the buckets, the last one taking every second up to the last; 0 when the range is kept whole. */
+    private final double every;
+    /** Second kept in each bucket. */
+    private final int[] chosen;
+
+    private Buckets(int from, int to, double every, int[] chosen) {
+      this.from = from;
+      this.to = to;
+      this.every = every;
+      this.chosen = chosen;
+    }
+
+    /**
+     * The same buckets over {@code [from, to)}, this range with new seconds at its end; null when they must be laid
+     * out again.
+     */
+    @Nullable Buckets extend(int from, int to) {
+      if (from != this.from || every == 0 || to < this.to) {
+        return null;
+      }
+      int last = chosen.length - 1;
+      if (to - 1 - start(last) > 2 * every) {
+        return null;
+      }
+      Buckets extended = new Buckets(from, to, every, chosen.clone());
+      extended.choose(Math.max(0, last - 1));
+      return extended;
+    }
+
+    /**
+     * Pick again the second kept in the buckets from {@code first} on.
+     */
+    private void choose(int first) {
+      int last = chosen.length - 1;
+      for (int bucket = first; bucket <= last; bucket++) {
+        int a = bucket == 0 ? from : chosen[bucket - 1];
+        int start = start(bucket);
+        int end = end(bucket);
+        int nextEnd = bucket == last ? to : end(bucket + 1);
+        double averageX = 0;
+        double averageY = 0;
+        for (int i = end; i < nextEnd; i++) {
+          averageX += seconds[i];
+          averageY += cumulative[i];
+        }
+        int nextSize = Math.max(1, nextEnd - end);
+        averageX /= nextSize;
+        averageY /= nextSize;
+        double maxArea = -1;
+        int kept = start;
+        for (int i = start; i < end; i++) {
+          double area = Math.abs((seconds[a] - averageX) * (cumulative[i] - cumulative[a])
+              - (seconds[a] - seconds[i]) * (averageY - cumulative[a]));
+          if (area > maxArea) {
+            maxArea = area;
+            kept = i;
+          }
+        }
+        chosen[bucket] = kept;
+      }
+    }
+
+    private int start(int bucket) {
+      return from + (int) (bucket * every) + 1;
+    }
+
+    private int end(int bucket) {
+      return bucket == chosen.length - 1 ? to - 1 : start(bucket + 1);
+    }
+
+    List<RevenuePoint> points() {
+      if (every == 0) {
+        List<RevenuePoint> all = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+          all.add(point(i));
+        }
+        return List.copyOf(all);
+      }
+      List<RevenuePoint> sampled = new ArrayList<>(chosen.length + 2);
+      sampled.add(point(from));
+      for (int kept : chosen) {
+        sampled.add(point(kept));
+      }
+      sampled.add(point(to - 1));
+      return List.copyOf(sampled);
+    }
+  }
+
+  private RevenuePoint point(int index) {
+    return new RevenuePoint(seconds[index] * 1000, cumulative[index]);
+  }
+
+  private record Range(long fromSecond, long toSecond, int points) {
+  }
+
+  /**
+   * @param tailVersion {@link #tailVersion} of the points when the range reaches the last second, else
+   *                    {@link #BEFORE_TAIL}
+   */
+  private record Cached(long version, long tailVersion, Buckets buckets, List<RevenuePoint> points) {
+  }
+}
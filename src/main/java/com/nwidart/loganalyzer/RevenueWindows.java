@@ -0,0 +1,107 @@
+package com.nwidart.loganalyzer;
+
+import java.util.Arrays;
+
+/**
+ * Revenue per minute of log time, in a fixed ring of per-minute buckets.
+ * <p>
+ * Adding a drop and summing a window allocate nothing and cost O(1) and O(minutes). Each bucket remembers which minute
+ * it holds, so buckets of minutes without drops, or older than the ring, read as 0 without ever being cleared.
+ * Drops older than the ring are ignored.
+ */
+final class RevenueWindows {
+
+  private static final long MINUTE_MILLIS = 60_000;
+
+  private final long[] minutes;
+  private final double[] revenue;
+  private final long[] drops;
+
+  /**
+   * @param capacity number of minutes kept
+   */
+  RevenueWindows(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+    }
+    this.minutes = new long[capacity];
+    this.revenue = new double[capacity];
+    this.drops = new long[capacity];
+    clear();
+  }
+
+  synchronized void add(long epochMillis, double value) {
+    long minute = Math.floorDiv(epochMillis, MINUTE_MILLIS);
+    int index = index(minute);
+    if (minutes[index] != minute) {
+      if (minutes[index] > minute) {
+        return;
+      }
+      minutes[index] = minute;
+      revenue[index] = 0;
+      drops[index] = 0;
+    }
+    revenue[index] += value;
+    drops[index]++;
+  }
+
+  /**
+   * Revenue of the last {@code count} minutes, the minute of {@code nowMillis} included.
+   */
+  synchronized double sum(long nowMillis, int count) {
+    long now = Math.floorDiv(nowMillis, MINUTE_MILLIS);
+    double sum = 0;
+    for (long minute = now - Math.min(count, minutes.length) + 1; minute <= now; minute++) {
+      int index = index(minute);
+      if (minutes[index] == minute) {
+        sum += revenue[index];
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Drops of the last {@code count} minutes, the minute of {@code nowMillis} included.
+   */
+  synchronized long dropCount(long nowMillis, int count) {
+    long now = Math.floorDiv(nowMillis, MINUTE_MILLIS);
+    long sum = 0;
+    for (long minute = now - Math.min(count, minutes.length) + 1; minute <= now; minute++) {
+      int index = index(minute);
+      if (minutes[index] == minute) {
+        sum += drops[index];
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Revenue of every minute from the minute of {@code fromMillis} to the minute of {@code toMillis}, oldest first, at
+   * most the capacity of the ring (the most recent minutes).
+   */
+  synchronized double[] perMinute(long fromMillis, long toMillis) {
+    long to = Math.floorDiv(toMillis, MINUTE_MILLIS);
+    long from = Math.max(Math.floorDiv(fromMillis, MINUTE_MILLIS), to - minutes.length + 1);
+    if (from > to) {
+      return new double[0];
+    }
+    double[] series = new double[(int) (to - from + 1)];
+    for (long minute = from; minute <= to; minute++) {
+      int index = index(minute);
+      if (minutes[index] == minute) {
+        series[(int) (minute - from)] = revenue[index];
+      }
+    }
+    return series;
+  }
+
+  synchronized void clear() {
+    Arrays.fill(minutes, Long.MIN_VALUE);
+    Arrays.fill(revenue, 0);
+    Arrays.fill(drops, 0);
+  }
+
+  private int index(long minute) {
+    return (int) Math.floorMod(minute, (long) minutes.length);
+  }
+}
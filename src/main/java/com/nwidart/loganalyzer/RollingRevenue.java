@@ -0,0 +1,28 @@
+package com.nwidart.loganalyzer;
+
+/**
+ * Revenue of the most recent minutes of log time, see {@link StatsService#snapshot()}.
+ */
+public record RollingRevenue(
+    float lastMinute,
+    float last5Minutes,
+    float last15Minutes,
+    float lastHour
+) {
+
+  public static final RollingRevenue NONE = new RollingRevenue(0, 0, 0, 0);
+
+  /**
+   * Revenue per hour at the pace of the last 5 minutes.
+   */
+  public double hourlyRateLast5Minutes() {
+    return last5Minutes * 12.0;
+  }
+
+  /**
+   * Revenue per hour at the pace of the last 15 minutes.
+   */
+  public double hourlyRateLast15Minutes() {
+    return last15Minutes * 4.0;
+  }
+}
@@ -0,0 +1,125 @@
+package com.nwidart.loganalyzer;
+
+import com.nwidart.loganalyzer.model.MapRevenue;
+import com.vaadin.flow.shared.Registration;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Shares one {@link StatsSnapshot} per tick between every open view.
+ * <p>
+ * A single thread takes a {@link StatsService#snapshot() snapshot} every {@code tlitracker.stats.publish-ms} while at
+ * least one listener is registered, and hands it to all of them only when it differs from the previous one, so the
+ * cost of the stats does not grow with the number of tabs and idle tabs get no updates. A new listener receives the
+ * last snapshot right away. Registering and publishing are serialized, so a listener never gets an older snapshot
+ * after a newer one.
+ * <p>
+ * The snapshot carries the {@link RevenueCharts}, rendered here only when their series changed: the timeline returns
+ * the same points while no drop comes in, so an idle session costs no rendering and the views only compare the markup.
+ */
+@Service
+public class StatsPublisher {
+
+  private static final Logger log = LoggerFactory.getLogger(StatsPublisher.class);
+
+  private final StatsService statsService;
+  private final long publishMillis;
+  private final CopyOnWriteArraySet<Consumer<StatsSnapshot>> listeners = new CopyOnWriteArraySet<>();
+  private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "stats-publisher");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private volatile @Nullable StatsSnapshot last;
+  // series of the last charts rendered, guarded by this
+  private @Nullable List<RevenuePoint> chartedPoints;
+  private List<MapRevenue> chartedMaps = List.of();
+  private RevenueCharts charts = RevenueCharts.NONE;
+
+  public StatsPublisher(StatsService statsService, @Value("${tlitracker.stats.publish-ms:1000}") long publishMillis) {
+    this.statsService = statsService;
+    this.publishMillis = Math.max(1, publishMillis);
+  }
+
+  @PostConstruct
+  void start() {
+    ticker.scheduleWithFixedDelay(this::tick, publishMillis, publishMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Call {@code listener} with the current snapshot right away, then with every new one on the publisher thread: it
+   * must not block (e.g. hand the snapshot over with {@code ui.access}). Returns a {@link Registration} to unsubscribe.
+   */
+  public synchronized Registration register(Consumer<StatsSnapshot> listener) {
+    StatsSnapshot current = last;
+    if (current == null || listeners.isEmpty()) {
+      // nobody was listening, so the last one may be stale
+      current = withCharts(statsService.snapshot());
+      last = current;
+    }
+    listeners.add(listener);
+    deliver(listener, current);
+    return () -> listeners.remove(listener);
+  }
+
+  /**
+   * Take a snapshot and publish it if it changed. Called by the publisher thread.
+   */
+  synchronized void tick() {
+    if (listeners.isEmpty()) {
+      return;
+    }
+    try {
+      StatsSnapshot current = withCharts(statsService.snapshot());
+      if (current.equals(last)) {
+        return;
+      }
+      last = current;
+      for (Consumer<StatsSnapshot> listener : listeners) {
+        deliver(listener, current);
+      }
+    } catch (RuntimeException e) {
+      log.warn("Failed to publish the stats", e);
+    }
+  }
+
+  private StatsSnapshot withCharts(StatsSnapshot stats) {
+    List<RevenuePoint> points = statsService.revenueOverTime(null, null, RevenueCharts.POINTS);
+    List<MapRevenue> maps = statsService.revenuePerMap(RevenueCharts.MAPS);
+    if (points != chartedPoints || !maps.equals(chartedMaps)) {
+      charts = new RevenueCharts(SvgCharts.line(points), SvgCharts.bars(maps));
+      chartedPoints = points;
+      chartedMaps = maps;
+    }
+    return stats.withCharts(charts);
+  }
+
+  private void deliver(Consumer<StatsSnapshot> listener, StatsSnapshot snapshot) {
+    try {
+      listener.accept(snapshot);
+    } catch (RuntimeException e) {
+      log.warn("Stats listener failed", e);
+    }
+  }
+
+  int listenerCount() {
+    return listeners.size();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    ticker.shutdownNow();
+  }
+}
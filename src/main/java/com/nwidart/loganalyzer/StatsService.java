@@ -1,63 +1,312 @@
 package com.nwidart.loganalyzer;
 
 import com.nwidart.fulltable.FullTableService;
-import com.nwidart.loganalyzer.model.Item;
+import com.nwidart.fulltable.PriceSnapshot;
+import com.nwidart.fulltable.PriceTable;
+import com.nwidart.fulltable.PricesReloaded;
+import com.nwidart.loganalyzer.event.MapEntered;
+import com.nwidart.loganalyzer.event.MapExited;
+import com.nwidart.loganalyzer.model.ItemDropRepository;
+import com.nwidart.loganalyzer.model.ItemWasDroppedEvent;
 import com.nwidart.loganalyzer.model.Map;
+import com.nwidart.loganalyzer.model.MapRevenue;
 import com.nwidart.loganalyzer.model.MapRepository;
+import com.nwidart.loganalyzer.model.SecondRevenue;
+import com.nwidart.loganalyzer.pipeline.BatchRolledBack;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Session statistics.
+ * <p>
+ * {@link #snapshot()} reads running totals maintained from {@link ItemWasDroppedEvent}, {@link MapEntered} and
+ * {@link MapExited} as they are published, so it never touches the database. Revenue is also bucketed per minute of
+ * log time ({@link RevenueWindows}) for the rolling windows and {@link #revenuePerMinute()}. {@link #getSessionRevenue()} and
+ * {@link #currentMapRevenue()} recompute the revenue with aggregate queries over the drop ledger
+ * ({@link ItemDropRepository}); the totals are {@link #rebuild() rebuilt} and {@link #checkConsistency() checked} the
+ * same way.
+ * <p>
+ * The quantity gained of each item is tallied too, for the session and the current map, so that when
+ * {@link PricesReloaded new prices} are swapped in both revenues are recomputed once, in O(distinct items), without the
+ * database. Revenue already bucketed per minute keeps the prices of the time of the drop.
+ * <p>
+ * Every drop carries the {@link ItemWasDroppedEvent#getUnitPrice() unit price} of the time it happened; the revenue at
+ * those prices is kept alongside and is never repriced.
+ * <p>
+ * For charts, the revenue at drop-time prices is also kept per second of log time ({@link RevenueTimeline}) and per
+ * map. Both are loaded from the ledger on {@link #rebuild()} and extended with every drop, so
+ * {@link #revenueOverTime(Instant, Instant, int)} and {@link #revenuePerMap(int)} never query the database either.
+ */
 @Service
 public class StatsService {
 
+  private static final Logger log = LoggerFactory.getLogger(StatsService.class);
+  /** Minutes of per-minute revenue kept, a day. */
+  private static final int WINDOW_MINUTES = 24 * 60;
+
   private final FullTableService fullTableService;
 
   private final MapRepository mapRepository;
 
-  public StatsService(FullTableService fullTableService, MapRepository mapRepository) {
+  private final ItemDropRepository itemDropRepository;
+
+  private final LogClock logClock;
+
+  private final ActiveMapSession activeMapSession;
+
+  /** Replaced as a whole, under {@code this}, so readers never lock. */
+  private volatile Totals totals = Totals.EMPTY;
+
+  private final RevenueWindows windows = new RevenueWindows(WINDOW_MINUTES);
+
+  /** Guarded by {@code this}. */
+  private ItemTally sessionTally = new ItemTally();
+
+  /** Guarded by {@code this}. */
+  private ItemTally mapTally = new ItemTally();
+
+  private final RevenueTimeline timeline = new RevenueTimeline();
+
+  /** Revenue at drop-time prices per map id. Guarded by {@code this}. */
+  private final TreeMap<Long, Double> mapRevenues = new TreeMap<>();
+
+  public StatsService(FullTableService fullTableService, MapRepository mapRepository,
+      ItemDropRepository itemDropRepository, LogClock logClock, ActiveMapSession activeMapSession) {
     this.fullTableService = fullTableService;
     this.mapRepository = mapRepository;
+    this.itemDropRepository = itemDropRepository;
+    this.logClock = logClock;
+    this.activeMapSession = activeMapSession;
   }
 
+  /**
+   * Current statistics, without querying the database.
+   */
+  public StatsSnapshot snapshot() {
+    Totals current = this.totals;
+    return new StatsSnapshot((float) current.sessionRevenue(), (float) current.mapRevenue(),
+        (float) current.sessionRevenueAtDrop(), (float) current.mapRevenueAtDrop(), current.maps(), sessionDuration(),
+        timeInActiveMap(), rollingRevenue());
+  }
+
+  /**
+   * Revenue of the last 1, 5, 15 and 60 minutes of log time.
+   */
+  public RollingRevenue rollingRevenue() {
+    long now = logClock.now().toEpochMilli();
+    return new RollingRevenue((float) windows.sum(now, 1), (float) windows.sum(now, 5), (float) windows.sum(now, 15),
+        (float) windows.sum(now, 60));
+  }
+
+  /**
+   * Revenue of every minute since the first map was entered, oldest first (the last day at most).
+   */
+  public double[] revenuePerMinute() {
+    Instant startedAt = this.activeMapSession.getSessionStartedAt();
+    if (startedAt == null) {
+      return new double[0];
+    }
+    return windows.perMinute(startedAt.toEpochMilli(), logClock.now().toEpochMilli());
+  }
+
+  /**
+   * Cumulative session revenue, at the prices of the time of each drop, between {@code from} and {@code to} (both
+   * included, unbounded when null), downsampled to at most {@code points} points that keep the shape of the curve.
+   */
+  public List<RevenuePoint> revenueOverTime(@Nullable Instant from, @Nullable Instant to, int points) {
+    return timeline.series(from == null ? Long.MIN_VALUE : from.toEpochMilli(),
+        to == null ? Long.MAX_VALUE : to.toEpochMilli(), points);
+  }
+
+  /**
+   * Revenue, at the prices of the time of each drop, of the last {@code maps} maps with drops, oldest first.
+   */
+  public synchronized List<MapRevenue> revenuePerMap(int maps) {
+    List<MapRevenue> revenues = new ArrayList<>(Math.min(Math.max(0, maps), mapRevenues.size()));
+    for (var entry : mapRevenues.descendingMap().entrySet()) {
+      if (revenues.size() >= maps) {
+        break;
+      }
+      revenues.add(new MapRevenue(entry.getKey(), entry.getValue()));
+    }
+    return revenues.reversed();
+  }
+
+  @EventListener
+  public synchronized void onMapEntered(MapEntered event) {
+    Totals current = this.totals;
+    this.totals = new Totals(current.sessionRevenue(), current.sessionRevenueAtDrop(), event.getMap().getId(), 0, 0,
+        current.maps() + 1);
+    this.mapTally = new ItemTally();
+  }
+
+  @EventListener
+  public synchronized void onMapExited(MapExited event) {
+    Totals current = this.totals;
+    if (event.getMapId().equals(current.mapId())) {
+      this.totals = new Totals(current.sessionRevenue(), current.sessionRevenueAtDrop(), null, 0, 0, current.maps());
+      this.mapTally = new ItemTally();
+    }
+  }
+
+  @EventListener
+  public synchronized void onItemDropped(ItemWasDroppedEvent event) {
+    Map map = event.getMap();
+    if (map == null) {
+      return;
+    }
+    int configBaseId = event.getConfigBaseId();
+    int delta = event.getDelta();
+    double value = priceOf(configBaseId) * delta;
+    double valueAtDrop = event.hasUnitPrice() ? event.getUnitPrice() * delta : value;
+    Totals current = this.totals;
+    boolean inCurrentMap = Objects.equals(map.getId(), current.mapId());
+    this.totals = new Totals(current.sessionRevenue() + value, current.sessionRevenueAtDrop() + valueAtDrop,
+        current.mapId(),
+        inCurrentMap ? current.mapRevenue() + value : current.mapRevenue(),
+        inCurrentMap ? current.mapRevenueAtDrop() + valueAtDrop : current.mapRevenueAtDrop(),
+        current.maps());
+    sessionTally.add(configBaseId, delta);
+    if (inCurrentMap) {
+      mapTally.add(configBaseId, delta);
+    }
+    windows.add(event.getOccurredAt().toEpochMilli(), valueAtDrop);
+    timeline.add(event.getOccurredAt().toEpochMilli(), valueAtDrop);
+    if (map.getId() != null) {
+      mapRevenues.merge(map.getId(), valueAtDrop, Double::sum);
+    }
+  }
+
+  /**
+   * Reprice the session and current map revenue with the prices just swapped in.
+   */
+  @EventListener
+  public synchronized void onPricesReloaded(PricesReloaded event) {
+    PriceSnapshot prices = event.getSnapshot();
+    Totals current = this.totals;
+    PriceTable table = prices.table();
+    this.totals = new Totals(sessionTally.revenue(table::priceOf), current.sessionRevenueAtDrop(), current.mapId(),
+        mapTally.revenue(table::priceOf), current.mapRevenueAtDrop(), current.maps());
+    log.info("Repriced session revenue with prices version {}: {} -> {}", prices.version(),
+        String.format("%.0f", current.sessionRevenue()), String.format("%.0f", this.totals.sessionRevenue()));
+  }
+
+  /**
+   * Restart the running totals, the revenue per second and per map from the drop ledger, on startup, when tailing
+   * starts and once a {@link BatchRolledBack rolled back batch} is published. The per-minute revenue is not stored, so
+   * the rolling windows restart empty.
+   */
   @Transactional
-  public Float getSessionRevenue() {
-    double total = mapRepository.findAll().stream()
-        .flatMap(m -> m.getItems().stream())
-        .mapToDouble(item -> getPriceForItem(item) * item.getNum())
-        .sum();
+  @EventListener({ApplicationReadyEvent.class, BatchRolledBack.class})
+  public void rebuild() {
+    Long activeMapId = activeMapSession.getActiveMapId();
+    ItemTally session = ItemTally.of(itemDropRepository.sessionQuantities());
+    ItemTally currentMap =
+        activeMapId == null ? new ItemTally() : ItemTally.of(itemDropRepository.mapQuantities(activeMapId));
+    var rebuilt = new Totals(session.revenue(this::priceOf), itemDropRepository.sessionValueAtDropTime(), activeMapId,
+        currentMap.revenue(this::priceOf), activeMapId == null ? 0 : itemDropRepository.mapValueAtDropTime(activeMapId),
+        (int) mapRepository.count());
+    List<SecondRevenue> perSecond = itemDropRepository.revenuePerSecond();
+    List<MapRevenue> perMap = itemDropRepository.revenuePerMap();
+    synchronized (this) {
+      this.totals = rebuilt;
+      this.sessionTally = session;
+      this.mapTally = currentMap;
+      this.windows.clear();
+      this.timeline.load(perSecond);
+      this.mapRevenues.clear();
+      for (MapRevenue revenue : perMap) {
+        this.mapRevenues.put(revenue.mapId(), revenue.revenue());
+      }
+    }
+  }
 
-    return (float) total;
+  /**
+   * Compare the running totals with the drop ledger and log the differences.
+   *
+   * @return whether both agree
+   */
+  @Transactional
+  public boolean checkConsistency() {
+    Totals current = this.totals;
+    float sessionRevenue = getSessionRevenue();
+    long maps = mapRepository.count();
+    boolean consistent = maps == current.maps() && Math.abs(sessionRevenue - current.sessionRevenue()) < 0.5;
+    if (!consistent) {
+      log.warn("Running stats differ from the database: session revenue {} vs {}, maps {} vs {}",
+          String.format("%.0f", current.sessionRevenue()), String.format("%.0f", sessionRevenue), current.maps(), maps);
+    }
+    return consistent;
+  }
+
+  /**
+   * Value of every drop made in a map, at current prices.
+   */
+  @Transactional
+  public Float getSessionRevenue() {
+    return (float) ItemTally.of(itemDropRepository.sessionQuantities()).revenue(this::priceOf);
   }
 
+  /**
+   * Value of the drops of the active map, at current prices.
+   */
   @Transactional
   public Float currentMapRevenue() {
-    Map activeMap = this.mapRepository.findActiveMap();
-    if (activeMap == null) {
+    Long activeMapId = this.activeMapSession.getActiveMapId();
+    if (activeMapId == null) {
       return 0f;
     }
-    double total = activeMap.getItems().stream()
-        .mapToDouble(item -> getPriceForItem(item) * item.getNum())
-        .sum();
-    return (float) total;
+    return (float) ItemTally.of(itemDropRepository.mapQuantities(activeMapId)).revenue(this::priceOf);
   }
 
   public Float mapsCompleted() {
     return (float) this.mapRepository.count();
   }
 
+  /**
+   * Time spent in the active map, in log time.
+   */
   public Duration timeInActiveMap() {
-    Map activeMap = this.mapRepository.findActiveMap();
-    if (activeMap == null) {
+    Instant startedAt = this.activeMapSession.getStartedAt();
+    if (startedAt == null) {
       return Duration.ZERO;
     }
-    Instant now = Instant.now();
+    return logClock.since(startedAt);
+  }
+
+  /**
+   * Time since the first map was entered, in log time.
+   */
+  public Duration sessionDuration() {
+    Instant startedAt = this.activeMapSession.getSessionStartedAt();
+    if (startedAt == null) {
+      return Duration.ZERO;
+    }
+    return logClock.since(startedAt);
+  }
 
-    return Duration.between(activeMap.getStartedAt(), now);
+  private double priceOf(int configBaseId) {
+    return this.fullTableService.priceOf(configBaseId);
   }
 
-  private Float getPriceForItem(Item item) {
-    return this.fullTableService.getPriceForItem(item);
+  /**
+   * Running revenue of the session and of the active map {@code mapId}, at current prices and at the prices of the time
+   * of each drop, and the number of maps of the session, the active one included.
+   */
+  private record Totals(double sessionRevenue, double sessionRevenueAtDrop, @Nullable Long mapId, double mapRevenue,
+      double mapRevenueAtDrop, int maps) {
+
+    static final Totals EMPTY = new Totals(0, 0, null, 0, 0, 0);
   }
 }
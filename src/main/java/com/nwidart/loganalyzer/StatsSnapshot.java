@@ -0,0 +1,52 @@
+package com.nwidart.loganalyzer;
+
+import java.time.Duration;
+
+/**
+ * Session statistics at one point in time, see {@link StatsService#snapshot()}.
+ *
+ * @param sessionRevenue              value of the drops in all maps of the session, at current prices
+ * @param currentMapRevenue           value of the drops in the active map at current prices, 0 when no map is active
+ * @param sessionRevenueAtDropTime    value of the drops in all maps of the session, at the prices of the time of each
+ *                                    drop
+ * @param currentMapRevenueAtDropTime value of the drops in the active map, at the prices of the time of each drop
+ * @param mapsCompleted               maps of the session, the active one included
+ * @param sessionDuration             time since the first map was entered, in log time
+ * @param timeInActiveMap             time spent in the active map, in log time
+ * @param rolling                     revenue of the last minutes
+ * @param charts                      revenue charts, {@link RevenueCharts#NONE} until the {@link StatsPublisher}
+ *                                    renders them
+ */
+public record StatsSnapshot(
+    float sessionRevenue,
+    float currentMapRevenue,
+    float sessionRevenueAtDropTime,
+    float currentMapRevenueAtDropTime,
+    int mapsCompleted,
+    Duration sessionDuration,
+    Duration timeInActiveMap,
+    RollingRevenue rolling,
+    RevenueCharts charts
+) {
+
+  public StatsSnapshot(float sessionRevenue, float currentMapRevenue, float sessionRevenueAtDropTime,
+      float currentMapRevenueAtDropTime, int mapsCompleted, Duration sessionDuration, Duration timeInActiveMap,
+      RollingRevenue rolling) {
+    this(sessionRevenue, currentMapRevenue, sessionRevenueAtDropTime, currentMapRevenueAtDropTime, mapsCompleted,
+        sessionDuration, timeInActiveMap, rolling, RevenueCharts.NONE);
+  }
+
+  public StatsSnapshot withCharts(RevenueCharts charts) {
+    return new StatsSnapshot(sessionRevenue, currentMapRevenue, sessionRevenueAtDropTime, currentMapRevenueAtDropTime,
+        mapsCompleted, sessionDuration, timeInActiveMap, rolling, charts);
+  }
+
+  public double revenuePerMap() {
+    return mapsCompleted == 0 ? 0 : sessionRevenue / mapsCompleted;
+  }
+
+  public double revenuePerHour() {
+    double hours = Math.max(0.01, sessionDuration.toMillis() / 3_600_000.0);
+    return sessionRevenue / hours;
+  }
+}
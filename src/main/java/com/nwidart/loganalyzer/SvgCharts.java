@@ -0,0 +1,114 @@
+package com.nwidart.loganalyzer;
+
+import com.nwidart.loganalyzer.model.MapRevenue;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Small SVG charts, rendered on the server from series that are already downsampled so the markup stays a few
+ * kilobytes whatever the session length. They scale to the width of their container.
+ */
+final class SvgCharts {
+
+  private static final int WIDTH = 800;
+  private static final int HEIGHT = 200;
+  /** Room left of the plot for the value labels. */
+  private static final int LEFT = 60;
+  /** Room under the plot for the time labels. */
+  private static final int BOTTOM = 20;
+  private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm").withZone(ZoneId.systemDefault());
+
+  private SvgCharts() {
+  }
+
+  /**
+   * Line of the cumulative revenue over time.
+   */
+  static String line(List<RevenuePoint> points) {
+    StringBuilder svg = open();
+    if (points.isEmpty()) {
+      return empty(svg);
+    }
+    long firstMillis = points.getFirst().epochMillis();
+    long spanMillis = Math.max(1, points.getLast().epochMillis() - firstMillis);
+    double max = 0;
+    for (RevenuePoint point : points) {
+      max = Math.max(max, point.revenue());
+    }
+    double top = max <= 0 ? 1 : max;
+    svg.append("<polyline fill='none' stroke='var(--lumo-primary-color)' stroke-width='2' points='");
+    for (RevenuePoint point : points) {
+      double x = LEFT + (double) (point.epochMillis() - firstMillis) / spanMillis * (WIDTH - LEFT);
+      double y = plotY(point.revenue(), top);
+      svg.append(format("%.1f,%.1f ", x, y));
+    }
+    svg.append("'/>");
+    axes(svg, top);
+    label(svg, LEFT, HEIGHT - 4, "start", TIME.format(Instant.ofEpochMilli(firstMillis)));
+    label(svg, WIDTH, HEIGHT - 4, "end", TIME.format(Instant.ofEpochMilli(points.getLast().epochMillis())));
+    return svg.append("</svg>").toString();
+  }
+
+  /**
+   * One bar per map, oldest first.
+   */
+  static String bars(List<MapRevenue> maps) {
+    StringBuilder svg = open();
+    if (maps.isEmpty()) {
+      return empty(svg);
+    }
+    double max = 0;
+    for (MapRevenue map : maps) {
+      max = Math.max(max, map.revenue());
+    }
+    double top = max <= 0 ? 1 : max;
+    double slot = (double) (WIDTH - LEFT) / maps.size();
+    double barWidth = Math.max(1, slot * 0.8);
+    for (int i = 0; i < maps.size(); i++) {
+      MapRevenue map = maps.get(i);
+      double y = plotY(Math.max(0, map.revenue()), top);
+      svg.append(format("<rect x='%.1f' y='%.1f' width='%.1f' height='%.1f' fill='var(--lumo-primary-color-50pct)'>",
+              LEFT + i * slot + (slot - barWidth) / 2, y, barWidth, HEIGHT - BOTTOM - y))
+          .append(format("<title>Map #%d: %.0f</title></rect>", map.mapId(), map.revenue()));
+    }
+    axes(svg, top);
+    label(svg, LEFT, HEIGHT - 4, "start", "#" + maps.getFirst().mapId());
+    label(svg, WIDTH, HEIGHT - 4, "end", "#" + maps.getLast().mapId());
+    return svg.append("</svg>").toString();
+  }
+
+  private static StringBuilder open() {
+    return new StringBuilder(8192).append("<svg xmlns='http://www.w3.org/2000/svg' viewBox='0 0 ")
+        .append(WIDTH).append(' ').append(HEIGHT)
+        .append("' width='100%' font-size='11' fill='var(--lumo-secondary-text-color)'>");
+  }
+
+  private static String empty(StringBuilder svg) {
+    label(svg, WIDTH / 2, HEIGHT / 2, "middle", "No drops yet");
+    return svg.append("</svg>").toString();
+  }
+
+  private static void axes(StringBuilder svg, double top) {
+    svg.append(format("<polyline fill='none' stroke='var(--lumo-contrast-30pct)' points='%d,0 %d,%d %d,%d'/>",
+        LEFT, LEFT, HEIGHT - BOTTOM, WIDTH, HEIGHT - BOTTOM));
+    label(svg, LEFT - 4, 11, "end", format("%.0f", top));
+    label(svg, LEFT - 4, HEIGHT - BOTTOM, "end", "0");
+  }
+
+  private static double plotY(double value, double top) {
+    return (HEIGHT - BOTTOM) * (1 - value / top);
+  }
+
+  private static void label(StringBuilder svg, int x, int y, String anchor, String text) {
+    svg.append("<text x='").append(x).append("' y='").append(y).append("' text-anchor='").append(anchor).append("'>")
+        .append(text).append("</text>");
+  }
+
+  /** Dots as decimal separators whatever the server locale, as SVG expects. */
+  private static String format(String pattern, Object... args) {
+    return String.format(Locale.ROOT, pattern, args);
+  }
+}
@@ -0,0 +1,24 @@
+package com.nwidart.loganalyzer.bulk;
+
+import java.time.Duration;
+
+/**
+ * Outcome of a {@link BulkImporter} run.
+ *
+ * @param lines        number of lines read
+ * @param matchedLines number of lines handed to at least one processor
+ * @param endOffset    byte offset right after the last imported line
+ * @param elapsed      wall-clock duration of the import
+ */
+public record BulkImportResult(
+    long lines,
+    long matchedLines,
+    long endOffset,
+    Duration elapsed
+) {
+
+  public double linesPerSecond() {
+    double seconds = Math.max(1e-3, elapsed.toNanos() / 1e9);
+    return lines / seconds;
+  }
+}
@@ -0,0 +1,333 @@
+package com.nwidart.loganalyzer.bulk;
+
+import com.nwidart.loganalyzer.ApplyTransactions;
+import com.nwidart.loganalyzer.LogClock;
+import com.nwidart.loganalyzer.LogLineDispatcher;
+import com.nwidart.loganalyzer.LogLineDispatcher.Matches;
+import com.nwidart.loganalyzer.LogTimestampParser;
+import com.nwidart.loganalyzer.inventory.InventoryService;
+import com.nwidart.loganalyzer.model.LogEntry;
+import com.nwidart.loganalyzer.pipeline.BatchRolledBack;
+import com.nwidart.loganalyzer.pipeline.PipelineEventPublisher;
+import com.nwidart.loganalyzer.pipeline.StageBatch;
+import com.nwidart.loganalyzer.pipeline.StageBatch.Outcome;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Imports the existing content of a log file much faster than replaying it line by line.
+ * <p>
+ * The file is split into byte-range chunks that always end on a line boundary. Chunks are decoded and matched against
+ * the processors in parallel on a {@link ForkJoinPool}, while the calling thread applies the matched lines chunk after
+ * chunk, in file order, so processors observe exactly the same sequence as with live tailing. Only a bounded window of
+ * chunks is parsed ahead of the apply stage, which groups lines in transactions like live tailing does (see
+ * {@link ApplyTransactions}). The events the processors publish are held until the batch of their line is committed,
+ * and replaced with a {@link BatchRolledBack} if it is rolled back, so listeners never count lines that are lost. A
+ * line that fails is logged and skipped, like in the live pipeline; when it leaves its transaction unable to commit,
+ * the whole batch is rolled back and the import goes on with the next line. Bag changes are written to the database
+ * before the import returns.
+ */
+@Service
+public class BulkImporter {
+
+  private static final Logger log = LoggerFactory.getLogger(BulkImporter.class);
+  private static final int PROBE_SIZE = 4096;
+
+  private final LogLineDispatcher dispatcher;
+  private final LogClock logClock;
+  private final InventoryService inventoryService;
+  private final ApplyTransactions applyTransactions;
+  private final PipelineEventPublisher eventPublisher;
+  private final int chunkSize;
+  private final int parallelism;
+
+  public BulkImporter(LogLineDispatcher dispatcher, LogClock logClock, InventoryService inventoryService,
+      ApplyTransactions applyTransactions, PipelineEventPublisher eventPublisher,
+      @Value("${tlitracker.bulk-import.chunk-size:8388608}") int chunkSize,
+      @Value("${tlitracker.bulk-import.parallelism:0}") int parallelism) {
+    this.dispatcher = dispatcher;
+    this.logClock = logClock;
+    this.inventoryService = inventoryService;
+    this.applyTransactions = applyTransactions;
+    this.eventPublisher = eventPublisher;
+    this.chunkSize = Math.max(PROBE_SIZE / 16, chunkSize);
+    this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * Import the file from {@code startOffset} up to {@code endOffset}. Both must be line boundaries
+   * (see {@link #lastLineEnd(Path)}).
+   *
+   * @param linesBefore number of lines before {@code startOffset}, used to number the imported lines
+   * @param cancelled   checked between chunks; the import stops early when it returns true
+   */
+  public BulkImportResult importFile(Path file, long startOffset, long endOffset, long linesBefore, BooleanSupplier cancelled)
+      throws IOException {
+    long started = System.nanoTime();
+    long lines = 0;
+    long matchedLines = 0;
+    long importedUpTo = startOffset;
+    AppliedLines applied = new AppliedLines();
+    LogTimestampParser timestamps = new LogTimestampParser();
+
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    StageBatch batch = applyTransactions.newBatch();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long[] bounds = chunkBoundaries(channel, startOffset, endOffset, chunkSize);
+      Deque<Future<ParsedChunk>> window = new ArrayDeque<>();
+      int next = 0;
+      while (next < bounds.length - 1 || !window.isEmpty()) {
+        while (next < bounds.length - 1 && window.size() < parallelism * 2) {
+          long start = bounds[next];
+          long end = bounds[next + 1];
+          window.addLast(pool.submit(() -> parse(channel, start, end)));
+          next++;
+        }
+        if (cancelled.getAsBoolean()) {
+          log.info("Bulk import of {} cancelled at offset {}", file, importedUpTo);
+          break;
+        }
+        ParsedChunk chunk = await(window.removeFirst());
+        for (ParsedLine parsed : chunk.matched()) {
+          var entry = timestamps.entry(parsed.line(), linesBefore + lines + parsed.lineInChunk(), logClock);
+          applied.settle(applyLine(batch, entry, parsed.matches(), applied));
+        }
+        lines += chunk.lineCount();
+        matchedLines += chunk.matched().size();
+        importedUpTo = chunk.end();
+      }
+    } finally {
+      applied.settle(closeBatch(batch));
+      pool.shutdownNow();
+    }
+    inventoryService.flush();
+    if (applied.failed > 0 || applied.lost > 0) {
+      log.warn("Bulk import of {}: {} lines failed, {} lines were rolled back with their batch",
+          file, applied.failed, applied.lost);
+    }
+
+    var result = new BulkImportResult(lines, matchedLines, importedUpTo, Duration.ofNanos(System.nanoTime() - started));
+    log.info("Bulk imported {} lines ({} matched) from {} in {} ms ({} lines/s)",
+        result.lines(), result.matchedLines(), file, result.elapsed().toMillis(), String.format("%.0f", result.linesPerSecond()));
+    return result;
+  }
+
+  /**
+   * Apply one line within the batch, the way the apply stage of {@link com.nwidart.loganalyzer.pipeline.LinePipeline}
+   * does: a failing line is logged and ends its batch if it left it unable to commit.
+   */
+  private Outcome applyLine(StageBatch batch, LogEntry entry, Matches matches, AppliedLines applied) {
+    applied.pending++;
+    PipelineEventPublisher.deferTo(applied.events);
+    try {
+      batch.beforeLine();
+      dispatcher.apply(entry, matches);
+      return batch.afterLine();
+    } catch (RuntimeException e) {
+      log.error("Failed to import line {}", entry.lineNumber(), e);
+      applied.failed++;
+      try {
+        return batch.lineFailed();
+      } catch (RuntimeException ex) {
+        log.error("Failed to end a batch of lines after a failure", ex);
+        return Outcome.OPEN;
+      }
+    } finally {
+      PipelineEventPublisher.stopDeferring();
+    }
+  }
+
+  private static Outcome closeBatch(StageBatch batch) {
+    try {
+      return batch.close();
+    } catch (RuntimeException e) {
+      log.error("Failed to close a batch of lines", e);
+      return Outcome.ROLLED_BACK;
+    }
+  }
+
+  /**
+   * Byte offset right after the last {@code \n} of the file, i.e. the end of the last complete line.
+   */
+  public static long lastLineEnd(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer probe = ByteBuffer.allocate(PROBE_SIZE);
+      long end = channel.size();
+      while (end > 0) {
+        long start = Math.max(0, end - PROBE_SIZE);
+        probe.clear().limit((int) (end - start));
+        readFully(channel, probe, start);
+        for (int i = probe.limit() - 1; i >= 0; i--) {
+          if (probe.get(i) == '\n') {
+            return start + i + 1;
+          }
+        }
+        end = start;
+      }
+      return 0;
+    }
+  }
+
+  /**
+   * Split {@code [start, end)} into ranges of roughly {@code chunkSize} bytes, each starting right after a {@code \n}.
+   *
+   * @return ascending offsets, starting with {@code start} and ending with {@code end}
+   */
+  static long[] chunkBoundaries(FileChannel channel, long start, long end, int chunkSize) throws IOException {
+    long[] bounds = new long[16];
+    int count = 0;
+    bounds[count++] = start;
+    ByteBuffer probe = ByteBuffer.allocate(PROBE_SIZE);
+    long position = start + chunkSize;
+    while (position < end) {
+      long lineStart = nextLineStart(channel, position, end, probe);
+      if (lineStart >= end) {
+        break;
+      }
+      if (count == bounds.length - 1) {
+        bounds = Arrays.copyOf(bounds, bounds.length * 2);
+      }
+      bounds[count++] = lineStart;
+      position = lineStart + chunkSize;
+    }
+    bounds[count++] = end;
+    return Arrays.copyOf(bounds, count);
+  }
+
+  private static long nextLineStart(FileChannel channel, long from, long end, ByteBuffer probe) throws IOException {
+    long position = from;
+    while (position < end) {
+      probe.clear().limit((int) Math.min(PROBE_SIZE, end - position));
+      readFully(channel, probe, position);
+      for (int i = 0; i < probe.limit(); i++) {
+        if (probe.get(i) == '\n') {
+          return position + i + 1;
+        }
+      }
+      position += probe.limit();
+    }
+    return end;
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    long offset = position;
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, offset);
+      if (read < 0) {
+        break;
+      }
+      offset += read;
+    }
+  }
+
+  /**
+   * Decode and match one chunk. Runs on the fork-join pool.
+   */
+  private ParsedChunk parse(FileChannel channel, long start, long end) throws IOException {
+    MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    List<ParsedLine> matched = new ArrayList<>();
+    byte[] scratch = new byte[512];
+    int lineStart = 0;
+    int lineCount = 0;
+    int limit = region.limit();
+    // Reused until a line matches, then kept with that line until the chunk is applied
+    Matches matches = new Matches();
+    for (int i = 0; i < limit; i++) {
+      if (region.get(i) != '\n') {
+        continue;
+      }
+      lineCount++;
+      int length = i - lineStart;
+      if (length > 0 && region.get(i - 1) == '\r') {
+        length--;
+      }
+      if (length > scratch.length) {
+        scratch = new byte[Math.max(length, scratch.length * 2)];
+      }
+      region.get(lineStart, scratch, 0, length);
+      String line = new String(scratch, 0, length, StandardCharsets.UTF_8);
+      if (dispatcher.match(line, matches)) {
+        matched.add(new ParsedLine(lineCount, line, matches));
+        matches = new Matches();
+      }
+      lineStart = i + 1;
+    }
+    return new ParsedChunk(end, lineCount, matched);
+  }
+
+  private static ParsedChunk await(Future<ParsedChunk> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Bulk import interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException io) {
+        throw io;
+      }
+      throw new IllegalStateException("Failed to parse log chunk", e.getCause());
+    }
+  }
+
+  /**
+   * The lines applied by an import: holds the events of the open batch and counts the lines that failed or were rolled
+   * back with their batch.
+   */
+  private final class AppliedLines {
+
+    /** Events of the lines of the open batch. */
+    private final List<Object> events = new ArrayList<>();
+    /** Lines applied since the last committed or rolled back batch. */
+    private long pending;
+    private long failed;
+    private long lost;
+
+    /**
+     * Publish or discard the held events according to what became of their lines.
+     */
+    void settle(Outcome outcome) {
+      switch (outcome) {
+        case OPEN -> {
+        }
+        case COMMITTED -> {
+          pending = 0;
+          for (Object event : events) {
+            eventPublisher.publishEvent(event);
+          }
+          events.clear();
+        }
+        case ROLLED_BACK -> {
+          lost += pending;
+          pending = 0;
+          events.clear();
+          eventPublisher.publishEvent(BatchRolledBack.INSTANCE);
+        }
+      }
+    }
+  }
+
+  private record ParsedChunk(long end, int lineCount, List<ParsedLine> matched) {
+  }
+
+  private record ParsedLine(int lineInChunk, String line, Matches matches) {
+  }
+}
@@ -0,0 +1,4 @@
+@NullMarked
+package com.nwidart.loganalyzer.bulk;
+
+import org.jspecify.annotations.NullMarked;
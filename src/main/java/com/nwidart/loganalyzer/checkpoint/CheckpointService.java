@@ -0,0 +1,206 @@
+package com.nwidart.loganalyzer.checkpoint;
+
+import com.nwidart.loganalyzer.ActiveMapSession;
+import com.nwidart.loganalyzer.inventory.InventoryService;
+import com.nwidart.loganalyzer.journal.GameJournal;
+import com.nwidart.loganalyzer.model.DatabaseEpochRepository;
+import com.nwidart.loganalyzer.model.MapRepository;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Persists the tailing position every {@code tlitracker.checkpoint.every-lines} lines or
+ * {@code tlitracker.checkpoint.every-ms} milliseconds, whichever comes first, and tells {@code LogService} where to
+ * resume after a restart.
+ * <p>
+ * Pending bag changes and journal records are written before each checkpoint, so a checkpoint never gets ahead of the
+ * database or the journal. For the same reason, a checkpoint that comes due while lines are applied in a transaction is
+ * only saved by {@link #saveIfDeferred()}, once that transaction is committed.
+ * <p>
+ * Each checkpoint records the {@link com.nwidart.loganalyzer.model.DatabaseEpoch epoch} of the database, and is only
+ * resumed against that same database. The application keeps its database in a file for that reason; an in-memory
+ * database (e.g. in tests) starts empty after a restart, and resuming mid-file would then lose every map and drop
+ * before the checkpoint.
+ */
+@Service
+public class CheckpointService {
+
+  private static final Logger log = LoggerFactory.getLogger(CheckpointService.class);
+
+  private final MapRepository mapRepository;
+  private final DatabaseEpochRepository epochRepository;
+  private final ActiveMapSession activeMapSession;
+  private final InventoryService inventoryService;
+  private final GameJournal journal;
+  private final CheckpointStore store;
+  private final boolean enabled;
+  private final long everyLines;
+  private final long everyNanos;
+
+  private @Nullable Path file;
+  private long lastOffset = -1;
+  private long lastLineNumber;
+  private long linesSinceSave;
+  private long lastSaveNanos;
+  private boolean deferred;
+  private @Nullable String databaseEpoch;
+
+  public CheckpointService(MapRepository mapRepository, DatabaseEpochRepository epochRepository,
+      ActiveMapSession activeMapSession, InventoryService inventoryService, GameJournal journal,
+      @Value("${tlitracker.checkpoint.enabled:true}") boolean enabled,
+      @Value("${tlitracker.checkpoint.file:${user.home}/.torchstats/checkpoint.properties}") Path checkpointFile,
+      @Value("${tlitracker.checkpoint.every-lines:1000}") long everyLines,
+      @Value("${tlitracker.checkpoint.every-ms:2000}") long everyMillis) {
+    this.mapRepository = mapRepository;
+    this.epochRepository = epochRepository;
+    this.activeMapSession = activeMapSession;
+    this.inventoryService = inventoryService;
+    this.journal = journal;
+    this.store = new CheckpointStore(checkpointFile);
+    this.enabled = enabled;
+    this.everyLines = Math.max(1, everyLines);
+    this.everyNanos = Math.max(1, everyMillis) * 1_000_000;
+  }
+
+  /**
+   * Returns the checkpoint to resume {@code logFile} from, or null when there is none, checkpointing is disabled, the
+   * file was rotated since the checkpoint was taken, or it was taken against another database (or one that no longer
+   * holds the map that was active then).
+   */
+  public @Nullable TailCheckpoint resumePoint(Path logFile) {
+    if (!enabled || !Files.isRegularFile(logFile)) {
+      return null;
+    }
+    try {
+      Optional<TailCheckpoint> saved = store.load();
+      if (saved.isEmpty()) {
+        return null;
+      }
+      TailCheckpoint checkpoint = saved.get();
+      if (!checkpoint.file().equals(logFile.toAbsolutePath().toString())) {
+        log.info("Ignoring checkpoint for {}, now tailing {}", checkpoint.file(), logFile);
+        return null;
+      }
+      if (!checkpoint.identity().isSameFile(FileIdentity.of(logFile))) {
+        log.info("Log file {} was rotated since the checkpoint of {}, reading it from the start",
+            logFile, checkpoint.savedAt());
+        return null;
+      }
+      if (!databaseEpoch().equals(checkpoint.databaseEpoch())) {
+        log.info("Checkpoint of {} was taken against another database, reading it from the start", logFile);
+        return null;
+      }
+      if (checkpoint.activeMapId() != null && !mapRepository.existsById(checkpoint.activeMapId())) {
+        log.info("Map {} from the checkpoint is not in the database anymore, reading {} from the start",
+            checkpoint.activeMapId(), logFile);
+        return null;
+      }
+      log.info("Resuming {} at line {} (offset {}, active map {})",
+          logFile, checkpoint.lineNumber(), checkpoint.offset(), checkpoint.activeMapId());
+      return checkpoint;
+    } catch (IOException e) {
+      log.warn("Cannot read checkpoint, reading {} from the start", logFile, e);
+      return null;
+    }
+  }
+
+  /**
+   * Start tracking a tailing session, or restart tracking after the file was rotated.
+   *
+   * @param offset byte offset reached so far, or -1 if unknown
+   */
+  public synchronized void begin(Path logFile, long offset, long lineNumber) {
+    this.file = logFile.toAbsolutePath();
+    this.lastOffset = offset;
+    this.lastLineNumber = lineNumber;
+    this.linesSinceSave = 0;
+    this.lastSaveNanos = System.nanoTime();
+  }
+
+  /**
+   * Record that the line ending at {@code endOffset} was processed, saving a checkpoint when one is due.
+   */
+  public synchronized void onLine(long endOffset, long lineNumber) {
+    if (!enabled || endOffset < 0) {
+      return;
+    }
+    this.lastOffset = endOffset;
+    this.lastLineNumber = lineNumber;
+    if (++linesSinceSave >= everyLines || System.nanoTime() - lastSaveNanos >= everyNanos) {
+      if (TransactionSynchronizationManager.isActualTransactionActive()) {
+        deferred = true;
+      } else {
+        save();
+      }
+    }
+  }
+
+  /**
+   * Save the checkpoint that came due inside a transaction, now that it is committed.
+   */
+  public synchronized void saveIfDeferred() {
+    if (deferred) {
+      save();
+    }
+  }
+
+  /**
+   * Forget the checkpoint that came due inside a transaction that was rolled back: it would skip lines whose maps
+   * are not in the database.
+   */
+  public synchronized void discardDeferred() {
+    deferred = false;
+  }
+
+  /**
+   * Save the last recorded position right away.
+   */
+  public synchronized void flush() {
+    if (enabled && linesSinceSave > 0) {
+      save();
+    }
+  }
+
+  private synchronized String databaseEpoch() {
+    String epoch = databaseEpoch;
+    if (epoch == null) {
+      epoch = epochRepository.current();
+      databaseEpoch = epoch;
+    }
+    return epoch;
+  }
+
+  private void save() {
+    Path current = file;
+    if (current == null || lastOffset < 0) {
+      return;
+    }
+    try {
+      inventoryService.flush();
+      journal.flush();
+      var checkpoint = new TailCheckpoint(
+          current.toString(),
+          lastOffset,
+          lastLineNumber,
+          FileIdentity.of(current),
+          activeMapSession.getActiveMapId(),
+          databaseEpoch(),
+          Instant.now());
+      store.save(checkpoint);
+    } catch (IOException | RuntimeException e) {
+      log.warn("Failed to save checkpoint for {}", current, e);
+    }
+    linesSinceSave = 0;
+    lastSaveNanos = System.nanoTime();
+    deferred = false;
+  }
+}
@@ -0,0 +1,86 @@
+package com.nwidart.loganalyzer.checkpoint;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Properties;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Reads and writes a {@link TailCheckpoint} as a small properties file. Writes go to a temporary file that is then
+ * moved over the previous checkpoint, so a crash never leaves a half-written checkpoint behind.
+ */
+class CheckpointStore {
+
+  private final Path path;
+
+  CheckpointStore(Path path) {
+    this.path = path;
+  }
+
+  Optional<TailCheckpoint> load() throws IOException {
+    if (!Files.isRegularFile(path)) {
+      return Optional.empty();
+    }
+    Properties props = new Properties();
+    try (InputStream in = Files.newInputStream(path)) {
+      props.load(in);
+    }
+    try {
+      var identity = new FileIdentity(
+          props.getProperty("fileKey"),
+          Long.parseLong(props.getProperty("fileSize")),
+          Long.parseLong(props.getProperty("firstLineHash")));
+      String activeMapId = props.getProperty("activeMapId");
+      return Optional.of(new TailCheckpoint(
+          props.getProperty("file"),
+          Long.parseLong(props.getProperty("offset")),
+          Long.parseLong(props.getProperty("lineNumber")),
+          identity,
+          activeMapId == null ? null : Long.valueOf(activeMapId),
+          props.getProperty("databaseEpoch"),
+          Instant.parse(props.getProperty("savedAt"))));
+    } catch (RuntimeException e) {
+      throw new IOException("Corrupt checkpoint file " + path, e);
+    }
+  }
+
+  void save(TailCheckpoint checkpoint) throws IOException {
+    Properties props = new Properties();
+    props.setProperty("file", checkpoint.file());
+    props.setProperty("offset", Long.toString(checkpoint.offset()));
+    props.setProperty("lineNumber", Long.toString(checkpoint.lineNumber()));
+    setIfPresent(props, "fileKey", checkpoint.identity().fileKey());
+    props.setProperty("fileSize", Long.toString(checkpoint.identity().size()));
+    props.setProperty("firstLineHash", Long.toString(checkpoint.identity().firstLineHash()));
+    setIfPresent(props, "activeMapId", checkpoint.activeMapId() == null ? null : checkpoint.activeMapId().toString());
+    setIfPresent(props, "databaseEpoch", checkpoint.databaseEpoch());
+    props.setProperty("savedAt", checkpoint.savedAt().toString());
+
+    Path dir = path.toAbsolutePath().getParent();
+    if (dir != null) {
+      Files.createDirectories(dir);
+    }
+    Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+    try (OutputStream out = Files.newOutputStream(tmp)) {
+      props.store(out, "torchstats tail checkpoint");
+    }
+    try {
+      Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static void setIfPresent(Properties props, String key, @Nullable String value) {
+    if (value != null) {
+      props.setProperty(key, value);
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.nwidart.loganalyzer.checkpoint;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.zip.CRC32;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Identifies a log file across restarts, so a checkpoint is never applied to a different (rotated) file.
+ *
+ * @param fileKey       platform file key (device/inode on Unix), null where unsupported (Windows)
+ * @param size          file size in bytes
+ * @param firstLineHash CRC32 of the first line (at most {@link #FIRST_LINE_LIMIT} bytes)
+ */
+public record FileIdentity(
+    @Nullable String fileKey,
+    long size,
+    long firstLineHash
+) {
+
+  static final int FIRST_LINE_LIMIT = 4096;
+
+  public static FileIdentity of(Path file) throws IOException {
+    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    Object key = attributes.fileKey();
+    return new FileIdentity(key == null ? null : key.toString(), attributes.size(), firstLineHash(file));
+  }
+
+  /**
+   * Whether {@code current} is this file, possibly grown since this identity was taken.
+   */
+  public boolean isSameFile(FileIdentity current) {
+    if (fileKey != null && current.fileKey() != null && !Objects.equals(fileKey, current.fileKey())) {
+      return false;
+    }
+    return current.size() >= size && current.firstLineHash() == firstLineHash;
+  }
+
+  private static long firstLineHash(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer head = ByteBuffer.allocate(FIRST_LINE_LIMIT);
+      while (head.hasRemaining() && channel.read(head) > 0) {
+        // fill the buffer or reach the end of the file
+      }
+      head.flip();
+      int length = 0;
+      while (length < head.limit() && head.get(length) != '\n') {
+        length++;
+      }
+      CRC32 crc = new CRC32();
+      crc.update(head.limit(length));
+      return crc.getValue();
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package com.nwidart.loganalyzer.checkpoint;
+
+import java.time.Instant;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Position reached in a log file, persisted so tailing can resume there after a restart.
+ *
+ * @param file        absolute path of the tailed file
+ * @param offset      byte offset right after the last processed line
+ * @param lineNumber  number of the last processed line
+ * @param identity    identity of the file when the checkpoint was taken
+ * @param activeMapId id of the map that was active, if any
+ * @param databaseEpoch {@link com.nwidart.loganalyzer.model.DatabaseEpoch epoch} of the database the lines were
+ *                      applied to, null in checkpoints written before it was recorded
+ * @param savedAt     when the checkpoint was written
+ */
+public record TailCheckpoint(
+    String file,
+    long offset,
+    long lineNumber,
+    FileIdentity identity,
+    @Nullable Long activeMapId,
+    @Nullable String databaseEpoch,
+    Instant savedAt
+) {
+
+}
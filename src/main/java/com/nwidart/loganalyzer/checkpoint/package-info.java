@@ -0,0 +1,4 @@
+@NullMarked
+package com.nwidart.loganalyzer.checkpoint;
+
+import org.jspecify.annotations.NullMarked;
@@ -2,67 +2,200 @@ package com.nwidart.loganalyzer.event;
 
 import com.vaadin.flow.shared.Registration;
 import java.time.Instant;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
  * A lightweight in-memory broadcaster for item drop events that can be used
  * by Vaadin UIs to receive server-pushed updates. It also keeps a bounded
  * backlog so newly opened views can show recent events instantly.
+ * <p>
+ * Events are published into a lock-free {@link SequenceRing}, so {@link #broadcast(DropEvent)} never waits for a
+ * listener. Each listener reads the ring from its own position on its own virtual thread; that position is its mailbox
+ * of at most {@code tlitracker.broadcast.mailbox-size} events. A listener further behind than that loses the oldest
+ * events or gets them coalesced, depending on its {@link MailboxOverflow}.
  */
 @Component
 public class DropEventBroadcaster {
 
+  private static final Logger log = LoggerFactory.getLogger(DropEventBroadcaster.class);
   private static final int DEFAULT_BACKLOG_SIZE = 200;
+  private static final int DEFAULT_MAILBOX_SIZE = 256;
 
-  private final CopyOnWriteArraySet<Consumer<DropEvent>> listeners = new CopyOnWriteArraySet<>();
-  private final Deque<DropEvent> backlog = new ArrayDeque<>();
+  private final CopyOnWriteArraySet<Subscription> subscriptions = new CopyOnWriteArraySet<>();
+  private final SequenceRing<DropEvent> ring;
   private final int maxBacklogSize;
+  private final int mailboxSize;
+  private final MailboxOverflow defaultOverflow;
 
-  public DropEventBroadcaster() {
-    this(DEFAULT_BACKLOG_SIZE);
+  public DropEventBroadcaster(int maxBacklogSize) {
+    this(maxBacklogSize, DEFAULT_MAILBOX_SIZE, MailboxOverflow.DROP_OLDEST);
   }
 
-  public DropEventBroadcaster(int maxBacklogSize) {
+  @Autowired
+  public DropEventBroadcaster(
+      @Value("${tlitracker.broadcast.backlog-size:" + DEFAULT_BACKLOG_SIZE + "}") int maxBacklogSize,
+      @Value("${tlitracker.broadcast.mailbox-size:" + DEFAULT_MAILBOX_SIZE + "}") int mailboxSize,
+      @Value("${tlitracker.broadcast.overflow:drop-oldest}") MailboxOverflow defaultOverflow) {
     this.maxBacklogSize = Math.max(1, maxBacklogSize);
+    this.mailboxSize = Math.max(1, mailboxSize);
+    this.defaultOverflow = defaultOverflow;
+    this.ring = new SequenceRing<>(Math.max(this.maxBacklogSize, this.mailboxSize));
   }
 
-  /** Register a listener. Returns a {@link Registration} to unsubscribe. */
+  /** Register a listener for the events broadcast from now on. Returns a {@link Registration} to unsubscribe. */
   public Registration register(Consumer<DropEvent> listener) {
+    return register(listener, lastSequence(), defaultOverflow);
+  }
+
+  /**
+   * Register a listener for the events broadcast after {@code afterSequence}, e.g. the last one read from the backlog.
+   */
+  public Registration register(Consumer<DropEvent> listener, long afterSequence) {
+    return register(listener, afterSequence, defaultOverflow);
+  }
+
+  /**
+   * Register a listener for the events broadcast after {@code afterSequence}. The listener is called on a virtual
+   * thread of its own, one event at a time.
+   */
+  public Registration register(Consumer<DropEvent> listener, long afterSequence, MailboxOverflow overflow) {
     Objects.requireNonNull(listener, "listener");
-    listeners.add(listener);
-    return () -> listeners.remove(listener);
+    Objects.requireNonNull(overflow, "overflow");
+    var subscription = new Subscription(listener, afterSequence, overflow);
+    subscriptions.add(subscription);
+    subscription.start();
+    return subscription;
   }
 
   /** Returns a snapshot copy of the current backlog (oldest first). */
   public List<DropEvent> getBacklog() {
-    synchronized (backlog) {
-      return new ArrayList<>(backlog);
-    }
+    List<DropEvent> events = new ArrayList<>(maxBacklogSize);
+    readBacklog(0, (sequence, event) -> events.add(event));
+    return events;
+  }
+
+  /**
+   * Hand the backlog events broadcast after {@code afterSequence} to {@code reader}, oldest first, without copying it.
+   *
+   * @return the sequence number of the last event read, to {@link #register(Consumer, long) register} from or to read
+   * from next time
+   */
+  public long readBacklog(long afterSequence, BacklogReader reader) {
+    return ring.read(afterSequence, maxBacklogSize, reader::accept);
+  }
+
+  /** Sequence number of the last event broadcast, 0 before the first one. */
+  public long lastSequence() {
+    return ring.last();
   }
 
   /** Broadcasts an event to all listeners and stores it in the backlog. */
   public void broadcast(DropEvent event) {
     if (event == null) return;
-    synchronized (backlog) {
-      backlog.addLast(event);
-      while (backlog.size() > maxBacklogSize) {
-        backlog.removeFirst();
+    ring.publish(event);
+    for (var subscription : subscriptions) {
+      subscription.wake();
+    }
+  }
+
+  /**
+   * Reads backlog events in place.
+   */
+  @FunctionalInterface
+  public interface BacklogReader {
+
+    void accept(long sequence, DropEvent event);
+  }
+
+  private final class Subscription implements Registration {
+
+    private final Consumer<DropEvent> listener;
+    private final MailboxOverflow overflow;
+    private final Thread thread;
+    /** Last sequence delivered, only used by {@link #thread}. */
+    private long cursor;
+    private volatile boolean closed;
+
+    private Subscription(Consumer<DropEvent> listener, long afterSequence, MailboxOverflow overflow) {
+      this.listener = listener;
+      this.overflow = overflow;
+      this.cursor = afterSequence;
+      this.thread = Thread.ofVirtual().name("drop-listener").unstarted(this::drain);
+    }
+
+    void start() {
+      thread.start();
+    }
+
+    void wake() {
+      LockSupport.unpark(thread);
+    }
+
+    private void drain() {
+      while (!closed) {
+        long last = ring.last();
+        if (last == cursor) {
+          LockSupport.park(this);
+          continue;
+        }
+        long behind = last - cursor;
+        long read;
+        if (behind > mailboxSize && overflow == MailboxOverflow.COALESCE) {
+          read = deliverCoalesced();
+        } else {
+          // DROP_OLDEST: the ring only hands over the last mailboxSize events
+          read = ring.read(cursor, mailboxSize, (sequence, event) -> deliver(event));
+        }
+        if (read == cursor) {
+          // The next event is still being written
+          Thread.onSpinWait();
+        }
+        cursor = read;
       }
     }
-    for (var l : listeners) {
+
+    private long deliverCoalesced() {
+      var merged = new LinkedHashMap<CoalesceKey, DropEvent>();
+      long read = ring.read(cursor, ring.capacity(), (sequence, event) ->
+          merged.merge(new CoalesceKey(event.configBaseId(), event.mapStartedAt()), event, (older, newer) ->
+              new DropEvent(newer.time(), newer.configBaseId(), older.delta() + newer.delta(), newer.total(),
+                  newer.price(), newer.mapStartedAt())));
+      merged.values().forEach(this::deliver);
+      return read;
+    }
+
+    private void deliver(DropEvent event) {
+      if (closed) {
+        return;
+      }
       try {
-        l.accept(event);
-      } catch (RuntimeException ignored) {
+        listener.accept(event);
+      } catch (RuntimeException e) {
         // isolate listener exceptions
+        log.debug("Drop listener failed", e);
       }
     }
+
+    @Override
+    public void remove() {
+      closed = true;
+      subscriptions.remove(this);
+      wake();
+    }
+  }
+
+  private record CoalesceKey(String configBaseId, Instant mapStartedAt) {
   }
 
   /**
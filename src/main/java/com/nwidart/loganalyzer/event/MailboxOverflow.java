@@ -0,0 +1,17 @@
+package com.nwidart.loganalyzer.event;
+
+/**
+ * What a subscriber of {@link DropEventBroadcaster} receives when it falls further behind than its mailbox holds.
+ */
+public enum MailboxOverflow {
+
+  /**
+   * Skip the oldest pending events and only deliver the newest ones the mailbox holds.
+   */
+  DROP_OLDEST,
+
+  /**
+   * Deliver the pending events merged per item and map: the deltas are summed, the rest is taken from the newest event.
+   */
+  COALESCE
+}
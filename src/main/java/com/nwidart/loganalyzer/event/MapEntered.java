@@ -0,0 +1,18 @@
+package com.nwidart.loganalyzer.event;
+
+import com.nwidart.loganalyzer.model.Map;
+import org.springframework.context.ApplicationEvent;
+
+public class MapEntered extends ApplicationEvent {
+
+  private final Map map;
+
+  public MapEntered(Object source, Map map) {
+    super(source);
+    this.map = map;
+  }
+
+  public Map getMap() {
+    return map;
+  }
+}
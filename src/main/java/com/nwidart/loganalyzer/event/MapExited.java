@@ -0,0 +1,27 @@
+package com.nwidart.loganalyzer.event;
+
+import java.time.Instant;
+import org.springframework.context.ApplicationEvent;
+
+public class MapExited extends ApplicationEvent {
+
+  private final Long mapId;
+  private final Instant endedAt;
+
+  /**
+   * @param endedAt log time the map was left
+   */
+  public MapExited(Object source, Long mapId, Instant endedAt) {
+    super(source);
+    this.mapId = mapId;
+    this.endedAt = endedAt;
+  }
+
+  public Long getMapId() {
+    return mapId;
+  }
+
+  public Instant getEndedAt() {
+    return endedAt;
+  }
+}
@@ -0,0 +1,74 @@
+package com.nwidart.loganalyzer.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Pre-sized ring of the last values published, each tagged with its sequence number (starting at 1). Publishing is
+ * lock-free and safe from several threads; readers walk the slots in place from any sequence, without locking or
+ * copying, and notice the values that were overwritten while they read.
+ */
+final class SequenceRing<T> {
+
+  private final AtomicReferenceArray<Entry<T>> slots;
+  private final int mask;
+  /** Sequence of the last value claimed; its slot may not be written yet. */
+  private final AtomicLong last = new AtomicLong();
+
+  SequenceRing(int minCapacity) {
+    int capacity = Integer.highestOneBit(Math.max(2, minCapacity) * 2 - 1);
+    this.slots = new AtomicReferenceArray<>(capacity);
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * @return the sequence number of {@code value}
+   */
+  long publish(T value) {
+    long sequence = last.incrementAndGet();
+    slots.setRelease((int) (sequence & mask), new Entry<>(sequence, value));
+    return sequence;
+  }
+
+  /**
+   * Sequence number of the last value published, 0 when none was.
+   */
+  long last() {
+    return last.get();
+  }
+
+  int capacity() {
+    return mask + 1;
+  }
+
+  /**
+   * Hand the values published after {@code after} to {@code reader}, oldest first, at most the last {@code retained}
+   * ones. Stops at a value whose slot is still being written.
+   *
+   * @return the sequence number of the last value read or skipped, {@code after} when there was none
+   */
+  long read(long after, int retained, Reader<? super T> reader) {
+    long end = last.get();
+    long sequence = Math.max(after, end - Math.min(retained, capacity()));
+    while (sequence < end) {
+      Entry<T> entry = slots.getAcquire((int) (sequence + 1 & mask));
+      if (entry == null || entry.sequence() < sequence + 1) {
+        break;
+      }
+      sequence++;
+      if (entry.sequence() == sequence) {
+        reader.accept(sequence, entry.value());
+      }
+    }
+    return sequence;
+  }
+
+  @FunctionalInterface
+  interface Reader<T> {
+
+    void accept(long sequence, T value);
+  }
+
+  private record Entry<T>(long sequence, T value) {
+  }
+}
@@ -0,0 +1,55 @@
+package com.nwidart.loganalyzer.inventory;
+
+import java.sql.Types;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.jspecify.annotations.Nullable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Appends bag changes to the {@code item_drop} ledger with JDBC batch inserts, bypassing the persistence context. Joins
+ * the caller's transaction. A change is appended without its map when the map does not exist, e.g. because the batch
+ * of lines that saved it was rolled back, so the ledger never points to a lost map.
+ */
+@Component
+public class DropLedger {
+
+  private static final String INSERT =
+      "insert into item_drop (map_id, occurred_at, config_base_id, delta, unit_price, drop_value) "
+          + "values ((select m.map_id from map m where m.map_id = ?), ?, ?, ?, ?, ?)";
+  private static final int BATCH_SIZE = 500;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public DropLedger(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public void append(List<Entry> entries) {
+    if (entries.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.batchUpdate(INSERT, entries, BATCH_SIZE, (ps, entry) -> {
+      if (entry.mapId() == null) {
+        ps.setNull(1, Types.BIGINT);
+      } else {
+        ps.setLong(1, entry.mapId());
+      }
+      ps.setObject(2, entry.occurredAt().atOffset(ZoneOffset.UTC));
+      ps.setInt(3, entry.change().configBaseId());
+      ps.setInt(4, entry.change().delta());
+      ps.setFloat(5, entry.change().unitPrice());
+      ps.setFloat(6, entry.change().delta() * entry.change().unitPrice());
+    });
+  }
+
+  /**
+   * A change to append.
+   *
+   * @param mapId map it happened in, if any; dropped if the map does not exist
+   */
+  public record Entry(SlotChange change, @Nullable Long mapId, Instant occurredAt) {
+  }
+}
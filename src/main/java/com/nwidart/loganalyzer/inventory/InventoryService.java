@@ -0,0 +1,223 @@
+package com.nwidart.loganalyzer.inventory;
+
+import com.nwidart.fulltable.FullTableService;
+import com.nwidart.loganalyzer.model.Bag;
+import com.nwidart.loganalyzer.model.Item;
+import com.nwidart.loganalyzer.model.ItemId;
+import com.nwidart.loganalyzer.model.ItemKey;
+import com.nwidart.loganalyzer.model.ItemRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Authoritative state of the bag while a log is processed, written behind to the database.
+ * <p>
+ * Slot changes are computed against the in-memory {@link Bag}; the database is only read the first time a slot is seen.
+ * Changes are queued and written in one transaction every {@code tlitracker.inventory.flush-ms} milliseconds, as soon
+ * as {@code tlitracker.inventory.flush-batch} changes are pending, or when {@link #flush()} is called: the items are
+ * updated, linked to their maps ({@link MapItemLinks}), and every change is appended to the {@link DropLedger}. Each
+ * change records the unit price of the item at the time it happened, so its value does not move with later price
+ * tables.
+ */
+@Service
+public class InventoryService {
+
+  private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
+
+  private final ItemRepository itemRepository;
+  private final EntityManager entityManager;
+  private final FullTableService fullTableService;
+  private final DropLedger dropLedger;
+  private final MapItemLinks mapItemLinks;
+  private final TransactionTemplate transactionTemplate;
+  private final long flushMillis;
+  private final int flushBatch;
+  private final Bag bag = new Bag();
+  /** Serializes flushes so batches are written in order. */
+  private final ReentrantLock flushLock = new ReentrantLock();
+  private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "inventory-flusher");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /** Guarded by {@code this}. */
+  private List<DropLedger.Entry> pending = new ArrayList<>();
+
+  public InventoryService(ItemRepository itemRepository, EntityManager entityManager,
+      FullTableService fullTableService, DropLedger dropLedger, MapItemLinks mapItemLinks,
+      PlatformTransactionManager transactionManager,
+      @Value("${tlitracker.inventory.flush-ms:100}") long flushMillis,
+      @Value("${tlitracker.inventory.flush-batch:500}") int flushBatch) {
+    this.itemRepository = itemRepository;
+    this.entityManager = entityManager;
+    this.fullTableService = fullTableService;
+    this.dropLedger = dropLedger;
+    this.mapItemLinks = mapItemLinks;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.flushMillis = Math.max(1, flushMillis);
+    this.flushBatch = Math.max(1, flushBatch);
+  }
+
+  @PostConstruct
+  void start() {
+    flusher.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Record the count of a slot reported by the game. Must be called from one thread at a time.
+   *
+   * @param mapId      map the change happened in, if any
+   * @param occurredAt log time of the change, to price it
+   */
+  public SlotChange modify(int pageId, int slotId, int configBaseId, int count, @Nullable Long mapId,
+      Instant occurredAt) {
+    int previous = bag.count(pageId, slotId, configBaseId);
+    if (previous == Bag.UNKNOWN) {
+      previous = storedTotal(pageId, slotId, configBaseId);
+    }
+    bag.put(pageId, slotId, configBaseId, count);
+    float unitPrice = (float) fullTableService.priceAt(configBaseId, occurredAt);
+    var change = new SlotChange(pageId, slotId, configBaseId, count - previous, count, unitPrice);
+    enqueue(new DropLedger.Entry(change, mapId, occurredAt));
+    return change;
+  }
+
+  /**
+   * Total of a slot never seen before, as last written. Reads the count alone rather than the {@link Item}.
+   */
+  private int storedTotal(int pageId, int slotId, int configBaseId) {
+    Integer stored = itemRepository.findTotal(Integer.toString(configBaseId), Integer.toString(pageId),
+        Integer.toString(slotId));
+    return stored == null ? 0 : stored;
+  }
+
+  private void enqueue(DropLedger.Entry write) {
+    int size;
+    synchronized (this) {
+      pending.add(write);
+      size = pending.size();
+    }
+    if (size == flushBatch) {
+      flusher.execute(this::flushQuietly);
+    }
+  }
+
+  private synchronized List<DropLedger.Entry> drain() {
+    List<DropLedger.Entry> batch = pending;
+    pending = new ArrayList<>(Math.max(16, batch.size()));
+    return batch;
+  }
+
+  /**
+   * Write the pending changes now, on the calling thread.
+   */
+  public void flush() {
+    flushLock.lock();
+    try {
+      List<DropLedger.Entry> batch = drain();
+      if (!batch.isEmpty()) {
+        transactionTemplate.executeWithoutResult(status -> write(batch));
+        log.debug("Wrote {} bag changes", batch.size());
+      }
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /**
+   * Hold the background writes until {@link #unlockFlushes()} is called by the same thread, e.g. while that thread saves
+   * maps in a transaction the writes could not see yet. The calling thread can still {@link #flush()}.
+   */
+  public void lockFlushes() {
+    flushLock.lock();
+  }
+
+  public void unlockFlushes() {
+    flushLock.unlock();
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      log.error("Failed to write bag changes", e);
+    }
+  }
+
+  /**
+   * Write the pending changes and forget the in-memory bag, e.g. before another log is processed.
+   */
+  public void reset() {
+    flushLock.lock();
+    try {
+      flush();
+      bag.clear();
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  private void write(List<DropLedger.Entry> batch) {
+    java.util.Map<Long, Item> items = new HashMap<>();
+    Set<MapItemLinks.Link> links = new LinkedHashSet<>();
+    List<DropLedger.Entry> drops = new ArrayList<>(batch.size());
+    for (DropLedger.Entry write : batch) {
+      SlotChange change = write.change();
+      Item item = items.computeIfAbsent(change.key(), key -> findOrCreate(ItemKey.toItemId(key)));
+      item.setNum(change.delta());
+      item.setTotal(change.total());
+      item.setUnitPrice(change.unitPrice());
+      if (change.delta() != 0) {
+        drops.add(write);
+      }
+      if (write.mapId() != null) {
+        links.add(new MapItemLinks.Link(write.mapId(), change.key()));
+      }
+    }
+    // The links are inserted with JDBC, after the items they refer to
+    entityManager.flush();
+    mapItemLinks.link(links);
+    dropLedger.append(drops);
+  }
+
+  private Item findOrCreate(ItemId id) {
+    Item item = entityManager.find(Item.class, id);
+    if (item == null) {
+      item = Item.of(id, 0, 0);
+      entityManager.persist(item);
+    }
+    return item;
+  }
+
+  /**
+   * Number of slots held in memory.
+   */
+  public int getBagSize() {
+    return bag.size();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    flusher.shutdown();
+    flushQuietly();
+  }
+}
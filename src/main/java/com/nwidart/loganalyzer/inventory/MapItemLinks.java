@@ -0,0 +1,55 @@
+package com.nwidart.loganalyzer.inventory;
+
+import com.nwidart.loganalyzer.model.ItemKey;
+import java.util.Collection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Links items to the maps they changed in ({@code map_item}, the {@code Map#getItems()} association) with JDBC batch
+ * inserts that skip the links already there, so a write costs the same however many items a map already holds. Joins
+ * the caller's transaction; the maps and items must already be written.
+ */
+@Component
+public class MapItemLinks {
+
+  private static final String INSERT_IF_ABSENT =
+      "insert into map_item (map_id, config_base_id, page_id, slot_id) "
+          + "select m.map_id, ?, ?, ? from map m where m.map_id = ? and not exists ("
+          + "select 1 from map_item l where l.map_id = m.map_id and l.config_base_id = ? and l.page_id = ? "
+          + "and l.slot_id = ?)";
+  private static final int BATCH_SIZE = 500;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public MapItemLinks(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Link each item to its map, unless it already is. Links to maps that do not exist are skipped.
+   */
+  public void link(Collection<Link> links) {
+    if (links.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.batchUpdate(INSERT_IF_ABSENT, links, BATCH_SIZE, (ps, link) -> {
+      String configBaseId = Integer.toString(ItemKey.configBaseId(link.itemKey()));
+      String pageId = Integer.toString(ItemKey.pageId(link.itemKey()));
+      String slotId = Integer.toString(ItemKey.slotId(link.itemKey()));
+      ps.setString(1, configBaseId);
+      ps.setString(2, pageId);
+      ps.setString(3, slotId);
+      ps.setLong(4, link.mapId());
+      ps.setString(5, configBaseId);
+      ps.setString(6, pageId);
+      ps.setString(7, slotId);
+    });
+  }
+
+  /**
+   * @param itemKey {@link ItemKey} of the item
+   */
+  public record Link(long mapId, long itemKey) {
+  }
+}
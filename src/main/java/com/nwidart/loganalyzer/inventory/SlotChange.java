@@ -0,0 +1,20 @@
+package com.nwidart.loganalyzer.inventory;
+
+import com.nwidart.loganalyzer.model.ItemKey;
+
+/**
+ * New content of a bag slot.
+ *
+ * @param delta items gained since the previous count of this item in the slot, negative when some were used or sold
+ * @param total count of the item in the slot now
+ * @param unitPrice price of one item at the time of the change
+ */
+public record SlotChange(int pageId, int slotId, int configBaseId, int delta, int total, float unitPrice) {
+
+  /**
+   * The item row as an {@link ItemKey}.
+   */
+  public long key() {
+    return ItemKey.of(pageId, slotId, configBaseId);
+  }
+}
@@ -0,0 +1,4 @@
+@NullMarked
+package com.nwidart.loganalyzer.inventory;
+
+import org.jspecify.annotations.NullMarked;
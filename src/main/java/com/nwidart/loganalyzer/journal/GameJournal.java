@@ -0,0 +1,149 @@
+package com.nwidart.loganalyzer.journal;
+
+import com.nwidart.loganalyzer.model.LogEntry;
+import com.nwidart.loganalyzer.processor.BagSlotRecord;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Journal of the game events parsed from the log, written to {@code tlitracker.journal.file} when
+ * {@code tlitracker.journal.enabled} is set.
+ * <p>
+ * The processors record each event as they apply it; {@code LogService} opens the journal when tailing starts (starting
+ * it over when the log is read from its beginning) and closes it when tailing stops. Records are buffered and written
+ * at least before every checkpoint, so a checkpoint never gets ahead of the journal. A failure to write disables the
+ * journal for the rest of the session instead of failing the lines.
+ */
+@Service
+public class GameJournal {
+
+  private static final Logger log = LoggerFactory.getLogger(GameJournal.class);
+
+  private final boolean enabled;
+  private final Path file;
+
+  private @Nullable JournalWriter writer;
+
+  public GameJournal(@Value("${tlitracker.journal.enabled:false}") boolean enabled,
+      @Value("${tlitracker.journal.file:${user.home}/.torchstats/journal.bin}") Path file) {
+    this.enabled = enabled;
+    this.file = file;
+  }
+
+  /**
+   * Start recording a tailing session.
+   *
+   * @param fromStart whether the log is read from its beginning, in which case the previous journal is dropped
+   */
+  public synchronized void open(boolean fromStart) {
+    close();
+    if (!enabled) {
+      return;
+    }
+    try {
+      writer = JournalWriter.open(file, fromStart);
+      log.info("Journaling game events to {} ({} records so far)", file, writer.records());
+    } catch (IOException e) {
+      log.warn("Cannot open the journal {}, game events are not journaled", file, e);
+    }
+  }
+
+  public synchronized void mapEntered(LogEntry entry) {
+    JournalWriter current = writer;
+    if (current != null) {
+      try {
+        current.mapEntered(entry.timestamp().toEpochMilli(), entry.lineNumber());
+      } catch (IOException e) {
+        failed(e);
+      }
+    }
+  }
+
+  public synchronized void mapExited(LogEntry entry) {
+    JournalWriter current = writer;
+    if (current != null) {
+      try {
+        current.mapExited(entry.timestamp().toEpochMilli(), entry.lineNumber());
+      } catch (IOException e) {
+        failed(e);
+      }
+    }
+  }
+
+  public synchronized void bagInitialized(LogEntry entry, BagSlotRecord slot) {
+    JournalWriter current = writer;
+    if (current != null) {
+      try {
+        current.bagInitialized(slot.pageId(), slot.slotId(), slot.configBaseId(), slot.num(),
+            entry.timestamp().toEpochMilli(), entry.lineNumber());
+      } catch (IOException e) {
+        failed(e);
+      }
+    }
+  }
+
+  public synchronized void bagModified(LogEntry entry, BagSlotRecord slot) {
+    JournalWriter current = writer;
+    if (current != null) {
+      try {
+        current.bagModified(slot.pageId(), slot.slotId(), slot.configBaseId(), slot.num(),
+            entry.timestamp().toEpochMilli(), entry.lineNumber());
+      } catch (IOException e) {
+        failed(e);
+      }
+    }
+  }
+
+  /**
+   * Write the buffered records to the file.
+   */
+  public synchronized void flush() {
+    JournalWriter current = writer;
+    if (current != null) {
+      try {
+        current.flush();
+      } catch (IOException e) {
+        failed(e);
+      }
+    }
+  }
+
+  /**
+   * Write the buffered records and close the file.
+   */
+  @PreDestroy
+  public synchronized void close() {
+    JournalWriter current = writer;
+    writer = null;
+    if (current != null) {
+      try {
+        current.close();
+      } catch (IOException e) {
+        log.warn("Failed to close the journal {}", file, e);
+      }
+    }
+  }
+
+  public Path getFile() {
+    return file;
+  }
+
+  private void failed(IOException e) {
+    log.error("Failed to write the journal {}, journaling stops", file, e);
+    JournalWriter current = writer;
+    writer = null;
+    if (current != null) {
+      try {
+        current.close();
+      } catch (IOException suppressed) {
+        e.addSuppressed(suppressed);
+      }
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.nwidart.loganalyzer.journal;
+
+import java.nio.ByteOrder;
+
+/**
+ * Layout of a journal file: a {@value #HEADER_SIZE}-byte header followed by fixed {@value #RECORD_SIZE}-byte records,
+ * all little-endian.
+ * <pre>
+ * header: int magic "TLJ1", int version, int record size, int reserved
+ * record: 0 byte type, 1 byte reserved, 2 unsigned short pageId, 4 int slotId, 8 int configBaseId, 12 int num,
+ *         16 long log time in epoch milliseconds, 24 long line number
+ * </pre>
+ * Map records leave the bag fields at 0. A trailing partial record (a write cut short) is ignored by readers.
+ */
+public final class JournalFormat {
+
+  public static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+  /** "TLJ1" */
+  public static final int MAGIC = 0x314A4C54;
+  public static final int VERSION = 1;
+  public static final int HEADER_SIZE = 16;
+  public static final int RECORD_SIZE = 32;
+
+  public static final byte MAP_ENTERED = 1;
+  public static final byte MAP_EXITED = 2;
+  public static final byte BAG_INITIALIZED = 3;
+  public static final byte BAG_MODIFIED = 4;
+
+  static final int TYPE = 0;
+  static final int PAGE_ID = 2;
+  static final int SLOT_ID = 4;
+  static final int CONFIG_BASE_ID = 8;
+  static final int NUM = 12;
+  static final int TIME = 16;
+  static final int LINE_NUMBER = 24;
+
+  private JournalFormat() {
+  }
+}
@@ -0,0 +1,92 @@
+package com.nwidart.loganalyzer.journal;
+
+import static com.nwidart.loganalyzer.journal.JournalFormat.CONFIG_BASE_ID;
+import static com.nwidart.loganalyzer.journal.JournalFormat.HEADER_SIZE;
+import static com.nwidart.loganalyzer.journal.JournalFormat.LINE_NUMBER;
+import static com.nwidart.loganalyzer.journal.JournalFormat.NUM;
+import static com.nwidart.loganalyzer.journal.JournalFormat.PAGE_ID;
+import static com.nwidart.loganalyzer.journal.JournalFormat.RECORD_SIZE;
+import static com.nwidart.loganalyzer.journal.JournalFormat.SLOT_ID;
+import static com.nwidart.loganalyzer.journal.JournalFormat.TIME;
+import static com.nwidart.loganalyzer.journal.JournalFormat.TYPE;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a journal file written by {@link JournalWriter}. The file is memory-mapped in large windows and every record
+ * is decoded in place into the arguments of a {@link JournalVisitor} call, so replaying allocates nothing per record.
+ */
+public final class JournalReader {
+
+  /** Records per mapped window, keeping each window well under 2 GiB. */
+  private static final long WINDOW_RECORDS = (1L << 30) / RECORD_SIZE;
+
+  private JournalReader() {
+  }
+
+  /**
+   * Hand every record of {@code file} to {@code visitor}, in order.
+   *
+   * @return the number of records read
+   * @throws IOException when the file cannot be read or is not a journal
+   */
+  public static long replay(Path file, JournalVisitor visitor) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long records = recordCount(channel);
+      if (records < 0) {
+        throw new IOException("Not a journal (version " + JournalFormat.VERSION + "): " + file);
+      }
+      for (long first = 0; first < records; first += WINDOW_RECORDS) {
+        long count = Math.min(WINDOW_RECORDS, records - first);
+        MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * RECORD_SIZE,
+            count * RECORD_SIZE);
+        window.order(JournalFormat.ORDER);
+        visit(window, (int) count, visitor);
+      }
+      return records;
+    }
+  }
+
+  private static void visit(ByteBuffer window, int count, JournalVisitor visitor) throws IOException {
+    for (int i = 0, at = 0; i < count; i++, at += RECORD_SIZE) {
+      byte type = window.get(at + TYPE);
+      long time = window.getLong(at + TIME);
+      long lineNumber = window.getLong(at + LINE_NUMBER);
+      switch (type) {
+        case JournalFormat.MAP_ENTERED -> visitor.mapEntered(time, lineNumber);
+        case JournalFormat.MAP_EXITED -> visitor.mapExited(time, lineNumber);
+        case JournalFormat.BAG_INITIALIZED -> visitor.bagInitialized(Short.toUnsignedInt(window.getShort(at + PAGE_ID)),
+            window.getInt(at + SLOT_ID), window.getInt(at + CONFIG_BASE_ID), window.getInt(at + NUM), time, lineNumber);
+        case JournalFormat.BAG_MODIFIED -> visitor.bagModified(Short.toUnsignedInt(window.getShort(at + PAGE_ID)),
+            window.getInt(at + SLOT_ID), window.getInt(at + CONFIG_BASE_ID), window.getInt(at + NUM), time, lineNumber);
+        default -> throw new IOException("Unknown journal record type " + type + " at line " + lineNumber);
+      }
+    }
+  }
+
+  /**
+   * Number of complete records in the journal, or -1 when it has no valid header.
+   */
+  static long recordCount(FileChannel channel) throws IOException {
+    long size = channel.size();
+    if (size < HEADER_SIZE) {
+      return -1;
+    }
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(JournalFormat.ORDER);
+    while (header.hasRemaining()) {
+      if (channel.read(header, header.position()) < 0) {
+        return -1;
+      }
+    }
+    if (header.getInt(0) != JournalFormat.MAGIC || header.getInt(4) != JournalFormat.VERSION
+        || header.getInt(8) != RECORD_SIZE) {
+      return -1;
+    }
+    return (size - HEADER_SIZE) / RECORD_SIZE;
+  }
+}
@@ -0,0 +1,150 @@
+package com.nwidart.loganalyzer.journal;
+
+import com.nwidart.loganalyzer.ActiveMapSession;
+import com.nwidart.loganalyzer.ApplyTransactions;
+import com.nwidart.loganalyzer.LogClock;
+import com.nwidart.loganalyzer.StatsService;
+import com.nwidart.loganalyzer.inventory.InventoryService;
+import com.nwidart.loganalyzer.inventory.SlotChange;
+import com.nwidart.loganalyzer.model.Item;
+import com.nwidart.loganalyzer.model.ItemRepository;
+import com.nwidart.loganalyzer.model.Map;
+import com.nwidart.loganalyzer.model.MapRepository;
+import com.nwidart.loganalyzer.pipeline.StageBatch;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Rebuilds maps, items, the drop ledger and the stats from a journal instead of re-reading the game log.
+ * <p>
+ * Records are applied the way the processors apply the lines they come from, without publishing events, in large
+ * transactions (see {@link ApplyTransactions}); the stats are rebuilt from the database at the end. Meant for an empty
+ * database, while no log is tailed.
+ */
+@Service
+public class JournalReplayer {
+
+  private static final Logger log = LoggerFactory.getLogger(JournalReplayer.class);
+  private static final int BATCH_RECORDS = 10_000;
+
+  private final GameJournal gameJournal;
+  private final MapRepository mapRepository;
+  private final ItemRepository itemRepository;
+  private final ActiveMapSession activeMapSession;
+  private final InventoryService inventoryService;
+  private final StatsService statsService;
+  private final LogClock logClock;
+  private final ApplyTransactions applyTransactions;
+
+  public JournalReplayer(GameJournal gameJournal, MapRepository mapRepository, ItemRepository itemRepository,
+      ActiveMapSession activeMapSession, InventoryService inventoryService, StatsService statsService,
+      LogClock logClock, ApplyTransactions applyTransactions) {
+    this.gameJournal = gameJournal;
+    this.mapRepository = mapRepository;
+    this.itemRepository = itemRepository;
+    this.activeMapSession = activeMapSession;
+    this.inventoryService = inventoryService;
+    this.statsService = statsService;
+    this.logClock = logClock;
+    this.applyTransactions = applyTransactions;
+  }
+
+  /**
+   * Replay the configured journal.
+   *
+   * @return the number of records replayed
+   */
+  public long rebuild() throws IOException {
+    gameJournal.flush();
+    return rebuild(gameJournal.getFile());
+  }
+
+  /**
+   * Replay {@code file}.
+   *
+   * @return the number of records replayed
+   */
+  public long rebuild(Path file) throws IOException {
+    long started = System.nanoTime();
+    logClock.reset();
+    inventoryService.reset();
+    activeMapSession.reload();
+    Replay replay = new Replay(applyTransactions.newBatch(BATCH_RECORDS, Duration.ofSeconds(1)));
+    long records;
+    try {
+      records = JournalReader.replay(file, replay);
+    } finally {
+      replay.batch.close();
+    }
+    inventoryService.flush();
+    if (replay.lastTime >= 0) {
+      logClock.advance(Instant.ofEpochMilli(replay.lastTime));
+    }
+    statsService.rebuild();
+    double seconds = Math.max(1e-9, (System.nanoTime() - started) / 1e9);
+    log.info("Replayed {} journal records from {} in {} ms ({} records/s)", records, file,
+        String.format("%.0f", seconds * 1000), String.format("%.0f", records / seconds));
+    return records;
+  }
+
+  private final class Replay implements JournalVisitor {
+
+    private final StageBatch batch;
+    private long lastTime = -1;
+
+    private Replay(StageBatch batch) {
+      this.batch = batch;
+    }
+
+    @Override
+    public void mapEntered(long time, long lineNumber) {
+      batch.beforeLine();
+      Map map = mapRepository.save(Map.newMap(at(time)));
+      activeMapSession.entered(map);
+      batch.afterLine();
+    }
+
+    @Override
+    public void mapExited(long time, long lineNumber) {
+      Long activeMapId = activeMapSession.getActiveMapId();
+      if (activeMapId == null) {
+        return;
+      }
+      batch.beforeLine();
+      mapRepository.endMap(activeMapId, at(time));
+      activeMapSession.exited();
+      batch.afterLine();
+    }
+
+    @Override
+    public void bagInitialized(int pageId, int slotId, int configBaseId, int num, long time, long lineNumber) {
+      batch.beforeLine();
+      // Same as BagInitLogProcessor
+      itemRepository.save(Item.of(Integer.toString(pageId), Integer.toString(slotId), Integer.toString(configBaseId),
+          num, 0));
+      at(time);
+      batch.afterLine();
+    }
+
+    @Override
+    public void bagModified(int pageId, int slotId, int configBaseId, int num, long time, long lineNumber) {
+      batch.beforeLine();
+      Long activeMapId = activeMapSession.getActiveMapId();
+      SlotChange change = inventoryService.modify(pageId, slotId, configBaseId, num, activeMapId, at(time));
+      if (activeMapId != null) {
+        activeMapSession.recordDrop(change.delta());
+      }
+      batch.afterLine();
+    }
+
+    private Instant at(long time) {
+      lastTime = time;
+      return Instant.ofEpochMilli(time);
+    }
+  }
+}
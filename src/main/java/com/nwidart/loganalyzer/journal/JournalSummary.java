@@ -0,0 +1,94 @@
+package com.nwidart.loganalyzer.journal;
+
+import com.nwidart.loganalyzer.model.Bag;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Offline totals of a journal, without the game log or the database: maps played, time spent in them and the items
+ * gained in maps. Bag changes are counted like {@code InventoryService} does, against the bag as replayed so far.
+ */
+public final class JournalSummary implements JournalVisitor {
+
+  private final Bag bag = new Bag();
+  private final Map<Integer, long[]> gained = new HashMap<>();
+  private long records;
+  private int maps;
+  private long timeInMaps;
+  private long enteredAt = -1;
+
+  /**
+   * Summary of {@code file}.
+   */
+  public static JournalSummary of(Path file) throws IOException {
+    JournalSummary summary = new JournalSummary();
+    JournalReader.replay(file, summary);
+    return summary;
+  }
+
+  @Override
+  public void mapEntered(long time, long lineNumber) {
+    records++;
+    maps++;
+    enteredAt = time;
+  }
+
+  @Override
+  public void mapExited(long time, long lineNumber) {
+    records++;
+    if (enteredAt >= 0) {
+      timeInMaps += Math.max(0, time - enteredAt);
+      enteredAt = -1;
+    }
+  }
+
+  @Override
+  public void bagInitialized(int pageId, int slotId, int configBaseId, int num, long time, long lineNumber) {
+    records++;
+    bag.put(pageId, slotId, configBaseId, num);
+  }
+
+  @Override
+  public void bagModified(int pageId, int slotId, int configBaseId, int num, long time, long lineNumber) {
+    records++;
+    int previous = Math.max(0, bag.count(pageId, slotId, configBaseId));
+    bag.put(pageId, slotId, configBaseId, num);
+    if (enteredAt >= 0 && num != previous) {
+      gained.computeIfAbsent(configBaseId, id -> new long[1])[0] += num - previous;
+    }
+  }
+
+  public long records() {
+    return records;
+  }
+
+  public int maps() {
+    return maps;
+  }
+
+  /**
+   * Milliseconds spent in maps that were left.
+   */
+  public long timeInMaps() {
+    return timeInMaps;
+  }
+
+  /**
+   * Net quantity of {@code configBaseId} gained in maps.
+   */
+  public long gained(int configBaseId) {
+    long[] quantity = gained.get(configBaseId);
+    return quantity == null ? 0 : quantity[0];
+  }
+
+  /**
+   * Net quantity gained in maps, per {@code configBaseId}.
+   */
+  public Map<Integer, Long> gained() {
+    Map<Integer, Long> copy = new HashMap<>();
+    gained.forEach((id, quantity) -> copy.put(id, quantity[0]));
+    return copy;
+  }
+}
@@ -0,0 +1,20 @@
+package com.nwidart.loganalyzer.journal;
+
+/**
+ * Receives the records of a journal in order, see {@link JournalReader#replay}. Times are log times in epoch
+ * milliseconds.
+ */
+public interface JournalVisitor {
+
+  default void mapEntered(long time, long lineNumber) {
+  }
+
+  default void mapExited(long time, long lineNumber) {
+  }
+
+  default void bagInitialized(int pageId, int slotId, int configBaseId, int num, long time, long lineNumber) {
+  }
+
+  default void bagModified(int pageId, int slotId, int configBaseId, int num, long time, long lineNumber) {
+  }
+}
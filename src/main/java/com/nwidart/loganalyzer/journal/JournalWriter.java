@@ -0,0 +1,144 @@
+package com.nwidart.loganalyzer.journal;
+
+import static com.nwidart.loganalyzer.journal.JournalFormat.CONFIG_BASE_ID;
+import static com.nwidart.loganalyzer.journal.JournalFormat.HEADER_SIZE;
+import static com.nwidart.loganalyzer.journal.JournalFormat.LINE_NUMBER;
+import static com.nwidart.loganalyzer.journal.JournalFormat.NUM;
+import static com.nwidart.loganalyzer.journal.JournalFormat.PAGE_ID;
+import static com.nwidart.loganalyzer.journal.JournalFormat.RECORD_SIZE;
+import static com.nwidart.loganalyzer.journal.JournalFormat.SLOT_ID;
+import static com.nwidart.loganalyzer.journal.JournalFormat.TIME;
+import static com.nwidart.loganalyzer.journal.JournalFormat.TYPE;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends records to a journal file through a {@link FileChannel}. Records are collected in a direct buffer and
+ * written when it is full or on {@link #flush()}. Not thread-safe.
+ */
+public final class JournalWriter implements AutoCloseable {
+
+  private static final int BUFFER_RECORDS = 2048;
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * RECORD_SIZE).order(JournalFormat.ORDER);
+  private long records;
+
+  private JournalWriter(FileChannel channel, long records) {
+    this.channel = channel;
+    this.records = records;
+  }
+
+  /**
+   * Open {@code file} for appending, or start it over when {@code truncate} is set. A file that is not a journal of
+   * this version is started over too; a trailing partial record is dropped.
+   */
+  public static JournalWriter open(Path file, boolean truncate) throws IOException {
+    Path dir = file.toAbsolutePath().getParent();
+    if (dir != null) {
+      Files.createDirectories(dir);
+    }
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    try {
+      long records = truncate ? -1 : JournalReader.recordCount(channel);
+      if (records < 0) {
+        channel.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(JournalFormat.ORDER)
+            .putInt(JournalFormat.MAGIC)
+            .putInt(JournalFormat.VERSION)
+            .putInt(RECORD_SIZE)
+            .putInt(0)
+            .flip();
+        writeFully(channel, header, 0);
+        records = 0;
+      } else {
+        channel.truncate(HEADER_SIZE + records * RECORD_SIZE);
+      }
+      return new JournalWriter(channel, records);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  public void mapEntered(long time, long lineNumber) throws IOException {
+    append(JournalFormat.MAP_ENTERED, 0, 0, 0, 0, time, lineNumber);
+  }
+
+  public void mapExited(long time, long lineNumber) throws IOException {
+    append(JournalFormat.MAP_EXITED, 0, 0, 0, 0, time, lineNumber);
+  }
+
+  public void bagInitialized(int pageId, int slotId, int configBaseId, int num, long time, long lineNumber)
+      throws IOException {
+    append(JournalFormat.BAG_INITIALIZED, pageId, slotId, configBaseId, num, time, lineNumber);
+  }
+
+  public void bagModified(int pageId, int slotId, int configBaseId, int num, long time, long lineNumber)
+      throws IOException {
+    append(JournalFormat.BAG_MODIFIED, pageId, slotId, configBaseId, num, time, lineNumber);
+  }
+
+  private void append(byte type, int pageId, int slotId, int configBaseId, int num, long time, long lineNumber)
+      throws IOException {
+    if (pageId < 0 || pageId > 0xFFFF) {
+      throw new IllegalArgumentException("pageId out of range: " + pageId);
+    }
+    if (!buffer.hasRemaining()) {
+      flush();
+    }
+    int at = buffer.position();
+    buffer.put(at + TYPE, type)
+        .put(at + TYPE + 1, (byte) 0)
+        .putShort(at + PAGE_ID, (short) pageId)
+        .putInt(at + SLOT_ID, slotId)
+        .putInt(at + CONFIG_BASE_ID, configBaseId)
+        .putInt(at + NUM, num)
+        .putLong(at + TIME, time)
+        .putLong(at + LINE_NUMBER, lineNumber)
+        .position(at + RECORD_SIZE);
+  }
+
+  /**
+   * Write the buffered records to the file.
+   */
+  public void flush() throws IOException {
+    if (buffer.position() == 0) {
+      return;
+    }
+    buffer.flip();
+    int count = buffer.remaining() / RECORD_SIZE;
+    writeFully(channel, buffer, HEADER_SIZE + records * RECORD_SIZE);
+    records += count;
+    buffer.clear();
+  }
+
+  /**
+   * Records written to the file, not counting the buffered ones.
+   */
+  public long records() {
+    return records;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      channel.close();
+    }
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    long offset = position;
+    while (buffer.hasRemaining()) {
+      offset += channel.write(buffer, offset);
+    }
+  }
+}
@@ -0,0 +1,4 @@
+@NullMarked
+package com.nwidart.loganalyzer.journal;
+
+import org.jspecify.annotations.NullMarked;
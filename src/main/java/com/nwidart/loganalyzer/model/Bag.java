@@ -1,15 +1,115 @@
 package com.nwidart.loganalyzer.model;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
+/**
+ * Contents of the player's bag as last reported by the game log, slot by slot.
+ * <p>
+ * Each slot holds a single kind of item ({@code configBaseId}) and its count. Slots are kept in an open-addressing table
+ * (linear probing, at most half full) keyed by the {@link ItemKey#slot(int, int) packed page and slot}, with the item
+ * and count in parallel arrays, so lookups and updates of known slots neither box nor allocate. Not thread-safe: it is
+ * only used by the thread applying log lines.
+ */
 public class Bag {
 
-  private List<Item> items = new ArrayList<>();
+  /** Count returned for a slot the bag knows nothing about. */
+  public static final int UNKNOWN = -1;
 
-  public void addItem(String pageId, String slotId, String configBaseId, Integer num) {
-    var item = Item.of(pageId, slotId, configBaseId, num, 0);
+  private static final int FREE = -1;
+  private static final int INITIAL_CAPACITY = 256;
 
-    this.items.add(item);
+  private int[] keys;
+  private int[] configBaseIds;
+  private int[] counts;
+  private int size;
+
+  public Bag() {
+    allocate(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Count of {@code configBaseId} in a slot: 0 when the slot holds another item, {@link #UNKNOWN} when the slot was
+   * never seen.
+   */
+  public int count(int pageId, int slotId, int configBaseId) {
+    int index = indexOf(ItemKey.slot(pageId, slotId));
+    if (keys[index] == FREE) {
+      return UNKNOWN;
+    }
+    return configBaseIds[index] == configBaseId ? counts[index] : 0;
+  }
+
+  /**
+   * Item held by a slot, {@link #UNKNOWN} when the slot was never seen.
+   */
+  public int configBaseId(int pageId, int slotId) {
+    int index = indexOf(ItemKey.slot(pageId, slotId));
+    return keys[index] == FREE ? UNKNOWN : configBaseIds[index];
+  }
+
+  /**
+   * Set the content of a slot, replacing whatever it held.
+   */
+  public void put(int pageId, int slotId, int configBaseId, int count) {
+    int key = ItemKey.slot(pageId, slotId);
+    int index = indexOf(key);
+    if (keys[index] == FREE) {
+      if ((size + 1) * 2 > keys.length) {
+        grow();
+        index = indexOf(key);
+      }
+      keys[index] = key;
+      size++;
+    }
+    configBaseIds[index] = configBaseId;
+    counts[index] = count;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void clear() {
+    Arrays.fill(keys, FREE);
+    size = 0;
+  }
+
+  /**
+   * Index holding {@code key}, or the free index where it would go.
+   */
+  private int indexOf(int key) {
+    int mask = keys.length - 1;
+    int index = mix(key) & mask;
+    while (keys[index] != FREE && keys[index] != key) {
+      index = (index + 1) & mask;
+    }
+    return index;
+  }
+
+  private static int mix(int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private void grow() {
+    int[] oldKeys = keys;
+    int[] oldConfigBaseIds = configBaseIds;
+    int[] oldCounts = counts;
+    allocate(oldKeys.length * 2);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != FREE) {
+        int index = indexOf(oldKeys[i]);
+        keys[index] = oldKeys[i];
+        configBaseIds[index] = oldConfigBaseIds[i];
+        counts[index] = oldCounts[i];
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    configBaseIds = new int[capacity];
+    counts = new int[capacity];
+    Arrays.fill(keys, FREE);
   }
 }
@@ -0,0 +1,47 @@
+package com.nwidart.loganalyzer.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A random id written once in a database, when it is first used.
+ * <p>
+ * A checkpoint records it to tell the database it was taken against from a new one, e.g. the in-memory database
+ * recreated empty by a restart: resuming a log against a database that did not see its beginning would lose every
+ * map and drop before the checkpoint.
+ */
+@Entity
+@Table(name = "database_epoch")
+public class DatabaseEpoch {
+
+  @Id
+  @Column(name = "epoch_id", length = 36)
+  private String id;
+
+  @Column(name = "created_at", nullable = false)
+  private Instant createdAt;
+
+  protected DatabaseEpoch() {
+  }
+
+  private DatabaseEpoch(String id, Instant createdAt) {
+    this.id = id;
+    this.createdAt = createdAt;
+  }
+
+  public static DatabaseEpoch create() {
+    return new DatabaseEpoch(UUID.randomUUID().toString(), Instant.now());
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+}
@@ -0,0 +1,16 @@
+package com.nwidart.loganalyzer.model;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface DatabaseEpochRepository extends JpaRepository<DatabaseEpoch, String> {
+
+  DatabaseEpoch findFirstByOrderByCreatedAtAsc();
+
+  /**
+   * The epoch of this database, created on first use.
+   */
+  default String current() {
+    DatabaseEpoch epoch = findFirstByOrderByCreatedAtAsc();
+    return epoch != null ? epoch.getId() : save(DatabaseEpoch.create()).getId();
+  }
+}
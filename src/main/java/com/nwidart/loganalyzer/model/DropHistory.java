@@ -0,0 +1,181 @@
+package com.nwidart.loganalyzer.model;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.jspecify.annotations.Nullable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Pages of the {@code item_drop} ledger, filtered and sorted in SQL.
+ * <p>
+ * Pages are read with keyset pagination: the next page starts after the sort key of the last row read (and its id, to
+ * break ties) instead of skipping rows, so reading deep into hundreds of thousands of drops costs as much as reading
+ * the first page. Every filter and sort order is covered by an index of {@link ItemDrop}.
+ */
+@Repository
+public class DropHistory {
+
+  private static final String COLUMNS =
+      "select drop_id, map_id, occurred_at, config_base_id, delta, unit_price, drop_value from item_drop";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public DropHistory(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Number of drops {@code filter} accepts.
+   */
+  public int count(Filter filter) {
+    List<Object> args = new ArrayList<>();
+    String where = where(filter, args);
+    Integer count = jdbcTemplate.queryForObject("select count(*) from item_drop" + where, Integer.class,
+        args.toArray());
+    return count == null ? 0 : count;
+  }
+
+  /**
+   * Up to {@code limit} drops accepted by {@code filter} in {@code order}, coming after {@code after} (from the first
+   * one when null), skipping the first {@code skip} of them.
+   */
+  public List<Row> page(Filter filter, Order order, @Nullable Row after, int skip, int limit) {
+    List<Object> args = new ArrayList<>();
+    StringBuilder sql = new StringBuilder(COLUMNS).append(where(filter, args));
+    if (after != null) {
+      String column = order.sort().column;
+      String comparison = order.descending() ? "<" : ">";
+      Object key = order.sort().keyOf(after);
+      // The first, redundant, bound is what lets the database start the index scan at the key
+      sql.append(args.isEmpty() ? " where " : " and ")
+          .append(column).append(' ').append(comparison).append("= ?")
+          .append(" and (").append(column).append(' ').append(comparison).append(" ?")
+          .append(" or drop_id ").append(comparison).append(" ?)");
+      args.add(key);
+      args.add(key);
+      args.add(after.id());
+    }
+    String direction = order.descending() ? " desc" : " asc";
+    sql.append(" order by ").append(order.sort().column).append(direction).append(", drop_id").append(direction)
+        .append(" limit ? offset ?");
+    args.add(Math.max(0, limit));
+    args.add(Math.max(0, skip));
+    return jdbcTemplate.query(sql.toString(), DropHistory::row, args.toArray());
+  }
+
+  private static String where(Filter filter, List<Object> args) {
+    List<String> conditions = new ArrayList<>();
+    if (filter.mapId() != null) {
+      conditions.add("map_id = ?");
+      args.add(filter.mapId());
+    }
+    if (filter.configBaseId() != null) {
+      conditions.add("config_base_id = ?");
+      args.add(filter.configBaseId());
+    }
+    if (filter.minValue() != null) {
+      conditions.add("drop_value >= ?");
+      args.add(filter.minValue());
+    }
+    if (filter.maxValue() != null) {
+      conditions.add("drop_value <= ?");
+      args.add(filter.maxValue());
+    }
+    if (filter.from() != null) {
+      conditions.add("occurred_at >= ?");
+      args.add(utc(filter.from()));
+    }
+    if (filter.to() != null) {
+      conditions.add("occurred_at < ?");
+      args.add(utc(filter.to()));
+    }
+    return conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+  }
+
+  private static OffsetDateTime utc(Instant instant) {
+    return instant.atOffset(ZoneOffset.UTC);
+  }
+
+  private static Row row(ResultSet rs, int rowNum) throws SQLException {
+    long id = rs.getLong("drop_id");
+    long mapId = rs.getLong("map_id");
+    return new Row(id, rs.wasNull() ? null : mapId,
+        rs.getObject("occurred_at", OffsetDateTime.class).toInstant(), rs.getInt("config_base_id"),
+        rs.getInt("delta"), rs.getFloat("unit_price"), rs.getFloat("drop_value"));
+  }
+
+  /**
+   * Which drops to list; null fields do not filter.
+   *
+   * @param from first instant included
+   * @param to   first instant excluded
+   */
+  public record Filter(
+      @Nullable Long mapId,
+      @Nullable Integer configBaseId,
+      @Nullable Float minValue,
+      @Nullable Float maxValue,
+      @Nullable Instant from,
+      @Nullable Instant to
+  ) {
+
+    public static final Filter NONE = new Filter(null, null, null, null, null, null);
+  }
+
+  /**
+   * Sort keys, each completed by the drop id.
+   */
+  public enum Sort {
+    TIME("occurred_at"),
+    VALUE("drop_value"),
+    ITEM("config_base_id");
+
+    private final String column;
+
+    Sort(String column) {
+      this.column = column;
+    }
+
+    Object keyOf(Row row) {
+      return switch (this) {
+        case TIME -> utc(row.occurredAt());
+        case VALUE -> row.value();
+        case ITEM -> row.configBaseId();
+      };
+    }
+  }
+
+  public record Order(Sort sort, boolean descending) {
+
+    /** Latest drops first. */
+    public static final Order LATEST = new Order(Sort.TIME, true);
+
+    public Order {
+      Objects.requireNonNull(sort, "sort");
+    }
+  }
+
+  /**
+   * A drop of the ledger.
+   *
+   * @param mapId map it happened in, null outside of maps
+   * @param value {@code delta * unitPrice}
+   */
+  public record Row(
+      long id,
+      @Nullable Long mapId,
+      Instant occurredAt,
+      int configBaseId,
+      int delta,
+      float unitPrice,
+      float value
+  ) {
+  }
+}
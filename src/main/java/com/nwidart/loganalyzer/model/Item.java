@@ -9,6 +9,7 @@ import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
 import org.hibernate.proxy.HibernateProxy;
+import org.jspecify.annotations.Nullable;
 
 @Entity
 @Table(name = "item")
@@ -20,6 +21,9 @@ public class Item {
   private Integer num;
   @Column(name = "total", nullable = false)
   private Integer total;
+  /** Unit price at the time of the last change of {@link #num}, null for items never changed (e.g. the initial bag). */
+  @Column(name = "unit_price")
+  private @Nullable Float unitPrice;
 
   @ManyToMany(mappedBy = "items")
   private Set<Map> maps = new LinkedHashSet<>();
@@ -37,6 +41,14 @@ public class Item {
     return new Item(pageId, slotId, configBaseId, num, total);
   }
 
+  public static Item of(ItemId id, Integer num, Integer total) {
+    Item item = new Item();
+    item.id = id;
+    item.num = num;
+    item.total = total;
+    return item;
+  }
+
   public ItemId getId() {
     return id;
   }
@@ -57,6 +69,14 @@ public class Item {
     this.num = num;
   }
 
+  public @Nullable Float getUnitPrice() {
+    return unitPrice;
+  }
+
+  public void setUnitPrice(@Nullable Float unitPrice) {
+    this.unitPrice = unitPrice;
+  }
+
   public Set<Map> getMaps() {
     return maps;
   }
@@ -84,9 +104,14 @@ public class Item {
     return getId() != null && Objects.equals(getId(), item.getId());
   }
 
+  /**
+   * Hash of the {@link ItemId}. The id is assigned when the item is created, not generated on persist, so the hash is
+   * stable for the life of the item and items spread over the buckets of {@link Map#getItems()}; do not
+   * {@link #setId(ItemId) change the id} of an item held in a set.
+   */
   @Override
   public final int hashCode() {
-    return this instanceof HibernateProxy ? ((HibernateProxy) this).getHibernateLazyInitializer().getPersistentClass().hashCode() : getClass().hashCode();
+    return Objects.hashCode(getId());
   }
 
   public Integer getTotal() {
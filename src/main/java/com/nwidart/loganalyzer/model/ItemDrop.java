@@ -0,0 +1,98 @@
+package com.nwidart.loganalyzer.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * One change of the count of an item, in the append-only drop ledger.
+ * <p>
+ * Rows are only ever inserted, in JDBC batches by {@code DropLedger}; revenue is aggregated from them with
+ * {@link ItemDropRepository}, and they are listed page by page with {@link DropHistory}, whose filters and sort orders
+ * the indexes cover. The value at the time of the drop is stored too, to sort and filter on it.
+ */
+@Entity
+@Table(name = "item_drop", indexes = {
+    @Index(name = "item_drop_map_time", columnList = "map_id, occurred_at, drop_id"),
+    @Index(name = "item_drop_time", columnList = "occurred_at, drop_id"),
+    @Index(name = "item_drop_item_time", columnList = "config_base_id, occurred_at, drop_id"),
+    @Index(name = "item_drop_item", columnList = "config_base_id, drop_id"),
+    @Index(name = "item_drop_value", columnList = "drop_value, drop_id")
+})
+public class ItemDrop {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "drop_id")
+  private Long id;
+
+  /** Map the change happened in, null outside of maps. */
+  @Column(name = "map_id")
+  private @Nullable Long mapId;
+
+  @Column(name = "occurred_at", nullable = false)
+  private Instant occurredAt;
+
+  @Column(name = "config_base_id", nullable = false)
+  private int configBaseId;
+
+  @Column(name = "delta", nullable = false)
+  private int delta;
+
+  @Column(name = "unit_price", nullable = false)
+  private float unitPrice;
+
+  /** {@code delta * unitPrice}. */
+  @Column(name = "drop_value", nullable = false)
+  private float value;
+
+  protected ItemDrop() {
+  }
+
+  private ItemDrop(@Nullable Long mapId, Instant occurredAt, int configBaseId, int delta, float unitPrice) {
+    this.mapId = mapId;
+    this.occurredAt = occurredAt;
+    this.configBaseId = configBaseId;
+    this.delta = delta;
+    this.unitPrice = unitPrice;
+    this.value = delta * unitPrice;
+  }
+
+  public static ItemDrop of(@Nullable Long mapId, Instant occurredAt, int configBaseId, int delta, float unitPrice) {
+    return new ItemDrop(mapId, occurredAt, configBaseId, delta, unitPrice);
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public @Nullable Long getMapId() {
+    return mapId;
+  }
+
+  public Instant getOccurredAt() {
+    return occurredAt;
+  }
+
+  public int getConfigBaseId() {
+    return configBaseId;
+  }
+
+  public int getDelta() {
+    return delta;
+  }
+
+  public float getUnitPrice() {
+    return unitPrice;
+  }
+
+  public float getValue() {
+    return value;
+  }
+}
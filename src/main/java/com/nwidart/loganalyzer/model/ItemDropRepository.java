@@ -0,0 +1,46 @@
+package com.nwidart.loganalyzer.model;
+
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+/**
+ * Aggregates over the drop ledger. Session queries only count drops made in a map.
+ */
+public interface ItemDropRepository extends JpaRepository<ItemDrop, Long> {
+
+  @Query("select new com.nwidart.loganalyzer.model.ItemQuantity(d.configBaseId, sum(d.delta)) from ItemDrop d "
+      + "where d.mapId is not null group by d.configBaseId")
+  List<ItemQuantity> sessionQuantities();
+
+  @Query("select new com.nwidart.loganalyzer.model.ItemQuantity(d.configBaseId, sum(d.delta)) from ItemDrop d "
+      + "where d.mapId = :mapId group by d.configBaseId")
+  List<ItemQuantity> mapQuantities(Long mapId);
+
+  /**
+   * Value of the session at the unit price of each drop.
+   */
+  @Query("select coalesce(sum(d.delta * d.unitPrice), 0) from ItemDrop d where d.mapId is not null")
+  double sessionValueAtDropTime();
+
+  /**
+   * Value of a map at the unit price of each drop.
+   */
+  @Query("select coalesce(sum(d.delta * d.unitPrice), 0) from ItemDrop d where d.mapId = :mapId")
+  double mapValueAtDropTime(Long mapId);
+
+  /**
+   * Value of the drops made in a map per second of log time, at the unit price of each drop, oldest first.
+   */
+  @Query("select new com.nwidart.loganalyzer.model.SecondRevenue(cast(extract(epoch from d.occurredAt) as long), "
+      + "sum(d.value)) from ItemDrop d where d.mapId is not null "
+      + "group by cast(extract(epoch from d.occurredAt) as long) order by 1")
+  List<SecondRevenue> revenuePerSecond();
+
+  /**
+   * Value of the drops of every map, at the unit price of each drop, by map id.
+   */
+  @Query("select new com.nwidart.loganalyzer.model.MapRevenue(d.mapId, sum(d.value)) from ItemDrop d "
+      + "where d.mapId is not null group by d.mapId order by d.mapId")
+  List<MapRevenue> revenuePerMap();
+}
@@ -19,6 +19,9 @@ public class ItemId implements Serializable {
   @Column(name = "slot_id")
   private String slotId;
 
+  /** Cached {@link #hashCode()}, 0 until computed; the fields never change. */
+  private transient int hash;
+
   protected ItemId() {
   }
 
@@ -60,6 +63,11 @@ public class ItemId implements Serializable {
 
   @Override
   public int hashCode() {
-    return Objects.hash(configBaseId, pageId, slotId);
+    int h = hash;
+    if (h == 0) {
+      h = Objects.hash(configBaseId, pageId, slotId);
+      hash = h;
+    }
+    return h;
   }
 }
@@ -0,0 +1,56 @@
+package com.nwidart.loganalyzer.model;
+
+/**
+ * An item row ({@code pageId}, {@code slotId}, {@code configBaseId}) packed in a {@code long}, for in-memory state and
+ * caches. The {@link ItemId} embeddable is only built to read or write the row.
+ * <p>
+ * Layout, high to low bits: 1 unused (keys are never negative), 15 bits of page, 16 bits of slot, 32 bits of
+ * {@code configBaseId}. The page and slot alone make a non-negative {@code int} {@link #slot(int, int) slot key}.
+ */
+public final class ItemKey {
+
+  public static final int MAX_PAGE_ID = 0x7FFF;
+  public static final int MAX_SLOT_ID = 0xFFFF;
+
+  private ItemKey() {
+  }
+
+  /**
+   * @throws IllegalArgumentException when an id is negative or the page or slot does not fit
+   */
+  public static long of(int pageId, int slotId, int configBaseId) {
+    if (configBaseId < 0) {
+      throw new IllegalArgumentException("Invalid configBaseId " + configBaseId);
+    }
+    return (long) slot(pageId, slotId) << 32 | configBaseId;
+  }
+
+  /**
+   * The page and slot packed in a non-negative int.
+   *
+   * @throws IllegalArgumentException when the page or slot does not fit
+   */
+  public static int slot(int pageId, int slotId) {
+    if (pageId < 0 || pageId > MAX_PAGE_ID || slotId < 0 || slotId > MAX_SLOT_ID) {
+      throw new IllegalArgumentException("Invalid page/slot " + pageId + "/" + slotId);
+    }
+    return pageId << 16 | slotId;
+  }
+
+  public static int pageId(long key) {
+    return (int) (key >>> 48);
+  }
+
+  public static int slotId(long key) {
+    return (int) (key >>> 32) & 0xFFFF;
+  }
+
+  public static int configBaseId(long key) {
+    return (int) key;
+  }
+
+  public static ItemId toItemId(long key) {
+    return ItemId.of(Integer.toString(configBaseId(key)), Integer.toString(pageId(key)),
+        Integer.toString(slotId(key)));
+  }
+}
@@ -0,0 +1,8 @@
+package com.nwidart.loganalyzer.model;
+
+/**
+ * Quantity of an item gained, summed over drops.
+ */
+public record ItemQuantity(int configBaseId, long quantity) {
+
+}
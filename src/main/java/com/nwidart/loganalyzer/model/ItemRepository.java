@@ -1,9 +1,18 @@
 package com.nwidart.loganalyzer.model;
 
+import org.jspecify.annotations.Nullable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface ItemRepository extends JpaRepository<Item, String> {
 
   Item findById(ItemId id);
 
+  /**
+   * Total of an item row without loading it, null when there is no such row.
+   */
+  @Query("select i.total from Item i "
+      + "where i.id.configBaseId = :configBaseId and i.id.pageId = :pageId and i.id.slotId = :slotId")
+  @Nullable Integer findTotal(String configBaseId, String pageId, String slotId);
+
 }
@@ -1,23 +1,83 @@
 package com.nwidart.loganalyzer.model;
 
+import java.time.Instant;
+import org.jspecify.annotations.Nullable;
 import org.springframework.context.ApplicationEvent;
 
+/**
+ * A change of the count of an item in a bag slot. The item row is carried as an {@link ItemKey} with the counts as
+ * primitives, so publishing a drop allocates no {@link ItemId} nor {@link Item}.
+ */
 public class ItemWasDroppedEvent extends ApplicationEvent {
 
-  private final Item item;
-  private final Map map;
+  /** {@link #getUnitPrice()} of a drop whose price was not recorded. */
+  public static final float NO_PRICE = Float.NaN;
 
-  public ItemWasDroppedEvent(Object source, Item item, Map map) {
+  private final long itemKey;
+  private final int delta;
+  private final int total;
+  private final float unitPrice;
+  private final @Nullable Map map;
+  private final Instant occurredAt;
+
+  /**
+   * @param itemKey    the item row, see {@link ItemKey}
+   * @param delta      items gained, negative when some were used or sold
+   * @param total      count of the item in the slot after the change
+   * @param unitPrice  price of one item at the time of the drop, or {@link #NO_PRICE}
+   * @param occurredAt log time of the drop
+   */
+  public ItemWasDroppedEvent(Object source, long itemKey, int delta, int total, float unitPrice, @Nullable Map map,
+      Instant occurredAt) {
     super(source);
-    this.item = item;
+    this.itemKey = itemKey;
+    this.delta = delta;
+    this.total = total;
+    this.unitPrice = unitPrice;
     this.map = map;
+    this.occurredAt = occurredAt;
+  }
+
+  public long getItemKey() {
+    return itemKey;
+  }
+
+  public int getConfigBaseId() {
+    return ItemKey.configBaseId(itemKey);
+  }
+
+  public int getPageId() {
+    return ItemKey.pageId(itemKey);
+  }
+
+  public int getSlotId() {
+    return ItemKey.slotId(itemKey);
   }
 
-  public Item getItem() {
-    return item;
+  public int getDelta() {
+    return delta;
   }
 
-  public Map getMap() {
+  public int getTotal() {
+    return total;
+  }
+
+  /**
+   * Price of one item at the time of the drop, {@link #NO_PRICE} when it was not recorded.
+   */
+  public float getUnitPrice() {
+    return unitPrice;
+  }
+
+  public boolean hasUnitPrice() {
+    return !Float.isNaN(unitPrice);
+  }
+
+  public @Nullable Map getMap() {
     return map;
   }
+
+  public Instant getOccurredAt() {
+    return occurredAt;
+  }
 }
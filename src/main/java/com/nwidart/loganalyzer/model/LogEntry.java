@@ -2,9 +2,22 @@ package com.nwidart.loganalyzer.model;
 
 import java.time.Instant;
 
+/**
+ * A line of the game log.
+ *
+ * @param timestamp game time parsed from the line prefix, or the time the line was read for lines without a prefix
+ * @param frame     frame counter from the line prefix, or {@link #NO_FRAME}
+ */
 public record LogEntry(
     String rawLine,
     long lineNumber,
-    Instant timestamp
+    Instant timestamp,
+    int frame
 ) {
+
+  public static final int NO_FRAME = -1;
+
+  public LogEntry(String rawLine, long lineNumber, Instant timestamp) {
+    this(rawLine, lineNumber, timestamp, NO_FRAME);
+  }
 }
@@ -30,6 +30,7 @@ public class Map {
   @Nullable
   private Instant endedAt;
 
+  /** Slots touched in the map; what was gained is in the {@link ItemDrop} ledger. */
   @ManyToMany
   @JoinTable(
       name = "map_item",
@@ -50,11 +51,23 @@ public class Map {
   }
 
   public static Map newMap() {
-    return new Map(Instant.now());
+    return newMap(Instant.now());
+  }
+
+  public static Map newMap(Instant startedAt) {
+    return new Map(startedAt);
   }
 
   public void endMap() {
-    this.endedAt = Instant.now();
+    endMap(Instant.now());
+  }
+
+  public void endMap(Instant endedAt) {
+    this.endedAt = endedAt;
+  }
+
+  public Long getId() {
+    return id;
   }
 
   public Set<Item> getItems() {
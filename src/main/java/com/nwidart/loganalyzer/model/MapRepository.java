@@ -1,16 +1,29 @@
 package com.nwidart.loganalyzer.model;
 
+import java.time.Instant;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface MapRepository extends JpaRepository<Map, Long> {
 
   Map findFirstByEndedAtIsNullOrderByStartedAtDesc();
 
+  Map findFirstByOrderByStartedAtAsc();
+
   @Query("select distinct m from Map m left join fetch m.items order by m.endedAt desc")
   List<Map> fetchMapsWithItemsSortedByEndedAtDesc();
 
+  /**
+   * End a map with a single update, without loading it.
+   */
+  @Transactional
+  @Modifying
+  @Query("update Map m set m.endedAt = :endedAt where m.id = :id")
+  int endMap(Long id, Instant endedAt);
+
   default Map findActiveMap() {
     return findFirstByEndedAtIsNullOrderByStartedAtDesc();
   }
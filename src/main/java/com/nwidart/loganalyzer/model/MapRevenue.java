@@ -0,0 +1,8 @@
+package com.nwidart.loganalyzer.model;
+
+/**
+ * Value of the drops of a map, at the unit price of each drop.
+ */
+public record MapRevenue(Long mapId, double revenue) {
+
+}
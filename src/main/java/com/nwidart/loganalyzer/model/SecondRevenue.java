@@ -0,0 +1,8 @@
+package com.nwidart.loganalyzer.model;
+
+/**
+ * Value of the drops of one second of log time, at the unit price of each drop.
+ */
+public record SecondRevenue(long epochSecond, double revenue) {
+
+}
@@ -0,0 +1,19 @@
+package com.nwidart.loganalyzer.pipeline;
+
+/**
+ * What a producer does when the ring buffer of the next stage is full.
+ */
+public enum Backpressure {
+
+  /**
+   * Wait until the consumer catches up, slowing down the producing stage (and, transitively, file reading).
+   */
+  BLOCK,
+
+  /**
+   * Drop the item and count it in {@link StageMetrics#dropped()}. For the publish stage, only the line is dropped (the
+   * live log view and {@code LogEntryEvent} listeners miss it); the events raised by applying it are handed over with
+   * the next slot, so {@code StatsService} and the other event listeners miss nothing.
+   */
+  DROP
+}
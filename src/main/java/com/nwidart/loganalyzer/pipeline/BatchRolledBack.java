@@ -0,0 +1,19 @@
+package com.nwidart.loganalyzer.pipeline;
+
+/**
+ * Published in place of the events of a batch of lines that was rolled back, once the events of every batch committed
+ * before it are published. Listeners holding state derived from those events can reload it from the database then,
+ * without counting the committed events still on their way twice.
+ */
+public final class BatchRolledBack {
+
+  public static final BatchRolledBack INSTANCE = new BatchRolledBack();
+
+  private BatchRolledBack() {
+  }
+
+  @Override
+  public String toString() {
+    return "BatchRolledBack";
+  }
+}
@@ -0,0 +1,128 @@
+package com.nwidart.loganalyzer.pipeline;
+
+import com.nwidart.loganalyzer.LogLineDispatcher.Matches;
+import com.nwidart.loganalyzer.model.LogEntry;
+import java.util.ArrayList;
+import java.util.List;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Mutable, reused ring buffer slot carrying a log line through the pipeline stages. Each stage fills in its part:
+ * the reader sets the line, the classifier the entry and matches, the apply stage the deferred events. The apply stage
+ * may also hand events over to the publish stage in a slot without a line.
+ * <p>
+ * The {@link Matches} of a slot are filled in place by the classifier and handed over from slot to slot, so a line
+ * goes through the stages without allocating them.
+ */
+public final class LineEvent {
+
+  private boolean rotated;
+  private @Nullable String line;
+  private long endOffset;
+  private long lineNumber;
+  private @Nullable LogEntry entry;
+  private Matches matches = new Matches();
+  private final List<Object> events = new ArrayList<>(2);
+
+  /**
+   * Whether this event marks a rotation of the file rather than a line.
+   */
+  public boolean isRotated() {
+    return rotated;
+  }
+
+  /**
+   * Whether this event carries a line, rather than a rotation or only events.
+   */
+  public boolean hasLine() {
+    return line != null;
+  }
+
+  public String line() {
+    if (line == null) {
+      throw new IllegalStateException("No line in this event");
+    }
+    return line;
+  }
+
+  public long endOffset() {
+    return endOffset;
+  }
+
+  public long lineNumber() {
+    return lineNumber;
+  }
+
+  public LogEntry entry() {
+    if (entry == null) {
+      throw new IllegalStateException("Line " + lineNumber + " was not classified");
+    }
+    return entry;
+  }
+
+  public void classified(LogEntry entry) {
+    this.entry = entry;
+  }
+
+  /**
+   * The processors matching the line, to be filled in by the classifier.
+   */
+  public Matches matches() {
+    return matches;
+  }
+
+  /**
+   * Application events to be published by the publish stage: those of the lines committed since the previous slot was
+   * handed over.
+   */
+  public List<Object> events() {
+    return events;
+  }
+
+  void setLine(String line, long endOffset, long lineNumber) {
+    this.rotated = false;
+    this.line = line;
+    this.endOffset = endOffset;
+    this.lineNumber = lineNumber;
+    this.entry = null;
+    this.matches.clear();
+    this.events.clear();
+  }
+
+  void setRotated() {
+    this.rotated = true;
+    this.line = null;
+    this.endOffset = -1;
+    this.lineNumber = 0;
+    this.entry = null;
+    this.matches.clear();
+    this.events.clear();
+  }
+
+  void setEventsOnly() {
+    this.rotated = false;
+    this.line = null;
+    this.endOffset = -1;
+    this.lineNumber = 0;
+    this.entry = null;
+    this.matches.clear();
+    this.events.clear();
+  }
+
+  /**
+   * Take over the content of {@code other}, which is about to be reused. Its matches are swapped with ours rather than
+   * copied.
+   */
+  void copyFrom(LineEvent other) {
+    this.rotated = other.rotated;
+    this.line = other.line;
+    this.endOffset = other.endOffset;
+    this.lineNumber = other.lineNumber;
+    this.entry = other.entry;
+    Matches swapped = this.matches;
+    this.matches = other.matches;
+    other.matches = swapped;
+    this.events.clear();
+    this.events.addAll(other.events);
+  }
+}
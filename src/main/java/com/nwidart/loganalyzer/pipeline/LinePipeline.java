@@ -0,0 +1,342 @@
+package com.nwidart.loganalyzer.pipeline;
+
+import com.nwidart.loganalyzer.pipeline.StageBatch.Outcome;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Staged processing of tailed lines: read → classify → apply → publish.
+ * <p>
+ * The reading thread {@link #offer offers} lines; each following stage runs on its own thread and is fed by a
+ * {@link SpscRing}, so a slow database write or a slow browser only fills the ring in front of it instead of stalling
+ * file reading. Lines go through every stage in order. Events published through {@link PipelineEventPublisher} while a
+ * line is applied are handed to the publish stage once the line is committed.
+ * <p>
+ * The apply stage can group lines with a {@link StageBatch}; a batch is closed as soon as no line is waiting, so
+ * batching never holds back a line while the stage is idle. The events of the lines of an open batch are held until it
+ * is committed, then ride with the next slot handed to the publish stage (a slot of their own when no line is
+ * waiting), so listeners never see the effects of lines that are later rolled back. Those of a batch rolled back are
+ * discarded and replaced with {@link BatchRolledBack}; the apply stage then waits until the publish stage delivered it
+ * before applying the next line, so listeners reloading their state from the database on it see neither more nor less
+ * than the events they received. When the publish stage drops a line ({@link Backpressure#DROP}), the events it carries
+ * are kept for the next slot: only the line itself is lost.
+ */
+public final class LinePipeline {
+
+  private static final Logger log = LoggerFactory.getLogger(LinePipeline.class);
+
+  private final PipelineSettings settings;
+  private final SpscRing<LineEvent> toClassify;
+  private final SpscRing<LineEvent> toApply;
+  private final SpscRing<LineEvent> toPublish;
+  private final LineEvent droppedScratch = new LineEvent();
+  private final List<Thread> threads;
+
+  /**
+   * @param classify runs on the classify thread; must fill in {@link LineEvent#classified} for lines
+   * @param apply    runs on the apply thread, in line order
+   * @param publish  runs on the publish thread, in line order
+   */
+  public LinePipeline(String name, PipelineSettings settings,
+      Consumer<LineEvent> classify, Consumer<LineEvent> apply, Consumer<LineEvent> publish) {
+    this(name, settings, classify, apply, StageBatch.NONE, publish);
+  }
+
+  /**
+   * @param applyBatch groups the lines of the apply stage
+   */
+  public LinePipeline(String name, PipelineSettings settings,
+      Consumer<LineEvent> classify, Consumer<LineEvent> apply, StageBatch applyBatch, Consumer<LineEvent> publish) {
+    this.settings = settings;
+    this.toClassify = new SpscRing<>("classify", settings.bufferSize(), LineEvent::new);
+    this.toApply = new SpscRing<>("apply", settings.bufferSize(), LineEvent::new);
+    this.toPublish = new SpscRing<>("publish", settings.bufferSize(), LineEvent::new);
+    this.threads = List.of(
+        Thread.ofPlatform().name(name + "-classify").daemon().unstarted(
+            () -> run(toClassify, toApply, Backpressure.BLOCK, classify, StageBatch.NONE, null)),
+        Thread.ofPlatform().name(name + "-apply").daemon().unstarted(
+            () -> run(toApply, toPublish, settings.publishBackpressure(), apply, applyBatch, new HeldEvents())),
+        Thread.ofPlatform().name(name + "-publish").daemon().unstarted(
+            () -> run(toPublish, null, Backpressure.BLOCK, publish, StageBatch.NONE, null)));
+  }
+
+  public LinePipeline start() {
+    threads.forEach(Thread::start);
+    return this;
+  }
+
+  /**
+   * Reader thread: hand over a line, waiting while the classify stage is full.
+   *
+   * @return false if interrupted while waiting
+   */
+  public boolean offer(String line, long endOffset, long lineNumber) {
+    LineEvent event = toClassify.claim(settings.waitStrategy());
+    if (event == null) {
+      return false;
+    }
+    event.setLine(line, endOffset, lineNumber);
+    toClassify.publish();
+    return true;
+  }
+
+  /**
+   * Reader thread: signal that the file was rotated, in order with the lines.
+   */
+  public boolean offerRotation() {
+    LineEvent event = toClassify.claim(settings.waitStrategy());
+    if (event == null) {
+      return false;
+    }
+    event.setRotated();
+    toClassify.publish();
+    return true;
+  }
+
+  /**
+   * Reader thread: no more lines will be offered. The stages stop once they processed everything before.
+   */
+  public void finishInput() {
+    toClassify.finish();
+  }
+
+  /**
+   * Wait for all stages to finish after {@link #finishInput()}; stages still running after the timeout are
+   * interrupted.
+   *
+   * @return whether every stage finished in time
+   */
+  public boolean awaitTermination(Duration timeout) throws InterruptedException {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    boolean finished = true;
+    for (Thread thread : threads) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0 || !thread.join(Duration.ofNanos(remaining))) {
+        finished = false;
+      }
+    }
+    if (!finished) {
+      threads.forEach(Thread::interrupt);
+    }
+    return finished;
+  }
+
+  /**
+   * Queue depth and throughput of each stage's input ring, in pipeline order.
+   */
+  public List<StageMetrics> metrics() {
+    return List.of(toClassify.metrics(), toApply.metrics(), toPublish.metrics());
+  }
+
+  /**
+   * @param held the events of the lines handled, for the apply stage only
+   */
+  private void run(SpscRing<LineEvent> in, @Nullable SpscRing<LineEvent> out, Backpressure backpressure,
+      Consumer<LineEvent> handler, StageBatch batch, @Nullable HeldEvents held) {
+    try {
+      run(in, out, backpressure, handler, batch, held, settings.waitStrategy());
+    } finally {
+      closeBatch(batch, held);
+    }
+  }
+
+  private void run(SpscRing<LineEvent> in, @Nullable SpscRing<LineEvent> out, Backpressure backpressure,
+      Consumer<LineEvent> handler, StageBatch batch, @Nullable HeldEvents held, WaitStrategy wait) {
+    int attempt = 0;
+    while (!Thread.currentThread().isInterrupted()) {
+      LineEvent event = in.poll();
+      if (event == null) {
+        if (attempt == 0) {
+          closeBatch(batch, held);
+        }
+        if (out != null && held != null) {
+          if (held.hasReleased()) {
+            handOver(held, backpressure == Backpressure.BLOCK ? out.claim(wait) : out.tryClaim(), out);
+          }
+          awaitRollbackPublished(held, out, wait);
+        }
+        if (in.isDrained()) {
+          break;
+        }
+        attempt = wait.idle(attempt);
+        continue;
+      }
+      attempt = 0;
+
+      if (out == null) {
+        handle(handler, event, batch, null);
+        in.release();
+        continue;
+      }
+
+      LineEvent target = backpressure == Backpressure.BLOCK ? out.claim(wait) : out.tryClaim();
+      boolean drop = target == null;
+      if (drop) {
+        if (Thread.currentThread().isInterrupted()) {
+          break;
+        }
+        // The next stage is full: still run this stage so no state is lost, but do not pass the line on
+        out.dropped();
+        target = droppedScratch;
+      }
+      target.copyFrom(event);
+      in.release();
+      handle(handler, target, batch, held);
+      if (!drop) {
+        if (held != null) {
+          held.handOver(target.events());
+        }
+        out.publish();
+      }
+      if (held != null) {
+        awaitRollbackPublished(held, out, wait);
+      }
+    }
+    if (out != null) {
+      if (held != null) {
+        closeBatch(batch, held);
+        if (held.hasReleased()) {
+          handOver(held, out.claim(wait), out);
+        }
+      }
+      out.finish();
+    }
+  }
+
+  /**
+   * Hand the released events over in a slot of their own, unless none could be claimed.
+   */
+  private static void handOver(HeldEvents held, @Nullable LineEvent target, SpscRing<LineEvent> out) {
+    if (target != null) {
+      target.setEventsOnly();
+      held.handOver(target.events());
+      out.publish();
+    }
+  }
+
+  /**
+   * After a batch was rolled back, hand its {@link BatchRolledBack} over even if lines are dropped, and wait until the
+   * publish stage delivered it, so no batch is committed before the listeners reloaded their state.
+   */
+  private static void awaitRollbackPublished(HeldEvents held, SpscRing<LineEvent> out, WaitStrategy wait) {
+    if (!held.takeRollback()) {
+      return;
+    }
+    if (held.hasReleased()) {
+      handOver(held, out.claim(wait), out);
+    }
+    int attempt = 0;
+    while (!out.isEmpty() && !Thread.currentThread().isInterrupted()) {
+      attempt = wait.idle(attempt);
+    }
+  }
+
+  private static void handle(Consumer<LineEvent> handler, LineEvent event, StageBatch batch,
+      @Nullable HeldEvents held) {
+    if (held != null) {
+      PipelineEventPublisher.deferTo(event.events());
+    }
+    Outcome outcome;
+    try {
+      batch.beforeLine();
+      handler.accept(event);
+      outcome = batch.afterLine();
+    } catch (RuntimeException e) {
+      log.error("Failed to process line {}", event.lineNumber(), e);
+      outcome = failBatch(batch);
+    } finally {
+      if (held != null) {
+        PipelineEventPublisher.stopDeferring();
+      }
+    }
+    if (held != null) {
+      held.hold(event.events());
+      held.settle(outcome);
+    }
+  }
+
+  private static Outcome failBatch(StageBatch batch) {
+    try {
+      return batch.lineFailed();
+    } catch (RuntimeException e) {
+      log.error("Failed to end a batch of lines after a failure", e);
+      return Outcome.OPEN;
+    }
+  }
+
+  private static void closeBatch(StageBatch batch, @Nullable HeldEvents held) {
+    Outcome outcome;
+    try {
+      outcome = batch.close();
+    } catch (RuntimeException e) {
+      log.error("Failed to close a batch of lines", e);
+      outcome = Outcome.ROLLED_BACK;
+    }
+    if (held != null) {
+      held.settle(outcome);
+    }
+  }
+
+  /**
+   * Events published while the apply stage handles lines, until they can be handed to the publish stage.
+   */
+  private static final class HeldEvents {
+
+    /** Events of the lines of the open batch. */
+    private final List<Object> uncommitted = new ArrayList<>();
+    /** Events of committed lines, waiting for a slot. */
+    private final List<Object> released = new ArrayList<>();
+    /** Whether a batch was rolled back since the last {@link #takeRollback()}. */
+    private boolean rolledBack;
+
+    /**
+     * Hold the events of the line just handled, emptying {@code events}.
+     */
+    void hold(List<Object> events) {
+      uncommitted.addAll(events);
+      events.clear();
+    }
+
+    /**
+     * Release or discard the held events according to what became of their lines.
+     */
+    void settle(Outcome outcome) {
+      switch (outcome) {
+        case OPEN -> {
+        }
+        case COMMITTED -> {
+          released.addAll(uncommitted);
+          uncommitted.clear();
+        }
+        case ROLLED_BACK -> {
+          uncommitted.clear();
+          released.add(BatchRolledBack.INSTANCE);
+          rolledBack = true;
+        }
+      }
+    }
+
+    boolean takeRollback() {
+      boolean taken = rolledBack;
+      rolledBack = false;
+      return taken;
+    }
+
+    boolean hasReleased() {
+      return !released.isEmpty();
+    }
+
+    /**
+     * Move the released events to the slot about to be published.
+     */
+    void handOver(List<Object> into) {
+      into.addAll(released);
+      released.clear();
+    }
+  }
+}
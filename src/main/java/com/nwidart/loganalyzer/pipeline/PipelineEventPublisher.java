@@ -0,0 +1,47 @@
+package com.nwidart.loganalyzer.pipeline;
+
+import java.util.List;
+import org.jspecify.annotations.Nullable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes application events from processors.
+ * <p>
+ * On the apply thread of a {@link LinePipeline} the events are not delivered right away but collected with the line
+ * and delivered by the publish stage once the line is committed, so that slow listeners (e.g. Vaadin push) never hold
+ * up applying the next lines and no listener sees a line that is rolled back. The bulk importer holds them back the
+ * same way until the batch of the line is committed.
+ * On any other thread (tests) they are published immediately.
+ */
+@Component
+public class PipelineEventPublisher {
+
+  private static final ThreadLocal<@Nullable List<Object>> DEFERRED = new ThreadLocal<>();
+
+  private final ApplicationEventPublisher delegate;
+
+  public PipelineEventPublisher(ApplicationEventPublisher delegate) {
+    this.delegate = delegate;
+  }
+
+  public void publishEvent(Object event) {
+    List<Object> deferred = DEFERRED.get();
+    if (deferred != null) {
+      deferred.add(event);
+    } else {
+      delegate.publishEvent(event);
+    }
+  }
+
+  /**
+   * Collect the events published by the current thread into {@code sink} until {@link #stopDeferring()}.
+   */
+  public static void deferTo(List<Object> sink) {
+    DEFERRED.set(sink);
+  }
+
+  public static void stopDeferring() {
+    DEFERRED.remove();
+  }
+}
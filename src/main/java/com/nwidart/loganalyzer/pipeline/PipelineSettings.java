@@ -0,0 +1,16 @@
+package com.nwidart.loganalyzer.pipeline;
+
+/**
+ * Tuning of a {@link LinePipeline}.
+ *
+ * @param bufferSize          slots per ring buffer, rounded up to a power of two
+ * @param waitStrategy        how stage threads wait on empty or full rings
+ * @param publishBackpressure what the apply stage does when the publish stage falls behind; reading and applying
+ *                            always block, since dropping there would lose state
+ */
+public record PipelineSettings(int bufferSize, WaitStrategy waitStrategy, Backpressure publishBackpressure) {
+
+  public PipelineSettings {
+    bufferSize = Math.max(2, Integer.highestOneBit(Math.max(1, bufferSize - 1)) << 1);
+  }
+}
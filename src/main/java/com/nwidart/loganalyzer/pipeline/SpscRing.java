@@ -0,0 +1,150 @@
+package com.nwidart.loganalyzer.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Bounded single-producer single-consumer ring of pre-allocated, reusable slots.
+ * <p>
+ * The producer {@link #tryClaim() claims} the next free slot, fills it in place and {@link #publish() publishes} it; the
+ * consumer {@link #poll() polls} the oldest published slot, reads it and {@link #release() releases} it. No slot is
+ * ever allocated after construction. Each side keeps a cached copy of the other side's position so the shared
+ * counters are only read when the ring looks full or empty.
+ */
+final class SpscRing<T> {
+
+  private final String name;
+  private final Object[] slots;
+  private final int mask;
+
+  /** Next position to read, written by the consumer only. */
+  private final AtomicLong head = new AtomicLong();
+  /** Next position to write, written by the producer only. */
+  private final AtomicLong tail = new AtomicLong();
+  private long producerCachedHead;
+  private long consumerCachedTail;
+
+  private volatile boolean producerDone;
+  private volatile int maxDepth;
+  private volatile long producerWaits;
+  private volatile long dropped;
+
+  SpscRing(String name, int capacity, Supplier<T> factory) {
+    if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Ring capacity must be a power of two >= 2, got " + capacity);
+    }
+    this.name = name;
+    this.slots = new Object[capacity];
+    this.mask = capacity - 1;
+    for (int i = 0; i < capacity; i++) {
+      slots[i] = factory.get();
+    }
+  }
+
+  /**
+   * Producer: the next free slot, or null if the ring is full.
+   */
+  @Nullable T tryClaim() {
+    long position = tail.getPlain();
+    if (position - producerCachedHead > mask) {
+      producerCachedHead = head.getAcquire();
+      if (position - producerCachedHead > mask) {
+        return null;
+      }
+    }
+    return slot(position);
+  }
+
+  /**
+   * Producer: the next free slot, waiting with {@code wait} while the ring is full.
+   *
+   * @return null if the thread was interrupted while waiting
+   */
+  @Nullable T claim(WaitStrategy wait) {
+    T slot = tryClaim();
+    if (slot != null) {
+      return slot;
+    }
+    producerWaits++;
+    int attempt = 0;
+    while ((slot = tryClaim()) == null) {
+      if (Thread.currentThread().isInterrupted()) {
+        return null;
+      }
+      attempt = wait.idle(attempt);
+    }
+    return slot;
+  }
+
+  /**
+   * Producer: make the slot returned by the last claim visible to the consumer.
+   */
+  void publish() {
+    long next = tail.getPlain() + 1;
+    tail.setRelease(next);
+    int depth = (int) (next - head.getAcquire());
+    if (depth > maxDepth) {
+      maxDepth = depth;
+    }
+  }
+
+  /**
+   * Producer: count an item dropped because the ring was full.
+   */
+  void dropped() {
+    dropped++;
+  }
+
+  /**
+   * Producer: whether the consumer released every slot published so far.
+   */
+  boolean isEmpty() {
+    return head.getAcquire() == tail.getPlain();
+  }
+
+  /**
+   * Producer: no more slots will be published.
+   */
+  void finish() {
+    producerDone = true;
+  }
+
+  /**
+   * Consumer: the oldest published slot, or null if the ring is empty.
+   */
+  @Nullable T poll() {
+    long position = head.getPlain();
+    if (position >= consumerCachedTail) {
+      consumerCachedTail = tail.getAcquire();
+      if (position >= consumerCachedTail) {
+        return null;
+      }
+    }
+    return slot(position);
+  }
+
+  /**
+   * Consumer: hand the slot returned by the last poll back to the producer.
+   */
+  void release() {
+    head.setRelease(head.getPlain() + 1);
+  }
+
+  /**
+   * Consumer: whether the producer finished and every published slot was released.
+   */
+  boolean isDrained() {
+    return producerDone && head.getAcquire() == tail.getAcquire();
+  }
+
+  StageMetrics metrics() {
+    long read = head.getAcquire();
+    return new StageMetrics(name, (int) (tail.getAcquire() - read), slots.length, maxDepth, producerWaits, dropped, read);
+  }
+
+  @SuppressWarnings("unchecked")
+  private T slot(long position) {
+    return (T) slots[(int) position & mask];
+  }
+}
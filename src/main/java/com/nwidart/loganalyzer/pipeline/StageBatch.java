@@ -0,0 +1,64 @@
+package com.nwidart.loganalyzer.pipeline;
+
+/**
+ * Groups consecutive lines handled by a stage, e.g. to apply them in one transaction. Only called on the stage thread.
+ * <p>
+ * Each call that may end the batch tells what became of the lines handled since the last outcome, so that what they
+ * produced (e.g. application events) is only released once they are committed.
+ */
+public interface StageBatch {
+
+  /** Every line on its own. */
+  StageBatch NONE = new StageBatch() {
+    @Override
+    public void beforeLine() {
+    }
+
+    @Override
+    public Outcome afterLine() {
+      return Outcome.COMMITTED;
+    }
+
+    @Override
+    public Outcome lineFailed() {
+      return Outcome.COMMITTED;
+    }
+
+    @Override
+    public Outcome close() {
+      return Outcome.COMMITTED;
+    }
+  };
+
+  /**
+   * Before a line is handled: open a batch unless one is open.
+   */
+  void beforeLine();
+
+  /**
+   * After a line was handled: close the batch if it is full or old enough.
+   */
+  Outcome afterLine();
+
+  /**
+   * A line threw instead of completing: end the batch if the failure left it unable to commit.
+   */
+  Outcome lineFailed();
+
+  /**
+   * Close the open batch, if any, because no line is waiting or the stage stops.
+   */
+  Outcome close();
+
+  /**
+   * What became of the lines handled since the last outcome.
+   */
+  enum Outcome {
+    /** They wait in the batch, still open. */
+    OPEN,
+    /** They are committed, or there were none. */
+    COMMITTED,
+    /** They were rolled back with their batch. */
+    ROLLED_BACK
+  }
+}
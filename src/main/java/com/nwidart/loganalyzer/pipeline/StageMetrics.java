@@ -0,0 +1,24 @@
+package com.nwidart.loganalyzer.pipeline;
+
+/**
+ * Snapshot of the ring buffer feeding a pipeline stage.
+ *
+ * @param stage         name of the consuming stage
+ * @param depth         items waiting right now
+ * @param capacity      size of the ring buffer
+ * @param maxDepth      highest depth observed since the pipeline started
+ * @param producerWaits times the producer found the ring full and had to wait
+ * @param dropped       items dropped because the ring was full (only with {@link Backpressure#DROP})
+ * @param processed     items taken by the stage
+ */
+public record StageMetrics(
+    String stage,
+    int depth,
+    int capacity,
+    int maxDepth,
+    long producerWaits,
+    long dropped,
+    long processed
+) {
+
+}
@@ -0,0 +1,66 @@
+package com.nwidart.loganalyzer.pipeline;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How a pipeline thread waits for its ring buffer to become non-empty (consumer) or non-full (producer), selected with
+ * {@code tlitracker.pipeline.wait-strategy}.
+ */
+public enum WaitStrategy {
+
+  /**
+   * Spin on the CPU. Lowest latency, burns a core per stage.
+   */
+  BUSY_SPIN {
+    @Override
+    int idle(int attempt) {
+      Thread.onSpinWait();
+      return attempt + 1;
+    }
+  },
+
+  /**
+   * Spin briefly, then yield the CPU to other threads.
+   */
+  YIELD {
+    @Override
+    int idle(int attempt) {
+      if (attempt < SPINS) {
+        Thread.onSpinWait();
+      } else {
+        Thread.yield();
+      }
+      return attempt + 1;
+    }
+  },
+
+  /**
+   * Spin, yield, then park for a growing time up to 1 ms. Near-zero CPU use when idle.
+   */
+  BACKOFF {
+    @Override
+    int idle(int attempt) {
+      if (attempt < SPINS) {
+        Thread.onSpinWait();
+      } else if (attempt < SPINS + YIELDS) {
+        Thread.yield();
+      } else {
+        int parks = attempt - SPINS - YIELDS;
+        LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 10_000L << Math.min(parks, 7)));
+      }
+      return attempt + 1;
+    }
+  };
+
+  private static final int SPINS = 100;
+  private static final int YIELDS = 100;
+  private static final long MAX_PARK_NANOS = 1_000_000;
+
+  /**
+   * Wait once.
+   *
+   * @param attempt number of consecutive waits so far, 0 for the first one
+   * @return the value to pass for the next consecutive wait
+   */
+  abstract int idle(int attempt);
+}
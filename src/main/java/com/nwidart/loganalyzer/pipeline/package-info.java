@@ -0,0 +1,4 @@
+@NullMarked
+package com.nwidart.loganalyzer.pipeline;
+
+import org.jspecify.annotations.NullMarked;
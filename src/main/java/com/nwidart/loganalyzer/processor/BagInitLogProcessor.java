@@ -1,17 +1,18 @@
 package com.nwidart.loganalyzer.processor;
 
+import com.nwidart.loganalyzer.journal.GameJournal;
 import com.nwidart.loganalyzer.model.ItemRepository;
 import com.nwidart.loganalyzer.model.Item;
 import com.nwidart.loganalyzer.model.LogEntry;
-import java.util.regex.Matcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 //@Component
-public class BagInitLogProcessor implements LogProcessor {
+public class BagInitLogProcessor implements BagLogProcessor {
 
   private final ItemRepository itemRepository;
+  private final GameJournal journal;
 
   private static final Logger log = LoggerFactory.getLogger(BagInitLogProcessor.class);
 
@@ -19,31 +20,25 @@ public class BagInitLogProcessor implements LogProcessor {
   private static final String PATTERN =
       PREFIX + "BagMgr@:InitBagData\\s+PageId = (?<pageId>\\d+)\\s+SlotId = (?<slotId>\\d+)\\s+ConfigBaseId = (?<configBaseId>\\d+)\\s+Num = (?<num>\\d+)";
 
-  public BagInitLogProcessor(ItemRepository itemRepository) {
+  public BagInitLogProcessor(ItemRepository itemRepository, GameJournal journal) {
     this.itemRepository = itemRepository;
+    this.journal = journal;
   }
 
   @Override
-  public void process(LogEntry logEntry, Matcher matcher) {
-    if (matcher == null) {
-      return;
-    }
-    assert matcher.group("pageId") != null;
-    assert matcher.group("slotId") != null;
-    assert matcher.group("configBaseId") != null;
-    assert matcher.group("num") != null;
-
+  public void processSlot(LogEntry logEntry, BagSlotRecord slot) {
     log.info("Matched error log at line {}: {}", logEntry.lineNumber(), logEntry.rawLine());
-    log.info("PageId = {}", matcher.group("pageId"));
-    log.info("SlotId = {}", matcher.group("slotId"));
-    log.info("ConfigBaseId = {}", matcher.group("configBaseId"));
-    log.info("Num = {}", matcher.group("num"));
+    log.info("PageId = {}", slot.pageId());
+    log.info("SlotId = {}", slot.slotId());
+    log.info("ConfigBaseId = {}", slot.configBaseId());
+    log.info("Num = {}", slot.num());
+    this.journal.bagInitialized(logEntry, slot);
 
     var item = Item.of(
-        matcher.group("pageId"),
-        matcher.group("slotId"),
-        matcher.group("configBaseId"),
-        Integer.valueOf(matcher.group("num")),
+        Integer.toString(slot.pageId()),
+        Integer.toString(slot.slotId()),
+        Integer.toString(slot.configBaseId()),
+        slot.num(),
         0);
     this.itemRepository.save(item);
   }
@@ -53,6 +48,11 @@ public class BagInitLogProcessor implements LogProcessor {
     return PATTERN;
   }
 
+  @Override
+  public BagLineParser getParser() {
+    return BagLineParser.INIT;
+  }
+
   @Override
   public int getOrder() {
     return 10; // Higher priority
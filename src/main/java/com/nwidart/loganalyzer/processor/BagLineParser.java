@@ -0,0 +1,116 @@
+package com.nwidart.loganalyzer.processor;
+
+/**
+ * Hand-written equivalent of the {@code BagMgr} processor regexes, reading PageId, SlotId, ConfigBaseId and Num straight
+ * from the line's characters into a {@link BagSlotRecord}, without allocating.
+ * <p>
+ * A line is accepted exactly when {@code \[.*?\]GameLog: Display: \[Game\]\s*<keyword> PageId = \d+ SlotId = \d+
+ * ConfigBaseId = \d+ Num = \d+} is found in it, where the separators before each field name are single spaces, or any
+ * non-empty run of whitespace when {@code strictSpacing} is false. Values that do not fit an {@code int} are rejected.
+ */
+public final class BagLineParser {
+
+  public static final BagLineParser MODIFY = new BagLineParser("BagMgr@:Modfy BagItem", true);
+  public static final BagLineParser INIT = new BagLineParser("BagMgr@:InitBagData", false);
+
+  private static final String PREFIX = "]GameLog: Display: [Game]";
+  private static final String[] FIELDS = {"PageId = ", "SlotId = ", "ConfigBaseId = ", "Num = "};
+
+  private final String keyword;
+  private final boolean strictSpacing;
+
+  public BagLineParser(String keyword, boolean strictSpacing) {
+    this.keyword = keyword;
+    this.strictSpacing = strictSpacing;
+  }
+
+  public String keyword() {
+    return keyword;
+  }
+
+  /**
+   * Parse {@code line} into {@code into}. Thread-safe; {@code into} is only modified when the line matches.
+   *
+   * @return whether the line is a {@code BagMgr} line of this parser's kind
+   */
+  public boolean parse(String line, BagSlotRecord into) {
+    int from = 0;
+    int at;
+    while ((at = line.indexOf(keyword, from)) >= 0) {
+      if (hasPrefix(line, at) && parseFields(line, at + keyword.length(), into)) {
+        return true;
+      }
+      from = at + 1;
+    }
+    return false;
+  }
+
+  private static boolean hasPrefix(String line, int keywordStart) {
+    int end = keywordStart;
+    while (end > 0 && isWhitespace(line.charAt(end - 1))) {
+      end--;
+    }
+    int prefixStart = end - PREFIX.length();
+    return prefixStart > 0
+        && line.startsWith(PREFIX, prefixStart)
+        && line.lastIndexOf('[', prefixStart - 1) >= 0;
+  }
+
+  private boolean parseFields(String line, int position, BagSlotRecord into) {
+    int pos = position;
+    int length = line.length();
+    int pageId = 0;
+    int slotId = 0;
+    int configBaseId = 0;
+    for (int field = 0; field < FIELDS.length; field++) {
+      int separatorStart = pos;
+      if (strictSpacing) {
+        if (pos >= length || line.charAt(pos) != ' ') {
+          return false;
+        }
+        pos++;
+      } else {
+        while (pos < length && isWhitespace(line.charAt(pos))) {
+          pos++;
+        }
+        if (pos == separatorStart) {
+          return false;
+        }
+      }
+      String name = FIELDS[field];
+      if (!line.startsWith(name, pos)) {
+        return false;
+      }
+      pos += name.length();
+
+      int digitsStart = pos;
+      long value = 0;
+      while (pos < length) {
+        char c = line.charAt(pos);
+        if (c < '0' || c > '9') {
+          break;
+        }
+        value = value * 10 + (c - '0');
+        if (value > Integer.MAX_VALUE) {
+          return false;
+        }
+        pos++;
+      }
+      if (pos == digitsStart) {
+        return false;
+      }
+      switch (field) {
+        case 0 -> pageId = (int) value;
+        case 1 -> slotId = (int) value;
+        case 2 -> configBaseId = (int) value;
+        default -> into.set(pageId, slotId, configBaseId, (int) value);
+      }
+    }
+    return true;
+  }
+
+  private static boolean isWhitespace(char c) {
+    // Same set as the regex \s
+    return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+  }
+}
@@ -0,0 +1,40 @@
+package com.nwidart.loganalyzer.processor;
+
+import com.nwidart.loganalyzer.model.LogEntry;
+import java.util.List;
+import java.util.regex.Matcher;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Processor for {@code BagMgr} inventory lines. The dispatcher parses these lines with {@link #getParser()} instead of
+ * {@link #getPattern()} and hands the fields over as a {@link BagSlotRecord}.
+ */
+public interface BagLogProcessor extends LogProcessor {
+
+  /**
+   * Process a parsed inventory line. The record is reused for the next line once this method returns.
+   */
+  void processSlot(LogEntry logEntry, BagSlotRecord slot);
+
+  BagLineParser getParser();
+
+  /**
+   * Adapts a regex match of {@link #getPattern()} to {@link #processSlot(LogEntry, BagSlotRecord)}.
+   */
+  @Override
+  default void process(LogEntry logEntry, @Nullable Matcher matcher) {
+    if (matcher == null) {
+      return;
+    }
+    processSlot(logEntry, new BagSlotRecord(
+        Integer.parseInt(matcher.group("pageId")),
+        Integer.parseInt(matcher.group("slotId")),
+        Integer.parseInt(matcher.group("configBaseId")),
+        Integer.parseInt(matcher.group("num"))));
+  }
+
+  @Override
+  default List<String> getRequiredLiterals() {
+    return List.of(getParser().keyword());
+  }
+}
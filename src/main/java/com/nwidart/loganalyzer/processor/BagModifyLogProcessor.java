@@ -1,75 +1,53 @@
 package com.nwidart.loganalyzer.processor;
 
-import com.nwidart.loganalyzer.model.Item;
-import com.nwidart.loganalyzer.model.ItemId;
-import com.nwidart.loganalyzer.model.ItemRepository;
+import com.nwidart.loganalyzer.ActiveMapSession;
+import com.nwidart.loganalyzer.inventory.InventoryService;
+import com.nwidart.loganalyzer.inventory.SlotChange;
+import com.nwidart.loganalyzer.journal.GameJournal;
 import com.nwidart.loganalyzer.model.ItemWasDroppedEvent;
 import com.nwidart.loganalyzer.model.LogEntry;
 import com.nwidart.loganalyzer.model.Map;
-import com.nwidart.loganalyzer.model.MapRepository;
-import java.util.regex.Matcher;
-import org.jspecify.annotations.Nullable;
+import com.nwidart.loganalyzer.pipeline.PipelineEventPublisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 @Component
-public class BagModifyLogProcessor implements LogProcessor {
+public class BagModifyLogProcessor implements BagLogProcessor {
 
   private static final Logger log = LoggerFactory.getLogger(BagModifyLogProcessor.class);
-  private final ItemRepository itemRepository;
-  private final MapRepository mapRepository;
-  private final ApplicationEventPublisher eventPublisher;
+  private final InventoryService inventoryService;
+  private final ActiveMapSession activeMapSession;
+  private final PipelineEventPublisher eventPublisher;
+  private final GameJournal journal;
 
   private static final String PREFIX = "\\[.*?\\]GameLog: Display: \\[Game\\]\\s*";
   private static final String PATTERN =
       PREFIX + "BagMgr@:Modfy BagItem PageId = (?<pageId>\\d+) SlotId = (?<slotId>\\d+) ConfigBaseId = (?<configBaseId>\\d+) Num = (?<num>\\d+)";
 
-  public BagModifyLogProcessor(ItemRepository itemRepository, MapRepository mapRepository, ApplicationEventPublisher eventPublisher) {
-    this.itemRepository = itemRepository;
-    this.mapRepository = mapRepository;
+  public BagModifyLogProcessor(InventoryService inventoryService, ActiveMapSession activeMapSession,
+      PipelineEventPublisher eventPublisher, GameJournal journal) {
+    this.inventoryService = inventoryService;
+    this.activeMapSession = activeMapSession;
     this.eventPublisher = eventPublisher;
+    this.journal = journal;
   }
 
   @Override
-  @Transactional
-  public void process(LogEntry logEntry, @Nullable Matcher matcher) {
-    if (matcher == null) {
-      return;
-    }
-    assert matcher.group("pageId") != null;
-    assert matcher.group("slotId") != null;
-    assert matcher.group("configBaseId") != null;
-    assert matcher.group("num") != null;
-
-    var item = this.getOrCreateItem(matcher);
-    Integer currentAmount = item.getNum();
-    Integer newAmount = Integer.valueOf(matcher.group("num"));
-    item.setNum(newAmount - currentAmount);
-    item.setTotal(newAmount);
-    var savedItem = this.itemRepository.save(item);
-
-    Map activeMap = this.mapRepository.findActiveMap();
+  public void processSlot(LogEntry logEntry, BagSlotRecord slot) {
+    this.journal.bagModified(logEntry, slot);
+    Map activeMap = this.activeMapSession.getActiveMap();
+    SlotChange change = this.inventoryService.modify(slot.pageId(), slot.slotId(), slot.configBaseId(), slot.num(),
+        activeMap == null ? null : activeMap.getId(), logEntry.timestamp());
     if (activeMap != null) {
-      activeMap.addItem(item);
-      this.mapRepository.save(activeMap);
+      this.activeMapSession.recordDrop(change.delta());
     } else {
-      log.debug("No active map found; skipping map association for item {}", savedItem.getConfigBaseId());
+      log.debug("No active map found; skipping map association for item {}", slot.configBaseId());
     }
 
     // trigger event to update Map and Session statistics
-    this.eventPublisher.publishEvent(new ItemWasDroppedEvent(this, savedItem, activeMap));
-  }
-
-  private Item getOrCreateItem(Matcher matcher) {
-    var id = new ItemId(matcher.group("configBaseId"), matcher.group("pageId"), matcher.group("slotId"));
-    var item = this.itemRepository.findById(id);
-    if (item != null) {
-      return item;
-    }
-    return Item.of(matcher.group("pageId"), matcher.group("slotId"), matcher.group("configBaseId"), 0, 0);
+    this.eventPublisher.publishEvent(new ItemWasDroppedEvent(this, change.key(), change.delta(), change.total(),
+        change.unitPrice(), activeMap, logEntry.timestamp()));
   }
 
   @Override
@@ -77,6 +55,11 @@ public class BagModifyLogProcessor implements LogProcessor {
     return PATTERN;
   }
 
+  @Override
+  public BagLineParser getParser() {
+    return BagLineParser.MODIFY;
+  }
+
   @Override
   public int getOrder() {
     return 20;
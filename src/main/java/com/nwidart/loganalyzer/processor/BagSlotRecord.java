@@ -0,0 +1,55 @@
+package com.nwidart.loganalyzer.processor;
+
+/**
+ * Fields of a {@code BagMgr} inventory line, filled in place by {@link BagLineParser} so that the same instance can be
+ * reused for every line.
+ */
+public final class BagSlotRecord {
+
+  private int pageId;
+  private int slotId;
+  private int configBaseId;
+  private int num;
+
+  public BagSlotRecord() {
+  }
+
+  public BagSlotRecord(int pageId, int slotId, int configBaseId, int num) {
+    set(pageId, slotId, configBaseId, num);
+  }
+
+  void set(int pageId, int slotId, int configBaseId, int num) {
+    this.pageId = pageId;
+    this.slotId = slotId;
+    this.configBaseId = configBaseId;
+    this.num = num;
+  }
+
+  public int pageId() {
+    return pageId;
+  }
+
+  public int slotId() {
+    return slotId;
+  }
+
+  public int configBaseId() {
+    return configBaseId;
+  }
+
+  public int num() {
+    return num;
+  }
+
+  /**
+   * Copy of this record, for callers that keep it beyond the next parse.
+   */
+  public BagSlotRecord copy() {
+    return new BagSlotRecord(pageId, slotId, configBaseId, num);
+  }
+
+  @Override
+  public String toString() {
+    return "BagSlotRecord[pageId=" + pageId + ", slotId=" + slotId + ", configBaseId=" + configBaseId + ", num=" + num + "]";
+  }
+}
@@ -1,6 +1,7 @@
 package com.nwidart.loganalyzer.processor;
 
 import com.nwidart.loganalyzer.model.LogEntry;
+import java.util.List;
 import java.util.regex.Matcher;
 import org.jspecify.annotations.Nullable;
 
@@ -26,6 +27,16 @@ public interface LogProcessor {
      */
     String getPattern();
 
+    /**
+     * Get literal strings of which at least one appears in every line matched by {@link #getPattern()}.
+     * Lines containing none of them are skipped without evaluating the pattern.
+     *
+     * @return the required literals, or an empty list to evaluate the pattern on every line
+     */
+    default List<String> getRequiredLiterals() {
+        return List.of();
+    }
+
     /**
      * Get the priority order for this processor (lower = higher priority).
      * Used when multiple processors match the same line.
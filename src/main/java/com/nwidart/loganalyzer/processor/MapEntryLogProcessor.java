@@ -1,8 +1,13 @@
 package com.nwidart.loganalyzer.processor;
 
+import com.nwidart.loganalyzer.ActiveMapSession;
+import com.nwidart.loganalyzer.event.MapEntered;
+import com.nwidart.loganalyzer.journal.GameJournal;
 import com.nwidart.loganalyzer.model.LogEntry;
 import com.nwidart.loganalyzer.model.Map;
 import com.nwidart.loganalyzer.model.MapRepository;
+import com.nwidart.loganalyzer.pipeline.PipelineEventPublisher;
+import java.util.List;
 import java.util.regex.Matcher;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
@@ -16,16 +21,25 @@ public class MapEntryLogProcessor implements LogProcessor {
   private static final Logger log = LoggerFactory.getLogger(MapEntryLogProcessor.class);
 
   private final MapRepository mapRepository;
+  private final ActiveMapSession activeMapSession;
+  private final PipelineEventPublisher eventPublisher;
+  private final GameJournal journal;
 
-  public MapEntryLogProcessor(MapRepository mapRepository) {
+  public MapEntryLogProcessor(MapRepository mapRepository, ActiveMapSession activeMapSession,
+      PipelineEventPublisher eventPublisher, GameJournal journal) {
     this.mapRepository = mapRepository;
+    this.activeMapSession = activeMapSession;
+    this.eventPublisher = eventPublisher;
+    this.journal = journal;
   }
 
   @Override
   public void process(LogEntry logEntry, @Nullable Matcher matcher) {
     log.info("Matched map entry log at line {}: {}", logEntry.lineNumber(), logEntry.rawLine());
-    var map = Map.newMap();
-    this.mapRepository.save(map);
+    this.journal.mapEntered(logEntry);
+    var map = this.mapRepository.save(Map.newMap(logEntry.timestamp()));
+    this.activeMapSession.entered(map);
+    this.eventPublisher.publishEvent(new MapEntered(this, map));
   }
 
   @Override
@@ -33,6 +47,11 @@ public class MapEntryLogProcessor implements LogProcessor {
     return PATTERN;
   }
 
+  @Override
+  public List<String> getRequiredLiterals() {
+    return List.of("_UpdateGameEnd");
+  }
+
   @Override
   public int getOrder() {
     return 15;
@@ -1,8 +1,12 @@
 package com.nwidart.loganalyzer.processor;
 
+import com.nwidart.loganalyzer.ActiveMapSession;
+import com.nwidart.loganalyzer.event.MapExited;
+import com.nwidart.loganalyzer.journal.GameJournal;
 import com.nwidart.loganalyzer.model.LogEntry;
-import com.nwidart.loganalyzer.model.Map;
 import com.nwidart.loganalyzer.model.MapRepository;
+import com.nwidart.loganalyzer.pipeline.PipelineEventPublisher;
+import java.util.List;
 import java.util.regex.Matcher;
 import org.jspecify.annotations.Nullable;
 import org.springframework.stereotype.Component;
@@ -10,20 +14,31 @@ import org.springframework.stereotype.Component;
 @Component
 public class MapExitLogProcessor implements LogProcessor {
 
+  // Pattern up to its first regex metacharacter ('.')
+  private static final String LITERAL = "NextSceneName = World'/Game/Art/Maps/01SD/XZ_YuJinZhiXiBiNanSuo200/XZ_YuJinZhiXiBiNanSuo200";
   private static final String PATTERN = "NextSceneName = World'/Game/Art/Maps/01SD/XZ_YuJinZhiXiBiNanSuo200/XZ_YuJinZhiXiBiNanSuo200.XZ_YuJinZhiXiBiNanSuo200'";
 
   private final MapRepository mapRepository;
+  private final ActiveMapSession activeMapSession;
+  private final PipelineEventPublisher eventPublisher;
+  private final GameJournal journal;
 
-  public MapExitLogProcessor(MapRepository mapRepository) {
+  public MapExitLogProcessor(MapRepository mapRepository, ActiveMapSession activeMapSession,
+      PipelineEventPublisher eventPublisher, GameJournal journal) {
     this.mapRepository = mapRepository;
+    this.activeMapSession = activeMapSession;
+    this.eventPublisher = eventPublisher;
+    this.journal = journal;
   }
 
   @Override
   public void process(LogEntry logEntry, @Nullable Matcher matcher) {
-    Map activeMap = this.mapRepository.findActiveMap();
-    if (activeMap != null) {
-      activeMap.endMap();
-      this.mapRepository.save(activeMap);
+    this.journal.mapExited(logEntry);
+    Long activeMapId = this.activeMapSession.getActiveMapId();
+    if (activeMapId != null) {
+      this.mapRepository.endMap(activeMapId, logEntry.timestamp());
+      this.activeMapSession.exited();
+      this.eventPublisher.publishEvent(new MapExited(this, activeMapId, logEntry.timestamp()));
     }
   }
 
@@ -32,6 +47,11 @@ public class MapExitLogProcessor implements LogProcessor {
     return PATTERN;
   }
 
+  @Override
+  public List<String> getRequiredLiterals() {
+    return List.of(LITERAL);
+  }
+
   @Override
   public int getOrder() {
     return 15;
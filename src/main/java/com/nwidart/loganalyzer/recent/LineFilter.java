@@ -0,0 +1,60 @@
+package com.nwidart.loganalyzer.recent;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Which {@link RecentLines} to list: the lines matched by any of a set of processors, and/or containing a text (ASCII
+ * letters compared case-insensitively). Matched against the bytes in the ring, lines are not decoded.
+ */
+public final class LineFilter {
+
+  public static final LineFilter ALL = new LineFilter(0, "");
+
+  private final long processors;
+  private final String text;
+  /** {@link #text} in UTF-8, ASCII letters lower-cased. */
+  private final byte[] needle;
+
+  private LineFilter(long processors, String text) {
+    this.processors = processors;
+    this.text = text;
+    this.needle = text.getBytes(StandardCharsets.UTF_8);
+    for (int i = 0; i < needle.length; i++) {
+      needle[i] = lower(needle[i]);
+    }
+  }
+
+  /**
+   * @param processors mask of the processors (bit {@code i} for the processor {@code i} of the dispatcher), 0 for any
+   *                   line
+   * @param text       text the lines must contain, blank for any line
+   */
+  public static LineFilter of(long processors, String text) {
+    String trimmed = text.strip();
+    return processors == 0 && trimmed.isEmpty() ? ALL : new LineFilter(processors, trimmed);
+  }
+
+  public long processors() {
+    return processors;
+  }
+
+  public String text() {
+    return text;
+  }
+
+  public boolean isAll() {
+    return processors == 0 && needle.length == 0;
+  }
+
+  boolean matchesProcessors(long lineProcessors) {
+    return processors == 0 || (lineProcessors & processors) != 0;
+  }
+
+  byte[] needle() {
+    return needle;
+  }
+
+  static byte lower(byte b) {
+    return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+  }
+}
@@ -0,0 +1,19 @@
+package com.nwidart.loganalyzer.recent;
+
+/**
+ * A line read back from {@link RecentLines}.
+ *
+ * @param sequence   position in {@link RecentLines}, starting at 1
+ * @param lineNumber line number in the log file
+ * @param processors bit {@code i} set when the processor {@code i} of the dispatcher matched the line
+ * @param text       the line, cut after {@link RecentLines#maxLineBytes()} bytes
+ */
+public record RecentLine(long sequence, long lineNumber, long processors, String text) {
+
+  /**
+   * Placeholder for a line that left the ring after it was listed.
+   */
+  public static RecentLine evicted(long sequence) {
+    return new RecentLine(sequence, 0, 0, "");
+  }
+}
@@ -0,0 +1,249 @@
+package com.nwidart.loganalyzer.recent;
+
+import com.vaadin.flow.shared.Registration;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongConsumer;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The last lines tailed, kept once for every view.
+ * <p>
+ * The text of the lines is stored in UTF-8 in a direct (off-heap) byte ring of {@code tlitracker.recent-lines.bytes},
+ * and their position, length, line number and matching processors in parallel arrays of
+ * {@code tlitracker.recent-lines.lines} slots, so keeping them creates no object per line. Each line gets a sequence
+ * number, starting at 1; appending evicts the oldest lines once either ring is full. Lines are decoded only when read,
+ * and {@link #scan(long, LineFilter, LongConsumer) filtered} on their bytes.
+ * <p>
+ * A single thread appends (the publish stage of the pipeline); any thread may read.
+ */
+@Component
+public class RecentLines {
+
+  private static final int DEFAULT_LINES = 10_000;
+  private static final int DEFAULT_BYTES = 4 << 20;
+  /** Lines scanned per read lock, so the appender never waits long. */
+  private static final int SCAN_CHUNK = 1024;
+
+  private final ByteBuffer bytes;
+  private final int byteMask;
+  private final int maxLineBytes;
+  private final long[] starts;
+  private final int[] lengths;
+  private final long[] lineNumbers;
+  private final long[] processors;
+  private final int lineMask;
+  private final StampedLock lock = new StampedLock();
+  private final CopyOnWriteArraySet<Runnable> listeners = new CopyOnWriteArraySet<>();
+
+  /** Guarded by {@link #lock}. */
+  private long first = 1;
+  /** Guarded by {@link #lock}. */
+  private long last;
+  /** Bytes appended so far; guarded by {@link #lock}. */
+  private long written;
+
+  public RecentLines(int lines) {
+    this(lines, DEFAULT_BYTES);
+  }
+
+  @Autowired
+  public RecentLines(@Value("${tlitracker.recent-lines.lines:" + DEFAULT_LINES + "}") int lines,
+      @Value("${tlitracker.recent-lines.bytes:" + DEFAULT_BYTES + "}") int bytes) {
+    int lineCapacity = Integer.highestOneBit(Math.max(2, lines) * 2 - 1);
+    int byteCapacity = Integer.highestOneBit(Math.max(1024, bytes) * 2 - 1);
+    this.bytes = ByteBuffer.allocateDirect(byteCapacity);
+    this.byteMask = byteCapacity - 1;
+    this.maxLineBytes = byteCapacity / 4;
+    this.starts = new long[lineCapacity];
+    this.lengths = new int[lineCapacity];
+    this.lineNumbers = new long[lineCapacity];
+    this.processors = new long[lineCapacity];
+    this.lineMask = lineCapacity - 1;
+  }
+
+  /**
+   * Append a line, evicting the oldest ones if needed, then notify the listeners.
+   *
+   * @param processors bit {@code i} set when the processor {@code i} of the dispatcher matched the line
+   * @return the sequence number of the line
+   */
+  public long append(long lineNumber, String line, long processors) {
+    byte[] encoded = line.getBytes(StandardCharsets.UTF_8);
+    int length = Math.min(encoded.length, maxLineBytes);
+    long sequence;
+    long stamp = lock.writeLock();
+    try {
+      sequence = ++last;
+      int slot = (int) (sequence & lineMask);
+      starts[slot] = written;
+      lengths[slot] = length;
+      lineNumbers[slot] = lineNumber;
+      this.processors[slot] = processors;
+      put(written, encoded, length);
+      written += length;
+      long oldestByte = written - bytes.capacity();
+      while (last - first > lineMask || starts[(int) (first & lineMask)] < oldestByte) {
+        first++;
+      }
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+    notifyListeners();
+    return sequence;
+  }
+
+  /**
+   * Forget every line; sequence numbers keep increasing.
+   */
+  public void clear() {
+    long stamp = lock.writeLock();
+    try {
+      first = last + 1;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+    notifyListeners();
+  }
+
+  /**
+   * Call {@code listener} on the appending thread after every line appended and on {@link #clear()}; it must be cheap
+   * (e.g. schedule a refresh). Returns a {@link Registration} to unsubscribe.
+   */
+  public Registration onChange(Runnable listener) {
+    Objects.requireNonNull(listener, "listener");
+    listeners.add(listener);
+    return () -> listeners.remove(listener);
+  }
+
+  /**
+   * Sequence number of the oldest line kept, {@link #last()} + 1 when there is none.
+   */
+  public long first() {
+    long stamp = lock.readLock();
+    try {
+      return first;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Sequence number of the last line appended, 0 when none was.
+   */
+  public long last() {
+    long stamp = lock.readLock();
+    try {
+      return last;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  public int lineCapacity() {
+    return lineMask + 1;
+  }
+
+  /**
+   * Longer lines are cut to this many bytes.
+   */
+  public int maxLineBytes() {
+    return maxLineBytes;
+  }
+
+  /**
+   * The line {@code sequence}, or null when it was evicted or not appended yet.
+   */
+  public @Nullable RecentLine read(long sequence) {
+    long stamp = lock.readLock();
+    try {
+      if (sequence < first || sequence > last) {
+        return null;
+      }
+      int slot = (int) (sequence & lineMask);
+      byte[] text = new byte[lengths[slot]];
+      get(starts[slot], text);
+      return new RecentLine(sequence, lineNumbers[slot], processors[slot], new String(text, StandardCharsets.UTF_8));
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Hand the sequence numbers of the lines kept after {@code after} and accepted by {@code filter} to {@code matches},
+   * oldest first.
+   *
+   * @return the sequence number of the last line scanned, {@code after} when there was none
+   */
+  public long scan(long after, LineFilter filter, LongConsumer matches) {
+    long scanned = after;
+    while (true) {
+      long stamp = lock.readLock();
+      long from;
+      long to;
+      try {
+        from = Math.max(scanned + 1, first);
+        to = Math.min(last, from + SCAN_CHUNK - 1);
+        if (from > to) {
+          return Math.max(scanned, last);
+        }
+        for (long sequence = from; sequence <= to; sequence++) {
+          if (accepts((int) (sequence & lineMask), filter)) {
+            matches.accept(sequence);
+          }
+        }
+      } finally {
+        lock.unlockRead(stamp);
+      }
+      scanned = to;
+    }
+  }
+
+  private boolean accepts(int slot, LineFilter filter) {
+    if (!filter.matchesProcessors(processors[slot])) {
+      return false;
+    }
+    byte[] needle = filter.needle();
+    if (needle.length == 0) {
+      return true;
+    }
+    long start = starts[slot];
+    int end = lengths[slot] - needle.length;
+    for (int i = 0; i <= end; i++) {
+      int j = 0;
+      while (j < needle.length && LineFilter.lower(bytes.get((int) ((start + i + j) & byteMask))) == needle[j]) {
+        j++;
+      }
+      if (j == needle.length) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void put(long position, byte[] src, int length) {
+    int at = (int) (position & byteMask);
+    int head = Math.min(length, bytes.capacity() - at);
+    bytes.put(at, src, 0, head);
+    bytes.put(0, src, head, length - head);
+  }
+
+  private void get(long position, byte[] dst) {
+    int at = (int) (position & byteMask);
+    int head = Math.min(dst.length, bytes.capacity() - at);
+    bytes.get(at, dst, 0, head);
+    bytes.get(0, dst, head, dst.length - head);
+  }
+
+  private void notifyListeners() {
+    for (Runnable listener : listeners) {
+      listener.run();
+    }
+  }
+}
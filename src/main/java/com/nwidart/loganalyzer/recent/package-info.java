@@ -0,0 +1,4 @@
+@NullMarked
+package com.nwidart.loganalyzer.recent;
+
+import org.jspecify.annotations.NullMarked;
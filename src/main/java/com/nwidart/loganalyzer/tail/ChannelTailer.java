@@ -0,0 +1,378 @@
+package com.nwidart.loganalyzer.tail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link LogTailer} reading the file through a {@link FileChannel} into a reusable direct {@link ByteBuffer}.
+ * <p>
+ * Lines are split on {@code \n} (a trailing {@code \r} is dropped) and decoded as UTF-8 straight from a reusable
+ * scratch array, so the only allocation per line is the resulting {@link String}. When the end of the file is reached
+ * the tailer waits on a {@link WatchService} registered on the parent directory, with a timeout that starts at
+ * {@link #MIN_POLL_MS} and doubles up to {@link #MAX_POLL_MS} while the file stays idle. Platforms whose watch service
+ * is slow or missing therefore still fall back to adaptive polling.
+ * <p>
+ * A file that is truncated, or replaced by another one, is read again from its start. Replacement is detected with the
+ * platform file key where there is one; on Windows, where there is none, with the creation time and a CRC32 of the
+ * first line instead. The first line is only read again when the size shrank or the modification time moved backwards,
+ * so an idle file costs no read.
+ */
+class ChannelTailer implements LogTailer {
+
+  private static final Logger log = LoggerFactory.getLogger(ChannelTailer.class);
+
+  static final int DEFAULT_BUFFER_SIZE = 1 << 20; // 1MB direct buffer
+  static final long MIN_POLL_MS = 5;
+  static final long MAX_POLL_MS = 250;
+  static final int FIRST_LINE_LIMIT = 4096;
+  /** {@link #firstLineHash} of a file whose first line is not complete yet. */
+  private static final long NO_HASH = -1;
+
+  private final Path file;
+  private final long startOffset;
+  private final TailListener listener;
+  private final ByteBuffer buffer;
+
+  private byte[] line = new byte[512];
+  private int lineLength;
+
+  private volatile boolean running = true;
+  private volatile @Nullable WatchService watchService;
+  private @Nullable FileChannel channel;
+  private @Nullable Object fileKey;
+  private @Nullable FileTime creationTime;
+  private long firstLineHash = NO_HASH;
+  /** Size and modification time last seen by {@link #isReplaced()}, where there is no file key. */
+  private long observedSize;
+  private @Nullable FileTime observedModified;
+  private @Nullable ByteBuffer head;
+  private long readPosition;
+
+  ChannelTailer(Path file, long startOffset, TailListener listener) {
+    this(file, startOffset, listener, DEFAULT_BUFFER_SIZE);
+  }
+
+  ChannelTailer(Path file, long startOffset, TailListener listener, int bufferSize) {
+    this.file = file;
+    this.startOffset = startOffset;
+    this.listener = listener;
+    this.buffer = ByteBuffer.allocateDirect(bufferSize);
+  }
+
+  @Override
+  public void run() {
+    this.watchService = openWatchService();
+    boolean firstOpen = true;
+    long delay = MIN_POLL_MS;
+    try {
+      while (running) {
+        try {
+          if (channel == null) {
+            if (!open(firstOpen ? startOffset : 0)) {
+              listener.fileNotFound();
+              await(MAX_POLL_MS);
+              continue;
+            }
+            firstOpen = false;
+          }
+          if (drain() > 0) {
+            delay = MIN_POLL_MS;
+            continue;
+          }
+          if (checkRotation()) {
+            delay = MIN_POLL_MS;
+            continue;
+          }
+          await(delay);
+          delay = Math.min(delay * 2, MAX_POLL_MS);
+        } catch (ClosedChannelException e) {
+          if (running) {
+            listener.handle(e);
+            closeChannel();
+          }
+        } catch (IOException e) {
+          listener.handle(e);
+          closeChannel();
+          await(MAX_POLL_MS);
+        }
+      }
+    } finally {
+      closeChannel();
+      closeWatchService();
+    }
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    closeWatchService();
+  }
+
+  /**
+   * Reads everything currently available and emits complete lines.
+   *
+   * @return the number of lines emitted
+   */
+  private int drain() throws IOException {
+    FileChannel ch = Objects.requireNonNull(channel);
+    int lines = 0;
+    int read;
+    buffer.clear();
+    while (running && (read = ch.read(buffer)) > 0) {
+      buffer.flip();
+      long base = readPosition;
+      readPosition += read;
+      int start = 0;
+      int limit = buffer.limit();
+      for (int i = 0; i < limit; i++) {
+        if (buffer.get(i) == '\n') {
+          append(start, i - start);
+          emit(base + i + 1);
+          start = i + 1;
+          lines++;
+        }
+      }
+      // keep the incomplete tail until its terminator arrives
+      append(start, limit - start);
+      buffer.clear();
+    }
+    return lines;
+  }
+
+  private void append(int from, int length) {
+    if (length == 0) {
+      return;
+    }
+    if (lineLength + length > line.length) {
+      line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+    }
+    buffer.get(from, line, lineLength, length);
+    lineLength += length;
+  }
+
+  private void emit(long endOffset) {
+    int length = lineLength;
+    if (length > 0 && line[length - 1] == '\r') {
+      length--;
+    }
+    String decoded = new String(line, 0, length, StandardCharsets.UTF_8);
+    lineLength = 0;
+    try {
+      listener.handle(decoded, endOffset);
+    } catch (RuntimeException e) {
+      // a failing line must not stop the tailer
+      listener.handle(e);
+    }
+  }
+
+  private boolean open(long offset) throws IOException {
+    try {
+      FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+      try {
+        recordIdentity();
+        long size = ch.size();
+        // an offset past the end means the file was replaced by a shorter one
+        this.readPosition = offset == LogTailer.END_OF_FILE ? size : offset <= size ? offset : 0;
+        ch.position(readPosition);
+      } catch (IOException e) {
+        ch.close();
+        throw e;
+      }
+      this.lineLength = 0;
+      this.channel = ch;
+      return true;
+    } catch (NoSuchFileException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Detects truncation or replacement of the file and reopens it from the start.
+   *
+   * @return true if the file was rotated
+   */
+  private boolean checkRotation() throws IOException {
+    long size;
+    try {
+      size = Files.size(file);
+    } catch (NoSuchFileException e) {
+      // removed; wait for it to be recreated
+      return false;
+    }
+    if (size >= readPosition && !isReplaced()) {
+      return false;
+    }
+    closeChannel();
+    if (!open(0)) {
+      return false;
+    }
+    listener.fileRotated();
+    return true;
+  }
+
+  /**
+   * Remember what identifies the file just opened. The first line is only hashed where there is no file key.
+   */
+  private void recordIdentity() throws IOException {
+    BasicFileAttributes attributes = readAttributes();
+    this.fileKey = attributes == null ? null : attributes.fileKey();
+    this.creationTime = attributes == null ? null : attributes.creationTime();
+    this.firstLineHash = attributes != null && fileKey == null ? firstLineHash() : NO_HASH;
+    this.observedSize = attributes == null ? 0 : attributes.size();
+    this.observedModified = attributes == null ? null : attributes.lastModifiedTime();
+  }
+
+  /**
+   * Whether the path now leads to another file than the one open.
+   */
+  private boolean isReplaced() throws IOException {
+    BasicFileAttributes attributes = readAttributes();
+    if (attributes == null) {
+      return false;
+    }
+    Object currentKey = attributes.fileKey();
+    if (fileKey != null || currentKey != null) {
+      return fileKey != null && currentKey != null && !fileKey.equals(currentKey);
+    }
+    if (creationTime != null && !creationTime.equals(attributes.creationTime())) {
+      return true;
+    }
+    // creation times can be carried over to a file recreated under the same name, so compare the first line too, but
+    // only when the file looks rewritten: a file appended to never shrinks nor goes back in time
+    long size = attributes.size();
+    FileTime modified = attributes.lastModifiedTime();
+    boolean grew = size > observedSize;
+    boolean rewritten = size < observedSize || observedModified != null && modified.compareTo(observedModified) < 0;
+    observedSize = size;
+    observedModified = modified;
+    if (firstLineHash == NO_HASH) {
+      if (grew) {
+        firstLineHash = firstLineHash();
+      }
+      return false;
+    }
+    if (!rewritten) {
+      return false;
+    }
+    long currentHash = firstLineHash();
+    return currentHash != NO_HASH && currentHash != firstLineHash;
+  }
+
+  private @Nullable BasicFileAttributes readAttributes() {
+    try {
+      return Files.readAttributes(file, BasicFileAttributes.class);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * CRC32 of the first line of the file (at most {@link #FIRST_LINE_LIMIT} bytes), or {@link #NO_HASH} while it is not
+   * complete.
+   */
+  private long firstLineHash() throws IOException {
+    ByteBuffer buffer = head;
+    if (buffer == null) {
+      buffer = ByteBuffer.allocate(FIRST_LINE_LIMIT);
+      head = buffer;
+    }
+    buffer.clear();
+    try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+      while (buffer.hasRemaining() && ch.read(buffer) > 0) {
+        // fill the buffer or reach the end of the file
+      }
+    } catch (NoSuchFileException e) {
+      return NO_HASH;
+    }
+    buffer.flip();
+    int length = 0;
+    while (length < buffer.limit() && buffer.get(length) != '\n') {
+      length++;
+    }
+    if (length == buffer.limit() && length < FIRST_LINE_LIMIT) {
+      return NO_HASH;
+    }
+    CRC32 crc = new CRC32();
+    crc.update(buffer.limit(length));
+    return crc.getValue();
+  }
+
+  private void await(long millis) {
+    try {
+      WatchService ws = watchService;
+      if (ws == null) {
+        TimeUnit.MILLISECONDS.sleep(millis);
+        return;
+      }
+      WatchKey key = ws.poll(millis, TimeUnit.MILLISECONDS);
+      if (key != null) {
+        key.pollEvents();
+        key.reset();
+      }
+    } catch (ClosedWatchServiceException e) {
+      this.watchService = null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+
+  private @Nullable WatchService openWatchService() {
+    Path dir = file.toAbsolutePath().getParent();
+    if (dir == null || !Files.isDirectory(dir)) {
+      return null;
+    }
+    try {
+      WatchService ws = dir.getFileSystem().newWatchService();
+      dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+      return ws;
+    } catch (IOException | UnsupportedOperationException e) {
+      log.debug("WatchService unavailable for {}, falling back to polling", dir, e);
+      return null;
+    }
+  }
+
+  private void closeChannel() {
+    FileChannel ch = channel;
+    channel = null;
+    if (ch != null) {
+      try {
+        ch.close();
+      } catch (IOException e) {
+        log.debug("Failed to close channel for {}", file, e);
+      }
+    }
+  }
+
+  private void closeWatchService() {
+    WatchService ws = watchService;
+    watchService = null;
+    if (ws != null) {
+      try {
+        ws.close();
+      } catch (IOException e) {
+        log.debug("Failed to close watch service for {}", file, e);
+      }
+    }
+  }
+}
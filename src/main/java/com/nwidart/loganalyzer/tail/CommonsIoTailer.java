@@ -0,0 +1,68 @@
+package com.nwidart.loganalyzer.tail;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.apache.commons.io.input.Tailer;
+import org.apache.commons.io.input.TailerListenerAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link LogTailer} backed by commons-io {@link Tailer}. Polls every {@link #POLL_INTERVAL_MS} and does not expose byte offsets.
+ */
+class CommonsIoTailer implements LogTailer {
+
+  private static final Logger log = LoggerFactory.getLogger(CommonsIoTailer.class);
+
+  private static final long POLL_INTERVAL_MS = 100; // Poll every 100ms
+  private static final int BUFFER_SIZE = 8192; // 8KB buffer
+
+  private final Tailer tailer;
+
+  CommonsIoTailer(Path file, long startOffset, TailListener listener) {
+    boolean fromEnd = startOffset != 0;
+    if (startOffset > 0) {
+      log.warn("commons-io engine cannot seek to offset {}, tailing {} from its end", startOffset, file);
+    }
+    // Parameters: file, listener, delay (ms), fromEnd (start at end), reOpen (handle rotation), bufferSize
+    this.tailer = Tailer.builder()
+        .setFile(file.toFile())
+        .setTailerListener(new TailerListenerAdapter() {
+          @Override
+          public void fileNotFound() {
+            listener.fileNotFound();
+          }
+
+          @Override
+          public void fileRotated() {
+            listener.fileRotated();
+          }
+
+          @Override
+          public void handle(String line) {
+            listener.handle(line, -1);
+          }
+
+          @Override
+          public void handle(Exception ex) {
+            listener.handle(ex);
+          }
+        })
+        .setDelayDuration(Duration.ofMillis(POLL_INTERVAL_MS))
+        .setBufferSize(BUFFER_SIZE)
+        .setStartThread(false)
+        .setTailFromEnd(fromEnd)
+        .setReOpen(true) // Handle log rotation
+        .get();
+  }
+
+  @Override
+  public void run() {
+    tailer.run();
+  }
+
+  @Override
+  public void close() {
+    tailer.close();
+  }
+}
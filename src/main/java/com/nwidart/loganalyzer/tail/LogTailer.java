@@ -0,0 +1,15 @@
+package com.nwidart.loganalyzer.tail;
+
+/**
+ * A running tail of a single file. {@link #run()} blocks the calling thread until {@link #close()} is called.
+ */
+public interface LogTailer extends Runnable, AutoCloseable {
+
+  /**
+   * Start offset meaning "skip the current content and only read what is appended".
+   */
+  long END_OF_FILE = -1;
+
+  @Override
+  void close();
+}
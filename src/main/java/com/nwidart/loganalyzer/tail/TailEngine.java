@@ -0,0 +1,37 @@
+package com.nwidart.loganalyzer.tail;
+
+import java.nio.file.Path;
+
+/**
+ * Available tail implementations, selected with {@code tlitracker.tail-engine}.
+ */
+public enum TailEngine {
+
+  /**
+   * {@link java.nio.channels.FileChannel} reader with a reusable direct buffer and {@link java.nio.file.WatchService} wakeups.
+   */
+  CHANNEL {
+    @Override
+    public LogTailer create(Path file, long startOffset, TailListener listener) {
+      return new ChannelTailer(file, startOffset, listener);
+    }
+  },
+
+  /**
+   * Legacy engine based on commons-io {@link org.apache.commons.io.input.Tailer}. Kept for comparison.
+   * Only supports starting at the beginning or at the end of the file.
+   */
+  COMMONS_IO {
+    @Override
+    public LogTailer create(Path file, long startOffset, TailListener listener) {
+      return new CommonsIoTailer(file, startOffset, listener);
+    }
+  };
+
+  /**
+   * Create a tailer for the file.
+   *
+   * @param startOffset byte offset of the first line to read, or {@link LogTailer#END_OF_FILE}
+   */
+  public abstract LogTailer create(Path file, long startOffset, TailListener listener);
+}
@@ -0,0 +1,34 @@
+package com.nwidart.loganalyzer.tail;
+
+/**
+ * Callback interface for {@link LogTailer} implementations.
+ * All methods are invoked from the tailer thread.
+ */
+public interface TailListener {
+
+  /**
+   * Handle a complete line (without its line terminator).
+   *
+   * @param line      the decoded line
+   * @param endOffset byte offset right after the line terminator, or -1 if the engine cannot track offsets
+   */
+  void handle(String line, long endOffset);
+
+  /**
+   * Called when the file does not exist (yet). The tailer keeps retrying.
+   */
+  default void fileNotFound() {
+  }
+
+  /**
+   * Called when the file was truncated or replaced. Reading restarts at the beginning of the new file.
+   */
+  default void fileRotated() {
+  }
+
+  /**
+   * Called when an I/O error occurred while tailing.
+   */
+  default void handle(Exception ex) {
+  }
+}
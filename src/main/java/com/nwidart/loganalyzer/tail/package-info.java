@@ -0,0 +1,4 @@
+@NullMarked
+package com.nwidart.loganalyzer.tail;
+
+import org.jspecify.annotations.NullMarked;
@@ -0,0 +1,75 @@
+package com.nwidart.loganalyzer.ui;
+
+import com.nwidart.loganalyzer.model.DropHistory;
+import com.nwidart.loganalyzer.model.DropHistory.Filter;
+import com.nwidart.loganalyzer.model.DropHistory.Order;
+import com.nwidart.loganalyzer.model.DropHistory.Row;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Turns the offset / limit requests of a grid into keyset queries of {@link DropHistory}.
+ * <p>
+ * After each page, the last row read is remembered as the anchor of the offset that follows it. A request starts
+ * after the closest anchor at or before its offset and only skips the rows in between, which is none when scrolling
+ * page after page. Anchors are forgotten when the filter or the order change, and on {@link #reset()}.
+ */
+final class DropHistoryPager {
+
+  /** Anchors kept at most; past that they are all forgotten and rebuilt by the next requests. */
+  private static final int MAX_ANCHORS = 4096;
+
+  private final DropHistory history;
+  /** Offset to the last row before it. */
+  private final TreeMap<Integer, Row> anchors = new TreeMap<>();
+  private Filter filter = Filter.NONE;
+  private Order order = Order.LATEST;
+
+  DropHistoryPager(DropHistory history) {
+    this.history = history;
+  }
+
+  Filter getFilter() {
+    return filter;
+  }
+
+  void setFilter(Filter filter) {
+    if (!filter.equals(this.filter)) {
+      this.filter = filter;
+      reset();
+    }
+  }
+
+  /**
+   * Forget the anchors, e.g. because new drops shifted the offsets.
+   */
+  void reset() {
+    anchors.clear();
+  }
+
+  int count() {
+    return history.count(filter);
+  }
+
+  List<Row> fetch(int offset, int limit, Order order) {
+    if (!order.equals(this.order)) {
+      this.order = order;
+      reset();
+    }
+    Map.Entry<Integer, Row> anchor = anchors.floorEntry(offset);
+    int from = anchor == null ? 0 : anchor.getKey();
+    List<Row> rows = history.page(filter, order, anchor == null ? null : anchor.getValue(), offset - from, limit);
+    if (!rows.isEmpty()) {
+      if (anchors.size() >= MAX_ANCHORS) {
+        anchors.clear();
+      }
+      anchors.put(offset + rows.size(), rows.getLast());
+    }
+    return rows;
+  }
+
+  int anchors() {
+    return anchors.size();
+  }
+}
@@ -0,0 +1,170 @@
+package com.nwidart.loganalyzer.ui;
+
+import com.nwidart.fulltable.FullTableService;
+import com.nwidart.loganalyzer.model.DropHistory;
+import com.nwidart.loganalyzer.model.DropHistory.Filter;
+import com.nwidart.loganalyzer.model.DropHistory.Order;
+import com.nwidart.loganalyzer.model.DropHistory.Row;
+import com.nwidart.loganalyzer.model.DropHistory.Sort;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.datetimepicker.DateTimePicker;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.html.H3;
+import com.vaadin.flow.component.html.Main;
+import com.vaadin.flow.component.icon.VaadinIcon;
+import com.vaadin.flow.component.orderedlayout.FlexComponent;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.component.textfield.NumberField;
+import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.provider.CallbackDataProvider;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import com.vaadin.flow.data.provider.SortDirection;
+import com.vaadin.flow.data.value.ValueChangeMode;
+import com.vaadin.flow.router.Menu;
+import com.vaadin.flow.router.PageTitle;
+import com.vaadin.flow.router.Route;
+import com.vaadin.flow.theme.lumo.LumoUtility;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Every drop of the ledger, read from the database page by page as the grid scrolls (see {@link DropHistoryPager}).
+ * Filters and sort orders are applied in SQL.
+ */
+@Route("drops")
+@PageTitle("Drop History")
+@Menu(order = 1, icon = "vaadin:archive", title = "Drop History")
+public class DropHistoryView extends Main {
+
+  private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+      .withZone(ZoneId.systemDefault());
+
+  private final FullTableService fullTableService;
+  private final DropHistoryPager pager;
+  private final CallbackDataProvider<Row, Void> provider;
+  private final Grid<Row> grid = new Grid<>(Row.class, false);
+
+  private final TextField mapField = new TextField();
+  private final TextField itemField = new TextField();
+  private final NumberField minValueField = new NumberField();
+  private final NumberField maxValueField = new NumberField();
+  private final DateTimePicker fromField = new DateTimePicker();
+  private final DateTimePicker toField = new DateTimePicker();
+
+  public DropHistoryView(DropHistory dropHistory, FullTableService fullTableService) {
+    this.fullTableService = fullTableService;
+    this.pager = new DropHistoryPager(dropHistory);
+    this.provider = new CallbackDataProvider<>(
+        query -> pager.fetch(query.getOffset(), query.getLimit(), orderOf(query.getSortOrders())).stream(),
+        query -> pager.count());
+
+    grid.setDataProvider(provider);
+    grid.addColumn(row -> TIME.format(row.occurredAt())).setHeader("Time").setKey(Sort.TIME.name())
+        .setSortable(true).setAutoWidth(true).setFlexGrow(0);
+    grid.addColumn(row -> row.mapId() == null ? "-" : "#" + row.mapId()).setHeader("Map").setWidth("90px")
+        .setFlexGrow(0);
+    grid.addColumn(Row::configBaseId).setHeader("Item ID").setKey(Sort.ITEM.name()).setSortable(true)
+        .setAutoWidth(true).setFlexGrow(0);
+    grid.addColumn(this::itemName).setHeader("Item").setFlexGrow(1);
+    grid.addColumn(Row::delta).setHeader("Delta").setWidth("90px").setFlexGrow(0);
+    grid.addColumn(row -> String.format("%.2f", row.unitPrice())).setHeader("Unit Price").setWidth("110px")
+        .setFlexGrow(0);
+    grid.addColumn(row -> String.format("%.2f", row.value())).setHeader("Value").setKey(Sort.VALUE.name())
+        .setSortable(true).setWidth("110px").setFlexGrow(0);
+    grid.setMultiSort(false);
+    grid.setSizeFull();
+    grid.addClassNames(LumoUtility.Border.ALL, LumoUtility.BorderRadius.MEDIUM);
+
+    mapField.setPlaceholder("Map #");
+    mapField.setAllowedCharPattern("[0-9]");
+    itemField.setPlaceholder("Item ID");
+    minValueField.setPlaceholder("Min value");
+    maxValueField.setPlaceholder("Max value");
+    fromField.setDatePlaceholder("From");
+    toField.setDatePlaceholder("To");
+    for (TextField field : List.of(mapField, itemField)) {
+      field.setClearButtonVisible(true);
+      field.setValueChangeMode(ValueChangeMode.LAZY);
+      field.addValueChangeListener(event -> applyFilter());
+    }
+    for (NumberField field : List.of(minValueField, maxValueField)) {
+      field.setClearButtonVisible(true);
+      field.setValueChangeMode(ValueChangeMode.LAZY);
+      field.addValueChangeListener(event -> applyFilter());
+    }
+    fromField.addValueChangeListener(event -> applyFilter());
+    toField.addValueChangeListener(event -> applyFilter());
+
+    var refresh = new Button("Refresh", VaadinIcon.REFRESH.create(), event -> refresh());
+
+    var filters = new HorizontalLayout(mapField, itemField, minValueField, maxValueField, fromField, toField, refresh);
+    filters.setWidthFull();
+    filters.setWrap(true);
+    filters.setAlignItems(FlexComponent.Alignment.BASELINE);
+
+    setSizeFull();
+    addClassNames(
+        LumoUtility.BoxSizing.BORDER,
+        LumoUtility.Display.FLEX,
+        LumoUtility.FlexDirection.COLUMN,
+        LumoUtility.Padding.MEDIUM,
+        LumoUtility.Gap.MEDIUM
+    );
+    add(new H3("Drop History"), filters, grid);
+  }
+
+  private void applyFilter() {
+    pager.setFilter(new Filter(parseMapId(mapField.getValue()), parseItemId(itemField.getValue()),
+        toFloat(minValueField.getValue()), toFloat(maxValueField.getValue()), toInstant(fromField.getValue()),
+        toInstant(toField.getValue())));
+    provider.refreshAll();
+  }
+
+  /**
+   * Show the drops recorded since the grid was last refreshed.
+   */
+  private void refresh() {
+    pager.reset();
+    provider.refreshAll();
+  }
+
+  private static Order orderOf(List<QuerySortOrder> sortOrders) {
+    if (sortOrders.isEmpty()) {
+      return Order.LATEST;
+    }
+    QuerySortOrder first = sortOrders.getFirst();
+    return new Order(Sort.valueOf(first.getSorted()), first.getDirection() == SortDirection.DESCENDING);
+  }
+
+  private String itemName(Row row) {
+    return fullTableService.nameOf(row.configBaseId());
+  }
+
+  private static @Nullable Long parseMapId(String value) {
+    try {
+      return value.isBlank() ? null : Long.valueOf(value.strip());
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static @Nullable Integer parseItemId(String value) {
+    try {
+      return value.isBlank() ? null : Integer.valueOf(value.strip());
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static @Nullable Float toFloat(@Nullable Double value) {
+    return value == null ? null : value.floatValue();
+  }
+
+  private static @Nullable Instant toInstant(@Nullable LocalDateTime value) {
+    return value == null ? null : value.atZone(ZoneId.systemDefault()).toInstant();
+  }
+}
@@ -0,0 +1,64 @@
+package com.nwidart.loganalyzer.ui;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Collects items produced on any thread and hands them to a UI in batches, at most once per frame window: the first
+ * item of a batch schedules a single {@code ui.access} that receives every item added until it runs.
+ */
+final class FrameCoalescer<T> {
+
+  private final UI ui;
+  private final Executor delayed;
+  private final Consumer<List<T>> flush;
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  /** Guarded by {@code this}. */
+  private List<T> pending = new ArrayList<>();
+
+  /**
+   * @param flush called inside {@code ui.access} with the items of a batch, oldest first
+   */
+  FrameCoalescer(UI ui, Duration window, Consumer<List<T>> flush) {
+    this.ui = ui;
+    this.delayed = CompletableFuture.delayedExecutor(window.toMillis(), TimeUnit.MILLISECONDS);
+    this.flush = flush;
+  }
+
+  void add(T item) {
+    synchronized (this) {
+      pending.add(item);
+    }
+    if (scheduled.compareAndSet(false, true)) {
+      delayed.execute(this::push);
+    }
+  }
+
+  private void push() {
+    try {
+      ui.access(() -> {
+        scheduled.set(false);
+        List<T> batch = drain();
+        if (!batch.isEmpty()) {
+          flush.accept(batch);
+        }
+      });
+    } catch (UIDetachedException e) {
+      // the view is gone, so are its pending items
+    }
+  }
+
+  private synchronized List<T> drain() {
+    List<T> batch = pending;
+    pending = new ArrayList<>();
+    return batch;
+  }
+}
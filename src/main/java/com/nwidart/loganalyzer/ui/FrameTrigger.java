@@ -0,0 +1,47 @@
+package com.nwidart.loganalyzer.ui;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs an action in a UI at most once per frame window, however often it is {@link #fire() fired} and from whichever
+ * thread: the first call of a frame schedules a single {@code ui.access}, the following ones only cost a read.
+ */
+final class FrameTrigger {
+
+  private final UI ui;
+  private final Executor delayed;
+  private final Runnable action;
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+
+  /**
+   * @param action called inside {@code ui.access}
+   */
+  FrameTrigger(UI ui, Duration window, Runnable action) {
+    this.ui = ui;
+    this.delayed = CompletableFuture.delayedExecutor(window.toMillis(), TimeUnit.MILLISECONDS);
+    this.action = action;
+  }
+
+  void fire() {
+    if (!scheduled.get() && scheduled.compareAndSet(false, true)) {
+      delayed.execute(this::run);
+    }
+  }
+
+  private void run() {
+    try {
+      ui.access(() -> {
+        scheduled.set(false);
+        action.run();
+      });
+    } catch (UIDetachedException e) {
+      // the view is gone
+    }
+  }
+}
@@ -2,16 +2,26 @@ package com.nwidart.loganalyzer.ui;
 
 import com.nwidart.fulltable.FullTableService;
 import com.nwidart.loganalyzer.event.DropEventBroadcaster;
+import com.nwidart.loganalyzer.LogLineDispatcher;
 import com.nwidart.loganalyzer.LogService;
-import com.nwidart.loganalyzer.StatsService;
+import com.nwidart.loganalyzer.RevenueCharts;
+import com.nwidart.loganalyzer.RollingRevenue;
+import com.nwidart.loganalyzer.StatsPublisher;
+import com.nwidart.loganalyzer.StatsSnapshot;
 import com.nwidart.loganalyzer.event.DropEventBroadcaster.DropEvent;
+import com.nwidart.loganalyzer.processor.LogProcessor;
+import com.nwidart.loganalyzer.recent.LineFilter;
+import com.nwidart.loganalyzer.recent.RecentLine;
+import com.nwidart.loganalyzer.recent.RecentLines;
 import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.checkbox.Checkbox;
+import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.component.grid.Grid;
-import com.vaadin.flow.data.provider.ListDataProvider;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.H3;
 import com.vaadin.flow.component.html.Main;
@@ -25,15 +35,19 @@ import com.vaadin.flow.component.orderedlayout.FlexLayout.FlexWrap;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.shared.Registration;
 import com.vaadin.flow.theme.lumo.LumoUtility;
+import org.springframework.util.ClassUtils;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Duration;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,13 +56,18 @@ import org.slf4j.LoggerFactory;
 public class LogFileView extends Main {
 
   private static final Logger log = LoggerFactory.getLogger(LogFileView.class);
-  private static final int MAX_DISPLAYED_LINES = 1000; // Limit UI lines for performance
+  private static final int MAX_DISPLAYED_DROPS = 200;
+  /** Drops are pushed to the browser at most once per window. */
+  private static final Duration DROP_FRAME = Duration.ofMillis(150);
+  /** The live log is refreshed at most once per window. */
+  private static final Duration LOG_FRAME = Duration.ofMillis(250);
 
   private final LogService logService;
-  private final StatsService statsService;
+  private final StatsPublisher statsPublisher;
   private final FullTableService fullTableService;
   private final DropEventBroadcaster dropBroadcaster;
-  private final LinkedBlockingDeque<Span> logLines = new LinkedBlockingDeque<>(MAX_DISPLAYED_LINES);
+  private final LogLineDispatcher dispatcher;
+  private final RecentLines recentLines;
 
   private final TextField logFileField;
   private final Button startButton;
@@ -57,30 +76,49 @@ public class LogFileView extends Main {
 
   private Registration listenerRegistration;
   private Registration dropRegistration;
+  private Registration statsRegistration;
+  private Registration linesRegistration;
 
   // --- Statistics UI state ---
   private final Span sessionStatus = new Span("-");
   private final Span sessionDuration = new Span("-");
   private final Span revenuePerSession = new Span("-");
+  private final Span revenueAtDropTime = new Span("-");
   private final Span mapStatus = new Span("-");
   private final Span mapCount = new Span("-");
   private final Span mapDuration = new Span("-");
   private final Span revenuePerMap = new Span("-");
   private final Span avgRevenuePerMap = new Span("-");
   private final Span avgRevenuePerHour = new Span("-");
+  private final Span recentRevenuePerHour = new Span("-");
+  private final Span revenueLastHour = new Span("-");
+
+  // --- Revenue charts ---
+  private final Div revenueOverTime = new Div();
+  private final Div revenuePerMapChart = new Div();
 
-  private final AtomicLong sessionStartMillis = new AtomicLong(0);
   private final AtomicLong mapStartMillis = new AtomicLong(0);
 
   // --- Drop events table ---
   private final Grid<DropEventBroadcaster.DropEvent> dropGrid = new Grid<>(DropEventBroadcaster.DropEvent.class, false);
-  private final ListDataProvider<DropEventBroadcaster.DropEvent> dropProvider = new ListDataProvider<>(new java.util.ArrayList<>());
+  private final RingDataProvider<DropEventBroadcaster.DropEvent> dropProvider = new RingDataProvider<>(MAX_DISPLAYED_DROPS);
+
+  // --- Live log ---
+  private final Grid<RecentLine> lineGrid = new Grid<>(RecentLine.class, false);
+  private final RecentLinesDataProvider lineProvider;
+  private final TextField lineFilterField = new TextField();
+  private final ComboBox<Integer> processorFilter = new ComboBox<>();
+  private final Checkbox followLines = new Checkbox("Follow", true);
 
-  public LogFileView(LogService logService, StatsService statsService, FullTableService fullTableService, DropEventBroadcaster dropBroadcaster) {
+  public LogFileView(LogService logService, StatsPublisher statsPublisher, FullTableService fullTableService,
+      DropEventBroadcaster dropBroadcaster, LogLineDispatcher dispatcher, RecentLines recentLines) {
     this.logService = logService;
-    this.statsService = statsService;
+    this.statsPublisher = statsPublisher;
     this.fullTableService = fullTableService;
     this.dropBroadcaster = dropBroadcaster;
+    this.dispatcher = dispatcher;
+    this.recentLines = recentLines;
+    this.lineProvider = new RecentLinesDataProvider(recentLines);
 
     // Header
     var header = new Paragraph("Log File Analyzer - Real-time Tailing");
@@ -120,7 +158,7 @@ public class LogFileView extends Main {
     dropGrid.addColumn(e -> {
       return String.format("%.2f", e.price() * e.delta());
     }).setHeader("Total Price").setWidth("100px").setFlexGrow(0);
-    dropGrid.setAllRowsVisible(true);
+    dropGrid.setHeight("420px");
     dropGrid.addClassNames(LumoUtility.Border.ALL, LumoUtility.BorderRadius.MEDIUM);
 
     // Layout
@@ -133,34 +171,92 @@ public class LogFileView extends Main {
         LumoUtility.Gap.MEDIUM
     );
 
-    add(header, logFileField, buttonLayout, statusLabel, statsCard, new H3("Last item drops"), dropGrid);
+    add(header, logFileField, buttonLayout, statusLabel, statsCard, createRevenueCharts(), new H3("Last item drops"),
+        dropGrid,
+        new H3("Live log"), createLiveLog());
   }
 
   @Override
   protected void onAttach(AttachEvent attachEvent) {
     super.onAttach(attachEvent);
-    // Load backlog
-    var backlog = dropBroadcaster.getBacklog();
-    dropProvider.getItems().clear();
-    dropProvider.getItems().addAll(backlog);
-    dropProvider.refreshAll();
+    // Load backlog, then listen from the last event read so none is missed or shown twice
+    var backlog = new ArrayList<DropEvent>();
+    long lastRead = dropBroadcaster.readBacklog(0, (sequence, ev) -> backlog.add(ev));
+    dropProvider.clear();
+    dropProvider.appendAll(backlog);
+
+    // Drops arriving within a frame are appended (and the oldest evicted) in a single update
+    var drops = new FrameCoalescer<DropEvent>(attachEvent.getUI(), DROP_FRAME, dropProvider::appendAll);
+    dropRegistration = dropBroadcaster.register(drops::add, lastRead);
 
+    // Stats are computed once for every tab and pushed only when they change
     UI ui = attachEvent.getUI();
-    dropRegistration = dropBroadcaster.register(ev -> {
-      ui.access(() -> {
-        var items = dropProvider.getItems();
-        items.add(ev);
-        // keep only last 200
-        int max = 200;
-        if (items.size() > max) {
-          int remove = items.size() - max;
-          // remove from beginning
-          var it = new java.util.ArrayList<>(items).subList(0, remove);
-          items.removeAll(it);
-        }
-        dropProvider.refreshAll();
-      });
+    statsRegistration = statsPublisher.register(stats -> {
+      try {
+        ui.access(() -> showStats(stats));
+      } catch (UIDetachedException e) {
+        // the view is gone, its registration is being removed
+      }
+    });
+
+    // Catch up with the lines tailed while detached, then follow them at most once per frame
+    lineProvider.setFilter(lineProvider.getFilter());
+    var lines = new FrameTrigger(ui, LOG_FRAME, this::refreshLines);
+    linesRegistration = recentLines.onChange(lines::fire);
+  }
+
+  // --- Live log ---
+  private Div createLiveLog() {
+    List<LogProcessor> processors = dispatcher.getProcessors();
+    processorFilter.setPlaceholder("Any processor");
+    processorFilter.setClearButtonVisible(true);
+    processorFilter.setItems(IntStream.range(0, Math.min(processors.size(), Long.SIZE)).boxed().toList());
+    processorFilter.setItemLabelGenerator(i -> ClassUtils.getUserClass(processors.get(i)).getSimpleName());
+    processorFilter.addValueChangeListener(event -> applyLineFilter());
+
+    lineFilterField.setPlaceholder("Filter lines");
+    lineFilterField.setClearButtonVisible(true);
+    lineFilterField.setValueChangeMode(ValueChangeMode.LAZY);
+    lineFilterField.addValueChangeListener(event -> applyLineFilter());
+    lineFilterField.setWidthFull();
+
+    followLines.addValueChangeListener(event -> {
+      if (event.getValue()) {
+        lineGrid.scrollToEnd();
+      }
     });
+
+    lineGrid.setDataProvider(lineProvider);
+    lineGrid.addColumn(RecentLine::lineNumber).setHeader("Line").setWidth("90px").setFlexGrow(0);
+    lineGrid.addColumn(RecentLine::text).setHeader("Text").setFlexGrow(1);
+    lineGrid.setHeight("360px");
+    lineGrid.getStyle().set("font-family", "var(--lumo-font-family-monospace, monospace)");
+    lineGrid.addClassNames(LumoUtility.Border.ALL, LumoUtility.BorderRadius.MEDIUM, LumoUtility.FontSize.XSMALL);
+
+    var filters = new HorizontalLayout(processorFilter, lineFilterField, followLines);
+    filters.setWidthFull();
+    filters.setAlignItems(FlexComponent.Alignment.CENTER);
+    return new Div(filters, lineGrid);
+  }
+
+  /**
+   * The filter is evaluated on the server, against the lines kept in {@link RecentLines}.
+   */
+  private void applyLineFilter() {
+    Integer processor = processorFilter.getValue();
+    lineProvider.setFilter(LineFilter.of(processor == null ? 0 : 1L << processor, lineFilterField.getValue()));
+    if (followLines.getValue()) {
+      lineGrid.scrollToEnd();
+    }
+  }
+
+  private void refreshLines() {
+    if (lineProvider.update()) {
+      lineProvider.refreshAll();
+      if (followLines.getValue()) {
+        lineGrid.scrollToEnd();
+      }
+    }
   }
 
   // --- Statistics UI creation ---
@@ -180,12 +276,15 @@ public class LogFileView extends Main {
         statItem("Session status", VaadinIcon.PLAY, sessionStatus),
         statItem("Session duration", VaadinIcon.TIME_BACKWARD, sessionDuration),
         statItem("Revenue per session", VaadinIcon.MONEY, revenuePerSession),
+        statItem("Revenue per session (prices at drop time)", VaadinIcon.ARCHIVE, revenueAtDropTime),
         statItem("Map Status", VaadinIcon.MAP_MARKER, mapStatus),
         statItem("Map Count", VaadinIcon.MAP_MARKER, mapCount),
         statItem("Map Duration", VaadinIcon.TIME_FORWARD, mapDuration),
         statItem("Revenue for current map", VaadinIcon.COIN_PILES, revenuePerMap),
         statItem("Avg revenue per map", VaadinIcon.TRENDING_UP, avgRevenuePerMap),
-        statItem("Avg revenue per hour", VaadinIcon.LINE_BAR_CHART, avgRevenuePerHour)
+        statItem("Avg revenue per hour", VaadinIcon.LINE_BAR_CHART, avgRevenuePerHour),
+        statItem("Revenue per hour (last 5m / 15m)", VaadinIcon.CHART_LINE, recentRevenuePerHour),
+        statItem("Revenue in the last hour", VaadinIcon.CLOCK, revenueLastHour)
     );
 
     grid.setJustifyContentMode(FlexComponent.JustifyContentMode.START);
@@ -197,6 +296,26 @@ public class LogFileView extends Main {
     return container;
   }
 
+  private Div createRevenueCharts() {
+    var overTime = new Div(new Span("Revenue over time (prices at drop time)"), revenueOverTime);
+    var perMap = new Div(new Span("Revenue of the last " + RevenueCharts.MAPS + " maps (prices at drop time)"),
+        revenuePerMapChart);
+    var charts = new FlexLayout(overTime, perMap);
+    for (Div chart : List.of(overTime, perMap)) {
+      chart.addClassNames(
+          LumoUtility.Padding.MEDIUM,
+          LumoUtility.BorderRadius.MEDIUM,
+          LumoUtility.Border.ALL,
+          LumoUtility.TextColor.SECONDARY,
+          LumoUtility.FontSize.SMALL
+      );
+      chart.getStyle().set("flex", "1 1 400px");
+    }
+    charts.setFlexWrap(FlexWrap.WRAP);
+    charts.getStyle().set("gap", "0.75rem");
+    return new Div(new H3("Revenue"), charts);
+  }
+
   private Div statItem(String label, VaadinIcon icon, Span value) {
     var card = new Div();
     card.addClassNames(
@@ -238,6 +357,14 @@ public class LogFileView extends Main {
       dropRegistration.remove();
       dropRegistration = null;
     }
+    if (statsRegistration != null) {
+      statsRegistration.remove();
+      statsRegistration = null;
+    }
+    if (linesRegistration != null) {
+      linesRegistration.remove();
+      linesRegistration = null;
+    }
   }
 
   private void startTailing() {
@@ -254,30 +381,14 @@ public class LogFileView extends Main {
       startButton.setEnabled(false);
       stopButton.setEnabled(true);
       logFileField.setEnabled(false);
-      logLines.clear();
 
       statusLabel.setText("Tailing: " + filePath);
       log.info("Started tailing: {}", filePath);
 
       // --- Initialize statistics for a new session ---
-      sessionStartMillis.set(System.currentTimeMillis());
       mapStartMillis.set(System.currentTimeMillis());
       sessionStatus.setText("Running");
       mapStatus.setText("Active");
-      // Placeholder initial values
-      sessionDuration.setText("0m 00s");
-      mapDuration.setText("0m 00s");
-      revenuePerSession.setText("0");
-      revenuePerMap.setText("0");
-      avgRevenuePerMap.setText("0");
-      avgRevenuePerHour.setText("0");
-      mapCount.setText("0");
-
-      // Start periodic UI updates (example polling using UI access)
-      getUI().ifPresent(ui -> {
-        ui.setPollInterval(1000);
-        ui.addPollListener(e -> updateStats());
-      });
     } catch (Exception e) {
       statusLabel.setText("Error: " + e.getMessage());
       log.error("Failed to start tailing", e);
@@ -297,32 +408,40 @@ public class LogFileView extends Main {
     // --- Update statistics status ---
     sessionStatus.setText("Stopped");
     mapStatus.setText("Paused");
-    getUI().ifPresent(ui -> ui.setPollInterval(-1)); // disable polling
   }
 
-  // --- Example periodic stats update hook ---
-  private void updateStats() {
-    // Replace these placeholders with your real data source and calculations.
-    long now = System.currentTimeMillis();
+  // --- Stats pushed by the StatsPublisher ---
+  private void showStats(StatsSnapshot stats) {
+    show(sessionDuration, formatDuration(stats.sessionDuration()));
+    show(mapDuration, formatDuration(stats.timeInActiveMap()));
+
+    show(revenuePerSession, formatMoney(stats.sessionRevenue()));
+    show(revenueAtDropTime, formatMoney(stats.sessionRevenueAtDropTime()));
+    show(revenuePerMap, formatMoney(stats.currentMapRevenue()));
+    show(avgRevenuePerMap, formatMoney(stats.revenuePerMap()));
+    show(avgRevenuePerHour, formatMoney(stats.revenuePerHour()));
+    RollingRevenue rolling = stats.rolling();
+    show(recentRevenuePerHour, formatMoney(rolling.hourlyRateLast5Minutes()) + " / "
+        + formatMoney(rolling.hourlyRateLast15Minutes()));
+    show(revenueLastHour, formatMoney(rolling.lastHour()));
+    show(mapCount, formatMoney(stats.mapsCompleted()));
+
+    // Rendered once for every tab by the StatsPublisher
+    showSvg(revenueOverTime, stats.charts().overTime());
+    showSvg(revenuePerMapChart, stats.charts().perMap());
+  }
 
-    if (sessionStartMillis.get() > 0) {
-      sessionDuration.setText(formatDuration(Duration.ofMillis(now - sessionStartMillis.get())));
+  private static void showSvg(Div chart, String svg) {
+    if (!svg.equals(chart.getElement().getProperty("innerHTML"))) {
+      chart.getElement().setProperty("innerHTML", svg);
     }
+  }
 
-    mapDuration.setText(formatDuration(statsService.timeInActiveMap()));
-
-    Float sessionRevenue = statsService.getSessionRevenue();
-    Float currentMapRevenue = statsService.currentMapRevenue();
-    Float mapsCompleted = statsService.mapsCompleted();
-    double avgPerMap = sessionRevenue / mapsCompleted;
-    double hours = Math.max(0.01, (now - sessionStartMillis.get()) / 3_600_000.0);
-    double avgPerHour = sessionRevenue / hours;
-
-    revenuePerSession.setText(formatMoney(sessionRevenue));
-    revenuePerMap.setText(formatMoney(currentMapRevenue));
-    avgRevenuePerMap.setText(formatMoney(avgPerMap));
-    avgRevenuePerHour.setText(formatMoney(avgPerHour));
-    mapCount.setText(formatMoney(mapsCompleted));
+  /** Only values that changed once formatted are sent to the browser. */
+  private static void show(Span value, String text) {
+    if (!text.equals(value.getText())) {
+      value.setText(text);
+    }
   }
 
   private String formatDuration(Duration d) {
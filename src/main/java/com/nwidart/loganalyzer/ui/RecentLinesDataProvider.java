@@ -0,0 +1,103 @@
+package com.nwidart.loganalyzer.ui;
+
+import com.nwidart.loganalyzer.recent.LineFilter;
+import com.nwidart.loganalyzer.recent.RecentLine;
+import com.nwidart.loganalyzer.recent.RecentLines;
+import com.vaadin.flow.data.provider.AbstractBackEndDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Data provider over the {@link RecentLines} accepted by a {@link LineFilter}, oldest first.
+ * <p>
+ * Only the sequence numbers of the matching lines are kept, in a ring as large as {@link RecentLines}; {@link #update()}
+ * scans the lines appended since the previous update and drops the evicted ones, and the grid decodes only the rows it
+ * shows. Like any component state, only use it while holding the session lock (e.g. inside {@code ui.access}).
+ */
+final class RecentLinesDataProvider extends AbstractBackEndDataProvider<RecentLine, Void> {
+
+  private final RecentLines lines;
+  private final long[] rows;
+  private final int mask;
+  /** Index of the oldest row. */
+  private int head;
+  private int size;
+  private LineFilter filter = LineFilter.ALL;
+  /** Sequence number of the last line scanned. */
+  private long scanned;
+  /** Rows added so far. */
+  private long appended;
+
+  RecentLinesDataProvider(RecentLines lines) {
+    this.lines = lines;
+    this.rows = new long[lines.lineCapacity()];
+    this.mask = rows.length - 1;
+    this.scanned = lines.first() - 1;
+  }
+
+  LineFilter getFilter() {
+    return filter;
+  }
+
+  /**
+   * List the lines kept that {@code filter} accepts instead, and refresh the grid.
+   */
+  void setFilter(LineFilter filter) {
+    this.filter = filter;
+    head = 0;
+    size = 0;
+    scanned = lines.first() - 1;
+    update();
+    refreshAll();
+  }
+
+  /**
+   * Catch up with the lines appended and evicted since the previous update.
+   *
+   * @return whether the rows changed
+   */
+  boolean update() {
+    long first = lines.first();
+    boolean changed = false;
+    while (size > 0 && rows[head] < first) {
+      head = (head + 1) & mask;
+      size--;
+      changed = true;
+    }
+    long added = appended;
+    scanned = lines.scan(Math.max(scanned, first - 1), filter, this::add);
+    return changed || appended != added;
+  }
+
+  private void add(long sequence) {
+    if (size == rows.length) {
+      head = (head + 1) & mask;
+      size--;
+    }
+    rows[(head + size++) & mask] = sequence;
+    appended++;
+  }
+
+  int size() {
+    return size;
+  }
+
+  private RecentLine get(int index) {
+    long sequence = rows[(head + index) & mask];
+    RecentLine line = lines.read(sequence);
+    return line == null ? RecentLine.evicted(sequence) : line;
+  }
+
+  @Override
+  protected Stream<RecentLine> fetchFromBackEnd(Query<RecentLine, Void> query) {
+    int from = Math.min(size, query.getOffset());
+    int to = (int) Math.min(size, (long) from + query.getLimit());
+    return IntStream.range(from, to).mapToObj(this::get);
+  }
+
+  @Override
+  protected int sizeInBackEnd(Query<RecentLine, Void> query) {
+    return size;
+  }
+}
@@ -0,0 +1,70 @@
+package com.nwidart.loganalyzer.ui;
+
+import com.vaadin.flow.data.provider.AbstractBackEndDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Data provider over the last {@code capacity} items appended, oldest first. Appending evicts the oldest items in
+ * O(1) each, and the grid only fetches the rows it shows. Like any component state, only use it while holding the
+ * session lock (e.g. inside {@code ui.access}).
+ */
+final class RingDataProvider<T> extends AbstractBackEndDataProvider<T, Void> {
+
+  private final Object[] items;
+  /** Index of the oldest item. */
+  private int head;
+  private int size;
+
+  RingDataProvider(int capacity) {
+    this.items = new Object[Math.max(1, capacity)];
+  }
+
+  /**
+   * Append {@code batch}, evicting the oldest items beyond the capacity, and refresh the grid once.
+   */
+  void appendAll(Collection<? extends T> batch) {
+    for (T item : batch) {
+      if (size < items.length) {
+        items[(head + size++) % items.length] = item;
+      } else {
+        items[head] = item;
+        head = (head + 1) % items.length;
+      }
+    }
+    if (!batch.isEmpty()) {
+      refreshAll();
+    }
+  }
+
+  void clear() {
+    Arrays.fill(items, null);
+    head = 0;
+    size = 0;
+    refreshAll();
+  }
+
+  int size() {
+    return size;
+  }
+
+  @SuppressWarnings("unchecked")
+  private T get(int index) {
+    return (T) items[(head + index) % items.length];
+  }
+
+  @Override
+  protected Stream<T> fetchFromBackEnd(Query<T, Void> query) {
+    int from = Math.min(size, query.getOffset());
+    int to = (int) Math.min(size, (long) from + query.getLimit());
+    return IntStream.range(from, to).mapToObj(this::get);
+  }
+
+  @Override
+  protected int sizeInBackEnd(Query<T, Void> query) {
+    return size;
+  }
+}
@@ -0,0 +1,84 @@
+package com.nwidart.fulltable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.context.ApplicationEventPublisher;
+
+class FullTableServiceReloadTest {
+
+  @TempDir
+  Path dir;
+
+  private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+  private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+  private FullTableService service;
+
+  @AfterEach
+  void tearDown() {
+    if (service != null) {
+      service.stopWatching();
+    }
+  }
+
+  @Test
+  void loads_the_prices_file_instead_of_the_bundled_table() throws IOException {
+    Path file = write(dir.resolve("prices.json"), 12.5);
+    service = new FullTableService(objectMapper, eventPublisher, file.toString());
+
+    service.load();
+
+    assertThat(service.size()).isEqualTo(1);
+    assertThat(service.priceOf("100")).isEqualTo(12.5);
+    assertThat(service.snapshot().version()).isEqualTo(1);
+    verifyNoInteractions(eventPublisher);
+  }
+
+  @Test
+  void a_changed_file_is_swapped_in_and_announced() throws Exception {
+    Path file = write(dir.resolve("prices.json"), 1);
+    service = new FullTableService(objectMapper, eventPublisher, file.toString());
+    service.run(new DefaultApplicationArguments());
+    PriceSnapshot before = service.snapshot();
+
+    write(file, 2);
+
+    verify(eventPublisher, timeout(10_000)).publishEvent(any(PricesReloaded.class));
+    assertThat(service.snapshot().version()).isEqualTo(before.version() + 1);
+    assertThat(service.priceOf("100")).isEqualTo(2);
+    assertThat(before.priceOf("100")).isEqualTo(1);
+  }
+
+  @Test
+  void a_broken_file_keeps_the_current_prices() throws IOException {
+    Path file = write(dir.resolve("prices.json"), 3);
+    service = new FullTableService(objectMapper, eventPublisher, file.toString());
+    service.load();
+
+    Files.writeString(file, "{\"100\": {\"name\": ");
+
+    assertThat(service.reload()).isFalse();
+    assertThat(service.priceOf("100")).isEqualTo(3);
+    assertThat(service.snapshot().version()).isEqualTo(1);
+    verifyNoInteractions(eventPublisher);
+  }
+
+  private static Path write(Path file, double price) throws IOException {
+    return Files.writeString(file, """
+        {"100": {"name": "Flame Elementium", "price": %s, "type": "Currency", "last_update": 0}}
+        """.formatted(price));
+  }
+}
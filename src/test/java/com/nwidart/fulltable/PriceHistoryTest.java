@@ -0,0 +1,52 @@
+package com.nwidart.fulltable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class PriceHistoryTest {
+
+  @Test
+  void prices_apply_from_their_last_update() {
+    PriceHistory history = PriceHistory.EMPTY
+        .with(Map.of("100", item(1_000, 1)))
+        .with(Map.of("100", item(3_000, 3)))
+        .with(Map.of("100", item(2_000, 2)));
+
+    assertThat(history.versions(100)).isEqualTo(3);
+    assertThat(history.priceAt(100, Instant.ofEpochSecond(999))).isEqualTo(1);
+    assertThat(history.priceAt(100, Instant.ofEpochSecond(1_000))).isEqualTo(1);
+    assertThat(history.priceAt(100, Instant.ofEpochSecond(2_500))).isEqualTo(2);
+    assertThat(history.priceAt(100, Instant.ofEpochSecond(9_000))).isEqualTo(3);
+  }
+
+  @Test
+  void reloading_the_same_version_keeps_one_entry() {
+    PriceHistory history = PriceHistory.EMPTY
+        .with(Map.of("100", item(1_000, 1), "200", item(0, 7)))
+        .with(Map.of("100", item(1_000, 1.5), "200", item(0, 7)));
+
+    assertThat(history.size()).isEqualTo(2);
+    assertThat(history.versions(100)).isEqualTo(1);
+    assertThat(history.priceAt(100, Instant.ofEpochSecond(1_000))).isEqualTo(1.5);
+    assertThat(history.priceAt(300, Instant.ofEpochSecond(1_000))).isZero();
+  }
+
+  @Test
+  void a_new_version_leaves_the_previous_history_unchanged() {
+    PriceHistory first = PriceHistory.EMPTY.with(Map.of("100", item(1_000, 1), "name", item(1_000, 9)));
+    PriceHistory second = first.with(Map.of("100", item(2_000, 2)));
+
+    assertThat(first.versions(100)).isEqualTo(1);
+    assertThat(first.priceAt(100, Instant.ofEpochSecond(2_000))).isEqualTo(1);
+    assertThat(second.priceAt(100, Instant.ofEpochSecond(2_000))).isEqualTo(2);
+    // ids that are not numbers are left out
+    assertThat(second.size()).isEqualTo(1);
+  }
+
+  private static FullTableItem item(long lastUpdate, double price) {
+    return new FullTableItem(null, null, lastUpdate, "Flame Elementium", price, "Currency");
+  }
+}
@@ -0,0 +1,99 @@
+package com.nwidart.fulltable;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * {@code Map<String, FullTableItem>} + {@code Optional} (the previous {@code getPriceForItem} path) versus
+ * {@link PriceTable#priceOf(int)}, pricing the drops of a session: ids from {@code full_table.json}, one in ten unknown.
+ * <p>
+ * Run with {@code main} from the IDE, or {@code java -cp <test classpath> ...PriceTableBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceTableBenchmark {
+
+  private Map<String, FullTableItem> itemsById;
+  private PriceTable table;
+  private String[] stringIds;
+  private int[] intIds;
+
+  @Setup
+  public void setUp() throws IOException {
+    try (InputStream is = new ClassPathResource("full_table.json").getInputStream()) {
+      itemsById = new ObjectMapper().registerModule(new JavaTimeModule())
+          .readValue(is, new TypeReference<Map<String, FullTableItem>>() {
+          });
+    }
+    table = PriceTable.of(itemsById);
+    String[] known = itemsById.keySet().toArray(String[]::new);
+    Random random = new Random(42);
+    stringIds = new String[4096];
+    intIds = new int[stringIds.length];
+    for (int i = 0; i < stringIds.length; i++) {
+      String id = i % 10 == 0 ? Integer.toString(900_000 + random.nextInt(1000)) : known[random.nextInt(known.length)];
+      stringIds[i] = id;
+      intIds[i] = Integer.parseInt(id);
+    }
+  }
+
+  @Benchmark
+  public double mapLookup() {
+    double total = 0;
+    for (String id : stringIds) {
+      Float price = Optional.ofNullable(itemsById.get(id))
+          .map(FullTableItem::price)
+          .map(Double::floatValue)
+          .orElse(0f);
+      total += price;
+    }
+    return total;
+  }
+
+  @Benchmark
+  public double priceTable() {
+    double total = 0;
+    for (int id : intIds) {
+      total += table.priceOf(id);
+    }
+    return total;
+  }
+
+  @Benchmark
+  public double priceTableFromString() {
+    double total = 0;
+    for (String id : stringIds) {
+      total += table.priceOf(PriceTable.parseId(id));
+    }
+    return total;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(PriceTableBenchmark.class.getSimpleName()).build()).run();
+  }
+}
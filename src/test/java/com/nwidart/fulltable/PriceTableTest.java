@@ -0,0 +1,61 @@
+package com.nwidart.fulltable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class PriceTableTest {
+
+  private static FullTableItem item(String name, double price) {
+    return new FullTableItem(null, null, 0, name, price, "currency");
+  }
+
+  @Test
+  void looks_up_prices_and_names_by_numeric_id() {
+    PriceTable table = PriceTable.of(Map.of(
+        "10001", item("Compass", 1.5),
+        "100001", item("Ember", 42),
+        "3000005", item("Crystal", 0.25)));
+
+    assertThat(table.size()).isEqualTo(3);
+    assertThat(table.priceOf(10001)).isEqualTo(1.5);
+    assertThat(table.priceOf(100001)).isEqualTo(42);
+    assertThat(table.nameOf(3000005)).isEqualTo("Crystal");
+    assertThat(table.priceOf(10002)).isZero();
+    assertThat(table.nameOf(10002)).isNull();
+    assertThat(table.indexOf(-1)).isEqualTo(-1);
+  }
+
+  @Test
+  void ids_that_are_not_plain_ints_are_left_out() {
+    PriceTable table = PriceTable.of(Map.of("abc", item("Named", 1), "0042", item("Padded", 2), "42", item("Plain", 3)));
+
+    assertThat(table.size()).isEqualTo(1);
+    assertThat(table.nameOf(42)).isEqualTo("Plain");
+    assertThat(PriceTable.parseId("")).isEqualTo(-1);
+    assertThat(PriceTable.parseId("0")).isZero();
+    assertThat(PriceTable.parseId("2147483648")).isEqualTo(-1);
+  }
+
+  @Test
+  void colliding_ids_are_all_found() {
+    Map<String, FullTableItem> items = new HashMap<>();
+    for (int i = 0; i < 1000; i++) {
+      items.put(Integer.toString(i * 1024), item("item" + i, i));
+    }
+    PriceTable table = PriceTable.of(items);
+
+    for (int i = 0; i < 1000; i++) {
+      assertThat(table.priceOf(i * 1024)).isEqualTo(i);
+    }
+    assertThat(table.indexOf(1023)).isEqualTo(-1);
+  }
+
+  @Test
+  void empty_table_knows_nothing() {
+    assertThat(PriceTable.EMPTY.size()).isZero();
+    assertThat(PriceTable.EMPTY.priceOf(10001)).isZero();
+  }
+}
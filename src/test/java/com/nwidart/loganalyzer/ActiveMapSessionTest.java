@@ -0,0 +1,74 @@
+package com.nwidart.loganalyzer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.nwidart.loganalyzer.model.LogEntry;
+import com.nwidart.loganalyzer.model.Map;
+import com.nwidart.loganalyzer.model.MapRepository;
+import com.nwidart.loganalyzer.processor.MapEntryLogProcessor;
+import com.nwidart.loganalyzer.processor.MapExitLogProcessor;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class ActiveMapSessionTest {
+
+  private static final Instant ENTERED = Instant.parse("2025-11-05T10:00:02Z");
+  private static final Instant EXITED = Instant.parse("2025-11-05T10:00:10Z");
+
+  @Autowired
+  private ActiveMapSession activeMapSession;
+
+  @Autowired
+  private MapEntryLogProcessor mapEntryLogProcessor;
+
+  @Autowired
+  private MapExitLogProcessor mapExitLogProcessor;
+
+  @Autowired
+  private MapRepository mapRepository;
+
+  @BeforeEach
+  void setUp() {
+    mapRepository.deleteAll();
+    activeMapSession.reload();
+  }
+
+  @Test
+  void map_processors_keep_the_session_up_to_date() {
+    mapEntryLogProcessor.process(new LogEntry("entry", 1, ENTERED), null);
+
+    Long mapId = activeMapSession.getActiveMapId();
+    assertThat(mapId).isNotNull();
+    assertThat(activeMapSession.getStartedAt()).isEqualTo(ENTERED);
+    assertThat(activeMapSession.getSessionStartedAt()).isEqualTo(ENTERED);
+
+    activeMapSession.recordDrop(5);
+    activeMapSession.recordDrop(-2);
+    assertThat(activeMapSession.getDrops()).isEqualTo(2);
+    assertThat(activeMapSession.getItemsGained()).isEqualTo(5);
+
+    mapExitLogProcessor.process(new LogEntry("exit", 2, EXITED), null);
+
+    assertThat(activeMapSession.getActiveMapId()).isNull();
+    assertThat(activeMapSession.getSessionStartedAt()).isEqualTo(ENTERED);
+    assertThat(mapRepository.findById(mapId).orElseThrow().getEndedAt()).isEqualTo(EXITED);
+  }
+
+  @Test
+  void reload_reads_the_active_map_from_the_database() {
+    Map ended = Map.newMap(ENTERED);
+    ended.endMap(EXITED);
+    mapRepository.save(ended);
+    Map active = mapRepository.save(Map.newMap(EXITED));
+
+    activeMapSession.reload();
+
+    assertThat(activeMapSession.getActiveMapId()).isEqualTo(active.getId());
+    assertThat(activeMapSession.getSessionStartedAt()).isEqualTo(ENTERED);
+    assertThat(activeMapSession.getDrops()).isZero();
+  }
+}
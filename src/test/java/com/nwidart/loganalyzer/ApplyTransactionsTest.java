@@ -0,0 +1,216 @@
+package com.nwidart.loganalyzer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.nwidart.loganalyzer.checkpoint.CheckpointService;
+import com.nwidart.loganalyzer.inventory.InventoryService;
+import com.nwidart.loganalyzer.model.Map;
+import com.nwidart.loganalyzer.model.MapRepository;
+import com.nwidart.loganalyzer.pipeline.StageBatch;
+import com.nwidart.loganalyzer.pipeline.StageBatch.Outcome;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class ApplyTransactionsTest {
+
+  private static final Logger log = LoggerFactory.getLogger(ApplyTransactionsTest.class);
+  private static final String PREFIX = "GameLog: Display: [Game] ";
+  private static final String HIDEOUT = "World'/Game/Art/Maps/01SD/XZ_YuJinZhiXiBiNanSuo200/"
+      + "XZ_YuJinZhiXiBiNanSuo200.XZ_YuJinZhiXiBiNanSuo200'";
+  private static final int MAPS = 150;
+  private static final int DROPS_PER_MAP = 20;
+
+  @Autowired
+  private ApplyTransactions applyTransactions;
+
+  @Autowired
+  private LogLineDispatcher dispatcher;
+
+  @Autowired
+  private LogClock logClock;
+
+  @Autowired
+  private InventoryService inventoryService;
+
+  @Autowired
+  private ActiveMapSession activeMapSession;
+
+  @Autowired
+  private CheckpointService checkpointService;
+
+  @Autowired
+  private MapRepository mapRepository;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Autowired
+  private PlatformTransactionManager txManager;
+
+  @BeforeEach
+  void cleanDb() {
+    inventoryService.reset();
+    new TransactionTemplate(txManager).executeWithoutResult(status -> {
+      entityManager.createNativeQuery("delete from map_item").executeUpdate();
+      entityManager.createQuery("delete from ItemDrop").executeUpdate();
+      entityManager.createQuery("delete from Item").executeUpdate();
+      entityManager.createQuery("delete from Map").executeUpdate();
+    });
+    activeMapSession.reload();
+    logClock.reset();
+  }
+
+  @Test
+  void batched_lines_give_the_same_result_as_one_transaction_per_line() {
+    List<String> lines = session();
+    // warm up
+    replay(lines, StageBatch.NONE);
+    cleanDb();
+
+    double perLine = replay(lines, StageBatch.NONE);
+    Result expected = result();
+    cleanDb();
+    double batched = replay(lines, applyTransactions.newBatch(500, Duration.ofSeconds(1)));
+    Result actual = result();
+
+    log.info("Applied {} lines: {} lines/s with a transaction per line, {} lines/s in batches of 500",
+        lines.size(), String.format("%.0f", perLine), String.format("%.0f", batched));
+    assertThat(expected.maps()).isEqualTo(MAPS);
+    assertThat(expected.openMaps()).isZero();
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  @Test
+  void a_policy_of_one_line_applies_lines_one_by_one() {
+    var policy = new ApplyTransactions(txManager, inventoryService, checkpointService, activeMapSession, 1, 50);
+
+    assertThat(policy.newBatch()).isSameAs(StageBatch.NONE);
+  }
+
+  @Test
+  void a_line_failing_in_the_database_rolls_its_batch_back_and_reloads_the_session() {
+    CheckpointService checkpoints = mock(CheckpointService.class);
+    StageBatch batch =
+        new ApplyTransactions(txManager, inventoryService, checkpoints, activeMapSession, 500, 10_000).newBatch();
+
+    enterMap(batch);
+    batch.beforeLine();
+    failInTheDatabase();
+    assertThat(batch.lineFailed()).isEqualTo(Outcome.ROLLED_BACK);
+
+    assertThat(mapRepository.count()).isZero();
+    assertThat(activeMapSession.getActiveMapId()).isNull();
+    verify(checkpoints).discardDeferred();
+    verify(checkpoints, never()).saveIfDeferred();
+
+    // the next line starts a new batch
+    enterMap(batch);
+    assertThat(batch.close()).isEqualTo(Outcome.COMMITTED);
+
+    assertThat(mapRepository.count()).isEqualTo(1);
+    verify(checkpoints).saveIfDeferred();
+  }
+
+  @Test
+  void a_batch_that_fails_to_commit_skips_the_checkpoint_and_reloads_the_session() {
+    CheckpointService checkpoints = mock(CheckpointService.class);
+    StageBatch batch =
+        new ApplyTransactions(txManager, inventoryService, checkpoints, activeMapSession, 500, 10_000).newBatch();
+
+    enterMap(batch);
+    batch.beforeLine();
+    failInTheDatabase();
+    assertThat(batch.close()).isEqualTo(Outcome.ROLLED_BACK);
+
+    assertThat(mapRepository.count()).isZero();
+    assertThat(activeMapSession.getActiveMapId()).isNull();
+    verify(checkpoints).discardDeferred();
+    verify(checkpoints, never()).saveIfDeferred();
+  }
+
+  /**
+   * A line entering a map, as the map processor would.
+   */
+  private void enterMap(StageBatch batch) {
+    batch.beforeLine();
+    Map map = mapRepository.save(Map.newMap(Instant.parse("2025-11-05T10:00:00Z")));
+    activeMapSession.entered(map);
+    batch.afterLine();
+  }
+
+  /**
+   * A repository call that throws, which leaves the open transaction rollback-only.
+   */
+  private void failInTheDatabase() {
+    assertThatThrownBy(() -> new TransactionTemplate(txManager).executeWithoutResult(status -> {
+      throw new IllegalStateException("Line failed");
+    })).isInstanceOf(IllegalStateException.class);
+  }
+
+  /**
+   * Lines per second.
+   */
+  private double replay(List<String> lines, StageBatch batch) {
+    var timestamps = new LogTimestampParser();
+    var matches = new LogLineDispatcher.Matches();
+    long started = System.nanoTime();
+    for (int i = 0; i < lines.size(); i++) {
+      String line = lines.get(i);
+      dispatcher.match(line, matches);
+      batch.beforeLine();
+      dispatcher.apply(timestamps.entry(line, i + 1, logClock), matches);
+      batch.afterLine();
+    }
+    batch.close();
+    inventoryService.flush();
+    return lines.size() / Math.max(1e-9, (System.nanoTime() - started) / 1e9);
+  }
+
+  private Result result() {
+    List<Map> maps = mapRepository.findAll();
+    long drops = ((Number) entityManager.createQuery("select coalesce(sum(d.delta), 0) from ItemDrop d")
+        .getSingleResult()).longValue();
+    long items = ((Number) entityManager.createQuery("select count(i) from Item i").getSingleResult()).longValue();
+    return new Result(maps.size(), maps.stream().filter(map -> map.getEndedAt() == null).count(), items, drops);
+  }
+
+  private static List<String> session() {
+    List<String> lines = new ArrayList<>();
+    int second = 0;
+    for (int map = 0; map < MAPS; map++) {
+      lines.add(line(second++, "PageApplyBase@ _UpdateGameEnd: LastSceneName = " + HIDEOUT
+          + " NextSceneName = World'/Game/Art/Maps/02SD/SomeOtherMap/SomeOtherMap.SomeOtherMap" + map + "'"));
+      for (int drop = 0; drop < DROPS_PER_MAP; drop++) {
+        lines.add(line(second++, "BagMgr@:Modfy BagItem PageId = 102 SlotId = " + drop
+            + " ConfigBaseId = 5028 Num = " + (map + 1)));
+      }
+      lines.add(line(second++, "NextSceneName = " + HIDEOUT));
+    }
+    return lines;
+  }
+
+  private static String line(int second, String message) {
+    return String.format("[2025.11.05-%02d.%02d.%02d:000][  5]", 10 + second / 3600, second / 60 % 60, second % 60)
+        + PREFIX + message;
+  }
+
+  private record Result(long maps, long openMaps, long items, long drops) {
+  }
+}
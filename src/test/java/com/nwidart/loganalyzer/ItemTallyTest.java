@@ -0,0 +1,35 @@
+package com.nwidart.loganalyzer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.nwidart.loganalyzer.model.ItemQuantity;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ItemTallyTest {
+
+  @Test
+  void quantities_are_summed_per_item_across_growth() {
+    ItemTally tally = ItemTally.of(List.of(new ItemQuantity(5028, 2)));
+    for (int id = 0; id < 1_000; id++) {
+      tally.add(id, 1);
+      tally.add(id, 2);
+    }
+    tally.add(5028, -1);
+
+    assertThat(tally.size()).isEqualTo(1_001);
+    assertThat(tally.quantity(999)).isEqualTo(3);
+    assertThat(tally.quantity(5028)).isEqualTo(1);
+    assertThat(tally.quantity(1_000)).isZero();
+    assertThat(tally.revenue(id -> id == 5028 ? 10 : 0)).isEqualTo(10);
+  }
+
+  @Test
+  void negative_ids_are_not_counted() {
+    ItemTally tally = new ItemTally();
+    tally.add(-1, 5);
+
+    assertThat(tally.size()).isZero();
+    assertThat(tally.revenue(id -> 1)).isZero();
+  }
+}
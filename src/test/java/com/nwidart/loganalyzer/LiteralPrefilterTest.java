@@ -0,0 +1,46 @@
+package com.nwidart.loganalyzer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class LiteralPrefilterTest {
+
+  @Test
+  void itReportsEveryGroupWithAnOccurringLiteral() {
+    var prefilter = new LiteralPrefilter(List.of(List.of("he"), List.of("she"), List.of("his", "hers")));
+
+    assertThat(prefilter.scan("ushers")).isEqualTo(0b111);
+    assertThat(prefilter.scan("ahishe")).isEqualTo(0b111);
+    assertThat(prefilter.scan("hi there")).isEqualTo(0b001);
+    assertThat(prefilter.scan("h e s")).isZero();
+    assertThat(prefilter.scan("")).isZero();
+  }
+
+  @Test
+  void itFollowsFailureLinksAcrossPartialMatches() {
+    var prefilter = new LiteralPrefilter(List.of(List.of("BagMgr@:Modfy BagItem"), List.of("_UpdateGameEnd")));
+
+    assertThat(prefilter.scan("BagMgr@:BagMgr@:Modfy BagItem PageId = 1")).isEqualTo(0b01);
+    assertThat(prefilter.scan("__UpdateGame_UpdateGameEnd")).isEqualTo(0b10);
+    assertThat(prefilter.scan("BagMgr@:Modfy Bag")).isZero();
+  }
+
+  @Test
+  void itIgnoresNonAsciiCharacters() {
+    var prefilter = new LiteralPrefilter(List.of(List.of("Num")));
+
+    assertThat(prefilter.scan("物品 Num = 3")).isEqualTo(1);
+    assertThat(prefilter.scan("Nu物m")).isZero();
+  }
+
+  @Test
+  void itRejectsUnsupportedLiterals() {
+    assertThatThrownBy(() -> new LiteralPrefilter(List.of(List.of(""))))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new LiteralPrefilter(List.of(List.of("物品"))))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,122 @@
+package com.nwidart.loganalyzer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.nwidart.loganalyzer.LogLineDispatcher.Matches;
+import com.nwidart.loganalyzer.model.LogEntry;
+import com.nwidart.loganalyzer.processor.LogProcessor;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+class LogLineDispatcherTest {
+
+  private static final String MODIFY_LINE =
+      "[2025.11.09-10.00.00:000][  0]GameLog: Display: [Game] BagMgr@:Modfy BagItem PageId = 102 SlotId = 0 ConfigBaseId = 100300 Num = 5";
+
+  @Test
+  void itSkipsTheRegexOfProcessorsWhoseLiteralsAreMissing() {
+    var bag = new RecordingProcessor("\\[.*?\\]GameLog: Display: \\[Game\\]\\s*BagMgr@:Modfy BagItem PageId = (\\d+)",
+        List.of("BagMgr@:Modfy BagItem"));
+    var end = new RecordingProcessor("_UpdateGameEnd: LastSceneName", List.of("_UpdateGameEnd"));
+    var dispatcher = new LogLineDispatcher(List.of(bag, end));
+
+    dispatch(dispatcher, "[2025.11.09-10.00.00:000][  0]LogTemp: nothing to see");
+    dispatch(dispatcher, MODIFY_LINE);
+
+    assertThat(bag.lines).containsExactly(MODIFY_LINE);
+    assertThat(end.lines).isEmpty();
+    assertThat(dispatcher.getRegexEvaluations()).isEqualTo(1);
+    assertThat(dispatcher.getRegexSkipped()).isEqualTo(3);
+  }
+
+  @Test
+  void itAlwaysEvaluatesProcessorsWithoutLiterals() {
+    var plain = new RecordingProcessor("nothing", List.of());
+    var dispatcher = new LogLineDispatcher(List.of(plain));
+
+    assertThat(match(dispatcher, "there is nothing here").size()).isEqualTo(1);
+    assertThat(dispatcher.getRegexEvaluations()).isEqualTo(1);
+    assertThat(dispatcher.getRegexSkipped()).isZero();
+  }
+
+  @Test
+  void itStillRequiresTheRegexToMatch() {
+    var bag = new RecordingProcessor("BagMgr@:Modfy BagItem PageId = (\\d+)", List.of("BagMgr@:Modfy BagItem"));
+    var dispatcher = new LogLineDispatcher(List.of(bag));
+
+    assertThat(match(dispatcher, "BagMgr@:Modfy BagItem PageId = x").isEmpty()).isTrue();
+    assertThat(dispatcher.getRegexEvaluations()).isEqualTo(1);
+  }
+
+  @Test
+  void itMasksTheMatchingProcessorsByTheirOrder() {
+    var bag = new RecordingProcessor("BagMgr@:Modfy BagItem PageId = (\\d+)", List.of("BagMgr@:Modfy BagItem"));
+    var end = new RecordingProcessor("_UpdateGameEnd: LastSceneName", List.of("_UpdateGameEnd"));
+    var dispatcher = new LogLineDispatcher(List.of(bag, end));
+
+    assertThat(dispatcher.processorMask(match(dispatcher, MODIFY_LINE))).isEqualTo(1L);
+    assertThat(dispatcher.processorMask(match(dispatcher, "_UpdateGameEnd: LastSceneName = X"))).isEqualTo(2L);
+    assertThat(dispatcher.processorMask(match(dispatcher, "nothing"))).isZero();
+  }
+
+  @Test
+  void itReusesTheMatchesFromLineToLine() {
+    var bag = new RecordingProcessor("BagMgr@:Modfy BagItem PageId = (?<pageId>\\d+)", List.of("BagMgr@:Modfy BagItem"));
+    var end = new RecordingProcessor("_UpdateGameEnd: LastSceneName", List.of("_UpdateGameEnd"));
+    var dispatcher = new LogLineDispatcher(List.of(bag, end));
+    var matches = new Matches();
+
+    assertThat(dispatcher.match(MODIFY_LINE, matches)).isTrue();
+    dispatcher.apply(new LogEntry(MODIFY_LINE, 1, Instant.now()), matches);
+    assertThat(dispatcher.match("nothing", matches)).isFalse();
+    assertThat(dispatcher.match("_UpdateGameEnd: LastSceneName = X", matches)).isTrue();
+    dispatcher.apply(new LogEntry("_UpdateGameEnd: LastSceneName = X", 2, Instant.now()), matches);
+
+    assertThat(bag.lines).containsExactly(MODIFY_LINE);
+    assertThat(end.lines).containsExactly("_UpdateGameEnd: LastSceneName = X");
+  }
+
+  private static Matches match(LogLineDispatcher dispatcher, String line) {
+    var matches = new Matches();
+    dispatcher.match(line, matches);
+    return matches;
+  }
+
+  private static void dispatch(LogLineDispatcher dispatcher, String line) {
+    var matches = new Matches();
+    if (dispatcher.match(line, matches)) {
+      dispatcher.apply(new LogEntry(line, 1, Instant.now()), matches);
+    }
+  }
+
+  private static final class RecordingProcessor implements LogProcessor {
+
+    private final String pattern;
+    private final List<String> literals;
+    private final List<String> lines = new ArrayList<>();
+
+    RecordingProcessor(String pattern, List<String> literals) {
+      this.pattern = pattern;
+      this.literals = literals;
+    }
+
+    @Override
+    public void process(LogEntry logEntry, @Nullable Matcher matcher) {
+      lines.add(logEntry.rawLine());
+    }
+
+    @Override
+    public String getPattern() {
+      return pattern;
+    }
+
+    @Override
+    public List<String> getRequiredLiterals() {
+      return literals;
+    }
+  }
+}
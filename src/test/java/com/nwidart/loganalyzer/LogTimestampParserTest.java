@@ -0,0 +1,62 @@
+package com.nwidart.loganalyzer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.nwidart.loganalyzer.model.LogEntry;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LogTimestampParserTest {
+
+  private final LogTimestampParser parser = new LogTimestampParser();
+
+  @Test
+  void it_parses_time_and_frame() {
+    assertThat(parser.parse("[2025.11.09-22.28.28:457][780]GameLog: Display: [Game] hello")).isTrue();
+    assertThat(Instant.ofEpochMilli(parser.epochMillis())).isEqualTo(Instant.parse("2025-11-09T22:28:28.457Z"));
+    assertThat(parser.frame()).isEqualTo(780);
+
+    assertThat(parser.parse("[2025.11.09-22.28.29:001][  5]LogTemp: same day")).isTrue();
+    assertThat(Instant.ofEpochMilli(parser.epochMillis())).isEqualTo(Instant.parse("2025-11-09T22:28:29.001Z"));
+    assertThat(parser.frame()).isEqualTo(5);
+  }
+
+  @Test
+  void it_follows_date_changes() {
+    assertThat(parser.parse("[2025.12.31-23.59.59:999][  1]x")).isTrue();
+    assertThat(Instant.ofEpochMilli(parser.epochMillis())).isEqualTo(Instant.parse("2025-12-31T23:59:59.999Z"));
+
+    assertThat(parser.parse("[2026.01.01-00.00.00:000][  2]x")).isTrue();
+    assertThat(Instant.ofEpochMilli(parser.epochMillis())).isEqualTo(Instant.parse("2026-01-01T00:00:00Z"));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "",
+      "Log file open, 11/09/25 22:28:28",
+      "[2025.11.09-22.28.28:457]GameLog: no frame",
+      "[2025.11.09-22.28.28:457][   ]x",
+      "[2025.11.09-22.28.28:457][78ab]x",
+      "[2025.02.30-22.28.28:457][780]x",
+      "[2025.11.09-24.28.28:457][780]x",
+      "[2025/11/09-22.28.28:457][780]x",
+  })
+  void it_rejects_lines_without_a_valid_prefix(String line) {
+    assertThat(parser.parse(line)).isFalse();
+  }
+
+  @Test
+  void entries_without_prefix_get_the_current_log_time() {
+    LogClock clock = new LogClock();
+
+    LogEntry stamped = parser.entry("[2025.11.09-22.28.28:457][780]x", 1, clock);
+    LogEntry continuation = parser.entry("  continuation", 2, clock);
+
+    assertThat(stamped.timestamp()).isEqualTo(Instant.parse("2025-11-09T22:28:28.457Z"));
+    assertThat(stamped.frame()).isEqualTo(780);
+    assertThat(continuation.frame()).isEqualTo(LogEntry.NO_FRAME);
+    assertThat(continuation.timestamp()).isBetween(stamped.timestamp(), stamped.timestamp().plusSeconds(5));
+  }
+}
@@ -0,0 +1,124 @@
+package com.nwidart.loganalyzer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.nwidart.loganalyzer.model.SecondRevenue;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RevenueTimelineTest {
+
+  private static final long T0 = Instant.parse("2025-11-05T10:00:00Z").toEpochMilli();
+  private static final long SECOND = 1000;
+
+  @Test
+  void drops_are_summed_per_second_and_accumulated() {
+    RevenueTimeline timeline = new RevenueTimeline();
+    timeline.add(T0 + 100, 5);
+    timeline.add(T0 + 900, 5);
+    timeline.add(T0 + 3 * SECOND, 20);
+
+    assertThat(timeline.size()).isEqualTo(2);
+    assertThat(timeline.series(Long.MIN_VALUE, Long.MAX_VALUE, 10)).containsExactly(
+        new RevenuePoint(T0, 10), new RevenuePoint(T0 + 3 * SECOND, 30));
+  }
+
+  @Test
+  void older_drops_are_inserted_in_place() {
+    RevenueTimeline timeline = new RevenueTimeline();
+    timeline.add(T0, 1);
+    timeline.add(T0 + 10 * SECOND, 2);
+    timeline.add(T0 + 5 * SECOND, 4);
+    timeline.add(T0, 8);
+
+    assertThat(timeline.series(Long.MIN_VALUE, Long.MAX_VALUE, 10)).containsExactly(
+        new RevenuePoint(T0, 9), new RevenuePoint(T0 + 5 * SECOND, 13), new RevenuePoint(T0 + 10 * SECOND, 15));
+  }
+
+  @Test
+  void ranges_are_downsampled_to_the_budget() {
+    RevenueTimeline timeline = new RevenueTimeline();
+    for (int i = 0; i < 36_000; i++) {
+      timeline.add(T0 + i * SECOND, i % 600 == 0 ? 1000 : 1);
+    }
+
+    List<RevenuePoint> all = timeline.series(Long.MIN_VALUE, Long.MAX_VALUE, 500);
+    assertThat(all).hasSize(500);
+    assertThat(all.getFirst()).isEqualTo(new RevenuePoint(T0, 1000));
+    assertThat(all.getLast().epochMillis()).isEqualTo(T0 + 35_999 * SECOND);
+    assertThat(all.getLast().revenue()).isEqualTo(60 * 1000 + 36_000 - 60);
+    assertThat(all).isSortedAccordingTo((a, b) -> Long.compare(a.epochMillis(), b.epochMillis()));
+
+    List<RevenuePoint> hour = timeline.series(T0 + 3600 * SECOND, T0 + 7200 * SECOND - 1, 100);
+    assertThat(hour).hasSize(100);
+    assertThat(hour.getFirst().epochMillis()).isEqualTo(T0 + 3600 * SECOND);
+    assertThat(hour.getLast().epochMillis()).isEqualTo(T0 + 7199 * SECOND);
+    // every jump of the hour is kept
+    assertThat(hour).filteredOn(point -> (point.epochMillis() - T0) / SECOND % 600 == 0).hasSize(6);
+  }
+
+  @Test
+  void cached_ranges_are_refreshed_by_new_drops() {
+    RevenueTimeline timeline = new RevenueTimeline();
+    timeline.add(T0, 1);
+
+    List<RevenuePoint> before = timeline.series(Long.MIN_VALUE, Long.MAX_VALUE, 500);
+    assertThat(timeline.series(Long.MIN_VALUE, Long.MAX_VALUE, 500)).isSameAs(before);
+
+    timeline.add(T0 + SECOND, 2);
+    assertThat(timeline.series(Long.MIN_VALUE, Long.MAX_VALUE, 500)).containsExactly(
+        new RevenuePoint(T0, 1), new RevenuePoint(T0 + SECOND, 3));
+  }
+
+  @Test
+  void new_drops_at_the_end_only_pick_again_in_the_last_buckets() {
+    RevenueTimeline timeline = new RevenueTimeline();
+    for (int i = 0; i < 36_000; i++) {
+      timeline.add(T0 + i * SECOND, i % 600 == 0 ? 1000 : 1);
+    }
+    List<RevenuePoint> before = timeline.series(Long.MIN_VALUE, Long.MAX_VALUE, 500);
+
+    timeline.add(T0 + 36_000 * SECOND, 5);
+    List<RevenuePoint> after = timeline.series(Long.MIN_VALUE, Long.MAX_VALUE, 500);
+    assertThat(after).hasSize(500);
+    assertThat(after.subList(0, 497)).isEqualTo(before.subList(0, 497));
+    assertThat(after.getLast()).isEqualTo(new RevenuePoint(T0 + 36_000 * SECOND, 60 * 1000 + 36_000 - 60 + 5));
+
+    // past twice the width of a bucket, the buckets are laid out again
+    for (int i = 36_001; i < 36_500; i++) {
+      timeline.add(T0 + i * SECOND, 1);
+      assertThat(timeline.series(Long.MIN_VALUE, Long.MAX_VALUE, 500)).hasSize(500)
+          .last().isEqualTo(new RevenuePoint(T0 + i * SECOND, 60 * 1000 + i - 60 + 5));
+    }
+  }
+
+  @Test
+  void ranges_ending_before_new_drops_stay_cached() {
+    RevenueTimeline timeline = new RevenueTimeline();
+    timeline.add(T0, 1);
+    timeline.add(T0 + 10 * SECOND, 2);
+
+    List<RevenuePoint> start = timeline.series(T0, T0 + 5 * SECOND, 500);
+    timeline.add(T0 + 10 * SECOND, 4);
+    timeline.add(T0 + 20 * SECOND, 8);
+    assertThat(timeline.series(T0, T0 + 5 * SECOND, 500)).isSameAs(start);
+
+    timeline.add(T0 + 5 * SECOND, 16);
+    assertThat(timeline.series(T0, T0 + 5 * SECOND, 500)).containsExactly(
+        new RevenuePoint(T0, 1), new RevenuePoint(T0 + 5 * SECOND, 17));
+  }
+
+  @Test
+  void load_restarts_from_the_ledger() {
+    RevenueTimeline timeline = new RevenueTimeline();
+    timeline.add(T0, 100);
+    long second = T0 / SECOND;
+
+    timeline.load(List.of(new SecondRevenue(second, 1), new SecondRevenue(second + 2, 2)));
+    timeline.add(T0 + 4 * SECOND, 3);
+
+    assertThat(timeline.series(Long.MIN_VALUE, Long.MAX_VALUE, 500)).containsExactly(
+        new RevenuePoint(T0, 1), new RevenuePoint(T0 + 2 * SECOND, 3), new RevenuePoint(T0 + 4 * SECOND, 6));
+  }
+}
@@ -0,0 +1,61 @@
+package com.nwidart.loganalyzer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+class RevenueWindowsTest {
+
+  private static final long T0 = Instant.parse("2025-11-05T10:00:00Z").toEpochMilli();
+  private static final long MINUTE = 60_000;
+
+  @Test
+  void windows_sum_the_last_minutes() {
+    RevenueWindows windows = new RevenueWindows(60);
+    windows.add(T0 + 10_000, 5);
+    windows.add(T0 + 50_000, 5);
+    windows.add(T0 + 3 * MINUTE, 20);
+    windows.add(T0 + 9 * MINUTE + 59_999, 1);
+
+    long now = T0 + 9 * MINUTE + 30_000;
+    assertThat(windows.sum(now, 1)).isEqualTo(1);
+    assertThat(windows.sum(now, 5)).isEqualTo(1);
+    assertThat(windows.sum(now, 7)).isEqualTo(21);
+    assertThat(windows.sum(now, 60)).isEqualTo(31);
+    assertThat(windows.dropCount(now, 60)).isEqualTo(4);
+  }
+
+  @Test
+  void minutes_older_than_the_ring_are_forgotten() {
+    RevenueWindows windows = new RevenueWindows(5);
+    windows.add(T0, 100);
+    windows.add(T0 + 6 * MINUTE, 1);
+
+    assertThat(windows.sum(T0 + 6 * MINUTE, 60)).isEqualTo(1);
+
+    // too old for the ring, and would overwrite a newer minute
+    windows.add(T0 + MINUTE, 50);
+    assertThat(windows.sum(T0 + 6 * MINUTE, 60)).isEqualTo(1);
+  }
+
+  @Test
+  void per_minute_series_covers_the_requested_range() {
+    RevenueWindows windows = new RevenueWindows(60);
+    windows.add(T0 + 10_000, 5);
+    windows.add(T0 + 2 * MINUTE, 7);
+
+    assertThat(windows.perMinute(T0, T0 + 3 * MINUTE)).containsExactly(5, 0, 7, 0);
+    assertThat(new RevenueWindows(2).perMinute(T0, T0 + 3 * MINUTE)).hasSize(2);
+  }
+
+  @Test
+  void clear_empties_every_bucket() {
+    RevenueWindows windows = new RevenueWindows(60);
+    windows.add(T0, 5);
+
+    windows.clear();
+
+    assertThat(windows.sum(T0, 60)).isZero();
+  }
+}
@@ -0,0 +1,120 @@
+package com.nwidart.loganalyzer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.nwidart.loganalyzer.model.MapRevenue;
+import com.vaadin.flow.shared.Registration;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class StatsPublisherTest {
+
+  private static final RevenueCharts NO_DROPS = new RevenueCharts(SvgCharts.line(List.of()), SvgCharts.bars(List.of()));
+
+  private final StatsService statsService = mock(StatsService.class);
+  private final StatsPublisher publisher = new StatsPublisher(statsService, 1000);
+
+  @Test
+  void a_new_listener_gets_the_current_snapshot() {
+    when(statsService.snapshot()).thenReturn(stats(10));
+    List<StatsSnapshot> received = new ArrayList<>();
+
+    publisher.register(received::add);
+
+    assertThat(received).containsExactly(published(10));
+  }
+
+  @Test
+  void one_snapshot_per_tick_is_shared_by_every_listener() {
+    when(statsService.snapshot()).thenReturn(stats(10), stats(20));
+    List<StatsSnapshot> first = new ArrayList<>();
+    List<StatsSnapshot> second = new ArrayList<>();
+    publisher.register(first::add);
+    publisher.register(second::add);
+
+    publisher.tick();
+
+    verify(statsService, times(2)).snapshot();
+    assertThat(first).containsExactly(published(10), published(20));
+    assertThat(second).containsExactly(published(10), published(20));
+  }
+
+  @Test
+  void unchanged_snapshots_are_not_published() {
+    when(statsService.snapshot()).thenReturn(stats(10), stats(10), stats(10), stats(30));
+    List<StatsSnapshot> received = new ArrayList<>();
+    publisher.register(received::add);
+
+    publisher.tick();
+    publisher.tick();
+    publisher.tick();
+
+    assertThat(received).containsExactly(published(10), published(30));
+  }
+
+  @Test
+  void nothing_is_computed_without_listeners() {
+    when(statsService.snapshot()).thenReturn(stats(10));
+    Registration registration = publisher.register(snapshot -> {
+    });
+    registration.remove();
+
+    publisher.tick();
+
+    verify(statsService, times(1)).snapshot();
+    assertThat(publisher.listenerCount()).isZero();
+  }
+
+  @Test
+  void a_failing_listener_does_not_stop_the_others() {
+    when(statsService.snapshot()).thenReturn(stats(10), stats(20));
+    List<StatsSnapshot> received = new ArrayList<>();
+    publisher.register(snapshot -> {
+      throw new IllegalStateException("detached");
+    });
+    publisher.register(received::add);
+
+    publisher.tick();
+
+    assertThat(received).containsExactly(published(10), published(20));
+  }
+
+  @Test
+  void charts_are_rendered_once_per_change_of_their_series() {
+    List<RevenuePoint> points = List.of(new RevenuePoint(0, 10));
+    List<RevenuePoint> morePoints = List.of(new RevenuePoint(0, 10), new RevenuePoint(1000, 20));
+    when(statsService.snapshot()).thenReturn(stats(10), stats(10), stats(20));
+    when(statsService.revenueOverTime(null, null, RevenueCharts.POINTS)).thenReturn(points, points, morePoints);
+    when(statsService.revenuePerMap(RevenueCharts.MAPS)).thenReturn(List.of(new MapRevenue(1L, 10)));
+    List<StatsSnapshot> first = new ArrayList<>();
+    List<StatsSnapshot> second = new ArrayList<>();
+    publisher.register(first::add);
+    publisher.register(second::add);
+
+    publisher.tick();
+    publisher.tick();
+
+    assertThat(first).hasSize(2);
+    assertThat(second.getLast().charts()).isSameAs(first.getLast().charts());
+    assertThat(first.getFirst().charts()).isSameAs(second.getFirst().charts());
+    assertThat(first.getFirst().charts().overTime()).isEqualTo(SvgCharts.line(points));
+    assertThat(first.getLast().charts().overTime()).isEqualTo(SvgCharts.line(morePoints));
+    assertThat(first.getLast().charts().perMap()).isEqualTo(SvgCharts.bars(List.of(new MapRevenue(1L, 10))));
+  }
+
+  private static StatsSnapshot stats(float sessionRevenue) {
+    return new StatsSnapshot(sessionRevenue, 0, sessionRevenue, 0, 1, Duration.ofMinutes(1), Duration.ofMinutes(1),
+        RollingRevenue.NONE);
+  }
+
+  /** What the listeners get when no drop came in. */
+  private static StatsSnapshot published(float sessionRevenue) {
+    return stats(sessionRevenue).withCharts(NO_DROPS);
+  }
+}
@@ -2,7 +2,6 @@ package com.nwidart.loganalyzer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.when;
 
 import com.nwidart.fulltable.FullTableItem;
@@ -64,9 +63,7 @@ class StatsServiceIntegrationTest extends AbstractResourceTest {
   }
 
   private void mockItemId(String id, Float price) {
-    when(fullTableService.getPriceForItem(argThat(item ->
-        item != null && id.equals(item.getConfigBaseId())
-    ))).thenReturn(price);
+    when(fullTableService.priceOf(Integer.parseInt(id))).thenReturn((double) price);
   }
 
   @BeforeEach
@@ -80,6 +77,7 @@ class StatsServiceIntegrationTest extends AbstractResourceTest {
     new TransactionTemplate(txManager)
         .execute(status -> {
           entityManager.createNativeQuery("delete from map_item").executeUpdate();
+          entityManager.createQuery("delete from ItemDrop").executeUpdate();
           entityManager.createQuery("delete from Item").executeUpdate();
           entityManager.createQuery("delete from Map").executeUpdate();
           entityManager.flush();
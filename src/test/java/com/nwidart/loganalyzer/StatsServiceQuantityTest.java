@@ -1,11 +1,12 @@
 package com.nwidart.loganalyzer;
 
-import com.nwidart.loganalyzer.model.Item;
+import com.nwidart.loganalyzer.model.ItemDrop;
 import com.nwidart.loganalyzer.model.Map;
 import com.nwidart.loganalyzer.model.MapRepository;
 import com.nwidart.fulltable.FullTableService;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import java.time.Instant;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -13,7 +14,6 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.transaction.annotation.Transactional;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -29,25 +29,23 @@ class StatsServiceQuantityTest {
   @Autowired
   private StatsService statsService;
 
+  @Autowired
+  private ActiveMapSession activeMapSession;
+
   @MockitoBean
   private FullTableService fullTableService;
 
   @Test
   void currentMapRevenue_includes_quantity_multiplier() {
     // Given
-    Item a = Item.of("p1", "s1", "A", 3, 3);
-    Item b = Item.of("p1", "s2", "B", 2, 2);
-    em.persist(a);
-    em.persist(b);
-    Map map = Map.newMap();
-    map.addItem(a);
-    map.addItem(b);
-    mapRepository.saveAndFlush(map);
+    Map map = mapRepository.saveAndFlush(Map.newMap());
+    drop(map, 1, 3);
+    drop(map, 2, 2);
+
+    when(fullTableService.priceOf(1)).thenReturn(10.0);
+    when(fullTableService.priceOf(2)).thenReturn(5.0);
 
-    when(fullTableService.getPriceForItem(argThat(i -> i != null && "A".equals(i.getConfigBaseId()))))
-        .thenReturn(10f);
-    when(fullTableService.getPriceForItem(argThat(i -> i != null && "B".equals(i.getConfigBaseId()))))
-        .thenReturn(5f);
+    activeMapSession.reload();
 
     // When
     Float revenue = statsService.currentMapRevenue();
@@ -59,29 +57,20 @@ class StatsServiceQuantityTest {
   @Test
   void currentMapRevenue_does_not_include_older_maps() {
     // Given 2 maps
-    Item a = Item.of("100", "001", "A", 3, 3);
-    Item b = Item.of("100", "002", "B", 2, 2);
-    em.persist(a);
-    em.persist(b);
     Map map = Map.newMap();
-    map.addItem(a);
-    map.addItem(b);
     map.endMap();
     mapRepository.saveAndFlush(map);
+    drop(map, 1, 3);
+    drop(map, 2, 2);
+
+    Map map2 = mapRepository.saveAndFlush(Map.newMap());
+    drop(map2, 1, 3);
+    drop(map2, 2, 2);
 
-    a.setNum(3);
-    b.setNum(2);
-    em.persist(a);
-    em.persist(b);
-    Map map2 = Map.newMap();
-    map2.addItem(a);
-    map2.addItem(b);
-    mapRepository.saveAndFlush(map2);
+    when(fullTableService.priceOf(1)).thenReturn(10.0);
+    when(fullTableService.priceOf(2)).thenReturn(5.0);
 
-    when(fullTableService.getPriceForItem(argThat(i -> i != null && "A".equals(i.getConfigBaseId()))))
-        .thenReturn(10f);
-    when(fullTableService.getPriceForItem(argThat(i -> i != null && "B".equals(i.getConfigBaseId()))))
-        .thenReturn(5f);
+    activeMapSession.reload();
 
     // When
     Float revenue = statsService.currentMapRevenue();
@@ -90,26 +79,39 @@ class StatsServiceQuantityTest {
     assertThat(revenue).isEqualTo(40.0f);
   }
 
+  @Test
+  void every_drop_of_a_slot_counts() {
+    // Given the same slot changing several times in one map
+    Map map = mapRepository.saveAndFlush(Map.newMap());
+    drop(map, 1, 3);
+    drop(map, 1, 1);
+    drop(map, 1, 2);
+
+    when(fullTableService.priceOf(1)).thenReturn(10.0);
+
+    activeMapSession.reload();
+
+    // When
+    Float revenue = statsService.currentMapRevenue();
+
+    // Then 10 * (3 + 1 + 2) = 60
+    assertThat(revenue).isEqualTo(60.0f);
+  }
+
   @Test
   void sessionRevenue_sums_price_times_quantity_across_all_maps() {
     // Given
-    Item a = Item.of("p1", "s1", "A", 1, 1);
-    Item b = Item.of("p1", "s2", "B", 4, 4);
-    em.persist(a);
-    em.persist(b);
+    Map map1 = mapRepository.save(Map.newMap());
+    drop(map1, 1, 1);
 
-    Map map1 = Map.newMap();
-    map1.addItem(a);
-    mapRepository.save(map1);
+    Map map2 = mapRepository.saveAndFlush(Map.newMap());
+    drop(map2, 2, 4);
 
-    Map map2 = Map.newMap();
-    map2.addItem(b);
-    mapRepository.saveAndFlush(map2);
+    // outside of a map
+    em.persist(ItemDrop.of(null, Instant.now(), 2, 100, 5f));
 
-    when(fullTableService.getPriceForItem(argThat(i -> i != null && "A".equals(i.getConfigBaseId()))))
-        .thenReturn(10f);
-    when(fullTableService.getPriceForItem(argThat(i -> i != null && "B".equals(i.getConfigBaseId()))))
-        .thenReturn(5f);
+    when(fullTableService.priceOf(1)).thenReturn(10.0);
+    when(fullTableService.priceOf(2)).thenReturn(5.0);
 
     // When
     Float revenue = statsService.getSessionRevenue();
@@ -125,6 +127,8 @@ class StatsServiceQuantityTest {
     map.endMap();
     mapRepository.saveAndFlush(map);
 
+    activeMapSession.reload();
+
     // When
     Float revenue = statsService.currentMapRevenue();
 
@@ -135,14 +139,13 @@ class StatsServiceQuantityTest {
   @Test
   void items_with_zero_quantity_do_not_increase_revenue() {
     // Given
-    Item a = Item.of("p1", "s1", "A", 0, 0);
-    em.persist(a);
-    Map map = Map.newMap();
-    map.addItem(a);
-    mapRepository.saveAndFlush(map);
+    Map map = mapRepository.saveAndFlush(Map.newMap());
+    drop(map, 1, 2);
+    drop(map, 1, -2);
+
+    when(fullTableService.priceOf(1)).thenReturn(123.0);
 
-    when(fullTableService.getPriceForItem(argThat(i -> i != null && "A".equals(i.getConfigBaseId()))))
-        .thenReturn(123f);
+    activeMapSession.reload();
 
     // When
     Float revenue = statsService.currentMapRevenue();
@@ -150,4 +153,8 @@ class StatsServiceQuantityTest {
     // Then 123 * 0 = 0
     assertThat(revenue).isEqualTo(0.0f);
   }
+
+  private void drop(Map map, int configBaseId, int delta) {
+    em.persist(ItemDrop.of(map.getId(), Instant.now(), configBaseId, delta, 1f));
+  }
 }
@@ -0,0 +1,177 @@
+package com.nwidart.loganalyzer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.nwidart.fulltable.FullTableItem;
+import com.nwidart.fulltable.FullTableService;
+import com.nwidart.fulltable.PriceSnapshot;
+import com.nwidart.fulltable.PriceTable;
+import com.nwidart.fulltable.PricesReloaded;
+import com.nwidart.loganalyzer.event.MapEntered;
+import com.nwidart.loganalyzer.event.MapExited;
+import com.nwidart.loganalyzer.model.ItemDropRepository;
+import com.nwidart.loganalyzer.model.ItemKey;
+import com.nwidart.loganalyzer.model.ItemWasDroppedEvent;
+import com.nwidart.loganalyzer.model.Map;
+import com.nwidart.loganalyzer.model.MapRepository;
+import com.nwidart.loganalyzer.model.MapRevenue;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StatsServiceTotalsTest {
+
+  private final FullTableService fullTableService = mock(FullTableService.class);
+  private final MapRepository mapRepository = mock(MapRepository.class);
+  private final LogClock logClock = new LogClock();
+  private final ItemDropRepository itemDropRepository = mock(ItemDropRepository.class);
+  private final StatsService statsService = new StatsService(fullTableService, mapRepository, itemDropRepository,
+      logClock, mock(ActiveMapSession.class));
+
+  @BeforeEach
+  void setUp() {
+    when(fullTableService.priceOf(1)).thenReturn(10.0);
+    when(fullTableService.priceOf(2)).thenReturn(5.0);
+  }
+
+  @Test
+  void totals_follow_drops_and_map_transitions() {
+    Map first = map(1L);
+    Map second = map(2L);
+
+    statsService.onMapEntered(new MapEntered(this, first));
+    statsService.onItemDropped(drop("1", 3, first));
+    statsService.onItemDropped(drop("2", 2, first));
+
+    StatsSnapshot inFirst = statsService.snapshot();
+    assertThat(inFirst.sessionRevenue()).isEqualTo(40f);
+    assertThat(inFirst.currentMapRevenue()).isEqualTo(40f);
+    assertThat(inFirst.mapsCompleted()).isEqualTo(1);
+
+    statsService.onMapExited(new MapExited(this, 1L, Instant.now()));
+    assertThat(statsService.snapshot().currentMapRevenue()).isZero();
+
+    statsService.onMapEntered(new MapEntered(this, second));
+    statsService.onItemDropped(drop("1", 1, second));
+    statsService.onItemDropped(drop("1", -1, second));
+    statsService.onItemDropped(drop("2", 4, second));
+
+    StatsSnapshot inSecond = statsService.snapshot();
+    assertThat(inSecond.sessionRevenue()).isEqualTo(60f);
+    assertThat(inSecond.currentMapRevenue()).isEqualTo(20f);
+    assertThat(inSecond.mapsCompleted()).isEqualTo(2);
+    assertThat(inSecond.revenuePerMap()).isEqualTo(30.0);
+  }
+
+  @Test
+  void drops_are_bucketed_by_log_time() {
+    Map map = map(1L);
+    Instant now = Instant.parse("2025-11-05T10:00:30Z");
+    logClock.advance(now);
+    statsService.onMapEntered(new MapEntered(this, map));
+    statsService.onItemDropped(drop("1", 1, map, now.minusSeconds(30 * 60)));
+    statsService.onItemDropped(drop("1", 2, map, now.minusSeconds(10 * 60)));
+    statsService.onItemDropped(drop("2", 2, map, now));
+
+    RollingRevenue rolling = statsService.snapshot().rolling();
+    assertThat(rolling.lastMinute()).isEqualTo(10f);
+    assertThat(rolling.last15Minutes()).isEqualTo(30f);
+    assertThat(rolling.lastHour()).isEqualTo(40f);
+  }
+
+  @Test
+  void new_prices_reprice_the_session_and_the_current_map() {
+    Map first = map(1L);
+    Map second = map(2L);
+    Instant now = Instant.parse("2025-11-05T10:00:30Z");
+    logClock.advance(now);
+    statsService.onMapEntered(new MapEntered(this, first));
+    statsService.onItemDropped(drop("1", 3, first, now));
+    statsService.onMapEntered(new MapEntered(this, second));
+    statsService.onItemDropped(drop("1", 1, second, now));
+    statsService.onItemDropped(drop("2", 2, second, now));
+
+    statsService.onPricesReloaded(new PricesReloaded(this, prices(java.util.Map.of("1", 100.0, "2", 1.0))));
+
+    StatsSnapshot repriced = statsService.snapshot();
+    assertThat(repriced.sessionRevenue()).isEqualTo(402f);
+    assertThat(repriced.currentMapRevenue()).isEqualTo(102f);
+    assertThat(repriced.mapsCompleted()).isEqualTo(2);
+    assertThat(repriced.sessionRevenueAtDropTime()).isEqualTo(50f);
+    assertThat(repriced.currentMapRevenueAtDropTime()).isEqualTo(20f);
+    // already bucketed at the prices of the time of the drop
+    assertThat(repriced.rolling().lastMinute()).isEqualTo(50f);
+  }
+
+  @Test
+  void drops_are_valued_at_their_recorded_unit_price() {
+    Map map = map(1L);
+    statsService.onMapEntered(new MapEntered(this, map));
+    ItemWasDroppedEvent drop = new ItemWasDroppedEvent(this, ItemKey.of(102, 1, 1), 3, 3, 7f, map, Instant.now());
+
+    statsService.onItemDropped(drop);
+
+    StatsSnapshot stats = statsService.snapshot();
+    assertThat(stats.sessionRevenue()).isEqualTo(30f);
+    assertThat(stats.sessionRevenueAtDropTime()).isEqualTo(21f);
+    assertThat(stats.currentMapRevenueAtDropTime()).isEqualTo(21f);
+  }
+
+  @Test
+  void revenue_charts_follow_drops_without_the_database() {
+    Map first = map(1L);
+    Map second = map(2L);
+    Instant t0 = Instant.parse("2025-11-05T10:00:00Z");
+    statsService.onMapEntered(new MapEntered(this, first));
+    statsService.onItemDropped(drop("1", 3, first, t0));
+    statsService.onItemDropped(drop("2", 2, first, t0.plusMillis(500)));
+    statsService.onMapEntered(new MapEntered(this, second));
+    statsService.onItemDropped(drop("1", 1, second, t0.plusSeconds(60)));
+
+    assertThat(statsService.revenueOverTime(null, null, 500)).containsExactly(
+        new RevenuePoint(t0.toEpochMilli(), 40), new RevenuePoint(t0.plusSeconds(60).toEpochMilli(), 50));
+    assertThat(statsService.revenueOverTime(t0.plusSeconds(1), null, 500)).containsExactly(
+        new RevenuePoint(t0.plusSeconds(60).toEpochMilli(), 50));
+    assertThat(statsService.revenuePerMap(1)).containsExactly(new MapRevenue(2L, 10));
+    assertThat(statsService.revenuePerMap(30)).containsExactly(new MapRevenue(1L, 40), new MapRevenue(2L, 10));
+    verifyNoInteractions(itemDropRepository);
+  }
+
+  @Test
+  void drops_outside_of_a_map_are_not_counted() {
+    statsService.onItemDropped(drop("1", 3, null));
+
+    assertThat(statsService.snapshot().sessionRevenue()).isZero();
+  }
+
+  @Test
+  void snapshot_does_not_query_the_database() {
+    statsService.snapshot();
+
+    verifyNoInteractions(mapRepository, itemDropRepository);
+  }
+
+  private static PriceSnapshot prices(java.util.Map<String, Double> prices) {
+    java.util.Map<String, FullTableItem> items = new java.util.HashMap<>();
+    prices.forEach((id, price) -> items.put(id, new FullTableItem(null, null, 0, id, price, "Currency")));
+    return new PriceSnapshot(2, items, PriceTable.of(items), "test", Instant.now());
+  }
+
+  private static Map map(Long id) {
+    Map map = mock(Map.class);
+    when(map.getId()).thenReturn(id);
+    return map;
+  }
+
+  private ItemWasDroppedEvent drop(String configBaseId, int delta, Map map) {
+    return drop(configBaseId, delta, map, Instant.now());
+  }
+
+  private ItemWasDroppedEvent drop(String configBaseId, int delta, Map map, Instant occurredAt) {
+    return new ItemWasDroppedEvent(this, ItemKey.of(102, 1, Integer.parseInt(configBaseId)), delta, Math.max(0, delta),
+        ItemWasDroppedEvent.NO_PRICE, map, occurredAt);
+  }
+}
@@ -0,0 +1,154 @@
+package com.nwidart.loganalyzer.bulk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.nwidart.loganalyzer.AbstractResourceTest;
+import com.nwidart.loganalyzer.LogService;
+import com.nwidart.loganalyzer.model.Item;
+import com.nwidart.loganalyzer.model.ItemId;
+import com.nwidart.loganalyzer.model.ItemRepository;
+import com.nwidart.loganalyzer.model.MapRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = "tlitracker.bulk-import.chunk-size=512")
+class BulkImporterTest extends AbstractResourceTest {
+
+  @Autowired
+  private BulkImporter bulkImporter;
+
+  @Autowired
+  private LogService logService;
+
+  @Autowired
+  private ItemRepository itemRepository;
+
+  @Autowired
+  private MapRepository mapRepository;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Autowired
+  private PlatformTransactionManager txManager;
+
+  @BeforeEach
+  void cleanDbBefore() {
+    stopTailer();
+    cleanDb();
+  }
+
+  @AfterEach
+  void stopTailer() {
+    if (logService.isRunning()) {
+      logService.stopTailing();
+    }
+  }
+
+  @Test
+  void chunks_end_on_line_boundaries() throws Exception {
+    Path logFile = resourcePath("logs/multi_map_scenario.log");
+    byte[] content = Files.readAllBytes(logFile);
+
+    try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+      long[] bounds = BulkImporter.chunkBoundaries(channel, 0, content.length, 512);
+
+      assertThat(bounds.length).isGreaterThan(3);
+      assertThat(bounds[0]).isZero();
+      assertThat(bounds[bounds.length - 1]).isEqualTo(content.length);
+      for (int i = 1; i < bounds.length; i++) {
+        assertThat(bounds[i]).isGreaterThan(bounds[i - 1]);
+        assertThat(content[(int) bounds[i] - 1]).isEqualTo((byte) '\n');
+      }
+    }
+    assertThat(BulkImporter.lastLineEnd(logFile)).isEqualTo(content.length);
+  }
+
+  @Test
+  void bulk_import_reaches_the_same_state_as_live_tailing() throws Exception {
+    Path logFile = resourcePath("logs/multi_map_scenario.log");
+    long expectedLines = countLines(logFile);
+
+    // live path
+    logService.startTailing(logFile);
+    awaitUntil(() -> logService.getCurrentLineNumber() >= expectedLines, Duration.ofSeconds(10));
+    sleep(250);
+    logService.stopTailing();
+    State live = snapshot();
+
+    cleanDb();
+
+    // bulk path
+    BulkImportResult result = bulkImporter.importFile(logFile, 0, BulkImporter.lastLineEnd(logFile), 0, () -> false);
+    State bulk = snapshot();
+
+    assertThat(result.lines()).isEqualTo(expectedLines);
+    assertThat(result.matchedLines()).isPositive();
+    assertThat(result.endOffset()).isEqualTo(Files.size(logFile));
+    assertThat(live.maps()).hasSize(2);
+    assertThat(bulk).isEqualTo(live);
+  }
+
+  @Test
+  void maps_are_stamped_with_log_time() throws Exception {
+    Path logFile = resourcePath("logs/multi_map_scenario.log");
+
+    bulkImporter.importFile(logFile, 0, BulkImporter.lastLineEnd(logFile), 0, () -> false);
+
+    List<com.nwidart.loganalyzer.model.Map> maps = mapRepository.findAll().stream()
+        .sorted(Comparator.comparing(com.nwidart.loganalyzer.model.Map::getStartedAt))
+        .toList();
+    assertThat(maps).hasSize(2);
+    assertThat(maps.get(0).getStartedAt()).isEqualTo(Instant.parse("2025-11-05T10:00:02Z"));
+    assertThat(maps.get(0).getEndedAt()).isEqualTo(Instant.parse("2025-11-05T10:00:10Z"));
+    assertThat(maps.get(1).getStartedAt()).isEqualTo(Instant.parse("2025-11-05T10:00:11Z"));
+    assertThat(maps.get(1).getEndedAt()).isEqualTo(Instant.parse("2025-11-05T10:00:16Z"));
+  }
+
+  private State snapshot() {
+    return new TransactionTemplate(txManager).execute(status -> {
+      List<MapState> maps = mapRepository.fetchMapsWithItemsSortedByEndedAtDesc().stream()
+          .sorted(Comparator.comparing(com.nwidart.loganalyzer.model.Map::getStartedAt))
+          .map(m -> new MapState(m.getEndedAt() != null, m.getItems().stream().map(Item::getId).collect(Collectors.toSet())))
+          .toList();
+      Map<ItemId, List<Integer>> items = itemRepository.findAll().stream()
+          .collect(Collectors.toMap(Item::getId, i -> List.of(i.getNum(), i.getTotal())));
+      return new State(maps, items);
+    });
+  }
+
+  private void cleanDb() {
+    new TransactionTemplate(txManager)
+        .execute(status -> {
+          entityManager.createNativeQuery("delete from map_item").executeUpdate();
+          entityManager.createQuery("delete from Item").executeUpdate();
+          entityManager.createQuery("delete from Map").executeUpdate();
+          entityManager.flush();
+          return null;
+        });
+  }
+
+  private record MapState(boolean ended, Set<ItemId> items) {
+  }
+
+  private record State(List<MapState> maps, Map<ItemId, List<Integer>> items) {
+  }
+}
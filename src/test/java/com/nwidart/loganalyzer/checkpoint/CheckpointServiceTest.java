@@ -0,0 +1,135 @@
+package com.nwidart.loganalyzer.checkpoint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.nwidart.loganalyzer.ActiveMapSession;
+import com.nwidart.loganalyzer.inventory.InventoryService;
+import com.nwidart.loganalyzer.journal.GameJournal;
+import com.nwidart.loganalyzer.model.DatabaseEpochRepository;
+import com.nwidart.loganalyzer.model.MapRepository;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CheckpointServiceTest {
+
+  @TempDir
+  Path dir;
+
+  private final MapRepository mapRepository = mock(MapRepository.class);
+  private final DatabaseEpochRepository epochRepository = mock(DatabaseEpochRepository.class);
+  private final ActiveMapSession activeMapSession = mock(ActiveMapSession.class);
+  private final InventoryService inventoryService = mock(InventoryService.class);
+  private final GameJournal journal = mock(GameJournal.class);
+  private Path logFile;
+  private Path checkpointFile;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    logFile = dir.resolve("UE_game.log");
+    checkpointFile = dir.resolve("state/checkpoint.properties");
+    Files.writeString(logFile, "first line\nsecond line\n");
+    when(mapRepository.existsById(anyLong())).thenReturn(true);
+    when(epochRepository.current()).thenReturn("epoch-1");
+  }
+
+  private CheckpointService service(long everyLines) {
+    return new CheckpointService(mapRepository, epochRepository, activeMapSession, inventoryService, journal, true, checkpointFile, everyLines, 60_000);
+  }
+
+  @Test
+  void itResumesFromTheLastSavedPosition() {
+    when(activeMapSession.getActiveMapId()).thenReturn(42L);
+
+    CheckpointService service = service(1000);
+    service.begin(logFile, 0, 0);
+    service.onLine(11, 1);
+    service.onLine(23, 2);
+    service.flush();
+
+    TailCheckpoint checkpoint = service(1000).resumePoint(logFile);
+
+    assertThat(checkpoint).isNotNull();
+    assertThat(checkpoint.offset()).isEqualTo(23);
+    assertThat(checkpoint.lineNumber()).isEqualTo(2);
+    assertThat(checkpoint.activeMapId()).isEqualTo(42L);
+  }
+
+  @Test
+  void itSavesEveryNLines() {
+    CheckpointService service = service(2);
+    service.begin(logFile, 0, 0);
+
+    service.onLine(11, 1);
+    assertThat(checkpointFile).doesNotExist();
+
+    service.onLine(23, 2);
+    assertThat(checkpointFile).exists();
+  }
+
+  @Test
+  void itKeepsResumingAfterTheFileGrew() throws IOException {
+    CheckpointService service = service(1);
+    service.begin(logFile, 0, 0);
+    service.onLine(23, 2);
+
+    Files.writeString(logFile, "third line\n", StandardOpenOption.APPEND);
+
+    assertThat(service(1).resumePoint(logFile)).isNotNull();
+  }
+
+  @Test
+  void itIgnoresTheCheckpointOfARotatedFile() throws IOException {
+    CheckpointService service = service(1);
+    service.begin(logFile, 0, 0);
+    service.onLine(23, 2);
+
+    Files.writeString(logFile, "new\n");
+
+    assertThat(service(1).resumePoint(logFile)).isNull();
+  }
+
+  @Test
+  void itIgnoresTheCheckpointWhenTheActiveMapIsGone() {
+    when(activeMapSession.getActiveMapId()).thenReturn(7L);
+    CheckpointService service = service(1);
+    service.begin(logFile, 0, 0);
+    service.onLine(23, 2);
+
+    when(mapRepository.existsById(7L)).thenReturn(false);
+
+    assertThat(service(1).resumePoint(logFile)).isNull();
+  }
+
+  @Test
+  void itIgnoresTheCheckpointOfAnotherDatabaseBetweenMaps() {
+    when(activeMapSession.getActiveMapId()).thenReturn(null);
+    CheckpointService service = service(1);
+    service.begin(logFile, 0, 0);
+    service.onLine(23, 2);
+
+    // restarted on an empty in-memory database
+    when(epochRepository.current()).thenReturn("epoch-2");
+    when(mapRepository.existsById(anyLong())).thenReturn(false);
+
+    assertThat(service(1).resumePoint(logFile)).isNull();
+  }
+
+  @Test
+  void itDoesNothingWhenDisabled() {
+    CheckpointService service = new CheckpointService(mapRepository, epochRepository, activeMapSession, inventoryService, journal, false, checkpointFile, 1, 60_000);
+    service.begin(logFile, 0, 0);
+    service.onLine(23, 2);
+    service.flush();
+
+    assertThat(checkpointFile).doesNotExist();
+    assertThat(service.resumePoint(logFile)).isNull();
+  }
+}
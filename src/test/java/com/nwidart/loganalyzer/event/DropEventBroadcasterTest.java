@@ -2,14 +2,24 @@ package com.nwidart.loganalyzer.event;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.nwidart.loganalyzer.event.DropEventBroadcaster.DropEvent;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 import org.junit.jupiter.api.Test;
 
 class DropEventBroadcasterTest {
 
+  private static final Instant MAP = Instant.parse("2025-11-05T10:00:00Z");
+
   @Test
-  void stores_backlog_and_notifies_listeners() {
+  void stores_backlog_and_notifies_listeners() throws Exception {
     var broadcaster = new DropEventBroadcaster(3);
 
     AtomicInteger calls = new AtomicInteger();
@@ -18,7 +28,7 @@ class DropEventBroadcasterTest {
     broadcaster.broadcast(new DropEventBroadcaster.DropEvent(Instant.now(), "A", 1, 1, 10.0, Instant.now()));
     broadcaster.broadcast(new DropEventBroadcaster.DropEvent(Instant.now(), "B", 2, 3, 5.0, Instant.now()));
 
-    assertThat(calls.get()).isEqualTo(2);
+    awaitUntil(() -> calls.get() == 2);
     assertThat(broadcaster.getBacklog()).hasSize(2);
 
     // Exceed capacity to test eviction
@@ -27,11 +37,107 @@ class DropEventBroadcasterTest {
 
     assertThat(broadcaster.getBacklog()).hasSize(3);
     assertThat(broadcaster.getBacklog().get(0).configBaseId()).isEqualTo("B");
+    awaitUntil(() -> calls.get() == 4);
 
     reg.remove();
 
     int before = calls.get();
     broadcaster.broadcast(new DropEventBroadcaster.DropEvent(Instant.now(), "E", 1, 6, 1.0, Instant.now()));
+    Thread.sleep(50);
     assertThat(calls.get()).isEqualTo(before); // no more notifications
   }
+
+  @Test
+  void a_stalled_listener_does_not_hold_back_broadcasting_nor_other_listeners() throws Exception {
+    var broadcaster = new DropEventBroadcaster(10, 4, MailboxOverflow.DROP_OLDEST);
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> stalled = new CopyOnWriteArrayList<>();
+    List<String> other = new CopyOnWriteArrayList<>();
+    broadcaster.register(e -> {
+      entered.countDown();
+      await(release);
+      stalled.add(e.configBaseId());
+    });
+    broadcaster.register(e -> other.add(e.configBaseId()));
+
+    broadcaster.broadcast(drop("1", 1));
+    await(entered);
+    for (int i = 2; i <= 10; i++) {
+      broadcaster.broadcast(drop(Integer.toString(i), 1));
+    }
+
+    // broadcasting returned while a listener is stuck, and the other one keeps up
+    assertThat(broadcaster.lastSequence()).isEqualTo(10);
+    awaitUntil(() -> other.contains("10"));
+    release.countDown();
+    // the first event was taken before stalling, then only the 4 newest fit in the mailbox
+    awaitUntil(() -> stalled.size() == 5);
+    Thread.sleep(50);
+    assertThat(stalled).containsExactly("1", "7", "8", "9", "10");
+  }
+
+  @Test
+  void a_lagging_listener_can_get_coalesced_events() throws Exception {
+    var broadcaster = new DropEventBroadcaster(16, 2, MailboxOverflow.COALESCE);
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<DropEvent> received = new CopyOnWriteArrayList<>();
+    broadcaster.register(e -> {
+      entered.countDown();
+      await(release);
+      received.add(e);
+    });
+
+    broadcaster.broadcast(drop("A", 1));
+    await(entered);
+    broadcaster.broadcast(drop("A", 2));
+    broadcaster.broadcast(drop("B", 5));
+    broadcaster.broadcast(drop("A", 3));
+    release.countDown();
+
+    awaitUntil(() -> received.size() == 3);
+    Thread.sleep(50);
+    assertThat(received).extracting(DropEvent::configBaseId).containsExactly("A", "A", "B");
+    assertThat(received).extracting(DropEvent::delta).containsExactly(1, 5, 5);
+  }
+
+  @Test
+  void backlog_is_read_in_place_from_a_sequence() throws Exception {
+    var broadcaster = new DropEventBroadcaster(3);
+    for (int i = 1; i <= 5; i++) {
+      broadcaster.broadcast(drop(Integer.toString(i), 1));
+    }
+
+    List<String> read = new ArrayList<>();
+    long last = broadcaster.readBacklog(0, (sequence, e) -> read.add(sequence + ":" + e.configBaseId()));
+    assertThat(read).containsExactly("3:3", "4:4", "5:5");
+    assertThat(last).isEqualTo(5);
+
+    List<String> next = new CopyOnWriteArrayList<>();
+    broadcaster.register(e -> next.add(e.configBaseId()), 4);
+    broadcaster.broadcast(drop("6", 1));
+    awaitUntil(() -> next.size() == 2);
+    assertThat(next).containsExactly("5", "6");
+  }
+
+  private static DropEvent drop(String configBaseId, int delta) {
+    return new DropEvent(Instant.now(), configBaseId, delta, delta, 1.0, MAP);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertThat(condition.getAsBoolean()).isTrue();
+  }
 }
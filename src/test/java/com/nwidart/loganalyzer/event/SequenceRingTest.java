@@ -0,0 +1,58 @@
+package com.nwidart.loganalyzer.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class SequenceRingTest {
+
+  @Test
+  void values_overwritten_while_reading_are_skipped() {
+    var ring = new SequenceRing<String>(4);
+    for (int i = 1; i <= 6; i++) {
+      ring.publish("v" + i);
+    }
+
+    List<String> read = new ArrayList<>();
+    long last = ring.read(0, 4, (sequence, value) -> {
+      read.add(sequence + ":" + value);
+      if (sequence == 3) {
+        // laps the reader: v4 and v5 get overwritten
+        for (int i = 7; i <= 9; i++) {
+          ring.publish("v" + i);
+        }
+      }
+    });
+
+    assertThat(ring.capacity()).isEqualTo(4);
+    assertThat(read).containsExactly("3:v3", "6:v6");
+    assertThat(last).isEqualTo(6);
+    assertThat(ring.last()).isEqualTo(9);
+  }
+
+  @Test
+  void concurrent_publishers_get_distinct_sequences() throws Exception {
+    var ring = new SequenceRing<Integer>(1 << 16);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    for (int t = 0; t < 4; t++) {
+      executor.execute(() -> {
+        for (int i = 0; i < 10_000; i++) {
+          ring.publish(i);
+        }
+      });
+    }
+    executor.shutdown();
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+    long[] count = new long[1];
+    long last = ring.read(0, ring.capacity(), (sequence, value) -> count[0]++);
+
+    assertThat(last).isEqualTo(40_000);
+    assertThat(count[0]).isEqualTo(40_000);
+  }
+}
@@ -0,0 +1,165 @@
+package com.nwidart.loganalyzer.inventory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.within;
+
+import com.nwidart.loganalyzer.model.Item;
+import com.nwidart.loganalyzer.model.ItemDrop;
+import com.nwidart.loganalyzer.model.ItemDropRepository;
+import com.nwidart.loganalyzer.model.ItemId;
+import com.nwidart.loganalyzer.model.ItemRepository;
+import com.nwidart.loganalyzer.model.Map;
+import com.nwidart.loganalyzer.model.MapRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.Instant;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = "tlitracker.inventory.flush-ms=60000")
+class InventoryServiceTest {
+
+  private static final Instant NOW = Instant.parse("2025-11-05T10:00:00Z");
+
+  @Autowired
+  private InventoryService inventoryService;
+
+  @Autowired
+  private ItemRepository itemRepository;
+
+  @Autowired
+  private MapRepository mapRepository;
+
+  @Autowired
+  private ItemDropRepository itemDropRepository;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Autowired
+  private PlatformTransactionManager txManager;
+
+  @BeforeEach
+  void setUp() {
+    inventoryService.reset();
+    new TransactionTemplate(txManager).executeWithoutResult(status -> {
+      entityManager.createNativeQuery("delete from map_item").executeUpdate();
+      entityManager.createQuery("delete from ItemDrop").executeUpdate();
+      entityManager.createQuery("delete from Item").executeUpdate();
+      entityManager.createQuery("delete from Map").executeUpdate();
+    });
+  }
+
+  @Test
+  void deltas_are_computed_against_the_last_count_of_the_slot() {
+    assertThat(inventoryService.modify(102, 11, 5028, 8, null, NOW).delta()).isEqualTo(8);
+    assertThat(inventoryService.modify(102, 11, 5028, 9, null, NOW).delta()).isEqualTo(1);
+    assertThat(inventoryService.modify(102, 11, 5028, 50, null, NOW).delta()).isEqualTo(41);
+    assertThat(inventoryService.modify(102, 11, 5028, 45, null, NOW).delta()).isEqualTo(-5);
+  }
+
+  @Test
+  void another_item_in_the_slot_starts_from_zero() {
+    inventoryService.modify(102, 11, 5028, 8, null, NOW);
+
+    SlotChange change = inventoryService.modify(102, 11, 100001, 3, null, NOW);
+
+    assertThat(change.delta()).isEqualTo(3);
+    assertThat(change.total()).isEqualTo(3);
+  }
+
+  @Test
+  void unknown_slots_are_read_from_the_database() {
+    itemRepository.save(Item.of("102", "11", "5028", 17, 600));
+
+    assertThat(inventoryService.modify(102, 11, 5028, 617, null, NOW).delta()).isEqualTo(17);
+  }
+
+  @Test
+  void changes_are_written_behind() {
+    Map map = mapRepository.save(Map.newMap());
+
+    inventoryService.modify(102, 11, 5028, 8, map.getId(), NOW);
+    inventoryService.modify(102, 11, 5028, 9, map.getId(), NOW);
+    inventoryService.modify(102, 12, 100001, 2, null, NOW);
+    assertThat(itemRepository.count()).isZero();
+
+    inventoryService.flush();
+
+    Item item = itemRepository.findById(ItemId.of("5028", "102", "11"));
+    assertThat(item.getNum()).isEqualTo(1);
+    assertThat(item.getTotal()).isEqualTo(9);
+    assertThat(item.getUnitPrice()).isEqualTo(0.169f);
+    assertThat(itemRepository.count()).isEqualTo(2);
+    assertThat(mapItems(map.getId())).containsExactly(ItemId.of("5028", "102", "11"));
+  }
+
+  @Test
+  void items_are_linked_to_their_map_once_across_flushes() {
+    Map map = mapRepository.save(Map.newMap());
+
+    inventoryService.modify(102, 11, 5028, 8, map.getId(), NOW);
+    inventoryService.flush();
+    inventoryService.modify(102, 11, 5028, 9, map.getId(), NOW);
+    inventoryService.modify(102, 12, 100001, 2, map.getId(), NOW);
+    inventoryService.modify(102, 13, 5028, 1, 999_999L, NOW);
+    inventoryService.flush();
+
+    assertThat(mapItems(map.getId())).containsExactlyInAnyOrder(
+        ItemId.of("5028", "102", "11"), ItemId.of("100001", "102", "12"));
+    assertThat(((Number) entityManager.createNativeQuery("select count(*) from map_item").getSingleResult()).intValue())
+        .isEqualTo(2);
+  }
+
+  @Test
+  void every_change_is_appended_to_the_drop_ledger() {
+    Map map = mapRepository.save(Map.newMap());
+
+    inventoryService.modify(102, 11, 5028, 8, map.getId(), NOW);
+    inventoryService.modify(102, 11, 5028, 8, map.getId(), NOW);
+    inventoryService.modify(102, 11, 5028, 9, map.getId(), NOW.plusSeconds(1));
+    inventoryService.modify(102, 12, 100001, 2, null, NOW);
+    inventoryService.flush();
+
+    assertThat(itemDropRepository.findAll())
+        .extracting(ItemDrop::getMapId, ItemDrop::getOccurredAt, ItemDrop::getConfigBaseId, ItemDrop::getDelta)
+        .containsExactlyInAnyOrder(
+            tuple(map.getId(), NOW, 5028, 8),
+            tuple(map.getId(), NOW.plusSeconds(1), 5028, 1),
+            tuple(null, NOW, 100001, 2));
+    assertThat(itemDropRepository.mapValueAtDropTime(map.getId())).isCloseTo(9 * 0.169, within(1e-4));
+  }
+
+  @Test
+  void changes_in_a_map_that_does_not_exist_are_appended_without_it() {
+    inventoryService.modify(102, 11, 5028, 8, 999_999L, NOW);
+    inventoryService.flush();
+
+    assertThat(itemDropRepository.findAll())
+        .extracting(ItemDrop::getMapId, ItemDrop::getDelta)
+        .containsExactly(tuple(null, 8));
+  }
+
+  @Test
+  void reset_writes_pending_changes_and_forgets_the_bag() {
+    inventoryService.modify(102, 11, 5028, 8, null, NOW);
+
+    inventoryService.reset();
+
+    assertThat(inventoryService.getBagSize()).isZero();
+    assertThat(itemRepository.findById(ItemId.of("5028", "102", "11")).getTotal()).isEqualTo(8);
+  }
+
+  private Set<ItemId> mapItems(Long mapId) {
+    return new TransactionTemplate(txManager).execute(status -> entityManager.find(Map.class, mapId).getItems().stream()
+        .map(Item::getId)
+        .collect(Collectors.toSet()));
+  }
+}
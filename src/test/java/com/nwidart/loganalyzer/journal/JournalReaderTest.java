@@ -0,0 +1,132 @@
+package com.nwidart.loganalyzer.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class JournalReaderTest {
+
+  private static final Logger log = LoggerFactory.getLogger(JournalReaderTest.class);
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void records_are_read_back_in_order() throws IOException {
+    Path file = dir.resolve("journal.bin");
+    try (JournalWriter writer = JournalWriter.open(file, false)) {
+      writer.bagInitialized(102, 3, 5028, 7, 1_000L, 1);
+      writer.mapEntered(2_000L, 2);
+      writer.bagModified(0xFFFF, 4, 100300, 12, 3_000L, 3);
+      writer.mapExited(4_000L, 4);
+    }
+
+    List<String> read = new ArrayList<>();
+    long records = JournalReader.replay(file, recorder(read));
+
+    assertThat(records).isEqualTo(4);
+    assertThat(read).containsExactly(
+        "init 102/3 5028 x7 @1000 #1",
+        "enter @2000 #2",
+        "modify 65535/4 100300 x12 @3000 #3",
+        "exit @4000 #4");
+    assertThat(Files.size(file)).isEqualTo(JournalFormat.HEADER_SIZE + 4L * JournalFormat.RECORD_SIZE);
+  }
+
+  @Test
+  void a_reopened_journal_is_appended_to_unless_started_over() throws IOException {
+    Path file = dir.resolve("journal.bin");
+    try (JournalWriter writer = JournalWriter.open(file, false)) {
+      writer.mapEntered(1_000L, 1);
+    }
+    // a write cut short
+    Files.write(file, new byte[JournalFormat.RECORD_SIZE / 2], StandardOpenOption.APPEND);
+
+    try (JournalWriter writer = JournalWriter.open(file, false)) {
+      assertThat(writer.records()).isEqualTo(1);
+      writer.mapExited(2_000L, 2);
+    }
+    List<String> read = new ArrayList<>();
+    JournalReader.replay(file, recorder(read));
+    assertThat(read).containsExactly("enter @1000 #1", "exit @2000 #2");
+
+    try (JournalWriter writer = JournalWriter.open(file, true)) {
+      assertThat(writer.records()).isZero();
+    }
+    assertThat(JournalReader.replay(file, new JournalVisitor() {
+    })).isZero();
+  }
+
+  @Test
+  void other_files_are_rejected() throws IOException {
+    Path file = dir.resolve("UE_game.log");
+    Files.writeString(file, "[2025.11.05-10.00.00:000][100]GameLog: Display: [Game] BagMgr@:InitBagData\n");
+
+    assertThatThrownBy(() -> JournalReader.replay(file, new JournalVisitor() {
+    })).isInstanceOf(IOException.class);
+  }
+
+  @Test
+  void a_large_journal_is_summarized_offline() throws IOException {
+    Path file = dir.resolve("journal.bin");
+    int maps = 50_000;
+    int dropsPerMap = 40;
+    try (JournalWriter writer = JournalWriter.open(file, false)) {
+      long line = 0;
+      for (int map = 0; map < maps; map++) {
+        writer.mapEntered(map * 60_000L, ++line);
+        for (int drop = 0; drop < dropsPerMap; drop++) {
+          writer.bagModified(102, drop, 5028, map + 1, map * 60_000L + drop, ++line);
+        }
+        writer.mapExited(map * 60_000L + 50_000, ++line);
+      }
+    }
+
+    JournalReader.replay(file, new JournalSummary());
+    long started = System.nanoTime();
+    JournalSummary summary = JournalSummary.of(file);
+    double seconds = (System.nanoTime() - started) / 1e9;
+
+    log.info("Replayed {} journal records in {} ms ({} records/s)", summary.records(),
+        String.format("%.1f", seconds * 1000), String.format("%.0f", summary.records() / seconds));
+    assertThat(summary.records()).isEqualTo((long) maps * (dropsPerMap + 2));
+    assertThat(summary.maps()).isEqualTo(maps);
+    assertThat(summary.timeInMaps()).isEqualTo(maps * 50_000L);
+    // every slot ends up holding `maps` items
+    assertThat(summary.gained(5028)).isEqualTo((long) maps * dropsPerMap);
+  }
+
+  private static JournalVisitor recorder(List<String> read) {
+    return new JournalVisitor() {
+      @Override
+      public void mapEntered(long time, long lineNumber) {
+        read.add("enter @" + time + " #" + lineNumber);
+      }
+
+      @Override
+      public void mapExited(long time, long lineNumber) {
+        read.add("exit @" + time + " #" + lineNumber);
+      }
+
+      @Override
+      public void bagInitialized(int pageId, int slotId, int configBaseId, int num, long time, long lineNumber) {
+        read.add("init " + pageId + "/" + slotId + " " + configBaseId + " x" + num + " @" + time + " #" + lineNumber);
+      }
+
+      @Override
+      public void bagModified(int pageId, int slotId, int configBaseId, int num, long time, long lineNumber) {
+        read.add("modify " + pageId + "/" + slotId + " " + configBaseId + " x" + num + " @" + time + " #" + lineNumber);
+      }
+    };
+  }
+}
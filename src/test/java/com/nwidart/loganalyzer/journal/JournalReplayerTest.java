@@ -0,0 +1,119 @@
+package com.nwidart.loganalyzer.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.nwidart.loganalyzer.AbstractResourceTest;
+import com.nwidart.loganalyzer.LogService;
+import com.nwidart.loganalyzer.StatsService;
+import com.nwidart.loganalyzer.model.Item;
+import com.nwidart.loganalyzer.model.ItemRepository;
+import com.nwidart.loganalyzer.model.Map;
+import com.nwidart.loganalyzer.model.MapRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class JournalReplayerTest extends AbstractResourceTest {
+
+  private static final Path JOURNAL = tempJournal();
+
+  @DynamicPropertySource
+  static void journal(DynamicPropertyRegistry registry) {
+    registry.add("tlitracker.journal.enabled", () -> "true");
+    registry.add("tlitracker.journal.file", JOURNAL::toString);
+  }
+
+  @Autowired
+  private LogService logService;
+
+  @Autowired
+  private JournalReplayer journalReplayer;
+
+  @Autowired
+  private MapRepository mapRepository;
+
+  @Autowired
+  private ItemRepository itemRepository;
+
+  @Autowired
+  private StatsService statsService;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Autowired
+  private PlatformTransactionManager txManager;
+
+  @BeforeEach
+  @AfterEach
+  void cleanDb() {
+    if (logService.isRunning()) {
+      logService.stopTailing();
+    }
+    new TransactionTemplate(txManager).executeWithoutResult(status -> {
+      entityManager.createNativeQuery("delete from map_item").executeUpdate();
+      entityManager.createQuery("delete from ItemDrop").executeUpdate();
+      entityManager.createQuery("delete from Item").executeUpdate();
+      entityManager.createQuery("delete from Map").executeUpdate();
+    });
+  }
+
+  @Test
+  void replaying_the_journal_rebuilds_what_tailing_the_log_built() throws Exception {
+    Path logFile = resourcePath("logs/multi_map_scenario.log");
+    long expectedLines = countLines(logFile);
+    logService.startTailing(logFile);
+    awaitUntil(() -> logService.getCurrentLineNumber() >= expectedLines, Duration.ofSeconds(10));
+    logService.stopTailing();
+    State tailed = state();
+
+    cleanDb();
+    long records = journalReplayer.rebuild();
+
+    assertThat(records).isEqualTo(JournalSummary.of(JOURNAL).records()).isPositive();
+    assertThat(tailed.maps()).hasSize(2);
+    assertThat(state()).isEqualTo(tailed);
+  }
+
+  private State state() {
+    List<String> maps = mapRepository.findAll().stream()
+        .sorted(Comparator.comparing(Map::getStartedAt))
+        .map(map -> map.getStartedAt() + "-" + map.getEndedAt())
+        .toList();
+    List<String> items = itemRepository.findAll().stream()
+        .map(item -> item.getId().getPageId() + "/" + item.getId().getSlotId() + " " + item.getConfigBaseId()
+            + " x" + item.getTotal() + " (" + item.getNum() + ") @" + item.getUnitPrice())
+        .sorted()
+        .toList();
+    long drops = ((Number) entityManager.createQuery("select coalesce(sum(d.delta), 0) from ItemDrop d")
+        .getSingleResult()).longValue();
+    return new State(maps, items, drops, statsService.snapshot().sessionRevenue());
+  }
+
+  private static Path tempJournal() {
+    try {
+      return Files.createTempDirectory("journal").resolve("journal.bin");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private record State(List<String> maps, List<String> items, long drops, float sessionRevenue) {
+  }
+}
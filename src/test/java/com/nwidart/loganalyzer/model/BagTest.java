@@ -0,0 +1,40 @@
+package com.nwidart.loganalyzer.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class BagTest {
+
+  private final Bag bag = new Bag();
+
+  @Test
+  void slots_hold_one_item_each() {
+    assertThat(bag.count(102, 11, 5028)).isEqualTo(Bag.UNKNOWN);
+
+    bag.put(102, 11, 5028, 8);
+    assertThat(bag.count(102, 11, 5028)).isEqualTo(8);
+
+    bag.put(102, 11, 100001, 3);
+    assertThat(bag.count(102, 11, 5028)).isZero();
+    assertThat(bag.configBaseId(102, 11)).isEqualTo(100001);
+    assertThat(bag.size()).isEqualTo(1);
+  }
+
+  @Test
+  void grows_past_its_initial_capacity() {
+    for (int page = 0; page < 10; page++) {
+      for (int slot = 0; slot < 1000; slot++) {
+        bag.put(page, slot, 5000 + slot, page + slot);
+      }
+    }
+
+    assertThat(bag.size()).isEqualTo(10_000);
+    assertThat(bag.count(7, 123, 5123)).isEqualTo(130);
+    assertThat(bag.configBaseId(10, 0)).isEqualTo(Bag.UNKNOWN);
+
+    bag.clear();
+    assertThat(bag.size()).isZero();
+    assertThat(bag.count(7, 123, 5123)).isEqualTo(Bag.UNKNOWN);
+  }
+}
@@ -0,0 +1,155 @@
+package com.nwidart.loganalyzer.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.nwidart.loganalyzer.inventory.DropLedger;
+import com.nwidart.loganalyzer.inventory.SlotChange;
+import com.nwidart.loganalyzer.model.DropHistory.Filter;
+import com.nwidart.loganalyzer.model.DropHistory.Order;
+import com.nwidart.loganalyzer.model.DropHistory.Row;
+import com.nwidart.loganalyzer.model.DropHistory.Sort;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+class DropHistoryTest {
+
+  private static final Instant START = Instant.parse("2001-01-01T10:00:00Z");
+  private static final int DROPS = 5_000;
+  /** The drops of this test, other tests may have left some. */
+  private static final Filter INSERTED = new Filter(null, null, null, null, START, START.plusSeconds(DROPS));
+
+  @Autowired
+  private DropHistory dropHistory;
+
+  @Autowired
+  private DropLedger dropLedger;
+
+  @Autowired
+  private ItemDropRepository itemDropRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private int before;
+
+  @BeforeEach
+  void setUp() {
+    before = dropHistory.count(Filter.NONE);
+    List<DropLedger.Entry> entries = new ArrayList<>();
+    for (int i = 0; i < DROPS; i++) {
+      // several drops per second and per value, so the sort keys have ties
+      var change = new SlotChange(102, i % 40, 100 + i % 7, 1 + i % 5, 10, i % 3);
+      entries.add(new DropLedger.Entry(change, i % 10 == 0 ? null : (long) (i / 500), START.plusSeconds(i / 3)));
+    }
+    dropLedger.append(entries);
+  }
+
+  @Test
+  void keyset_pages_list_every_drop_once_in_order() {
+    for (Sort sort : Sort.values()) {
+      for (boolean descending : new boolean[]{false, true}) {
+        var order = new Order(sort, descending);
+        List<Row> paged = readAll(INSERTED, order, 97);
+
+        assertThat(paged).hasSize(DROPS);
+        assertThat(paged).isSortedAccordingTo(comparator(order));
+        assertThat(paged.stream().map(Row::id).distinct().count()).isEqualTo(DROPS);
+      }
+    }
+  }
+
+  @Test
+  void pages_can_start_after_a_row_and_skip_some() {
+    List<Row> all = dropHistory.page(INSERTED, Order.LATEST, null, 0, 300);
+
+    assertThat(dropHistory.page(INSERTED, Order.LATEST, all.get(99), 50, 100)).isEqualTo(all.subList(150, 250));
+  }
+
+  @Test
+  void filters_are_combined() {
+    var filter = new Filter(3L, 102, 2f, 6f, START.plusSeconds(600), START.plusSeconds(700));
+
+    List<Row> rows = readAll(filter, new Order(Sort.VALUE, true), 10);
+
+    assertThat(rows).isNotEmpty().hasSize(dropHistory.count(filter));
+    assertThat(readAll(INSERTED, Order.LATEST, 1000)).filteredOn(row -> row.mapId() == null).hasSize(DROPS / 10);
+    assertThat(rows).allSatisfy(row -> {
+      assertThat(row.mapId()).isEqualTo(3L);
+      assertThat(row.configBaseId()).isEqualTo(102);
+      assertThat(row.value()).isBetween(2f, 6f);
+      assertThat(row.occurredAt()).isBetween(START.plusSeconds(600), START.plusSeconds(699));
+    });
+    assertThat(dropHistory.count(Filter.NONE)).isEqualTo(before + DROPS);
+    assertThat(dropHistory.count(INSERTED)).isEqualTo(DROPS);
+  }
+
+  @Test
+  void items_sort_by_their_numeric_id_with_an_index() {
+    Instant at = START.minusSeconds(60);
+    dropLedger.append(List.of(
+        new DropLedger.Entry(new SlotChange(102, 1, 100, 1, 1, 1), 1L, at),
+        new DropLedger.Entry(new SlotChange(102, 2, 9, 1, 1, 1), 1L, at),
+        new DropLedger.Entry(new SlotChange(102, 3, 10, 1, 1, 1), 1L, at)));
+    var filter = new Filter(null, null, null, null, at, START);
+
+    assertThat(readAll(filter, new Order(Sort.ITEM, false), 2)).extracting(Row::configBaseId)
+        .containsExactly(9, 10, 100);
+    assertThat(jdbcTemplate.queryForObject("explain select drop_id from item_drop "
+        + "order by config_base_id, drop_id limit 10", String.class))
+        .contains("ITEM_DROP_ITEM */").contains("index sorted");
+  }
+
+  @Test
+  void revenue_per_second_matches_the_ledger() {
+    java.util.Map<Long, Double> expected = new java.util.TreeMap<>();
+    for (Row row : readAll(INSERTED, new Order(Sort.TIME, false), 1000)) {
+      if (row.mapId() != null) {
+        expected.merge(row.occurredAt().getEpochSecond(), (double) row.value(), Double::sum);
+      }
+    }
+
+    List<SecondRevenue> perSecond = itemDropRepository.revenuePerSecond().stream()
+        .filter(second -> second.epochSecond() >= START.getEpochSecond()
+            && second.epochSecond() < START.plusSeconds(DROPS).getEpochSecond())
+        .toList();
+
+    assertThat(perSecond).extracting(SecondRevenue::epochSecond).containsExactlyElementsOf(expected.keySet());
+    assertThat(perSecond).allSatisfy(second ->
+        assertThat(second.revenue()).isCloseTo(expected.get(second.epochSecond()), within(0.01)));
+  }
+
+  private List<Row> readAll(Filter filter, Order order, int pageSize) {
+    List<Row> rows = new ArrayList<>();
+    @Nullable Row last = null;
+    while (true) {
+      List<Row> page = dropHistory.page(filter, order, last, 0, pageSize);
+      if (page.isEmpty()) {
+        return rows;
+      }
+      rows.addAll(page);
+      last = page.getLast();
+    }
+  }
+
+  private static Comparator<Row> comparator(Order order) {
+    Comparator<Row> byKey = switch (order.sort()) {
+      case TIME -> Comparator.comparing(Row::occurredAt);
+      case VALUE -> Comparator.comparing(Row::value);
+      case ITEM -> Comparator.comparingInt(Row::configBaseId);
+    };
+    Comparator<Row> comparator = byKey.thenComparingLong(Row::id);
+    return order.descending() ? comparator.reversed() : comparator;
+  }
+}
@@ -0,0 +1,27 @@
+package com.nwidart.loganalyzer.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class ItemKeyTest {
+
+  @Test
+  void ids_round_trip_through_the_key() {
+    long key = ItemKey.of(ItemKey.MAX_PAGE_ID, ItemKey.MAX_SLOT_ID, Integer.MAX_VALUE);
+
+    assertThat(key).isPositive();
+    assertThat(ItemKey.pageId(key)).isEqualTo(ItemKey.MAX_PAGE_ID);
+    assertThat(ItemKey.slotId(key)).isEqualTo(ItemKey.MAX_SLOT_ID);
+    assertThat(ItemKey.configBaseId(key)).isEqualTo(Integer.MAX_VALUE);
+    assertThat(ItemKey.toItemId(ItemKey.of(102, 11, 5028))).isEqualTo(ItemId.of("5028", "102", "11"));
+  }
+
+  @Test
+  void ids_that_do_not_fit_are_rejected() {
+    assertThatThrownBy(() -> ItemKey.of(ItemKey.MAX_PAGE_ID + 1, 0, 1)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> ItemKey.of(0, -1, 1)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> ItemKey.of(0, 0, -1)).isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,31 @@
+package com.nwidart.loganalyzer.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ItemTest {
+
+  @Test
+  void items_with_the_same_id_are_equal_and_hash_alike() {
+    Item a = Item.of("102", "11", "5028", 1, 1);
+    Item b = Item.of("102", "11", "5028", 7, 9);
+
+    assertThat(a).isEqualTo(b);
+    assertThat(a.hashCode()).isEqualTo(b.hashCode());
+    assertThat(a.hashCode()).isNotEqualTo(Item.of("102", "12", "5028", 1, 1).hashCode());
+  }
+
+  @Test
+  void a_map_holds_each_slot_once() {
+    Map map = Map.newMap();
+    for (int i = 0; i < 20_000; i++) {
+      map.addItem(Item.of(Integer.toString(i / 1000), Integer.toString(i % 1000), "5028", 1, 1));
+    }
+
+    map.addItem(Item.of("3", "42", "5028", 5, 5));
+
+    assertThat(map.getItems()).hasSize(20_000);
+    assertThat(map.getItems()).contains(Item.of("3", "42", "5028", 0, 0));
+  }
+}
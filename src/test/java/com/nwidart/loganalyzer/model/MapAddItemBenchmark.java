@@ -0,0 +1,67 @@
+package com.nwidart.loganalyzer.model;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cost of {@link Map#addItem(Item)} (and {@link Map#removeItem(Item)}, to keep the size constant) for a map already
+ * holding {@code size} distinct slots. Should not grow with {@code size}.
+ * <p>
+ * Run with {@code main} from the IDE, or {@code java -cp <test classpath> ...MapAddItemBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapAddItemBenchmark {
+
+  @Param({"100", "1000", "10000", "50000"})
+  public int size;
+
+  private Map map;
+  private Item[] extra;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    map = Map.newMap();
+    for (int i = 0; i < size; i++) {
+      map.addItem(item(i));
+    }
+    extra = new Item[1024];
+    for (int i = 0; i < extra.length; i++) {
+      extra[i] = item(size + i);
+    }
+  }
+
+  private static Item item(int i) {
+    return Item.of(Integer.toString(100 + i / 1000), Integer.toString(i % 1000), Integer.toString(5000 + i % 97), 1, 1);
+  }
+
+  @Benchmark
+  public int addItem() {
+    Item item = extra[next++ & (extra.length - 1)];
+    map.addItem(item);
+    map.removeItem(item);
+    return map.getItems().size();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(MapAddItemBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,345 @@
+package com.nwidart.loganalyzer.pipeline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.nwidart.loganalyzer.model.LogEntry;
+import com.nwidart.loganalyzer.pipeline.StageBatch.Outcome;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class LinePipelineTest {
+
+  private final List<String> applied = new CopyOnWriteArrayList<>();
+  private final List<Object> published = new CopyOnWriteArrayList<>();
+  private final PipelineEventPublisher events = new PipelineEventPublisher(published::add);
+
+  private void classify(LineEvent event) {
+    if (!event.isRotated()) {
+      event.classified(new LogEntry(event.line(), event.lineNumber(), Instant.EPOCH));
+    }
+  }
+
+  @Test
+  void lines_go_through_every_stage_in_order_with_their_events() throws Exception {
+    var pipeline = new LinePipeline("test", new PipelineSettings(4, WaitStrategy.YIELD, Backpressure.BLOCK),
+        this::classify,
+        event -> {
+          if (event.isRotated()) {
+            applied.add("<rotated>");
+          } else {
+            applied.add(event.line());
+            events.publishEvent("dropped " + event.lineNumber());
+          }
+        },
+        event -> published.addAll(event.events())).start();
+
+    for (int i = 1; i <= 100; i++) {
+      pipeline.offer("line " + i, i * 10L, i);
+      if (i == 50) {
+        pipeline.offerRotation();
+      }
+    }
+    pipeline.finishInput();
+
+    assertThat(pipeline.awaitTermination(Duration.ofSeconds(5))).isTrue();
+    assertThat(applied).hasSize(101);
+    assertThat(applied.get(0)).isEqualTo("line 1");
+    assertThat(applied.get(50)).isEqualTo("<rotated>");
+    assertThat(applied.get(100)).isEqualTo("line 100");
+    assertThat(published).hasSize(100).startsWith("dropped 1", "dropped 2").endsWith("dropped 100");
+    assertThat(pipeline.metrics()).extracting(StageMetrics::processed).containsExactly(101L, 101L, 101L);
+  }
+
+  @Test
+  void a_slow_publisher_does_not_block_applying_when_dropping() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    var pipeline = new LinePipeline("test", new PipelineSettings(2, WaitStrategy.YIELD, Backpressure.DROP),
+        this::classify,
+        event -> applied.add(event.line()),
+        event -> {
+          try {
+            release.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }).start();
+
+    for (int i = 1; i <= 20; i++) {
+      pipeline.offer("line " + i, i, i);
+    }
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (applied.size() < 20 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    release.countDown();
+    pipeline.finishInput();
+
+    assertThat(pipeline.awaitTermination(Duration.ofSeconds(5))).isTrue();
+    assertThat(applied).hasSize(20);
+    StageMetrics publish = pipeline.metrics().get(2);
+    assertThat(publish.dropped()).isPositive();
+    assertThat(publish.processed() + publish.dropped()).isEqualTo(20);
+  }
+
+  @Test
+  void apply_batches_are_closed_when_no_line_is_waiting() throws Exception {
+    List<String> calls = new CopyOnWriteArrayList<>();
+    StageBatch batch = new StageBatch() {
+      private boolean open;
+
+      @Override
+      public void beforeLine() {
+        if (!open) {
+          open = true;
+          calls.add("open");
+        }
+      }
+
+      @Override
+      public Outcome afterLine() {
+        return Outcome.OPEN;
+      }
+
+      @Override
+      public Outcome lineFailed() {
+        calls.add("failed");
+        return Outcome.OPEN;
+      }
+
+      @Override
+      public Outcome close() {
+        if (open) {
+          open = false;
+          calls.add("close");
+        }
+        return Outcome.COMMITTED;
+      }
+    };
+    var pipeline = new LinePipeline("test", new PipelineSettings(16, WaitStrategy.BACKOFF, Backpressure.BLOCK),
+        this::classify,
+        event -> calls.add(event.line()),
+        batch,
+        event -> {
+        }).start();
+
+    pipeline.offer("line 1", 1, 1);
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!calls.contains("close") && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    pipeline.offer("line 2", 2, 2);
+    pipeline.finishInput();
+
+    assertThat(pipeline.awaitTermination(Duration.ofSeconds(5))).isTrue();
+    assertThat(calls).containsExactly("open", "line 1", "close", "open", "line 2", "close");
+  }
+
+  @Test
+  void a_line_that_throws_is_reported_to_the_batch() throws Exception {
+    List<String> calls = new CopyOnWriteArrayList<>();
+    StageBatch batch = new StageBatch() {
+      @Override
+      public void beforeLine() {
+      }
+
+      @Override
+      public Outcome afterLine() {
+        calls.add("after");
+        return Outcome.COMMITTED;
+      }
+
+      @Override
+      public Outcome lineFailed() {
+        calls.add("failed");
+        return Outcome.COMMITTED;
+      }
+
+      @Override
+      public Outcome close() {
+        return Outcome.COMMITTED;
+      }
+    };
+    var pipeline = new LinePipeline("test", new PipelineSettings(16, WaitStrategy.BACKOFF, Backpressure.BLOCK),
+        this::classify,
+        event -> {
+          if (event.line().equals("bad")) {
+            throw new IllegalStateException("bad line");
+          }
+        },
+        batch,
+        event -> {
+        }).start();
+
+    pipeline.offer("good", 1, 1);
+    pipeline.offer("bad", 2, 2);
+    pipeline.offer("good", 3, 3);
+    pipeline.finishInput();
+
+    assertThat(pipeline.awaitTermination(Duration.ofSeconds(5))).isTrue();
+    assertThat(calls).containsExactly("after", "failed", "after");
+  }
+
+  @Test
+  void events_are_published_once_their_batch_is_committed() throws Exception {
+    CountDownLatch go = new CountDownLatch(1);
+    AtomicReference<String> current = new AtomicReference<>("");
+    StageBatch batch = new StageBatch() {
+      @Override
+      public void beforeLine() {
+      }
+
+      @Override
+      public Outcome afterLine() {
+        return switch (current.get()) {
+          case "commit" -> Outcome.COMMITTED;
+          case "rollback" -> Outcome.ROLLED_BACK;
+          default -> Outcome.OPEN;
+        };
+      }
+
+      @Override
+      public Outcome lineFailed() {
+        return Outcome.OPEN;
+      }
+
+      @Override
+      public Outcome close() {
+        return Outcome.COMMITTED;
+      }
+    };
+    var pipeline = new LinePipeline("test", new PipelineSettings(16, WaitStrategy.YIELD, Backpressure.BLOCK),
+        this::classify,
+        event -> {
+          if (event.lineNumber() == 1) {
+            await(go);
+          }
+          current.set(event.line());
+          events.publishEvent("event " + event.line());
+        },
+        batch,
+        event -> {
+          if (event.hasLine()) {
+            published.add(event.line());
+          }
+          published.addAll(event.events());
+        }).start();
+
+    List<String> lines = List.of("a", "b", "rollback", "c", "commit", "d");
+    for (int i = 0; i < lines.size(); i++) {
+      pipeline.offer(lines.get(i), i + 1, i + 1);
+    }
+    // every line is waiting for the apply stage, so no batch is closed for lack of lines until the last one
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (pipeline.metrics().get(1).depth() < lines.size() - 1 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    go.countDown();
+    pipeline.finishInput();
+
+    assertThat(pipeline.awaitTermination(Duration.ofSeconds(5))).isTrue();
+    assertThat(published).containsExactly("a", "b", "rollback", BatchRolledBack.INSTANCE, "c", "commit", "event c",
+        "event commit", "d", "event d");
+  }
+
+  @Test
+  void no_line_is_applied_before_a_rollback_is_published() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    StageBatch batch = new StageBatch() {
+      @Override
+      public void beforeLine() {
+      }
+
+      @Override
+      public Outcome afterLine() {
+        return Outcome.OPEN;
+      }
+
+      @Override
+      public Outcome lineFailed() {
+        return Outcome.ROLLED_BACK;
+      }
+
+      @Override
+      public Outcome close() {
+        return Outcome.COMMITTED;
+      }
+    };
+    var pipeline = new LinePipeline("test", new PipelineSettings(16, WaitStrategy.YIELD, Backpressure.DROP),
+        this::classify,
+        event -> {
+          applied.add(event.line());
+          if (event.line().equals("fail")) {
+            throw new IllegalStateException("boom");
+          }
+        },
+        batch,
+        event -> {
+          if (event.events().contains(BatchRolledBack.INSTANCE)) {
+            await(release);
+            published.add("rebuilt after " + applied);
+          }
+        }).start();
+
+    pipeline.offer("fail", 1, 1);
+    pipeline.offer("next", 2, 2);
+    Thread.sleep(100);
+    assertThat(applied).containsExactly("fail");
+    release.countDown();
+    pipeline.finishInput();
+
+    assertThat(pipeline.awaitTermination(Duration.ofSeconds(5))).isTrue();
+    assertThat(published).containsExactly("rebuilt after [fail]");
+    assertThat(applied).containsExactly("fail", "next");
+  }
+
+  @Test
+  void a_publisher_dropping_lines_still_gets_every_event() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    var pipeline = new LinePipeline("test", new PipelineSettings(2, WaitStrategy.YIELD, Backpressure.DROP),
+        this::classify,
+        event -> {
+          applied.add(event.line());
+          events.publishEvent("event " + event.lineNumber());
+        },
+        event -> {
+          await(release);
+          published.addAll(event.events());
+        }).start();
+
+    for (int i = 1; i <= 20; i++) {
+      pipeline.offer("line " + i, i, i);
+    }
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (applied.size() < 20 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    release.countDown();
+    pipeline.finishInput();
+
+    assertThat(pipeline.awaitTermination(Duration.ofSeconds(5))).isTrue();
+    assertThat(pipeline.metrics().get(2).dropped()).isPositive();
+    assertThat(published).containsExactlyElementsOf(IntStream.rangeClosed(1, 20).mapToObj(i -> "event " + i).toList());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Test
+  void events_are_published_immediately_outside_the_apply_stage() {
+    events.publishEvent("direct");
+
+    assertThat(published).containsExactly("direct");
+  }
+}
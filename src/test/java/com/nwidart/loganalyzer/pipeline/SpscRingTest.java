@@ -0,0 +1,68 @@
+package com.nwidart.loganalyzer.pipeline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class SpscRingTest {
+
+  @Test
+  void it_reuses_preallocated_slots_and_reports_full_and_empty() {
+    SpscRing<AtomicLong> ring = new SpscRing<>("test", 2, AtomicLong::new);
+
+    AtomicLong first = ring.tryClaim();
+    first.set(1);
+    ring.publish();
+    ring.tryClaim().set(2);
+    ring.publish();
+
+    assertThat(ring.tryClaim()).isNull();
+    assertThat(ring.metrics().depth()).isEqualTo(2);
+    assertThat(ring.metrics().maxDepth()).isEqualTo(2);
+
+    assertThat(ring.poll().get()).isEqualTo(1);
+    ring.release();
+    assertThat(ring.tryClaim()).isSameAs(first);
+    assertThat(ring.poll().get()).isEqualTo(2);
+    ring.release();
+    assertThat(ring.poll()).isNull();
+    assertThat(ring.metrics().processed()).isEqualTo(2);
+  }
+
+  @Test
+  void it_hands_over_every_item_in_order_between_two_threads() throws Exception {
+    SpscRing<long[]> ring = new SpscRing<>("test", 8, () -> new long[1]);
+    long count = 200_000;
+
+    Thread producer = Thread.ofPlatform().start(() -> {
+      for (long i = 1; i <= count; i++) {
+        ring.claim(WaitStrategy.YIELD)[0] = i;
+        ring.publish();
+      }
+      ring.finish();
+    });
+
+    long expected = 1;
+    int attempt = 0;
+    while (!ring.isDrained()) {
+      long[] slot = ring.poll();
+      if (slot == null) {
+        attempt = WaitStrategy.YIELD.idle(attempt);
+        continue;
+      }
+      assertThat(slot[0]).isEqualTo(expected++);
+      ring.release();
+    }
+    producer.join();
+
+    assertThat(expected - 1).isEqualTo(count);
+    assertThat(ring.metrics().maxDepth()).isLessThanOrEqualTo(8);
+  }
+
+  @Test
+  void capacity_must_be_a_power_of_two() {
+    assertThatThrownBy(() -> new SpscRing<>("test", 3, Object::new)).isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,96 @@
+package com.nwidart.loganalyzer.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Regex + {@code Integer.valueOf} versus {@link BagLineParser} on an inventory-heavy log (a third of the lines are
+ * {@code BagMgr@:Modfy BagItem} lines, the rest is typical game log noise).
+ * <p>
+ * Run with {@code main} from the IDE, or {@code java -cp <test classpath> ...BagLineParserBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BagLineParserBenchmark {
+
+  private static final String[] NOISE = {
+      "[2025.11.04-19.23.40:547][  5]LogStreaming: Display: Flushing package /Game/Art/Maps/01SD/XZ_YuJinZhiXiBiNanSuo200",
+      "[2025.11.04-19.23.40:548][  5]GameLog: Display: [Game] SkillMgr@:CastSkill SkillId = 2201 TargetId = 17",
+      "[2025.11.04-19.23.40:549][  6]LogNet: Verbose: NetConnection bytes sent = 512, packets = 4",
+      "[2025.11.04-19.23.40:550][  6]GameLog: Display: [Game] BagMgr@:RefreshBag PageId = 102",
+  };
+
+  private final Pattern pattern = Pattern.compile(
+      "\\[.*?\\]GameLog: Display: \\[Game\\]\\s*BagMgr@:Modfy BagItem PageId = (?<pageId>\\d+) SlotId = (?<slotId>\\d+) ConfigBaseId = (?<configBaseId>\\d+) Num = (?<num>\\d+)",
+      Pattern.DOTALL);
+  private final BagSlotRecord slot = new BagSlotRecord();
+  private String[] lines;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    List<String> generated = new ArrayList<>();
+    for (int i = 0; i < 3_000; i++) {
+      if (i % 3 == 0) {
+        generated.add(String.format(
+            "[2025.11.04-19.23.%02d:%03d][%3d]GameLog: Display: [Game] BagMgr@:Modfy BagItem PageId = %d SlotId = %d ConfigBaseId = %d Num = %d",
+            i % 60, i % 1000, i % 100, 100 + random.nextInt(4), random.nextInt(64), 5000 + random.nextInt(400000),
+            1 + random.nextInt(999)));
+      } else {
+        generated.add(NOISE[random.nextInt(NOISE.length)]);
+      }
+    }
+    lines = generated.toArray(String[]::new);
+  }
+
+  @Benchmark
+  public void regex(Blackhole blackhole) {
+    for (String line : lines) {
+      Matcher matcher = pattern.matcher(line);
+      if (matcher.find()) {
+        blackhole.consume(Integer.valueOf(matcher.group("pageId")));
+        blackhole.consume(Integer.valueOf(matcher.group("slotId")));
+        blackhole.consume(Integer.valueOf(matcher.group("configBaseId")));
+        blackhole.consume(Integer.valueOf(matcher.group("num")));
+      }
+    }
+  }
+
+  @Benchmark
+  public void parser(Blackhole blackhole) {
+    for (String line : lines) {
+      if (BagLineParser.MODIFY.parse(line, slot)) {
+        blackhole.consume(slot.pageId());
+        blackhole.consume(slot.slotId());
+        blackhole.consume(slot.configBaseId());
+        blackhole.consume(slot.num());
+      }
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(BagLineParserBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,67 @@
+package com.nwidart.loganalyzer.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class BagLineParserTest {
+
+  private static final Pattern MODIFY = Pattern.compile(
+      "\\[.*?\\]GameLog: Display: \\[Game\\]\\s*BagMgr@:Modfy BagItem PageId = (?<pageId>\\d+) SlotId = (?<slotId>\\d+) ConfigBaseId = (?<configBaseId>\\d+) Num = (?<num>\\d+)",
+      Pattern.DOTALL);
+  private static final Pattern INIT = Pattern.compile(
+      "\\[.*?\\]GameLog: Display: \\[Game\\]\\s*BagMgr@:InitBagData\\s+PageId = (?<pageId>\\d+)\\s+SlotId = (?<slotId>\\d+)\\s+ConfigBaseId = (?<configBaseId>\\d+)\\s+Num = (?<num>\\d+)",
+      Pattern.DOTALL);
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "[2025.11.04-19.23.40:547][  5]GameLog: Display: [Game] BagMgr@:Modfy BagItem PageId = 103 SlotId = 60 ConfigBaseId = 10042 Num = 34",
+      "[2025.11.04-19.23.40:548][  5]GameLog: Display: [Game] BagMgr@:Modfy BagItem PageId = 102 SlotId = 11 ConfigBaseId = 5028 Num = 617",
+      "[x]GameLog: Display: [Game]BagMgr@:Modfy BagItem PageId = 1 SlotId = 2 ConfigBaseId = 3 Num = 4 trailing",
+      "[x]GameLog: Display: [Game] BagMgr@:Modfy BagItem PageId = 1 SlotId = 2 BagMgr@:Modfy BagItem PageId = 5 SlotId = 6 ConfigBaseId = 7 Num = 8",
+      "[x]GameLog: Display: [Game] BagMgr@:Modfy BagItem PageId = 1  SlotId = 2 ConfigBaseId = 3 Num = 4",
+      "[x]GameLog: Display: [Game] BagMgr@:Modfy BagItem PageId = 1 SlotId = 2 ConfigBaseId = 3 Num = ",
+      "GameLog: Display: [Game] BagMgr@:Modfy BagItem PageId = 1 SlotId = 2 ConfigBaseId = 3 Num = 4",
+      "[x]GameLog: Display: [Game] x BagMgr@:Modfy BagItem PageId = 1 SlotId = 2 ConfigBaseId = 3 Num = 4",
+      "[x]GameLog: Display: [Game] BagMgr@:Modfy BagItem PageId = -1 SlotId = 2 ConfigBaseId = 3 Num = 4",
+      "[2025.11.04-19.23.40:547][  5]GameLog: Display: [Game] BagMgr@:RefreshBag PageId = 102",
+  })
+  void modify_parser_agrees_with_the_regex(String line) {
+    assertAgrees(BagLineParser.MODIFY, MODIFY, line);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "[2025.11.04-19.23.40:547][  5]GameLog: Display: [Game] BagMgr@:InitBagData PageId = 102 SlotId = 0 ConfigBaseId = 100300 Num = 671",
+      "[x]GameLog: Display: [Game]   BagMgr@:InitBagData\tPageId = 102  SlotId = 0 \t ConfigBaseId = 100300 Num = 671",
+      "[x]GameLog: Display: [Game] BagMgr@:InitBagDataPageId = 102 SlotId = 0 ConfigBaseId = 100300 Num = 671",
+  })
+  void init_parser_agrees_with_the_regex(String line) {
+    assertAgrees(BagLineParser.INIT, INIT, line);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "[x]GameLog: Display: [Game] BagMgr@:Modfy BagItem PageId = 1 SlotId = 2 ConfigBaseId = 3 Num = 99999999999",
+  })
+  void parser_rejects_values_that_overflow_an_int(String line) {
+    assertThat(BagLineParser.MODIFY.parse(line, new BagSlotRecord())).isFalse();
+  }
+
+  private static void assertAgrees(BagLineParser parser, Pattern pattern, String line) {
+    Matcher matcher = pattern.matcher(line);
+    boolean expected = matcher.find();
+    BagSlotRecord slot = new BagSlotRecord();
+
+    assertThat(parser.parse(line, slot)).as("parse: %s", line).isEqualTo(expected);
+    if (expected) {
+      assertThat(slot.pageId()).isEqualTo(Integer.parseInt(matcher.group("pageId")));
+      assertThat(slot.slotId()).isEqualTo(Integer.parseInt(matcher.group("slotId")));
+      assertThat(slot.configBaseId()).isEqualTo(Integer.parseInt(matcher.group("configBaseId")));
+      assertThat(slot.num()).isEqualTo(Integer.parseInt(matcher.group("num")));
+    }
+  }
+}
@@ -115,8 +115,8 @@ class BagModifyLogProcessorTest {
     List<ItemWasDroppedEvent> events = applicationEvents.stream(ItemWasDroppedEvent.class).toList();
     assertThat(events).hasSize(1);
     ItemWasDroppedEvent event = events.getFirst();
-    assertThat(event.getItem().getConfigBaseId()).isEqualTo("5028");
-    assertThat(event.getItem().getNum()).isEqualTo(17); // 617 - 600
+    assertThat(event.getConfigBaseId()).isEqualTo(5028);
+    assertThat(event.getDelta()).isEqualTo(17); // 617 - 600
   }
 
   @Test
@@ -139,7 +139,7 @@ class BagModifyLogProcessorTest {
     List<ItemWasDroppedEvent> events = applicationEvents.stream(ItemWasDroppedEvent.class).toList();
     assertThat(events).hasSize(1);
     ItemWasDroppedEvent event = events.getFirst();
-    assertThat(event.getItem().getConfigBaseId()).isEqualTo("5028");
-    assertThat(event.getItem().getNum()).isEqualTo(617); // new item, so full count is considered
+    assertThat(event.getConfigBaseId()).isEqualTo(5028);
+    assertThat(event.getDelta()).isEqualTo(617); // new item, so full count is considered
   }
 }
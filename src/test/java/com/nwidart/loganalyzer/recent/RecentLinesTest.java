@@ -0,0 +1,87 @@
+package com.nwidart.loganalyzer.recent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class RecentLinesTest {
+
+  @Test
+  void the_oldest_lines_are_evicted_once_the_line_ring_is_full() {
+    var lines = new RecentLines(4);
+    for (int i = 1; i <= 6; i++) {
+      lines.append(100 + i, "line " + i, 0);
+    }
+
+    assertThat(lines.first()).isEqualTo(3);
+    assertThat(lines.last()).isEqualTo(6);
+    assertThat(lines.read(2)).isNull();
+    assertThat(lines.read(3)).isEqualTo(new RecentLine(3, 103, 0, "line 3"));
+    assertThat(lines.read(7)).isNull();
+  }
+
+  @Test
+  void the_oldest_lines_are_evicted_once_the_byte_ring_is_full() {
+    var lines = new RecentLines(1024, 1024);
+    String text = "é".repeat(100); // 200 bytes
+    for (int i = 1; i <= 12; i++) {
+      lines.append(i, text + i, 0);
+    }
+
+    // 1024 bytes hold 5 lines of 201 or 202 bytes
+    assertThat(lines.first()).isEqualTo(8);
+    // lines wrapping around the end of the ring read back whole
+    for (long sequence = lines.first(); sequence <= lines.last(); sequence++) {
+      assertThat(lines.read(sequence).text()).isEqualTo(text + sequence);
+    }
+  }
+
+  @Test
+  void long_lines_are_cut() {
+    var lines = new RecentLines(4, 1024);
+    lines.append(1, "x".repeat(1000), 0);
+
+    assertThat(lines.read(1).text()).hasSize(lines.maxLineBytes());
+  }
+
+  @Test
+  void scan_filters_on_processors_and_text() {
+    var lines = new RecentLines(16);
+    lines.append(1, "[Game] BagMgr@:Modfy BagItem", 0b01);
+    lines.append(2, "LogTemp: nothing", 0);
+    lines.append(3, "_UpdateGameEnd: LastSceneName", 0b10);
+    lines.append(4, "bagmgr@:init", 0b01);
+
+    assertThat(scan(lines, 0, LineFilter.ALL)).containsExactly(1L, 2L, 3L, 4L);
+    assertThat(scan(lines, 0, LineFilter.of(0b01, ""))).containsExactly(1L, 4L);
+    assertThat(scan(lines, 0, LineFilter.of(0, "BAGMGR"))).containsExactly(1L, 4L);
+    assertThat(scan(lines, 0, LineFilter.of(0b11, "game"))).containsExactly(1L, 3L);
+    assertThat(scan(lines, 2, LineFilter.of(0, "  e  "))).containsExactly(3L);
+  }
+
+  @Test
+  void clear_forgets_the_lines_but_keeps_counting() {
+    var lines = new RecentLines(16);
+    AtomicInteger changes = new AtomicInteger();
+    var registration = lines.onChange(changes::incrementAndGet);
+    lines.append(1, "a", 0);
+    lines.append(2, "b", 0);
+
+    lines.clear();
+    registration.remove();
+    lines.append(3, "c", 0);
+
+    assertThat(changes.get()).isEqualTo(3);
+    assertThat(lines.first()).isEqualTo(3);
+    assertThat(scan(lines, 0, LineFilter.ALL)).containsExactly(3L);
+  }
+
+  private static List<Long> scan(RecentLines lines, long after, LineFilter filter) {
+    List<Long> sequences = new ArrayList<>();
+    lines.scan(after, filter, sequences::add);
+    return sequences;
+  }
+}
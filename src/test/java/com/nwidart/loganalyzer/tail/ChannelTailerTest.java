@@ -0,0 +1,122 @@
+package com.nwidart.loganalyzer.tail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.nwidart.loganalyzer.AbstractResourceTest;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ChannelTailerTest extends AbstractResourceTest {
+
+  @TempDir
+  Path dir;
+
+  private final List<String> lines = new CopyOnWriteArrayList<>();
+  private final List<Long> offsets = new CopyOnWriteArrayList<>();
+  private final AtomicInteger rotations = new AtomicInteger();
+  private LogTailer tailer;
+
+  private final TailListener listener = new TailListener() {
+    @Override
+    public void handle(String line, long endOffset) {
+      lines.add(line);
+      offsets.add(endOffset);
+    }
+
+    @Override
+    public void fileRotated() {
+      rotations.incrementAndGet();
+    }
+  };
+
+  @AfterEach
+  void stop() {
+    if (tailer != null) {
+      tailer.close();
+    }
+  }
+
+  @Test
+  void reads_existing_and_appended_lines_across_buffer_boundaries() throws Exception {
+    Path file = dir.resolve("UE_game.log");
+    Files.writeString(file, "first\r\nsecond line that is longer than the buffer\n");
+
+    start(new ChannelTailer(file, 0, listener, 16));
+    awaitUntil(() -> lines.size() == 2, Duration.ofSeconds(5));
+
+    append(file, "par");
+    sleep(50);
+    assertThat(lines).hasSize(2);
+    append(file, "tial\n");
+    awaitUntil(() -> lines.size() == 3, Duration.ofSeconds(5));
+
+    assertThat(lines).containsExactly("first", "second line that is longer than the buffer", "partial");
+    assertThat(offsets).containsExactly(7L, 50L, 58L);
+    assertThat(offsets.getLast()).isEqualTo(Files.size(file));
+  }
+
+  @Test
+  void from_end_skips_existing_content() throws Exception {
+    Path file = dir.resolve("UE_game.log");
+    Files.writeString(file, "old 1\nold 2\n");
+
+    start(new ChannelTailer(file, LogTailer.END_OF_FILE, listener));
+    sleep(100);
+    append(file, "new\n");
+    awaitUntil(() -> lines.size() == 1, Duration.ofSeconds(5));
+
+    assertThat(lines).containsExactly("new");
+  }
+
+  @Test
+  void truncated_file_is_read_again_from_the_start() throws Exception {
+    Path file = dir.resolve("UE_game.log");
+    Files.writeString(file, "session 1 line 1\nsession 1 line 2\n");
+
+    start(new ChannelTailer(file, 0, listener));
+    awaitUntil(() -> lines.size() == 2, Duration.ofSeconds(5));
+
+    Files.writeString(file, "s2\n");
+    awaitUntil(() -> lines.size() == 3, Duration.ofSeconds(5));
+
+    assertThat(rotations.get()).isEqualTo(1);
+    assertThat(lines.getLast()).isEqualTo("s2");
+    assertThat(offsets.getLast()).isEqualTo(3L);
+  }
+
+  @Test
+  void channel_engine_emits_the_same_lines_as_the_legacy_engine() throws Exception {
+    Path file = resourcePath("logs/multi_map_scenario.log");
+    long expected = countLines(file);
+
+    List<String> legacy = new CopyOnWriteArrayList<>();
+    try (LogTailer legacyTailer = TailEngine.COMMONS_IO.create(file, 0, (line, endOffset) -> legacy.add(line))) {
+      Thread.ofPlatform().daemon().start(legacyTailer);
+      awaitUntil(() -> legacy.size() == expected, Duration.ofSeconds(5));
+    }
+
+    start(TailEngine.CHANNEL.create(file, 0, listener));
+    awaitUntil(() -> lines.size() == expected, Duration.ofSeconds(5));
+
+    assertThat(lines).containsExactlyElementsOf(legacy);
+  }
+
+  private void start(LogTailer logTailer) {
+    this.tailer = logTailer;
+    Thread.ofPlatform().daemon().name("tailer-test").start(logTailer);
+  }
+
+  private void append(Path file, String content) throws IOException {
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+  }
+}
@@ -0,0 +1,61 @@
+package com.nwidart.loganalyzer.ui;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.nwidart.loganalyzer.model.DropHistory;
+import com.nwidart.loganalyzer.model.DropHistory.Filter;
+import com.nwidart.loganalyzer.model.DropHistory.Order;
+import com.nwidart.loganalyzer.model.DropHistory.Row;
+import com.nwidart.loganalyzer.model.DropHistory.Sort;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class DropHistoryPagerTest {
+
+  private final DropHistory history = mock(DropHistory.class);
+  private final DropHistoryPager pager = new DropHistoryPager(history);
+
+  @Test
+  void the_next_page_starts_after_the_last_row_read() {
+    List<Row> first = rows(0, 50);
+    when(history.page(any(), any(), isNull(), eq(0), anyInt())).thenReturn(first);
+    when(history.page(any(), any(), eq(first.getLast()), anyInt(), anyInt())).thenReturn(rows(50, 50));
+
+    pager.fetch(0, 50, Order.LATEST);
+    pager.fetch(50, 50, Order.LATEST);
+    pager.fetch(60, 50, Order.LATEST);
+
+    verify(history).page(Filter.NONE, Order.LATEST, first.getLast(), 0, 50);
+    // no anchor at 60, skip from the closest one
+    verify(history).page(Filter.NONE, Order.LATEST, first.getLast(), 10, 50);
+    assertThat(pager.anchors()).isEqualTo(3);
+  }
+
+  @Test
+  void anchors_are_forgotten_when_the_filter_or_the_order_change() {
+    when(history.page(any(), any(), any(), anyInt(), anyInt())).thenReturn(rows(0, 50));
+    pager.fetch(0, 50, Order.LATEST);
+
+    pager.setFilter(new Filter(1L, null, null, null, null, null));
+    assertThat(pager.anchors()).isZero();
+
+    pager.fetch(0, 50, Order.LATEST);
+    pager.fetch(50, 50, new Order(Sort.VALUE, false));
+    verify(history).page(pager.getFilter(), new Order(Sort.VALUE, false), null, 50, 50);
+  }
+
+  private static List<Row> rows(int from, int count) {
+    return IntStream.range(from, from + count)
+        .mapToObj(i -> new Row(i, 1L, Instant.EPOCH.plusSeconds(i), 100, 1, 1f, 1f))
+        .toList();
+  }
+}
@@ -0,0 +1,56 @@
+package com.nwidart.loganalyzer.ui;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.nwidart.loganalyzer.recent.LineFilter;
+import com.nwidart.loganalyzer.recent.RecentLine;
+import com.nwidart.loganalyzer.recent.RecentLines;
+import com.vaadin.flow.data.provider.Query;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RecentLinesDataProviderTest {
+
+  @Test
+  void updates_follow_appended_and_evicted_lines() {
+    var lines = new RecentLines(4);
+    var provider = new RecentLinesDataProvider(lines);
+    lines.append(1, "a", 0);
+    lines.append(2, "b", 0);
+
+    assertThat(provider.update()).isTrue();
+    assertThat(provider.update()).isFalse();
+    assertThat(texts(provider, 0, 10)).containsExactly("a", "b");
+
+    for (int i = 3; i <= 7; i++) {
+      lines.append(i, String.valueOf((char) ('a' + i - 1)), 0);
+    }
+    assertThat(provider.update()).isTrue();
+    assertThat(texts(provider, 0, 10)).containsExactly("d", "e", "f", "g");
+    assertThat(texts(provider, 1, 2)).containsExactly("e", "f");
+  }
+
+  @Test
+  void a_new_filter_lists_the_matching_lines_kept() {
+    var lines = new RecentLines(16);
+    var provider = new RecentLinesDataProvider(lines);
+    lines.append(1, "BagMgr one", 1);
+    lines.append(2, "other", 0);
+    lines.append(3, "BagMgr two", 1);
+
+    provider.setFilter(LineFilter.of(1, ""));
+    assertThat(texts(provider, 0, 10)).containsExactly("BagMgr one", "BagMgr two");
+
+    lines.append(4, "BagMgr three", 1);
+    lines.append(5, "still other", 0);
+    provider.update();
+    assertThat(provider.size(new Query<>())).isEqualTo(3);
+
+    provider.setFilter(LineFilter.of(0, "other"));
+    assertThat(texts(provider, 0, 10)).containsExactly("other", "still other");
+  }
+
+  private static List<String> texts(RecentLinesDataProvider provider, int offset, int limit) {
+    return provider.fetch(new Query<>(offset, limit, List.of(), null, null)).map(RecentLine::text).toList();
+  }
+}
@@ -0,0 +1,37 @@
+package com.nwidart.loganalyzer.ui;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.vaadin.flow.data.provider.Query;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class RingDataProviderTest {
+
+  @Test
+  void appending_past_capacity_evicts_the_oldest_items() {
+    var provider = new RingDataProvider<String>(3);
+    AtomicInteger refreshes = new AtomicInteger();
+    provider.addDataProviderListener(event -> refreshes.incrementAndGet());
+
+    provider.appendAll(List.of("a", "b"));
+    provider.appendAll(List.of("c", "d", "e"));
+    provider.appendAll(List.of());
+
+    assertThat(provider.size()).isEqualTo(3);
+    assertThat(provider.fetch(new Query<>()).toList()).containsExactly("c", "d", "e");
+    assertThat(refreshes.get()).isEqualTo(2);
+  }
+
+  @Test
+  void only_the_requested_rows_are_fetched() {
+    var provider = new RingDataProvider<Integer>(100);
+    provider.appendAll(IntStream.range(0, 150).boxed().toList());
+
+    assertThat(provider.size(new Query<>())).isEqualTo(100);
+    assertThat(provider.fetch(new Query<>(10, 3, List.of(), null, null)).toList()).containsExactly(60, 61, 62);
+    assertThat(provider.fetch(new Query<>(98, 10, List.of(), null, null)).toList()).containsExactly(148, 149);
+  }
+}